@@ -0,0 +1,98 @@
+/*
+ * Copyright 2025 OICR and UCSC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.dockstore.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Reads the descriptors that the benchmarks run over. The corpus is copied from the test resources into the benchmarks jar
+ * under /corpus, see the pom.
+ */
+public final class Corpus {
+
+    private static final String ROOT = "/corpus/";
+
+    private Corpus() {
+    }
+
+    /**
+     * Reads a file of the corpus.
+     * @param path path of the file, relative to the corpus
+     * @return the content of the file
+     * @throws IOException if the file does not exist or cannot be read
+     */
+    public static String readFile(String path) throws IOException {
+        try (InputStream inputStream = Corpus.class.getResourceAsStream(ROOT + path)) {
+            if (inputStream == null) {
+                throw new IOException("Corpus file " + path + " does not exist");
+            }
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Reads all the files in a directory of the corpus, including its subdirectories.
+     * @param directory path of the directory, relative to the corpus
+     * @return a map of absolute path, relative to the directory and starting with a slash, to content
+     * @throws IOException if the directory does not exist or cannot be read
+     */
+    public static Map<String, String> readDirectory(String directory) throws IOException {
+        URL url = Corpus.class.getResource(ROOT + directory);
+        if (url == null) {
+            throw new IOException("Corpus directory " + directory + " does not exist");
+        }
+        final URI uri;
+        try {
+            uri = url.toURI();
+        } catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
+        // the corpus is inside the jar when the benchmarks are run from it, and on disk when they are run from an IDE
+        if ("jar".equals(uri.getScheme())) {
+            try (FileSystem fileSystem = FileSystems.newFileSystem(uri, Map.of())) {
+                return readDirectory(fileSystem.getPath(ROOT + directory));
+            }
+        }
+        return readDirectory(Path.of(uri));
+    }
+
+    private static Map<String, String> readDirectory(Path directory) throws IOException {
+        final List<Path> files;
+        try (Stream<Path> paths = Files.walk(directory)) {
+            files = paths.filter(Files::isRegularFile).toList();
+        }
+        Map<String, String> pathToContent = new TreeMap<>();
+        for (Path file : files) {
+            pathToContent.put("/" + directory.relativize(file).toString().replace('\\', '/'), Files.readString(file));
+        }
+        return pathToContent;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2025 OICR and UCSC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.dockstore.benchmarks;
+
+import io.dockstore.common.DescriptorLanguage;
+import io.dockstore.common.DescriptorLanguage.FileType;
+import io.dockstore.webservice.core.SourceFile;
+import io.dockstore.webservice.languages.LanguageHandlerFactory;
+import io.dockstore.webservice.languages.LanguageHandlerInterface;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The workflows of the corpus, each a main descriptor and the files that it imports.
+ */
+public enum CorpusWorkflow {
+    /**
+     * A small CWL workflow with two tools that run in Docker.
+     */
+    CWL_WORKFLOW_DOCKER(DescriptorLanguage.CWL, "tools-cwl-workflow-experiments/cwl", "/workflow_docker.cwl"),
+    /**
+     * A large WDL workflow with dozens of imports and hundreds of calls.
+     */
+    WDL_GATK_SV_CLINICAL(DescriptorLanguage.WDL, "gatk-sv-clinical", "/GATKSVPipelineClinical.wdl"),
+    NEXTFLOW_RNASEQ(DescriptorLanguage.NEXTFLOW, "nfl-rnaseq", "/nextflow.config"),
+    NEXTFLOW_CHIPSEQ(DescriptorLanguage.NEXTFLOW, "nfl-chipseq", "/nextflow.config"),
+    JUPYTER_HELLO(DescriptorLanguage.JUPYTER, "notebooks/ipynb", "/hello.ipynb");
+
+    private final DescriptorLanguage language;
+    private final String directory;
+    private final String mainDescriptorPath;
+
+    CorpusWorkflow(DescriptorLanguage language, String directory, String mainDescriptorPath) {
+        this.language = language;
+        this.directory = directory;
+        this.mainDescriptorPath = mainDescriptorPath;
+    }
+
+    public DescriptorLanguage getLanguage() {
+        return language;
+    }
+
+    public String getMainDescriptorPath() {
+        return mainDescriptorPath;
+    }
+
+    public LanguageHandlerInterface createHandler() {
+        return LanguageHandlerFactory.getInterface(language);
+    }
+
+    /**
+     * Reads the descriptors of the workflow from the corpus.
+     * @return the descriptors
+     * @throws IOException if the descriptors cannot be read
+     */
+    public Descriptors read() throws IOException {
+        Map<String, String> pathToContent = Corpus.readDirectory(directory);
+        String mainDescriptor = pathToContent.get(mainDescriptorPath);
+        Set<SourceFile> secondarySourceFiles = new HashSet<>();
+        pathToContent.forEach((absolutePath, content) -> {
+            if (!absolutePath.equals(mainDescriptorPath)) {
+                secondarySourceFiles.add(createSourceFile(absolutePath, content));
+            }
+        });
+        return new Descriptors(mainDescriptor, secondarySourceFiles);
+    }
+
+    private SourceFile createSourceFile(String absolutePath, String content) {
+        SourceFile sourceFile = new SourceFile();
+        // like the imports found when a version is refreshed, the path is relative to the main descriptor
+        sourceFile.setPath(absolutePath.substring(1));
+        sourceFile.setAbsolutePath(absolutePath);
+        sourceFile.setContent(content);
+        // the primary descriptor of a Nextflow workflow is its config, and the scripts have their own type
+        sourceFile.setType(language == DescriptorLanguage.NEXTFLOW ? FileType.NEXTFLOW : language.getFileType());
+        return sourceFile;
+    }
+
+    /**
+     * The descriptors of a workflow.
+     * @param mainDescriptor content of the main descriptor
+     * @param secondarySourceFiles the other files of the workflow
+     */
+    public record Descriptors(String mainDescriptor, Set<SourceFile> secondarySourceFiles) {
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2025 OICR and UCSC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.dockstore.benchmarks;
+
+import io.dockstore.common.yaml.DockstoreYaml12;
+import io.dockstore.common.yaml.DockstoreYamlHelper;
+import io.dockstore.common.yaml.DockstoreYamlHelper.DockstoreYamlException;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures reading a .dockstore.yml, which is done for every push that GitHub delivers to the webservice.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = DockstoreYamlBenchmark.ITERATIONS)
+@Measurement(iterations = DockstoreYamlBenchmark.ITERATIONS)
+public class DockstoreYamlBenchmark {
+
+    static final int ITERATIONS = 5;
+
+    @Param({".dockstore.yml", "dockstore12.yml", "dockstoreGalaxy.yml"})
+    public String fileName;
+
+    private String content;
+
+    @Setup
+    public void setup() throws IOException {
+        content = Corpus.readFile("dockstore-yml/" + fileName);
+    }
+
+    @Benchmark
+    public DockstoreYaml12 readAsDockstoreYaml12() throws DockstoreYamlException {
+        return DockstoreYamlHelper.readAsDockstoreYaml12(content);
+    }
+}
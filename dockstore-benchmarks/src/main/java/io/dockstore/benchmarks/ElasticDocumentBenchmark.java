@@ -0,0 +1,102 @@
+/*
+ * Copyright 2025 OICR and UCSC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.dockstore.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.dockstore.benchmarks.CorpusWorkflow.Descriptors;
+import io.dockstore.common.SourceControl;
+import io.dockstore.webservice.core.BioWorkflow;
+import io.dockstore.webservice.core.SourceFile;
+import io.dockstore.webservice.core.WorkflowVersion;
+import io.dockstore.webservice.helpers.statelisteners.ElasticListener;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures building the Elasticsearch document of a published workflow, which is done whenever it is indexed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = ElasticDocumentBenchmark.ITERATIONS)
+@Measurement(iterations = ElasticDocumentBenchmark.ITERATIONS)
+public class ElasticDocumentBenchmark {
+
+    static final int ITERATIONS = 5;
+
+    @Param({"CWL_WORKFLOW_DOCKER", "WDL_GATK_SV_CLINICAL", "NEXTFLOW_RNASEQ"})
+    public CorpusWorkflow workflow;
+
+    @Param({"1", "25"})
+    public int versionCount;
+
+    private BioWorkflow entry;
+
+    @Setup
+    public void setup() throws IOException, IllegalAccessException {
+        Descriptors descriptors = workflow.read();
+        entry = new BioWorkflow();
+        entry.setDescriptorType(workflow.getLanguage());
+        entry.setSourceControl(SourceControl.GITHUB);
+        entry.setOrganization("dockstore-testing");
+        entry.setRepository(workflow.name());
+
+        // parse the descriptors once, and give every version the same metadata and files
+        WorkflowVersion parsedVersion = (WorkflowVersion) workflow.createHandler().parseWorkflowContent(workflow.getMainDescriptorPath(),
+            descriptors.mainDescriptor(), descriptors.secondarySourceFiles(), new WorkflowVersion());
+        SourceFile mainSourceFile = new SourceFile();
+        mainSourceFile.setPath(workflow.getMainDescriptorPath());
+        mainSourceFile.setAbsolutePath(workflow.getMainDescriptorPath());
+        mainSourceFile.setContent(descriptors.mainDescriptor());
+        mainSourceFile.setType(workflow.getLanguage().getFileType());
+        for (int i = 0; i < versionCount; i++) {
+            WorkflowVersion version = new WorkflowVersion();
+            version.setName("v" + i);
+            version.setReference("v" + i);
+            version.setDescriptionAndDescriptionSource(parsedVersion.getDescription(), parsedVersion.getDescriptionSource());
+            version.getVersionMetadata().setDescriptorTypeVersions(parsedVersion.getVersionMetadata().getDescriptorTypeVersions());
+            version.setAuthors(parsedVersion.getAuthors());
+            version.addSourceFile(SourceFile.copy(mainSourceFile));
+            for (SourceFile sourceFile : descriptors.secondarySourceFiles()) {
+                version.addSourceFile(SourceFile.copy(sourceFile));
+            }
+            // the ID is normally generated by Hibernate
+            FieldUtils.writeField(version, "id", (long) i, true);
+            entry.addWorkflowVersion(version);
+            entry.setActualDefaultVersion(version);
+        }
+    }
+
+    @Benchmark
+    public JsonNode dockstoreEntryToElasticSearchObject() throws IOException {
+        return ElasticListener.dockstoreEntryToElasticSearchObject(entry);
+    }
+}
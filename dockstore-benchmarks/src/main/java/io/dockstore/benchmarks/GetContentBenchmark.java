@@ -0,0 +1,90 @@
+/*
+ * Copyright 2025 OICR and UCSC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.dockstore.benchmarks;
+
+import io.dockstore.benchmarks.CorpusWorkflow.Descriptors;
+import io.dockstore.webservice.helpers.DAGHelper;
+import io.dockstore.webservice.jdbi.ToolDAO;
+import io.dockstore.webservice.languages.LanguageHandlerInterface;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures generating the DAG and the tool table of a version, which the UI requests when a version is viewed, and cleaning
+ * the DAG.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = GetContentBenchmark.ITERATIONS)
+@Measurement(iterations = GetContentBenchmark.ITERATIONS)
+public class GetContentBenchmark {
+
+    static final int ITERATIONS = 5;
+
+    // Jupyter notebooks have neither a DAG nor a tool table
+    @Param({"CWL_WORKFLOW_DOCKER", "WDL_GATK_SV_CLINICAL", "NEXTFLOW_RNASEQ", "NEXTFLOW_CHIPSEQ"})
+    public CorpusWorkflow workflow;
+
+    private LanguageHandlerInterface handler;
+    private Descriptors descriptors;
+    private ToolDAO toolDAO;
+    private String dag;
+
+    @Setup
+    public void setup() throws IOException {
+        handler = workflow.createHandler();
+        descriptors = workflow.read();
+        // tool tables link to the tools published on Dockstore, here there are none
+        toolDAO = Mockito.mock(ToolDAO.class);
+        dag = getContent(LanguageHandlerInterface.Type.DAG).orElseThrow();
+    }
+
+    @Benchmark
+    public Optional<String> dag() {
+        return getContent(LanguageHandlerInterface.Type.DAG);
+    }
+
+    @Benchmark
+    public Optional<String> toolTable() {
+        return getContent(LanguageHandlerInterface.Type.TOOLS);
+    }
+
+    @Benchmark
+    public String cleanDAG() {
+        return DAGHelper.cleanDAG(dag);
+    }
+
+    private Optional<String> getContent(LanguageHandlerInterface.Type type) {
+        return handler.getContent(workflow.getMainDescriptorPath(), descriptors.mainDescriptor(), descriptors.secondarySourceFiles(), type, toolDAO);
+    }
+}
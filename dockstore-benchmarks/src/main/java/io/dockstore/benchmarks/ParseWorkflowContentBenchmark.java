@@ -0,0 +1,70 @@
+/*
+ * Copyright 2025 OICR and UCSC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.dockstore.benchmarks;
+
+import io.dockstore.benchmarks.CorpusWorkflow.Descriptors;
+import io.dockstore.webservice.core.Version;
+import io.dockstore.webservice.core.WorkflowVersion;
+import io.dockstore.webservice.languages.LanguageHandlerInterface;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures extracting the metadata of a version from its descriptors, which is done for every version of a workflow when
+ * it is refreshed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = ParseWorkflowContentBenchmark.ITERATIONS)
+@Measurement(iterations = ParseWorkflowContentBenchmark.ITERATIONS)
+public class ParseWorkflowContentBenchmark {
+
+    static final int ITERATIONS = 5;
+
+    // every workflow of the corpus
+    @Param
+    public CorpusWorkflow workflow;
+
+    private LanguageHandlerInterface handler;
+    private Descriptors descriptors;
+
+    @Setup
+    public void setup() throws IOException {
+        handler = workflow.createHandler();
+        descriptors = workflow.read();
+    }
+
+    @Benchmark
+    public Version parseWorkflowContent() {
+        return handler.parseWorkflowContent(workflow.getMainDescriptorPath(), descriptors.mainDescriptor(), descriptors.secondarySourceFiles(),
+            new WorkflowVersion());
+    }
+}
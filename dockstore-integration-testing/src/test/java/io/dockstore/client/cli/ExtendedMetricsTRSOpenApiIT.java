@@ -321,6 +321,55 @@ final class ExtendedMetricsTRSOpenApiIT extends BaseIT {
         verifyMetricsDataList(workflowId, workflowVersionId, 1);
     }
 
+    @Test
+    void testSubmitMetricsDataBatch() {
+        // Admin user
+        final ApiClient webClient = getOpenAPIWebClient(USER_2_USERNAME, testingPostgres);
+        final WorkflowsApi workflowApi = new WorkflowsApi(webClient);
+        final UsersApi usersApi = new UsersApi(webClient);
+        final ExtendedGa4GhApi extendedGa4GhApi = new ExtendedGa4GhApi(webClient);
+        // Non-admin user
+        final ApiClient otherWebClient = getOpenAPIWebClient(OTHER_USERNAME, testingPostgres);
+        final ExtendedGa4GhApi otherExtendedGa4GhApi = new ExtendedGa4GhApi(otherWebClient);
+        final String platform = Partner.TERRA.name();
+        final String description = "A batch of executions";
+        final Long ownerUserId = usersApi.getUser().getId();
+
+        final String workflowId = "#workflow/github.com/DockstoreTestUser2/dockstore_workflow_cnv/my-workflow";
+        final String workflowVersionId = "master";
+        Workflow workflow = workflowApi.manualRegister(SourceControl.GITHUB.name(), "DockstoreTestUser2/dockstore_workflow_cnv", "/workflow/cnv.cwl", "my-workflow", "cwl",
+                "/test.json");
+        workflow = workflowApi.refresh1(workflow.getId(), false);
+        workflowApi.publish1(workflow.getId(), CommonTestUtilities.createOpenAPIPublishRequest(true));
+
+        // Each item of the batch is stored in its own file, even if the batches are submitted in the same millisecond
+        List<ExecutionsRequestBody> batch = List.of(new ExecutionsRequestBody().runExecutions(createRunExecutions(2)), new ExecutionsRequestBody().runExecutions(createRunExecutions(1)));
+        ExecutionsResponseBody responseBody = extendedGa4GhApi.executionMetricsBatchPost(batch, platform, workflowId, workflowVersionId, description);
+        assertEquals(3, responseBody.getExecutionResponses().size());
+        assertTrue(responseBody.getExecutionResponses().stream().allMatch(executionResponse -> executionResponse.getStatus() == HttpStatus.SC_OK));
+        extendedGa4GhApi.executionMetricsBatchPost(List.of(new ExecutionsRequestBody().runExecutions(createRunExecutions(1))), platform, workflowId, workflowVersionId, description);
+        verifyMetricsDataList(workflowId, workflowVersionId, platform, ownerUserId, description, 3);
+
+        // The executions are indexed, so that they can be retrieved individually
+        final String executionId = batch.get(1).getRunExecutions().get(0).getExecutionId();
+        ExecutionsRequestBody execution = extendedGa4GhApi.executionGet(workflowId, workflowVersionId, platform, executionId);
+        assertEquals(executionId, execution.getRunExecutions().get(0).getExecutionId());
+
+        // Test that a non-admin/non-curator user can't submit a batch
+        ApiException exception = assertThrows(ApiException.class, () -> otherExtendedGa4GhApi.executionMetricsBatchPost(batch, platform, workflowId, workflowVersionId, description));
+        assertEquals(HttpStatus.SC_FORBIDDEN, exception.getCode(), "Non-admin and non-curator user should not be able to submit metrics");
+
+        // Test that the platform must be an actual platform and not ALL
+        exception = assertThrows(ApiException.class, () -> extendedGa4GhApi.executionMetricsBatchPost(batch, Partner.ALL.name(), workflowId, workflowVersionId, description));
+        assertEquals(HttpStatus.SC_BAD_REQUEST, exception.getCode(), "Should not be able to specify ALL as a platform");
+        assertTrue(exception.getMessage().contains(INVALID_PLATFORM));
+
+        // Test version ID that doesn't exist
+        exception = assertThrows(ApiException.class, () -> extendedGa4GhApi.executionMetricsBatchPost(batch, platform, workflowId, "nonexistentVersionId", description));
+        assertEquals(HttpStatus.SC_NOT_FOUND, exception.getCode(), "Should not be able to submit metrics for non-existent version");
+        verifyMetricsDataList(workflowId, workflowVersionId, platform, ownerUserId, description, 3);
+    }
+
     @Test
     void testSubmitMetricsDataErrors() {
         // Admin user
@@ -19,6 +19,7 @@ import static io.dockstore.common.FixtureUtility.fixture;
 import static io.openapi.api.impl.ServiceInfoApiServiceImpl.getService;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.fasterxml.jackson.core.type.TypeReference;
@@ -30,12 +31,17 @@ import io.dockstore.openapi.client.model.Tool;
 import io.dockstore.openapi.client.model.ToolClass;
 import io.dockstore.openapi.client.model.ToolFile;
 import io.dockstore.openapi.client.model.ToolVersion;
+import io.openapi.api.impl.ToolsApiServiceImpl;
 import io.openapi.model.Service;
 import jakarta.ws.rs.core.GenericType;
 import jakarta.ws.rs.core.MultivaluedHashMap;
 import jakarta.ws.rs.core.MultivaluedMap;
 import jakarta.ws.rs.core.Response;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.stream.Collectors;
 import org.apache.http.HttpStatus;
 import org.junit.jupiter.api.Test;
 
@@ -436,6 +442,32 @@ class GA4GHV2FinalIT extends GA4GHIT {
         CommonTestUtilities.dropAndCreateWithTestData(SUPPORT, false);
     }
 
+    @Test
+    void testCursorPagesNeitherOverlapNorSkip() {
+        final int pageSize = 2;
+        List<Tool> allTools = checkedResponse(baseURL + "tools").readEntity(new GenericType<>() {
+        });
+        assertTrue(allTools.size() > pageSize, "the tools should span several pages");
+
+        List<String> pagedIds = new ArrayList<>();
+        String page = baseURL + "tools?limit=" + pageSize + "&offset=" + ToolsApiServiceImpl.CURSOR_OFFSET;
+        while (page != null) {
+            Response response = checkedResponse(page);
+            assertNull(response.getHeaderString("last_page"), "a cursor-based page should not link to a numeric last page");
+            List<Tool> tools = response.readEntity(new GenericType<>() {
+            });
+            assertTrue(tools.size() <= pageSize);
+            tools.forEach(tool -> pagedIds.add(tool.getId()));
+            // the links use the external hostname and port of the webservice, follow their queries on the test webservice
+            String nextPage = response.getHeaderString("next_page");
+            page = nextPage != null ? baseURL + "tools?" + URI.create(nextPage).getRawQuery() : null;
+            assertTrue(pagedIds.size() <= allTools.size() + pageSize, "the pages should end");
+        }
+
+        assertEquals(new HashSet<>(pagedIds).size(), pagedIds.size(), "pages should not overlap");
+        assertEquals(allTools.stream().map(Tool::getId).collect(Collectors.toSet()), new HashSet<>(pagedIds), "pages should not skip tools");
+    }
+
     private <T> String toJson(T value) throws Exception {
         return SUPPORT.getObjectMapper().writeValueAsString(value);
     }
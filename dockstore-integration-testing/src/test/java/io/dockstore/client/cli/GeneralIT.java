@@ -1266,9 +1266,9 @@ class GeneralIT extends GeneralWorkflowBaseIT {
         assertFalse(sourceFiles.isEmpty());
         sourceFiles.forEach(s -> {
             assertTrue(s.isFrozen());
-            testingPostgres.runUpdateStatement("update sourcefile set content = 'foo' where id = " + s.getId());
+            testingPostgres.runUpdateStatement("update sourcefile set contentsha256 = store_sourcefile_content('foo') where id = " + s.getId());
             final String content = testingPostgres
-                .runSelectStatement("select content from sourcefile where id = " + s.getId(), String.class);
+                .runSelectStatement("select get_sourcefile_content(contentsha256) from sourcefile where id = " + s.getId(), String.class);
             assertNotEquals("foo", content);
         });
 
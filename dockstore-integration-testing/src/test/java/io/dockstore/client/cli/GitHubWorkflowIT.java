@@ -386,10 +386,10 @@ class GitHubWorkflowIT extends BaseIT {
             DescriptorLanguage.CWL.toString(), "1.0.1");
         verifyTRSSourcefileConversion(fileWrapper);
 
-        testingPostgres.runUpdateStatement("update sourcefile set content = null");
+        testingPostgres.runUpdateStatement("update sourcefile set contentsha256 = null");
         // Make sure the above worked
         final Long nullContentCount = testingPostgres.runSelectStatement(
-            "select count(*) from sourcefile where content is null", Long.class);
+            "select count(*) from sourcefile where contentsha256 is null", Long.class);
         assertNotEquals(0, nullContentCount.longValue());
 
         // Test that null content has a checksum
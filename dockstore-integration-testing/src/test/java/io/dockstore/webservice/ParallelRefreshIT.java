@@ -0,0 +1,97 @@
+/*
+ * Copyright 2025 OICR and UCSC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dockstore.webservice;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.dockstore.client.cli.BaseIT;
+import io.dockstore.client.cli.BaseIT.TestStatus;
+import io.dockstore.common.CommonTestUtilities;
+import io.dockstore.common.ConfidentialTest;
+import io.dockstore.common.DescriptorLanguage;
+import io.dockstore.common.MuteForSuccessfulTests;
+import io.dockstore.common.SourceControl;
+import io.dockstore.openapi.client.ApiClient;
+import io.dockstore.openapi.client.api.WorkflowsApi;
+import io.dockstore.openapi.client.model.Workflow;
+import io.dockstore.openapi.client.model.WorkflowVersion;
+import io.dockstore.webservice.helpers.GitHubSourceCodeRepo;
+import java.util.Comparator;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import uk.org.webcompere.systemstubs.jupiter.SystemStubsExtension;
+
+/**
+ * Tests that refreshing the branches and tags of a GitHub workflow concurrently reads the same files, and creates the same versions,
+ * as refreshing them one at a time.
+ */
+@ExtendWith(SystemStubsExtension.class)
+@ExtendWith(MuteForSuccessfulTests.class)
+@ExtendWith(TestStatus.class)
+@Tag(ConfidentialTest.NAME)
+class ParallelRefreshIT extends BaseIT {
+
+    private static final int PARALLELISM = 4;
+
+    @BeforeEach
+    @Override
+    public void resetDBBetweenTests() {
+        CommonTestUtilities.cleanStatePrivate2(SUPPORT, false, testingPostgres);
+    }
+
+    @AfterEach
+    public void resetParallelism() {
+        GitHubSourceCodeRepo.setVersionRefreshParallelism(1);
+    }
+
+    @Test
+    void testParallelRefreshMatchesSequentialRefresh() {
+        final ApiClient webClient = getOpenAPIWebClient(USER_2_USERNAME, testingPostgres);
+        final WorkflowsApi workflowsApi = new WorkflowsApi(webClient);
+        Workflow workflow = workflowsApi.manualRegister(SourceControl.GITHUB.name(), "DockstoreTestUser2/dockstore_workflow_cnv", "/workflow/cnv.cwl", "",
+            DescriptorLanguage.CWL.toString(), "/test.json");
+
+        GitHubSourceCodeRepo.setVersionRefreshParallelism(1);
+        workflow = workflowsApi.refresh1(workflow.getId(), true);
+        final List<String> sequentialVersions = describeVersions(workflow);
+        final long sequentialSourceFiles = sourceFileCount();
+        assertTrue(sequentialVersions.size() > PARALLELISM, "the workflow should have more references than workers");
+        assertTrue(sequentialSourceFiles > 0);
+
+        // a hard refresh reads every reference again, this time on the workers
+        GitHubSourceCodeRepo.setVersionRefreshParallelism(PARALLELISM);
+        workflow = workflowsApi.refresh1(workflow.getId(), true);
+        assertEquals(sequentialVersions, describeVersions(workflow));
+        assertEquals(sequentialSourceFiles, sourceFileCount());
+    }
+
+    private static List<String> describeVersions(Workflow workflow) {
+        return workflow.getWorkflowVersions().stream()
+            .sorted(Comparator.comparing(WorkflowVersion::getName))
+            .map(version -> String.join(",", version.getName(), version.getCommitID(), String.valueOf(version.isValid())))
+            .toList();
+    }
+
+    private long sourceFileCount() {
+        return testingPostgres.runSelectStatement("select count(*) from version_sourcefile", long.class);
+    }
+}
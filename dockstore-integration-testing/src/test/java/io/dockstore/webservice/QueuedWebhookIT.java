@@ -0,0 +1,178 @@
+/*
+ * Copyright 2025 OICR and UCSC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dockstore.webservice;
+
+import static io.dockstore.webservice.helpers.GitHubAppHelper.INSTALLATION_ID;
+import static io.dockstore.webservice.helpers.GitHubAppHelper.handleGitHubBranchDeletion;
+import static io.dockstore.webservice.helpers.GitHubAppHelper.handleGitHubRelease;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import io.dockstore.client.cli.BaseIT;
+import io.dockstore.client.cli.BaseIT.TestStatus;
+import io.dockstore.common.CommonTestUtilities;
+import io.dockstore.common.ConfidentialTest;
+import io.dockstore.common.MuteForSuccessfulTests;
+import io.dockstore.common.RepositoryConstants.DockstoreTesting;
+import io.dockstore.common.TestingPostgres;
+import io.dockstore.openapi.client.ApiClient;
+import io.dockstore.openapi.client.api.LambdaEventsApi;
+import io.dockstore.openapi.client.api.WorkflowsApi;
+import io.dockstore.openapi.client.model.LambdaEvent;
+import io.dockstore.openapi.client.model.LambdaEvent.TypeEnum;
+import io.dockstore.openapi.client.model.Workflow;
+import io.dockstore.openapi.client.model.WorkflowSubClass;
+import io.dockstore.openapi.client.model.WorkflowVersion;
+import io.dropwizard.testing.ConfigOverride;
+import io.dropwizard.testing.DropwizardTestSupport;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import uk.org.webcompere.systemstubs.jupiter.SystemStub;
+import uk.org.webcompere.systemstubs.jupiter.SystemStubsExtension;
+import uk.org.webcompere.systemstubs.stream.SystemErr;
+import uk.org.webcompere.systemstubs.stream.SystemOut;
+
+/**
+ * Boots the webservice with the GitHub webhook queue enabled, and tests that pushes and deletes are processed in the background by
+ * the queue's handler, each in a session and transaction of its own.
+ */
+@ExtendWith(SystemStubsExtension.class)
+@ExtendWith(MuteForSuccessfulTests.class)
+@ExtendWith(TestStatus.class)
+@Tag(ConfidentialTest.NAME)
+class QueuedWebhookIT {
+
+    private static final String DOCKSTORE_TESTING = "dockstore-testing";
+    private static final String FOOBAR_PATH = "github.com/" + DockstoreTesting.WORKFLOW_DOCKSTORE_YML + "/foobar";
+    private static final long LEASE_SECONDS = 3;
+    private static final long DRAIN_TIMEOUT_SECONDS = 60;
+
+    private static final DropwizardTestSupport<DockstoreWebserviceConfiguration> SUPPORT = new DropwizardTestSupport<>(DockstoreWebserviceApplication.class,
+        CommonTestUtilities.CONFIDENTIAL_CONFIG_PATH,
+        ConfigOverride.config("refreshConfig.webhookQueueEnabled", "true"),
+        ConfigOverride.config("refreshConfig.webhookQueueLeaseSeconds", String.valueOf(LEASE_SECONDS)));
+    private static TestingPostgres testingPostgres;
+
+    @SystemStub
+    public final SystemOut systemOut = new SystemOut();
+    @SystemStub
+    public final SystemErr systemErr = new SystemErr();
+
+    private WorkflowsApi workflowsApi;
+    private LambdaEventsApi lambdaEventsApi;
+
+    @BeforeAll
+    public static void before() throws Exception {
+        CommonTestUtilities.cleanStatePrivate2(SUPPORT, true, testingPostgres);
+        SUPPORT.before();
+        testingPostgres = new TestingPostgres(SUPPORT);
+    }
+
+    @AfterAll
+    public static void after() throws Exception {
+        SUPPORT.getEnvironment().healthChecks().shutdown();
+        SUPPORT.after();
+        BaseIT.assertNoMetricsLeaks(SUPPORT);
+    }
+
+    @BeforeEach
+    public void setup() {
+        CommonTestUtilities.cleanStatePrivate2(SUPPORT, false, testingPostgres);
+        final ApiClient webClient = BaseIT.getOpenAPIWebClient(BaseIT.USER_2_USERNAME, testingPostgres);
+        workflowsApi = new WorkflowsApi(webClient);
+        lambdaEventsApi = new LambdaEventsApi(webClient);
+    }
+
+    @Test
+    void testPushAndDeleteAreProcessedInTheBackground() {
+        final String tag = "refs/tags/0.1";
+        handleGitHubRelease(workflowsApi, DockstoreTesting.WORKFLOW_DOCKSTORE_YML, tag, BaseIT.USER_2_USERNAME);
+        awaitQueueDrained();
+        assertEquals(List.of("0.1"), versionNames());
+        assertSuccessfulEvent(TypeEnum.PUSH, tag);
+
+        handleGitHubBranchDeletion(workflowsApi, DockstoreTesting.WORKFLOW_DOCKSTORE_YML, BaseIT.USER_2_USERNAME, tag);
+        awaitQueueDrained();
+        assertEquals(List.of(), versionNames());
+        assertSuccessfulEvent(TypeEnum.DELETE, tag);
+    }
+
+    @Test
+    void testWebhooksLeftByAStoppedWebserviceAreClaimed() {
+        final String tag = "refs/tags/0.2";
+        // a push that was leased to a webservice that stopped without processing or releasing it
+        testingPostgres.runUpdateStatement(String.format("insert into queued_webhook (type, repository, gitreference, installationid, deliveryid, sender, "
+                + "leaseowner, leaseexpiry, dbcreatedate) values ('PUSH', '%s', '%s', %d, 'stopped-delivery', '%s', 'stopped-webservice', "
+                + "now() - interval '1 minute', now())", DockstoreTesting.WORKFLOW_DOCKSTORE_YML, tag, INSTALLATION_ID, BaseIT.USER_2_USERNAME));
+        awaitQueueDrained();
+        assertEquals(List.of("0.2"), versionNames());
+        assertSuccessfulEvent(TypeEnum.PUSH, tag);
+    }
+
+    @Test
+    void testLiveLeasesAreNotClaimed() throws InterruptedException {
+        // a push that is leased to another webservice that is still running
+        testingPostgres.runUpdateStatement(String.format("insert into queued_webhook (type, repository, gitreference, installationid, deliveryid, sender, "
+                + "leaseowner, leaseexpiry, dbcreatedate) values ('PUSH', '%s', 'refs/tags/0.1', %d, 'live-delivery', '%s', 'live-webservice', "
+                + "now() + interval '1 hour', now())", DockstoreTesting.WORKFLOW_DOCKSTORE_YML, INSTALLATION_ID, BaseIT.USER_2_USERNAME));
+        // wait for a few claims
+        TimeUnit.SECONDS.sleep(2 * LEASE_SECONDS);
+        assertEquals(1, queuedWebhookCount());
+        assertEquals("live-webservice", testingPostgres.runSelectStatement("select leaseowner from queued_webhook", String.class));
+        testingPostgres.runUpdateStatement("delete from queued_webhook");
+    }
+
+    private List<String> versionNames() {
+        final Workflow foobar = workflowsApi.getWorkflowByPath(FOOBAR_PATH, WorkflowSubClass.BIOWORKFLOW, "versions");
+        return foobar.getWorkflowVersions().stream().map(WorkflowVersion::getName).toList();
+    }
+
+    private void assertSuccessfulEvent(TypeEnum type, String gitReference) {
+        final List<LambdaEvent> events = lambdaEventsApi.getLambdaEventsByOrganization(DOCKSTORE_TESTING, 0, 10, null, null, null);
+        assertTrue(events.stream().anyMatch(event -> event.getType() == type && gitReference.equals(event.getReference()) && event.isSuccess()),
+            "there should be a successful " + type + " event for " + gitReference);
+    }
+
+    private long queuedWebhookCount() {
+        return testingPostgres.runSelectStatement("select count(*) from queued_webhook", long.class);
+    }
+
+    /**
+     * Wait for the queue to process and delete every persisted webhook.
+     */
+    private void awaitQueueDrained() {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(DRAIN_TIMEOUT_SECONDS);
+        while (queuedWebhookCount() > 0) {
+            if (System.nanoTime() > deadline) {
+                fail("the queued webhooks were not processed in time");
+            }
+            try {
+                TimeUnit.MILLISECONDS.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("interrupted while waiting for the queued webhooks");
+            }
+        }
+    }
+}
@@ -526,7 +526,7 @@ class WebhookIT extends BaseIT {
         // Unset topicAutomatic to simulate a topicAutomatic change
         testingPostgres.runUpdateStatement("update workflow set topicAutomatic=null");
         // Unset file contents to simulate changed file descriptors
-        testingPostgres.runUpdateStatement("update sourcefile set content=''");
+        testingPostgres.runUpdateStatement("update sourcefile set contentsha256=store_sourcefile_content('')");
 
         // Branch master on GitHub - updates two existing workflows
         handleGitHubRelease(client, DockstoreTestUser2.WORKFLOW_DOCKSTORE_YML, "refs/heads/master", USER_2_USERNAME);
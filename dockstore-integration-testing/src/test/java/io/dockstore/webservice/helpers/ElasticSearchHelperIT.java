@@ -14,6 +14,7 @@ import java.io.IOException;
 import org.elasticsearch.action.admin.indices.delete.DeleteIndexRequest;
 import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.client.indices.GetIndexRequest;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -60,7 +61,9 @@ class ElasticSearchHelperIT extends BaseIT {
     }
 
     private void deleteIndex(String index, RestHighLevelClient esClient) throws IOException {
-        DeleteIndexRequest deleteIndexRequest = new DeleteIndexRequest(index);
+        // the index is an alias, which cannot be deleted directly
+        String[] concreteIndices = esClient.indices().get(new GetIndexRequest(index), RequestOptions.DEFAULT).getIndices();
+        DeleteIndexRequest deleteIndexRequest = new DeleteIndexRequest(concreteIndices);
         esClient.indices().delete(deleteIndexRequest, RequestOptions.DEFAULT);
     }
 }
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2025 OICR and UCSC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dockstore.webservice.helpers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.dockstore.client.cli.BaseIT;
+import io.dockstore.client.cli.BaseIT.TestStatus;
+import io.dockstore.common.CommonTestUtilities;
+import io.dockstore.common.ConfidentialTest;
+import io.dockstore.common.MuteForSuccessfulTests;
+import io.dockstore.common.Partner;
+import io.dockstore.common.TestingPostgres;
+import io.dockstore.webservice.DockstoreWebserviceApplication;
+import io.dockstore.webservice.DockstoreWebserviceConfiguration;
+import io.dockstore.webservice.core.CloudInstance;
+import io.dockstore.webservice.core.Collection;
+import io.dockstore.webservice.core.FileFormat;
+import io.dockstore.webservice.core.Label;
+import io.dockstore.webservice.core.Organization;
+import io.dockstore.webservice.jdbi.LabelDAO;
+import io.dropwizard.testing.ConfigOverride;
+import io.dropwizard.testing.DropwizardTestSupport;
+import java.util.Map;
+import java.util.function.Function;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.context.internal.ManagedSessionContext;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import uk.org.webcompere.systemstubs.jupiter.SystemStub;
+import uk.org.webcompere.systemstubs.jupiter.SystemStubsExtension;
+import uk.org.webcompere.systemstubs.stream.SystemErr;
+import uk.org.webcompere.systemstubs.stream.SystemOut;
+
+/**
+ * Boots the webservice with the second-level cache enabled as documented on SecondLevelCacheHelper, which fails if a region is
+ * not configured in hibernate-jcache.conf, and tests that the reference entities and their queries are read from the cache.
+ */
+@ExtendWith(SystemStubsExtension.class)
+@ExtendWith(MuteForSuccessfulTests.class)
+@ExtendWith(TestStatus.class)
+@Tag(ConfidentialTest.NAME)
+class SecondLevelCacheIT {
+
+    private static final DropwizardTestSupport<DockstoreWebserviceConfiguration> SUPPORT = new DropwizardTestSupport<>(DockstoreWebserviceApplication.class,
+        CommonTestUtilities.CONFIDENTIAL_CONFIG_PATH,
+        hibernateProperty("hibernate.cache.use_second_level_cache", "true"),
+        hibernateProperty("hibernate.cache.use_query_cache", "true"),
+        hibernateProperty("hibernate.cache.region.factory_class", "jcache"),
+        hibernateProperty("hibernate.javax.cache.provider", "com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider"),
+        hibernateProperty("hibernate.javax.cache.uri", "classpath:hibernate-jcache.conf"),
+        hibernateProperty("hibernate.javax.cache.missing_cache_strategy", "fail"),
+        hibernateProperty("hibernate.generate_statistics", "true"));
+    private static TestingPostgres testingPostgres;
+
+    @SystemStub
+    public final SystemOut systemOut = new SystemOut();
+    @SystemStub
+    public final SystemErr systemErr = new SystemErr();
+
+    private SessionFactory sessionFactory;
+    private Statistics statistics;
+
+    @BeforeAll
+    public static void before() throws Exception {
+        CommonTestUtilities.cleanStatePrivate2(SUPPORT, true, testingPostgres);
+        SUPPORT.before();
+        testingPostgres = new TestingPostgres(SUPPORT);
+    }
+
+    @AfterAll
+    public static void after() throws Exception {
+        SUPPORT.getEnvironment().healthChecks().shutdown();
+        SUPPORT.after();
+        BaseIT.assertNoMetricsLeaks(SUPPORT);
+    }
+
+    @BeforeEach
+    public void setup() {
+        sessionFactory = SUPPORT.<DockstoreWebserviceApplication>getApplication().getHibernate().getSessionFactory();
+        statistics = sessionFactory.getStatistics();
+    }
+
+    /**
+     * The keys of the Hibernate properties contain dots, which are escaped so that they are not read as nested configuration.
+     */
+    private static ConfigOverride hibernateProperty(String key, String value) {
+        return ConfigOverride.config("database.properties." + key.replace(".", "\\."), value);
+    }
+
+    @Test
+    void testRegions() {
+        assertTrue(SecondLevelCacheHelper.isEnabled(sessionFactory));
+        assertTrue(statistics.isStatisticsEnabled());
+        for (String region : SecondLevelCacheHelper.REGIONS) {
+            assertNotNull(statistics.getCacheRegionStatistics(region), "region " + region + " should exist");
+        }
+        final Map<String, String> performance = SecondLevelCacheHelper.getStatistics(sessionFactory);
+        assertEquals("true", performance.get("enabled"));
+        assertEquals("true", performance.get("statisticsEnabled"));
+        SecondLevelCacheHelper.REGIONS.forEach(region -> assertTrue(performance.containsKey(region + ".hitCount")));
+    }
+
+    @Test
+    void testEntitiesAreReadFromTheCache() {
+        final Organization organization = new Organization();
+        organization.setName("cachedorganization");
+        organization.setDisplayName("Cached Organization");
+        organization.setStatus(Organization.ApplicationState.APPROVED);
+        final Collection collection = new Collection();
+        collection.setName("cachedcollection");
+        collection.setDisplayName("Cached Collection");
+        collection.setOrganization(organization);
+        final Label label = new Label();
+        label.setValue("cachedlabel");
+        final FileFormat fileFormat = new FileFormat();
+        fileFormat.setValue("http://edamontology.org/format_cached");
+        final CloudInstance cloudInstance = new CloudInstance();
+        cloudInstance.setPartner(Partner.TERRA);
+        cloudInstance.setUrl("https://cached.example.com");
+        cloudInstance.setDisplayName("Cached Instance");
+        // FileFormat does not expose its ID
+        final Object fileFormatId = inSession(session -> {
+            session.beginTransaction();
+            session.persist(organization);
+            session.persist(collection);
+            session.persist(label);
+            session.persist(fileFormat);
+            session.persist(cloudInstance);
+            session.getTransaction().commit();
+            return session.getIdentifier(fileFormat);
+        });
+
+        assertReadFromCache(SecondLevelCacheHelper.ORGANIZATION_REGION, session -> session.get(Organization.class, organization.getId()).getName());
+        assertReadFromCache(SecondLevelCacheHelper.COLLECTION_REGION, session -> session.get(Collection.class, collection.getId()).getName());
+        assertReadFromCache(SecondLevelCacheHelper.LABEL_REGION, session -> session.get(Label.class, label.getId()).getValue());
+        assertReadFromCache(SecondLevelCacheHelper.FILE_FORMAT_REGION, session -> session.get(FileFormat.class, fileFormatId).getValue());
+        assertReadFromCache(SecondLevelCacheHelper.CLOUD_INSTANCE_REGION, session -> session.get(CloudInstance.class, cloudInstance.getId()).getUrl());
+    }
+
+    @Test
+    void testQueryResultsAreCachedUntilATableIsWritten() {
+        final LabelDAO labelDAO = new LabelDAO(sessionFactory);
+        inSession(session -> {
+            session.beginTransaction();
+            final Label label = new Label();
+            label.setValue("cachedquery");
+            labelDAO.create(label);
+            session.getTransaction().commit();
+            return null;
+        });
+
+        final long queryCacheHits = statistics.getQueryCacheHitCount();
+        assertNotNull(inSession(session -> labelDAO.findByLabelValue("cachedquery")));
+        assertNotNull(inSession(session -> labelDAO.findByLabelValue("cachedquery")));
+        assertTrue(statistics.getQueryCacheHitCount() > queryCacheHits, "the second query should be answered from the cache");
+
+        // a write through a session invalidates the cached results of the queries that read the table
+        inSession(session -> {
+            session.beginTransaction();
+            final Label label = new Label();
+            label.setValue("newlabel");
+            labelDAO.create(label);
+            session.getTransaction().commit();
+            return null;
+        });
+        assertNotNull(inSession(session -> labelDAO.findByLabelValue("newlabel")));
+    }
+
+    /**
+     * Reads an entity in one session and then in another, and checks that the second read hits the cache.
+     */
+    private void assertReadFromCache(String region, Function<Session, String> read) {
+        final CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+        final String first = inSession(read);
+        final long hits = regionStatistics.getHitCount();
+        final String second = inSession(read);
+        assertEquals(first, second);
+        assertTrue(regionStatistics.getHitCount() > hits, "the " + region + " region should have been hit");
+    }
+
+    /**
+     * Runs the work in a new session that is bound to the current thread, so that DAOs can be used outside the webservice.
+     */
+    private <T> T inSession(Function<Session, T> work) {
+        final Session session = sessionFactory.openSession();
+        ManagedSessionContext.bind(session);
+        try {
+            return work.apply(session);
+        } finally {
+            ManagedSessionContext.unbind(sessionFactory);
+            session.close();
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2025 OICR and UCSC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dockstore.webservice.jdbi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import io.dockstore.client.cli.BaseIT;
+import io.dockstore.client.cli.BaseIT.TestStatus;
+import io.dockstore.common.ConfidentialTest;
+import io.dockstore.common.DescriptorLanguage;
+import io.dockstore.common.MuteForSuccessfulTests;
+import io.dockstore.webservice.DockstoreWebserviceApplication;
+import io.dockstore.webservice.core.SourceFile;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.context.internal.ManagedSessionContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import uk.org.webcompere.systemstubs.jupiter.SystemStub;
+import uk.org.webcompere.systemstubs.jupiter.SystemStubsExtension;
+import uk.org.webcompere.systemstubs.stream.SystemErr;
+import uk.org.webcompere.systemstubs.stream.SystemOut;
+
+/**
+ * Tests that the bodies of SourceFiles are stored once per distinct content, through the store_sourcefile_content and
+ * get_sourcefile_content database functions, and are deleted when they are no longer referenced.
+ */
+@ExtendWith(SystemStubsExtension.class)
+@ExtendWith(MuteForSuccessfulTests.class)
+@ExtendWith(TestStatus.class)
+@Tag(ConfidentialTest.NAME)
+class FileDAOIT extends BaseIT {
+
+    @SystemStub
+    public final SystemOut systemOut = new SystemOut();
+    @SystemStub
+    public final SystemErr systemErr = new SystemErr();
+
+    private Session session;
+    private FileDAO fileDAO;
+
+    @BeforeEach
+    public void setup() {
+        DockstoreWebserviceApplication application = SUPPORT.getApplication();
+        SessionFactory sessionFactory = application.getHibernate().getSessionFactory();
+        fileDAO = new FileDAO(sessionFactory);
+        // used to allow us to use DAOs outside the web service
+        session = sessionFactory.openSession();
+        ManagedSessionContext.bind(session);
+    }
+
+    @AfterEach
+    public void close() {
+        ManagedSessionContext.unbind(session.getSessionFactory());
+        session.close();
+    }
+
+    @Test
+    void testIdenticalContentIsStoredOnce() {
+        final String content = "cwlVersion: v1.0 # " + UUID.randomUUID();
+        final String sha256 = sha256Hex(content);
+        session.beginTransaction();
+        final long firstId = fileDAO.create(createSourceFile("/Dockstore.cwl", content));
+        final long secondId = fileDAO.create(createSourceFile("/copy/Dockstore.cwl", content));
+        session.getTransaction().commit();
+
+        assertEquals(1, countStoredBodies(sha256));
+        assertEquals(sha256, contentSha256(firstId));
+        assertEquals(sha256, contentSha256(secondId));
+        assertEquals(content, read(firstId).getContent());
+        assertEquals(content, read(secondId).getContent());
+
+        // the body is deleted along with the last sourcefile that refers to it
+        session.beginTransaction();
+        session.remove(read(firstId));
+        session.getTransaction().commit();
+        assertEquals(1, countStoredBodies(sha256));
+        assertEquals(content, read(secondId).getContent());
+
+        session.beginTransaction();
+        session.remove(read(secondId));
+        session.getTransaction().commit();
+        assertEquals(0, countStoredBodies(sha256));
+    }
+
+    @Test
+    void testReadUpdateAndDelete() {
+        final String original = "version 1.0 # " + UUID.randomUUID();
+        final String updated = "version 1.1 # " + UUID.randomUUID();
+        session.beginTransaction();
+        final long id = fileDAO.create(createSourceFile("/Dockstore.wdl", original));
+        session.getTransaction().commit();
+        assertEquals(original, read(id).getContent());
+
+        session.beginTransaction();
+        read(id).setContent(updated);
+        session.getTransaction().commit();
+        assertEquals(updated, read(id).getContent());
+        assertEquals(sha256Hex(updated), sha256(id));
+        // the previous body is deleted along with its last reference
+        assertEquals(0, countStoredBodies(sha256Hex(original)));
+
+        // null content is not stored, and keeps the checksum of empty content
+        session.beginTransaction();
+        read(id).setContent(null);
+        session.getTransaction().commit();
+        assertNull(read(id).getContent());
+        assertNull(contentSha256(id));
+        assertEquals(sha256Hex(""), sha256(id));
+
+        session.beginTransaction();
+        read(id).setContent(original);
+        session.getTransaction().commit();
+        assertEquals(original, read(id).getContent());
+        assertEquals(1, countStoredBodies(sha256Hex(original)));
+
+        session.beginTransaction();
+        session.remove(read(id));
+        session.getTransaction().commit();
+        assertNull(read(id));
+        assertEquals(0, countStoredBodies(sha256Hex(original)));
+    }
+
+    private SourceFile read(long id) {
+        // clear the session so that the content is read through get_sourcefile_content rather than from the loaded entity
+        session.clear();
+        return fileDAO.findById(id);
+    }
+
+    private long countStoredBodies(String sha256) {
+        return testingPostgres.runSelectStatement(String.format("select count(*) from sourcefile_content where sha256 = '%s'", sha256), long.class);
+    }
+
+    private String contentSha256(long id) {
+        return testingPostgres.runSelectStatement(String.format("select contentsha256 from sourcefile where id = %d", id), String.class);
+    }
+
+    private String sha256(long id) {
+        return testingPostgres.runSelectStatement(String.format("select sha256 from sourcefile where id = %d", id), String.class);
+    }
+
+    private static String sha256Hex(String content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static SourceFile createSourceFile(String path, String content) {
+        SourceFile sourceFile = new SourceFile();
+        sourceFile.setType(DescriptorLanguage.FileType.DOCKSTORE_CWL);
+        sourceFile.setPath(path);
+        sourceFile.setAbsolutePath(path);
+        sourceFile.setContent(content);
+        return sourceFile;
+    }
+}
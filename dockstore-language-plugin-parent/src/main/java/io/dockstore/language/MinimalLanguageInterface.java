@@ -30,6 +30,8 @@ import org.pf4j.ExtensionPoint;
  * b) Launch instructions for your language (i.e. given all the descriptors for a workflow locally, how would I run a workflow on the command-line?)
  * c) What language is your description in (Markdown, HTML, etc.)?
  * d) A short (acronym like CWl, WDL) name for your language and a longer more descriptive name (like "Common Workflow Language")
+ * <p>
+ * Dockstore creates a new instance of a plugin each time it uses it, unless the plugin is marked as a {@link ThreadSafeLanguageInterface}.
  */
 public interface MinimalLanguageInterface extends ExtensionPoint {
 
@@ -0,0 +1,25 @@
+/*
+ *    Copyright 2025 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.language;
+
+/**
+ * Marks a workflow language plugin that is thread-safe.
+ * <p>
+ * Dockstore creates a new instance of a plugin each time it uses it, unless the plugin implements this interface, in which case
+ * Dockstore creates one instance of it and calls it from concurrent requests, so that whatever the plugin sets up or caches is reused.
+ */
+public interface ThreadSafeLanguageInterface {
+}
@@ -64,6 +64,7 @@ import io.dockstore.webservice.core.Organization;
 import io.dockstore.webservice.core.OrganizationUser;
 import io.dockstore.webservice.core.ParsedInformation;
 import io.dockstore.webservice.core.PublicNotification;
+import io.dockstore.webservice.core.QueuedWebhook;
 import io.dockstore.webservice.core.Service;
 import io.dockstore.webservice.core.SourceFile;
 import io.dockstore.webservice.core.SourceFileMetadata;
@@ -78,6 +79,7 @@ import io.dockstore.webservice.core.Workflow;
 import io.dockstore.webservice.core.WorkflowVersion;
 import io.dockstore.webservice.core.metrics.CostStatisticMetric;
 import io.dockstore.webservice.core.metrics.CpuStatisticMetric;
+import io.dockstore.webservice.core.metrics.ExecutionFile;
 import io.dockstore.webservice.core.metrics.ExecutionStatusCountMetric;
 import io.dockstore.webservice.core.metrics.ExecutionTimeStatisticMetric;
 import io.dockstore.webservice.core.metrics.HistogramMetric;
@@ -95,20 +97,34 @@ import io.dockstore.webservice.filters.DenyRobotFilter;
 import io.dockstore.webservice.filters.UsernameRenameRequiredFilter;
 import io.dockstore.webservice.helpers.CacheConfigManager;
 import io.dockstore.webservice.helpers.DiagnosticsHelper;
+import io.dockstore.webservice.helpers.DockerRegistryAPIHelper;
 import io.dockstore.webservice.helpers.ElasticSearchHelper;
 import io.dockstore.webservice.helpers.EmailPropertyFilter;
+import io.dockstore.webservice.helpers.FileContentCache;
+import io.dockstore.webservice.helpers.GitHubSourceCodeRepo;
+import io.dockstore.webservice.helpers.GitHubWebhookQueue;
 import io.dockstore.webservice.helpers.GoogleHelper;
+import io.dockstore.webservice.helpers.GoogleTokenCache;
+import io.dockstore.webservice.helpers.HttpImportCache;
+import io.dockstore.webservice.helpers.ImageMetadataCache;
+import io.dockstore.webservice.helpers.LambdaUrlChecker;
 import io.dockstore.webservice.helpers.MetadataResourceHelper;
+import io.dockstore.webservice.helpers.MetricsDataS3ClientManager;
 import io.dockstore.webservice.helpers.ORCIDHelper;
 import io.dockstore.webservice.helpers.PersistenceExceptionMapper;
 import io.dockstore.webservice.helpers.PublicStateManager;
 import io.dockstore.webservice.helpers.PublicUserFilter;
+import io.dockstore.webservice.helpers.SecondLevelCacheHelper;
 import io.dockstore.webservice.helpers.ZenodoHelper;
+import io.dockstore.webservice.helpers.ZipGitHubFileTree;
+import io.dockstore.webservice.helpers.statelisteners.ElasticIndexRebuilder;
+import io.dockstore.webservice.helpers.statelisteners.ElasticIndexingQueue;
 import io.dockstore.webservice.helpers.statelisteners.PopulateEntryListener;
 import io.dockstore.webservice.jdbi.AppToolDAO;
 import io.dockstore.webservice.jdbi.BioWorkflowDAO;
 import io.dockstore.webservice.jdbi.DeletedUsernameDAO;
 import io.dockstore.webservice.jdbi.EventDAO;
+import io.dockstore.webservice.jdbi.ExecutionFileDAO;
 import io.dockstore.webservice.jdbi.FileDAO;
 import io.dockstore.webservice.jdbi.NotebookDAO;
 import io.dockstore.webservice.jdbi.ServiceDAO;
@@ -119,7 +135,10 @@ import io.dockstore.webservice.jdbi.UserDAO;
 import io.dockstore.webservice.jdbi.VersionDAO;
 import io.dockstore.webservice.jdbi.WorkflowDAO;
 import io.dockstore.webservice.jdbi.WorkflowVersionDAO;
+import io.dockstore.webservice.languages.ImportGraphResolver;
 import io.dockstore.webservice.languages.LanguageHandlerFactory;
+import io.dockstore.webservice.languages.LanguagePluginHandler;
+import io.dockstore.webservice.languages.LanguagePluginResultCache;
 import io.dockstore.webservice.permissions.PermissionsFactory;
 import io.dockstore.webservice.permissions.PermissionsInterface;
 import io.dockstore.webservice.resources.AliasResource;
@@ -180,6 +199,7 @@ import java.io.IOException;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
@@ -266,7 +286,7 @@ public class DockstoreWebserviceApplication extends Application<DockstoreWebserv
             ParsedInformation.class, EntryVersion.class, DeletedUsername.class, CloudInstance.class, Author.class, OrcidAuthor.class,
             AppTool.class, Category.class, FullWorkflowPath.class, Notebook.class, SourceFileMetadata.class, Metrics.class, CpuStatisticMetric.class, MemoryStatisticMetric.class, ExecutionTimeStatisticMetric.class, CostStatisticMetric.class,
             ExecutionStatusCountMetric.class, ValidationStatusCountMetric.class, ValidatorInfo.class, ValidatorVersionInfo.class, MetricsByStatus.class, Doi.class, TimeSeriesMetric.class, HistogramMetric.class,
-            EntryMetadata.class) {
+            EntryMetadata.class, ExecutionFile.class, QueuedWebhook.class) {
         @Override
         public DataSourceFactory getDataSourceFactory(DockstoreWebserviceConfiguration configuration) {
             return configuration.getDataSourceFactory();
@@ -423,9 +443,19 @@ public class DockstoreWebserviceApplication extends Application<DockstoreWebserv
         environment.jersey().register(new JsonProcessingExceptionMapper(true));
 
         environment.lifecycle().manage(new ElasticSearchHelper(configuration.getEsConfiguration()));
+        if (configuration.getEsConfiguration().isAsyncIndexing()) {
+            final ElasticIndexingQueue indexingQueue = new ElasticIndexingQueue(publicStateManager.getElasticListener(), hibernate.getSessionFactory(), configuration.getEsConfiguration());
+            indexingQueue.registerMetrics(environment.metrics());
+            // managed after the Elasticsearch client, so the queue is drained before the client is closed
+            environment.lifecycle().manage(indexingQueue);
+            publicStateManager.getElasticListener().setIndexingQueue(indexingQueue);
+        } else {
+            publicStateManager.getElasticListener().setIndexingQueue(null);
+        }
         final UserDAO userDAO = new UserDAO(hibernate.getSessionFactory());
         final TokenDAO tokenDAO = new TokenDAO(hibernate.getSessionFactory());
         final DeletedUsernameDAO deletedUsernameDAO = new DeletedUsernameDAO(hibernate.getSessionFactory());
+        final ExecutionFileDAO executionFileDAO = new ExecutionFileDAO(hibernate.getSessionFactory());
         final ToolDAO toolDAO = new ToolDAO(hibernate.getSessionFactory());
         final ServiceDAO serviceDAO = new ServiceDAO(hibernate.getSessionFactory());
         final FileDAO fileDAO = new FileDAO(hibernate.getSessionFactory());
@@ -438,12 +468,16 @@ public class DockstoreWebserviceApplication extends Application<DockstoreWebserv
         final BioWorkflowDAO bioWorkflowDAO = new BioWorkflowDAO(hibernate.getSessionFactory());
         final WorkflowVersionDAO workflowVersionDAO = new WorkflowVersionDAO((hibernate.getSessionFactory()));
 
-        publicStateManager.insertListener(new PopulateEntryListener(toolDAO), publicStateManager.getElasticListener());
+        final PopulateEntryListener populateEntryListener = new PopulateEntryListener(toolDAO);
+        publicStateManager.insertListener(populateEntryListener, publicStateManager.getElasticListener());
 
         LOG.info("Cache directory for OkHttp is: " + cache.directory().getAbsolutePath());
         LOG.info("This is our custom logger saying that we're about to load authenticators");
         // setup authentication to allow session access in authenticators, see https://github.com/dropwizard/dropwizard/pull/1361
         UnitOfWorkAwareProxyFactory unitOfWorkAwareProxyFactory = new UnitOfWorkAwareProxyFactory(getHibernate());
+        GoogleTokenCache.configure(configuration.getGoogleTokenCacheMaximumSize(), Duration.ofSeconds(configuration.getGoogleTokenCacheMaximumExpirySeconds()),
+            Duration.ofSeconds(configuration.getGoogleTokenCacheNegativeExpirySeconds()));
+        GoogleTokenCache.registerMetrics(environment.metrics());
         SimpleAuthenticator authenticator = unitOfWorkAwareProxyFactory
                 .create(SimpleAuthenticator.class, new Class[] { TokenDAO.class, UserDAO.class }, new Object[] { tokenDAO, userDAO });
         CachingAuthenticator<String, User> cachingAuthenticator = new CachingAuthenticator<>(environment.metrics(), authenticator,
@@ -463,6 +497,15 @@ public class DockstoreWebserviceApplication extends Application<DockstoreWebserv
 
         final WorkflowResource workflowResource = new WorkflowResource(httpClient, hibernate.getSessionFactory(), authorizer, entryResource, configuration);
         environment.jersey().register(workflowResource);
+        if (configuration.getRefreshConfig().isWebhookQueueEnabled()) {
+            final GitHubWebhookQueue webhookQueue = new GitHubWebhookQueue(workflowResource.createWebhookQueueHandler(),
+                configuration.getRefreshConfig().getWebhookQueueParallelism(), configuration.getRefreshConfig().getWebhookQueueMaxRetries(),
+                Duration.ofSeconds(configuration.getRefreshConfig().getWebhookQueueRetryDelaySeconds()), GitHubWebhookQueue.DEFAULT_BUSY_DELAY,
+                Duration.ofSeconds(configuration.getRefreshConfig().getWebhookQueueLeaseSeconds()));
+            webhookQueue.registerMetrics(environment.metrics());
+            environment.lifecycle().manage(webhookQueue);
+            workflowResource.setWebhookQueue(webhookQueue);
+        }
         final ServiceResource serviceResource = new ServiceResource(httpClient, hibernate.getSessionFactory(), entryResource, configuration);
         environment.jersey().register(serviceResource);
 
@@ -514,7 +557,6 @@ public class DockstoreWebserviceApplication extends Application<DockstoreWebserv
         ToolsApiServiceImpl.setConfig(configuration);
         ToolsApiServiceImpl.setAuthorizer(authorizer);
 
-        ToolsApiExtendedServiceImpl.setStateManager(publicStateManager);
         ToolsApiExtendedServiceImpl.setToolDAO(toolDAO);
         ToolsApiExtendedServiceImpl.setWorkflowDAO(workflowDAO);
         ToolsApiExtendedServiceImpl.setAppToolDAO(appToolDAO);
@@ -522,12 +564,44 @@ public class DockstoreWebserviceApplication extends Application<DockstoreWebserv
         ToolsApiExtendedServiceImpl.setBioWorkflowDAO(bioWorkflowDAO);
         ToolsApiExtendedServiceImpl.setServiceDAO(serviceDAO);
         ToolsApiExtendedServiceImpl.setWorkflowVersionDAO(workflowVersionDAO);
+        ToolsApiExtendedServiceImpl.setExecutionFileDAO(executionFileDAO);
         ToolsApiExtendedServiceImpl.setConfig(configuration);
+        // the queries of the workflow DAO are polymorphic, so together with the tool DAO it finds every entry
+        final ElasticIndexRebuilder elasticIndexRebuilder = new ElasticIndexRebuilder(publicStateManager, populateEntryListener, hibernate.getSessionFactory(),
+            configuration.getEsConfiguration(), List.of(toolDAO, workflowDAO));
+        publicStateManager.getElasticListener().setIndexRebuilder(elasticIndexRebuilder);
+        ToolsApiExtendedServiceImpl.setElasticIndexRebuilder(elasticIndexRebuilder);
+        final MetricsDataS3ClientManager metricsDataS3ClientManager = new MetricsDataS3ClientManager(configuration.getMetricsConfig());
+        metricsDataS3ClientManager.registerMetrics(environment.metrics());
+        environment.lifecycle().manage(metricsDataS3ClientManager);
+        ToolsApiExtendedServiceImpl.setMetricsDataS3ClientManager(metricsDataS3ClientManager);
 
         DOIGeneratorFactory.setConfig(configuration);
 
         GoogleHelper.setConfig(configuration);
 
+        GitHubSourceCodeRepo.setVersionRefreshParallelism(configuration.getRefreshConfig().getGitHubVersionParallelism());
+        ImportGraphResolver.setParallelism(configuration.getRefreshConfig().getImportParallelism());
+        ZipGitHubFileTree.setMemoryThreshold(configuration.getRefreshConfig().getGitHubZipMemoryThreshold());
+        FileContentCache.setMaximumWeight(configuration.getRefreshConfig().getFileCacheMaximumWeight());
+        final String httpImportCacheDirectory = configuration.getRefreshConfig().getHttpImportCacheDirectory();
+        HttpImportCache.configure(configuration.getRefreshConfig().getHttpImportCacheMaximumWeight(),
+            Duration.ofSeconds(configuration.getRefreshConfig().getHttpImportCacheExpirySeconds()),
+            httpImportCacheDirectory == null ? null : Paths.get(httpImportCacheDirectory));
+        HttpImportCache.registerMetrics(environment.metrics());
+        LambdaUrlChecker.configure(configuration.getRefreshConfig().getCheckUrlParallelism(), configuration.getRefreshConfig().getCheckUrlBatchSize(),
+            configuration.getRefreshConfig().getCheckUrlCacheMaximumSize(), Duration.ofSeconds(configuration.getRefreshConfig().getCheckUrlCacheExpirySeconds()));
+        LambdaUrlChecker.registerMetrics(environment.metrics());
+        ImageMetadataCache.configure(configuration.getRefreshConfig().getImageLookupParallelismPerRegistry(),
+            configuration.getRefreshConfig().getImageCacheMaximumSize(), Duration.ofSeconds(configuration.getRefreshConfig().getImageTagCacheExpirySeconds()));
+        ImageMetadataCache.registerMetrics(environment.metrics());
+        DockerRegistryAPIHelper.configure(configuration.getRefreshConfig().getDockerTokenCacheMaximumSize());
+        DockerRegistryAPIHelper.registerMetrics(environment.metrics());
+        LanguagePluginResultCache.configure(configuration.getRefreshConfig().getPluginResultCacheMaximumSize());
+        LanguagePluginResultCache.registerMetrics(environment.metrics());
+        LanguagePluginHandler.registerMetrics(environment.metrics());
+        SecondLevelCacheHelper.registerMetrics(hibernate.getSessionFactory(), environment.metrics());
+
         if (configuration.getDiagnosticsConfig().getEnabled()) {
             LOG.info("enabling diagnostic logging output");
             new DiagnosticsHelper().start(environment, hibernate.getSessionFactory(), configuration.getDiagnosticsConfig());
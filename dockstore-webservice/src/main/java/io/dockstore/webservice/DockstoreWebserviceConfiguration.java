@@ -19,7 +19,17 @@ package io.dockstore.webservice;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.github.benmanes.caffeine.cache.CaffeineSpec;
+import io.dockstore.webservice.helpers.DockerRegistryAPIHelper;
+import io.dockstore.webservice.helpers.FileContentCache;
+import io.dockstore.webservice.helpers.GitHubWebhookQueue;
+import io.dockstore.webservice.helpers.GoogleTokenCache;
+import io.dockstore.webservice.helpers.HttpImportCache;
+import io.dockstore.webservice.helpers.ImageMetadataCache;
+import io.dockstore.webservice.helpers.LambdaUrlChecker;
 import io.dockstore.webservice.helpers.URIHelper;
+import io.dockstore.webservice.helpers.ZipGitHubFileTree;
+import io.dockstore.webservice.languages.ImportGraphResolver;
+import io.dockstore.webservice.languages.LanguagePluginResultCache;
 import io.dropwizard.client.HttpClientConfiguration;
 import io.dropwizard.core.Configuration;
 import io.dropwizard.db.DataSourceFactory;
@@ -58,6 +68,9 @@ public class DockstoreWebserviceConfiguration extends Configuration {
     @Valid
     private DiagnosticsConfig diagnosticsConfig = new DiagnosticsConfig();
 
+    @Valid
+    private RefreshConfig refreshConfig = new RefreshConfig();
+
     @NotEmpty
     private String template;
 
@@ -141,6 +154,11 @@ public class DockstoreWebserviceConfiguration extends Configuration {
     @NotNull
     private CaffeineSpec authenticationCachePolicy;
 
+    // how Google access tokens that are not Dockstore tokens are cached, see GoogleTokenCache
+    private long googleTokenCacheMaximumSize = GoogleTokenCache.DEFAULT_MAXIMUM_SIZE;
+    private long googleTokenCacheMaximumExpirySeconds = GoogleTokenCache.DEFAULT_MAXIMUM_EXPIRY.toSeconds();
+    private long googleTokenCacheNegativeExpirySeconds = GoogleTokenCache.DEFAULT_NEGATIVE_EXPIRY.toSeconds();
+
     private String languagePluginLocation;
 
     private String sqsURL;
@@ -333,6 +351,30 @@ public class DockstoreWebserviceConfiguration extends Configuration {
         this.authenticationCachePolicy = authenticationCachePolicy;
     }
 
+    public long getGoogleTokenCacheMaximumSize() {
+        return googleTokenCacheMaximumSize;
+    }
+
+    public void setGoogleTokenCacheMaximumSize(long googleTokenCacheMaximumSize) {
+        this.googleTokenCacheMaximumSize = googleTokenCacheMaximumSize;
+    }
+
+    public long getGoogleTokenCacheMaximumExpirySeconds() {
+        return googleTokenCacheMaximumExpirySeconds;
+    }
+
+    public void setGoogleTokenCacheMaximumExpirySeconds(long googleTokenCacheMaximumExpirySeconds) {
+        this.googleTokenCacheMaximumExpirySeconds = googleTokenCacheMaximumExpirySeconds;
+    }
+
+    public long getGoogleTokenCacheNegativeExpirySeconds() {
+        return googleTokenCacheNegativeExpirySeconds;
+    }
+
+    public void setGoogleTokenCacheNegativeExpirySeconds(long googleTokenCacheNegativeExpirySeconds) {
+        this.googleTokenCacheNegativeExpirySeconds = googleTokenCacheNegativeExpirySeconds;
+    }
+
     public String getGitlabClientID() {
         return gitlabClientID;
     }
@@ -574,6 +616,15 @@ public class DockstoreWebserviceConfiguration extends Configuration {
         this.diagnosticsConfig = diagnosticsConfig;
     }
 
+    @JsonProperty
+    public RefreshConfig getRefreshConfig() {
+        return refreshConfig;
+    }
+
+    public void setRefreshConfig(RefreshConfig refreshConfig) {
+        this.refreshConfig = refreshConfig;
+    }
+
     @JsonProperty
     public UIConfig getUiConfig() {
         return uiConfig;
@@ -694,6 +745,12 @@ public class DockstoreWebserviceConfiguration extends Configuration {
         private String user;
         private String password;
         private Integer maxConcurrentSessions;
+        private boolean asyncIndexing = false;
+        private int indexingQueueCapacity = 10000;
+        private long indexingFlushIntervalMillis = 1000L;
+        private int indexingMaxRetries = 3;
+        private int reindexParallelism = 4;
+        private int reindexConcurrentBulkRequests = 2;
 
         public String getProtocol() {
             return protocol;
@@ -741,10 +798,71 @@ public class DockstoreWebserviceConfiguration extends Configuration {
         public Integer getMaxConcurrentSessions() {
             return this.maxConcurrentSessions;
         }
+
+        /**
+         * @return true if updates of single entries are queued and indexed in the background instead of during the request
+         */
+        public boolean isAsyncIndexing() {
+            return asyncIndexing;
+        }
+
+        public void setAsyncIndexing(boolean asyncIndexing) {
+            this.asyncIndexing = asyncIndexing;
+        }
+
+        public int getIndexingQueueCapacity() {
+            return indexingQueueCapacity;
+        }
+
+        public void setIndexingQueueCapacity(int indexingQueueCapacity) {
+            this.indexingQueueCapacity = indexingQueueCapacity;
+        }
+
+        public long getIndexingFlushIntervalMillis() {
+            return indexingFlushIntervalMillis;
+        }
+
+        public void setIndexingFlushIntervalMillis(long indexingFlushIntervalMillis) {
+            this.indexingFlushIntervalMillis = indexingFlushIntervalMillis;
+        }
+
+        public int getIndexingMaxRetries() {
+            return indexingMaxRetries;
+        }
+
+        public void setIndexingMaxRetries(int indexingMaxRetries) {
+            this.indexingMaxRetries = indexingMaxRetries;
+        }
+
+        /**
+         * @return the number of threads that read and convert published entries during a full reindex
+         */
+        public int getReindexParallelism() {
+            return reindexParallelism;
+        }
+
+        public void setReindexParallelism(int reindexParallelism) {
+            this.reindexParallelism = reindexParallelism;
+        }
+
+        /**
+         * @return the number of bulk requests that a full reindex may have in flight while it keeps reading entries
+         */
+        public int getReindexConcurrentBulkRequests() {
+            return reindexConcurrentBulkRequests;
+        }
+
+        public void setReindexConcurrentBulkRequests(int reindexConcurrentBulkRequests) {
+            this.reindexConcurrentBulkRequests = reindexConcurrentBulkRequests;
+        }
     }
 
     public static class SamConfiguration {
+        private static final long DEFAULT_CACHE_EXPIRY_SECONDS = 30;
+
         private String basepath;
+        private long decisionCacheExpirySeconds = DEFAULT_CACHE_EXPIRY_SECONDS;
+        private long sharingCacheExpirySeconds = DEFAULT_CACHE_EXPIRY_SECONDS;
 
         public String getBasepath() {
             return basepath;
@@ -753,6 +871,28 @@ public class DockstoreWebserviceConfiguration extends Configuration {
         public void setBasepath(String basepath) {
             this.basepath = basepath;
         }
+
+        /**
+         * @return how long, in seconds, whether a user can do an action on a workflow, and the permissions of a workflow, are cached
+         */
+        public long getDecisionCacheExpirySeconds() {
+            return decisionCacheExpirySeconds;
+        }
+
+        public void setDecisionCacheExpirySeconds(long decisionCacheExpirySeconds) {
+            this.decisionCacheExpirySeconds = decisionCacheExpirySeconds;
+        }
+
+        /**
+         * @return how long, in seconds, the workflows shared with a user are cached
+         */
+        public long getSharingCacheExpirySeconds() {
+            return sharingCacheExpirySeconds;
+        }
+
+        public void setSharingCacheExpirySeconds(long sharingCacheExpirySeconds) {
+            this.sharingCacheExpirySeconds = sharingCacheExpirySeconds;
+        }
     }
 
     public static class LimitConfig {
@@ -777,10 +917,26 @@ public class DockstoreWebserviceConfiguration extends Configuration {
     }
 
     public static class MetricsConfig {
+        private static final int DEFAULT_S3_MAX_CONNECTIONS = 50;
+        private static final long DEFAULT_S3_CONNECTION_ACQUISITION_TIMEOUT_SECONDS = 10;
+        private static final int DEFAULT_BATCH_SUBMISSION_PARALLELISM = 8;
+
         private String s3BucketName;
 
         private String s3EndpointOverride;
 
+        /**
+         * The maximum number of connections in the pool shared by requests to the metrics bucket
+         */
+        private int s3MaxConnections = DEFAULT_S3_MAX_CONNECTIONS;
+
+        private long s3ConnectionAcquisitionTimeoutSeconds = DEFAULT_S3_CONNECTION_ACQUISITION_TIMEOUT_SECONDS;
+
+        /**
+         * The number of files of a batch submission that are written to S3 concurrently, across all requests
+         */
+        private int batchSubmissionParallelism = DEFAULT_BATCH_SUBMISSION_PARALLELISM;
+
         public String getS3BucketName() {
             return s3BucketName;
         }
@@ -796,6 +952,30 @@ public class DockstoreWebserviceConfiguration extends Configuration {
         public void setS3EndpointOverride(String s3EndpointOverride) {
             this.s3EndpointOverride = s3EndpointOverride;
         }
+
+        public int getS3MaxConnections() {
+            return s3MaxConnections;
+        }
+
+        public void setS3MaxConnections(int s3MaxConnections) {
+            this.s3MaxConnections = s3MaxConnections;
+        }
+
+        public long getS3ConnectionAcquisitionTimeoutSeconds() {
+            return s3ConnectionAcquisitionTimeoutSeconds;
+        }
+
+        public void setS3ConnectionAcquisitionTimeoutSeconds(long s3ConnectionAcquisitionTimeoutSeconds) {
+            this.s3ConnectionAcquisitionTimeoutSeconds = s3ConnectionAcquisitionTimeoutSeconds;
+        }
+
+        public int getBatchSubmissionParallelism() {
+            return batchSubmissionParallelism;
+        }
+
+        public void setBatchSubmissionParallelism(int batchSubmissionParallelism) {
+            this.batchSubmissionParallelism = batchSubmissionParallelism;
+        }
     }
 
     public static class DiagnosticsConfig {
@@ -833,6 +1013,262 @@ public class DockstoreWebserviceConfiguration extends Configuration {
         }
     }
 
+    public static class RefreshConfig {
+        private int gitHubVersionParallelism = 1;
+        private int importParallelism = ImportGraphResolver.DEFAULT_PARALLELISM;
+        private int gitHubZipMemoryThreshold = ZipGitHubFileTree.DEFAULT_MEMORY_THRESHOLD;
+        private long fileCacheMaximumWeight = FileContentCache.DEFAULT_MAXIMUM_WEIGHT;
+        private long httpImportCacheMaximumWeight = HttpImportCache.DEFAULT_MAXIMUM_WEIGHT;
+        private long httpImportCacheExpirySeconds = HttpImportCache.DEFAULT_EXPIRY.toSeconds();
+        private String httpImportCacheDirectory;
+        private int checkUrlParallelism = LambdaUrlChecker.DEFAULT_PARALLELISM;
+        private int checkUrlBatchSize = 0;
+        private long checkUrlCacheMaximumSize = LambdaUrlChecker.DEFAULT_CACHE_MAXIMUM_SIZE;
+        private long checkUrlCacheExpirySeconds = LambdaUrlChecker.DEFAULT_CACHE_EXPIRY.toSeconds();
+        private boolean webhookQueueEnabled = false;
+        private int webhookQueueParallelism = GitHubWebhookQueue.DEFAULT_PARALLELISM;
+        private int webhookQueueMaxRetries = GitHubWebhookQueue.DEFAULT_MAX_RETRIES;
+        private long webhookQueueRetryDelaySeconds = GitHubWebhookQueue.DEFAULT_RETRY_DELAY.toSeconds();
+        private long webhookQueueLeaseSeconds = GitHubWebhookQueue.DEFAULT_LEASE.toSeconds();
+        private int imageLookupParallelismPerRegistry = ImageMetadataCache.DEFAULT_PARALLELISM_PER_REGISTRY;
+        private long imageCacheMaximumSize = ImageMetadataCache.DEFAULT_MAXIMUM_SIZE;
+        private long imageTagCacheExpirySeconds = ImageMetadataCache.DEFAULT_TAG_EXPIRY.toSeconds();
+        private long dockerTokenCacheMaximumSize = DockerRegistryAPIHelper.DEFAULT_TOKEN_CACHE_MAXIMUM_SIZE;
+        private long pluginResultCacheMaximumSize = LanguagePluginResultCache.DEFAULT_MAXIMUM_SIZE;
+
+        /**
+         * @return the maximum number of GitHub branches and tags that are fetched and parsed concurrently during a workflow refresh
+         */
+        public int getGitHubVersionParallelism() {
+            return gitHubVersionParallelism;
+        }
+
+        public void setGitHubVersionParallelism(int gitHubVersionParallelism) {
+            this.gitHubVersionParallelism = gitHubVersionParallelism;
+        }
+
+        /**
+         * @return the maximum number of imported descriptors that are read concurrently while resolving the imports of a version
+         */
+        public int getImportParallelism() {
+            return importParallelism;
+        }
+
+        public void setImportParallelism(int importParallelism) {
+            this.importParallelism = importParallelism;
+        }
+
+        /**
+         * @return the size in bytes above which a GitHub Zipball is downloaded to a temporary file rather than held in memory
+         */
+        public int getGitHubZipMemoryThreshold() {
+            return gitHubZipMemoryThreshold;
+        }
+
+        public void setGitHubZipMemoryThreshold(int gitHubZipMemoryThreshold) {
+            this.gitHubZipMemoryThreshold = gitHubZipMemoryThreshold;
+        }
+
+        /**
+         * @return the maximum total length, in characters, of the file content that is cached across requests
+         */
+        public long getFileCacheMaximumWeight() {
+            return fileCacheMaximumWeight;
+        }
+
+        public void setFileCacheMaximumWeight(long fileCacheMaximumWeight) {
+            this.fileCacheMaximumWeight = fileCacheMaximumWeight;
+        }
+
+        /**
+         * @return the maximum total length, in characters, of the descriptors imported by URL that are cached in memory
+         */
+        public long getHttpImportCacheMaximumWeight() {
+            return httpImportCacheMaximumWeight;
+        }
+
+        public void setHttpImportCacheMaximumWeight(long httpImportCacheMaximumWeight) {
+            this.httpImportCacheMaximumWeight = httpImportCacheMaximumWeight;
+        }
+
+        /**
+         * @return how long, in seconds, descriptors imported by URL are cached before they are downloaded again
+         */
+        public long getHttpImportCacheExpirySeconds() {
+            return httpImportCacheExpirySeconds;
+        }
+
+        public void setHttpImportCacheExpirySeconds(long httpImportCacheExpirySeconds) {
+            this.httpImportCacheExpirySeconds = httpImportCacheExpirySeconds;
+        }
+
+        /**
+         * @return the directory that descriptors imported by URL are also cached in, or null to cache them in memory only
+         */
+        public String getHttpImportCacheDirectory() {
+            return httpImportCacheDirectory;
+        }
+
+        public void setHttpImportCacheDirectory(String httpImportCacheDirectory) {
+            this.httpImportCacheDirectory = httpImportCacheDirectory;
+        }
+
+        /**
+         * @return the maximum number of concurrent requests to the check URL lambda while checking the URLs of a version
+         */
+        public int getCheckUrlParallelism() {
+            return checkUrlParallelism;
+        }
+
+        public void setCheckUrlParallelism(int checkUrlParallelism) {
+            this.checkUrlParallelism = checkUrlParallelism;
+        }
+
+        /**
+         * @return the maximum number of URLs sent to the check URL lambda in one request, or 1 or less if the lambda does not accept batches
+         */
+        public int getCheckUrlBatchSize() {
+            return checkUrlBatchSize;
+        }
+
+        public void setCheckUrlBatchSize(int checkUrlBatchSize) {
+            this.checkUrlBatchSize = checkUrlBatchSize;
+        }
+
+        /**
+         * @return the maximum number of URL check results that are cached
+         */
+        public long getCheckUrlCacheMaximumSize() {
+            return checkUrlCacheMaximumSize;
+        }
+
+        public void setCheckUrlCacheMaximumSize(long checkUrlCacheMaximumSize) {
+            this.checkUrlCacheMaximumSize = checkUrlCacheMaximumSize;
+        }
+
+        /**
+         * @return how long, in seconds, URL check results are cached before the URL is checked again
+         */
+        public long getCheckUrlCacheExpirySeconds() {
+            return checkUrlCacheExpirySeconds;
+        }
+
+        public void setCheckUrlCacheExpirySeconds(long checkUrlCacheExpirySeconds) {
+            this.checkUrlCacheExpirySeconds = checkUrlCacheExpirySeconds;
+        }
+
+        /**
+         * @return whether GitHub push and branch deletion webhooks are queued and processed in the background, instead of while the lambda waits
+         */
+        public boolean isWebhookQueueEnabled() {
+            return webhookQueueEnabled;
+        }
+
+        public void setWebhookQueueEnabled(boolean webhookQueueEnabled) {
+            this.webhookQueueEnabled = webhookQueueEnabled;
+        }
+
+        /**
+         * @return the maximum number of repositories whose queued webhooks are processed concurrently
+         */
+        public int getWebhookQueueParallelism() {
+            return webhookQueueParallelism;
+        }
+
+        public void setWebhookQueueParallelism(int webhookQueueParallelism) {
+            this.webhookQueueParallelism = webhookQueueParallelism;
+        }
+
+        /**
+         * @return how many times a queued webhook is retried after hitting the GitHub rate limit or a server error
+         */
+        public int getWebhookQueueMaxRetries() {
+            return webhookQueueMaxRetries;
+        }
+
+        public void setWebhookQueueMaxRetries(int webhookQueueMaxRetries) {
+            this.webhookQueueMaxRetries = webhookQueueMaxRetries;
+        }
+
+        /**
+         * @return how long, in seconds, to wait before retrying a queued webhook
+         */
+        public long getWebhookQueueRetryDelaySeconds() {
+            return webhookQueueRetryDelaySeconds;
+        }
+
+        public void setWebhookQueueRetryDelaySeconds(long webhookQueueRetryDelaySeconds) {
+            this.webhookQueueRetryDelaySeconds = webhookQueueRetryDelaySeconds;
+        }
+
+        /**
+         * @return how long, in seconds, a queued webhook stays leased to a webservice that stops renewing the lease, before another
+         *     webservice claims it
+         */
+        public long getWebhookQueueLeaseSeconds() {
+            return webhookQueueLeaseSeconds;
+        }
+
+        public void setWebhookQueueLeaseSeconds(long webhookQueueLeaseSeconds) {
+            this.webhookQueueLeaseSeconds = webhookQueueLeaseSeconds;
+        }
+
+        /**
+         * @return the maximum number of concurrent requests to each Docker registry while getting the images of a version
+         */
+        public int getImageLookupParallelismPerRegistry() {
+            return imageLookupParallelismPerRegistry;
+        }
+
+        public void setImageLookupParallelismPerRegistry(int imageLookupParallelismPerRegistry) {
+            this.imageLookupParallelismPerRegistry = imageLookupParallelismPerRegistry;
+        }
+
+        /**
+         * @return the maximum number of image lookups that are cached, for each of the digest and tag caches
+         */
+        public long getImageCacheMaximumSize() {
+            return imageCacheMaximumSize;
+        }
+
+        public void setImageCacheMaximumSize(long imageCacheMaximumSize) {
+            this.imageCacheMaximumSize = imageCacheMaximumSize;
+        }
+
+        /**
+         * @return how long, in seconds, the lookup of an image that is not specified by digest is cached before the registry is asked again
+         */
+        public long getImageTagCacheExpirySeconds() {
+            return imageTagCacheExpirySeconds;
+        }
+
+        public void setImageTagCacheExpirySeconds(long imageTagCacheExpirySeconds) {
+            this.imageTagCacheExpirySeconds = imageTagCacheExpirySeconds;
+        }
+
+        /**
+         * @return the maximum number of Docker registry bearer tokens that are cached, one for each registry and repository
+         */
+        public long getDockerTokenCacheMaximumSize() {
+            return dockerTokenCacheMaximumSize;
+        }
+
+        public void setDockerTokenCacheMaximumSize(long dockerTokenCacheMaximumSize) {
+            this.dockerTokenCacheMaximumSize = dockerTokenCacheMaximumSize;
+        }
+
+        /**
+         * @return the maximum number of language plugin results that are cached, or 0 to parse every descriptor with its plugin
+         */
+        public long getPluginResultCacheMaximumSize() {
+            return pluginResultCacheMaximumSize;
+        }
+
+        public void setPluginResultCacheMaximumSize(long pluginResultCacheMaximumSize) {
+            this.pluginResultCacheMaximumSize = pluginResultCacheMaximumSize;
+        }
+    }
+
     /**
      * A subset of properties returned to the UI. Only a subset because some properties that will
      * be used by the UI are also used by the web service and predate the existences of this class.
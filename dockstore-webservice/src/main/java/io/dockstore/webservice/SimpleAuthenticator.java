@@ -20,6 +20,7 @@ import com.google.api.services.oauth2.model.Userinfoplus;
 import io.dockstore.webservice.core.Token;
 import io.dockstore.webservice.core.User;
 import io.dockstore.webservice.helpers.GoogleHelper;
+import io.dockstore.webservice.helpers.GoogleTokenCache;
 import io.dockstore.webservice.jdbi.TokenDAO;
 import io.dockstore.webservice.jdbi.UserDAO;
 import io.dropwizard.auth.Authenticator;
@@ -86,7 +87,8 @@ public class SimpleAuthenticator implements Authenticator<String, User> {
     }
 
     Optional<Userinfoplus> userinfoPlusFromToken(String credentials) {
-        return GoogleHelper.userinfoplusFromToken(credentials);
+        // cached, so that repeated invalid tokens, which the CachingAuthenticator does not cache, do not each cost a call to Google
+        return GoogleTokenCache.userinfoplusFromToken(credentials);
     }
 
     User createUser(Userinfoplus userinfoPlus) {
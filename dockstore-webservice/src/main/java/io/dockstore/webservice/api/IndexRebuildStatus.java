@@ -0,0 +1,113 @@
+/*
+ * Copyright 2025 OICR and UCSC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *           http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.dockstore.webservice.api;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Reports the progress of the most recent rebuild of the search indices.
+ */
+@Schema(description = "The progress of the most recent rebuild of the search indices")
+public class IndexRebuildStatus {
+
+    @Schema(description = "The state of the rebuild")
+    private final State state;
+
+    @Schema(description = "When the rebuild started")
+    private final Date startTime;
+
+    @Schema(description = "When the rebuild finished, null if it has not")
+    private final Date endTime;
+
+    @Schema(description = "The indices that the rebuild is populating, which replace the live indices when it succeeds")
+    private final List<String> indices;
+
+    @Schema(description = "The number of published entries to index")
+    private final long total;
+
+    @Schema(description = "The number of entries read from the database and sent to Elasticsearch")
+    private final long processed;
+
+    @Schema(description = "The number of documents that Elasticsearch failed to index")
+    private final long failed;
+
+    @Schema(description = "Why the rebuild failed, null if it did not")
+    private final String message;
+
+    @SuppressWarnings("checkstyle:ParameterNumber")
+    public IndexRebuildStatus(State state, Date startTime, Date endTime, List<String> indices, long total, long processed, long failed, String message) {
+        this.state = state;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.indices = indices;
+        this.total = total;
+        this.processed = processed;
+        this.failed = failed;
+        this.message = message;
+    }
+
+    @JsonProperty
+    public State getState() {
+        return state;
+    }
+
+    @JsonProperty
+    public Date getStartTime() {
+        return startTime;
+    }
+
+    @JsonProperty
+    public Date getEndTime() {
+        return endTime;
+    }
+
+    @JsonProperty
+    public List<String> getIndices() {
+        return indices;
+    }
+
+    @JsonProperty
+    public long getTotal() {
+        return total;
+    }
+
+    @JsonProperty
+    public long getProcessed() {
+        return processed;
+    }
+
+    @JsonProperty
+    public long getFailed() {
+        return failed;
+    }
+
+    @JsonProperty
+    public String getMessage() {
+        return message;
+    }
+
+    public enum State {
+        NOT_STARTED,
+        RUNNING,
+        SUCCEEDED,
+        FAILED
+    }
+}
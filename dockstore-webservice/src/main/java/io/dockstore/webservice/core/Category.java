@@ -21,6 +21,8 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.Entity;
 import jakarta.persistence.NamedQueries;
 import jakarta.persistence.NamedQuery;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 
 /**
  * Describes a Category, which is a dockstore-curated group of entries.
@@ -43,8 +45,8 @@ import jakarta.persistence.NamedQuery;
 @Schema(name = "Category", description = "Category of entries")
 @Entity
 @NamedQueries({
-    @NamedQuery(name = "io.dockstore.webservice.core.Category.getCategories", query = "SELECT c FROM Category c where c.deleted = false"),
-    @NamedQuery(name = "io.dockstore.webservice.core.Category.findByName", query = "SELECT c FROM Category c where lower(c.name) = lower(:name) and c.deleted = false")
+    @NamedQuery(name = "io.dockstore.webservice.core.Category.getCategories", query = "SELECT c FROM Category c where c.deleted = false", hints = @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true")),
+    @NamedQuery(name = "io.dockstore.webservice.core.Category.findByName", query = "SELECT c FROM Category c where lower(c.name) = lower(:name) and c.deleted = false", hints = @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
 })
 
 public class Category extends Collection {
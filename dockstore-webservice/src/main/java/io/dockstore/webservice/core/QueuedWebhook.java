@@ -0,0 +1,200 @@
+/*
+ * Copyright 2025 OICR and UCSC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *           http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.dockstore.webservice.core;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.NamedNativeQueries;
+import jakarta.persistence.NamedNativeQuery;
+import jakarta.persistence.NamedQueries;
+import jakarta.persistence.NamedQuery;
+import jakarta.persistence.Table;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.TreeSet;
+import org.apache.commons.lang3.StringUtils;
+import org.hibernate.annotations.CreationTimestamp;
+
+/**
+ * A GitHub webhook that has been accepted but not yet processed, so that it is processed even if the webservice restarts before
+ * it gets to it.
+ */
+@Entity
+@Table(name = "queued_webhook")
+@NamedQueries({
+    @NamedQuery(name = "io.dockstore.webservice.core.QueuedWebhook.findAll", query = "SELECT q FROM QueuedWebhook q ORDER BY q.id"),
+    @NamedQuery(name = "io.dockstore.webservice.core.QueuedWebhook.findByIds", query = "SELECT q FROM QueuedWebhook q WHERE q.id IN (:ids) ORDER BY q.id"),
+    @NamedQuery(name = "io.dockstore.webservice.core.QueuedWebhook.deleteByIds", query = "DELETE FROM QueuedWebhook q WHERE q.id IN (:ids)"),
+    @NamedQuery(name = "io.dockstore.webservice.core.QueuedWebhook.lease", query = "UPDATE QueuedWebhook q SET q.leaseOwner = :owner, q.leaseExpiry = :leaseExpiry WHERE q.id IN (:ids)"),
+    @NamedQuery(name = "io.dockstore.webservice.core.QueuedWebhook.renew", query = "UPDATE QueuedWebhook q SET q.leaseExpiry = :leaseExpiry WHERE q.leaseOwner = :owner"),
+    @NamedQuery(name = "io.dockstore.webservice.core.QueuedWebhook.release", query = "UPDATE QueuedWebhook q SET q.leaseOwner = NULL, q.leaseExpiry = NULL WHERE q.leaseOwner = :owner")
+})
+@NamedNativeQueries({
+    @NamedNativeQuery(name = "io.dockstore.webservice.core.QueuedWebhook.lockClaimableIds", query = "SELECT id FROM queued_webhook WHERE (leaseowner IS NULL OR leaseowner <> :owner) "
+        + "AND (leaseexpiry IS NULL OR leaseexpiry < :now) ORDER BY id FOR UPDATE SKIP LOCKED"),
+    @NamedNativeQuery(name = "io.dockstore.webservice.core.QueuedWebhook.tryLockRepository", query = "SELECT pg_try_advisory_xact_lock(hashtext(:repository))")
+})
+public class QueuedWebhook {
+
+    private static final String USERNAME_SEPARATOR = ",";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private Type type;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String repository;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String gitReference;
+
+    @Column
+    private Long installationId;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String deliveryId;
+
+    @Column(columnDefinition = "TEXT")
+    private String afterCommit;
+
+    @Column(columnDefinition = "TEXT")
+    private String sender;
+
+    /**
+     * The other GitHub users that pushed commits, separated by commas, which GitHub does not allow in usernames.
+     */
+    @Column(columnDefinition = "TEXT")
+    private String otherUsers;
+
+    /**
+     * The webservice that the webhook is leased to, which is the only one that processes it until the lease expires.
+     */
+    @Column(columnDefinition = "TEXT")
+    private String leaseOwner;
+
+    @Column
+    private Timestamp leaseExpiry;
+
+    @Column(updatable = false)
+    @CreationTimestamp
+    private Timestamp dbCreateDate;
+
+    public QueuedWebhook() {
+    }
+
+    public QueuedWebhook(Type type, String repository, String gitReference, Long installationId, String deliveryId, String afterCommit, String sender,
+        Set<String> otherUsers) {
+        this.type = type;
+        this.repository = repository;
+        this.gitReference = gitReference;
+        this.installationId = installationId;
+        this.deliveryId = deliveryId;
+        this.afterCommit = afterCommit;
+        this.sender = sender;
+        setOtherUsers(otherUsers);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getRepository() {
+        return repository;
+    }
+
+    public String getGitReference() {
+        return gitReference;
+    }
+
+    public Long getInstallationId() {
+        return installationId;
+    }
+
+    public String getDeliveryId() {
+        return deliveryId;
+    }
+
+    public String getAfterCommit() {
+        return afterCommit;
+    }
+
+    public String getSender() {
+        return sender;
+    }
+
+    public Set<String> getOtherUsers() {
+        final Set<String> users = new TreeSet<>();
+        if (StringUtils.isNotEmpty(otherUsers)) {
+            users.addAll(Arrays.asList(otherUsers.split(USERNAME_SEPARATOR)));
+        }
+        return users;
+    }
+
+    public void setOtherUsers(Set<String> otherUsers) {
+        this.otherUsers = otherUsers == null || otherUsers.isEmpty() ? null : String.join(USERNAME_SEPARATOR, new TreeSet<>(otherUsers));
+    }
+
+    public String getLeaseOwner() {
+        return leaseOwner;
+    }
+
+    public void setLeaseOwner(String leaseOwner) {
+        this.leaseOwner = leaseOwner;
+    }
+
+    public Timestamp getLeaseExpiry() {
+        return leaseExpiry;
+    }
+
+    public void setLeaseExpiry(Timestamp leaseExpiry) {
+        this.leaseExpiry = leaseExpiry;
+    }
+
+    public Timestamp getDbCreateDate() {
+        return dbCreateDate;
+    }
+
+    public enum Type {
+        /**
+         * A branch or tag was pushed, or should be released retrospectively after an installation.
+         */
+        PUSH,
+        /**
+         * A branch or tag was deleted.
+         */
+        DELETE
+    }
+}
@@ -22,6 +22,8 @@ import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.ComparisonChain;
 import com.google.common.collect.Ordering;
@@ -54,6 +56,7 @@ import jakarta.persistence.MapKeyColumn;
 import jakarta.persistence.NamedQueries;
 import jakarta.persistence.NamedQuery;
 import jakarta.persistence.OneToOne;
+import jakarta.persistence.PostLoad;
 import jakarta.persistence.PrimaryKeyJoinColumn;
 import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
@@ -71,6 +74,7 @@ import java.util.regex.Pattern;
 import org.apache.http.HttpStatus;
 import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.Cascade;
+import org.hibernate.annotations.ColumnTransformer;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.jsoup.Jsoup;
@@ -121,6 +125,11 @@ public class SourceFile implements Comparable<SourceFile> {
 
     private static final Logger LOG = LoggerFactory.getLogger(SourceFile.class);
 
+    /**
+     * The bodies of the loaded SourceFiles, by their hash. Values are weak, so a body is kept only while a SourceFile refers to it.
+     */
+    private static final Cache<String, String> LOADED_CONTENT = Caffeine.newBuilder().weakValues().build();
+
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sourcefile_id_seq")
     @SequenceGenerator(name = "sourcefile_id_seq", sequenceName = "sourcefile_id_seq", allocationSize = 1)
@@ -133,7 +142,12 @@ public class SourceFile implements Comparable<SourceFile> {
     @Schema(description = "Enumerates the type of file", requiredMode = RequiredMode.REQUIRED)
     private DescriptorLanguage.FileType type;
 
-    @Column(columnDefinition = "TEXT")
+    /**
+     * The body is stored once per distinct content in the sourcefile_content table, keyed by its SHA-256 hash, and this column
+     * holds the hash. Writing the content stores the body only if it is not already stored.
+     */
+    @Column(name = "contentsha256", columnDefinition = "TEXT")
+    @ColumnTransformer(read = "get_sourcefile_content(contentsha256)", write = "store_sourcefile_content(?)")
     @ApiModelProperty(value = "Cache for the contents of the target file", position = 2)
     private String content;
 
@@ -355,6 +369,19 @@ public class SourceFile implements Comparable<SourceFile> {
         return file;
     }
 
+    /**
+     * Shares the body with the other loaded SourceFiles that have the same content, such as the same descriptor in many versions
+     * served by the TRS endpoints, using the hash that is stored with it. This only deduplicates the heap: the body has already
+     * been read from the database with the row.
+     */
+    @PostLoad
+    void deduplicateContent() {
+        if (content != null && checksums != null && !checksums.isEmpty()) {
+            final String loadedContent = content;
+            content = LOADED_CONTENT.get(checksums.get(0).getChecksum(), hash -> loadedContent);
+        }
+    }
+
     public static LimitedSourceFileBuilder.FirstStep limitedBuilder() {
         return new LimitedSourceFileBuilder().start();
     }
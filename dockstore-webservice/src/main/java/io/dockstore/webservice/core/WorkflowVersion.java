@@ -58,7 +58,8 @@ import org.apache.commons.io.FilenameUtils;
 @NamedQueries({
     @NamedQuery(name = "io.dockstore.webservice.core.WorkflowVersion.getByAlias", query = "SELECT e from WorkflowVersion e JOIN e.aliases a WHERE KEY(a) IN :alias"),
     @NamedQuery(name = "io.dockstore.webservice.core.WorkflowVersion.getByWorkflowIdAndVersionName", query = "select v FROM WorkflowVersion v WHERE v.parent.id = :id And v.name = :name"),
-    @NamedQuery(name = "io.dockstore.webservice.core.WorkflowVersion.getTagsByWorkflowIdOrderedByLastModified", query = "SELECT v FROM WorkflowVersion v WHERE v.parent.id = :id AND v.referenceType = 'TAG' ORDER BY v.lastModified DESC")
+    @NamedQuery(name = "io.dockstore.webservice.core.WorkflowVersion.getTagsByWorkflowIdOrderedByLastModified", query = "SELECT v FROM WorkflowVersion v WHERE v.parent.id = :id AND v.referenceType = 'TAG' ORDER BY v.lastModified DESC"),
+    @NamedQuery(name = "io.dockstore.webservice.core.WorkflowVersion.findDagJsonByDescriptorHash", query = "SELECT v.dagJson FROM WorkflowVersion v WHERE v.parent.id = :id AND v.dagDescriptorHash = :descriptorHash AND v.dagJson IS NOT NULL")
 })
 
 @SuppressWarnings("checkstyle:magicnumber")
@@ -100,6 +101,13 @@ public class WorkflowVersion extends Version<WorkflowVersion> implements Compara
     @Column(columnDefinition = "TEXT")
     private String dagJson;
 
+    /**
+     * Hash of the descriptors that dagJson was produced from, see ParsedDescriptorCache.
+     */
+    @JsonIgnore
+    @Column(columnDefinition = "TEXT")
+    private String dagDescriptorHash;
+
     @JsonIgnore
     @Column(columnDefinition = "TEXT")
     private String toolTableJson;
@@ -242,6 +250,14 @@ public class WorkflowVersion extends Version<WorkflowVersion> implements Compara
         this.dagJson = dagJson;
     }
 
+    public String getDagDescriptorHash() {
+        return dagDescriptorHash;
+    }
+
+    public void setDagDescriptorHash(final String dagDescriptorHash) {
+        this.dagDescriptorHash = dagDescriptorHash;
+    }
+
     public String getToolTableJson() {
         return toolTableJson;
     }
@@ -0,0 +1,47 @@
+/*
+ *    Copyright 2025 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.webservice.core.docker;
+
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * The response to a token request. Source: https://docs.docker.com/registry/spec/auth/token/#token-response-fields
+ */
+public class DockerTokenResponse {
+    private String token;
+
+    /**
+     * The number of seconds the token is valid for, from when it was issued
+     */
+    @SerializedName("expires_in")
+    private Long expiresIn;
+
+    public String getToken() {
+        return token;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+
+    public Long getExpiresIn() {
+        return expiresIn;
+    }
+
+    public void setExpiresIn(Long expiresIn) {
+        this.expiresIn = expiresIn;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2025 OICR and UCSC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.dockstore.webservice.core.metrics;
+
+import io.dockstore.common.Partner;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.NamedQueries;
+import jakarta.persistence.NamedQuery;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.sql.Timestamp;
+import org.hibernate.annotations.CreationTimestamp;
+
+/**
+ * Indexes the S3 metrics file that an execution was submitted in, so that the execution can be retrieved without
+ * searching every file in the trsId/versionId/platform metrics directory.
+ */
+@Entity
+@Table(name = "execution_file", uniqueConstraints = @UniqueConstraint(name = "unique_execution_file_executionid", columnNames = {"trsid", "versionid", "platform", "executionid"}))
+@NamedQueries({
+    @NamedQuery(name = "io.dockstore.webservice.core.metrics.ExecutionFile.findByExecutionIds", query = "SELECT ef FROM ExecutionFile ef WHERE ef.trsId = :trsId AND ef.versionId = :versionId AND ef.platform = :platform AND ef.executionId IN :executionIds"),
+    @NamedQuery(name = "io.dockstore.webservice.core.metrics.ExecutionFile.findFileNames", query = "SELECT DISTINCT ef.fileName FROM ExecutionFile ef WHERE ef.trsId = :trsId AND ef.versionId = :versionId AND ef.platform = :platform")
+})
+public class ExecutionFile {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String trsId;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String versionId;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private Partner platform;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String executionId;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String fileName;
+
+    @Column(updatable = false)
+    @CreationTimestamp
+    private Timestamp dbCreateDate;
+
+    public ExecutionFile() {
+    }
+
+    public ExecutionFile(String trsId, String versionId, Partner platform, String executionId, String fileName) {
+        this.trsId = trsId;
+        this.versionId = versionId;
+        this.platform = platform;
+        this.executionId = executionId;
+        this.fileName = fileName;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getTrsId() {
+        return trsId;
+    }
+
+    public String getVersionId() {
+        return versionId;
+    }
+
+    public Partner getPlatform() {
+        return platform;
+    }
+
+    public String getExecutionId() {
+        return executionId;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public Timestamp getDbCreateDate() {
+        return dbCreateDate;
+    }
+}
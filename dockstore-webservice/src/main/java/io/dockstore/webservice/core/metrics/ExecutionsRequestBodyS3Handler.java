@@ -24,11 +24,16 @@ import io.dockstore.common.Partner;
 import io.dockstore.common.metrics.ExecutionsRequestBody;
 import io.dockstore.common.metrics.MetricsData;
 import io.dockstore.common.metrics.MetricsDataS3Client;
+import io.dockstore.webservice.jdbi.ExecutionFileDAO;
 import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.amazon.awssdk.awscore.exception.AwsServiceException;
@@ -37,6 +42,7 @@ import software.amazon.awssdk.core.exception.SdkClientException;
 /**
  * A helper class that handles ExecutionsRequestBody objects that are sent and retrieved from S3 for a specific trsId, versionId, and platform.
  * These functions only find/retrieve/put objects in the trsId/versionId/platform metrics directory in S3.
+ * The file that each execution was submitted in is indexed in the database, see ExecutionFile.
  */
 public class ExecutionsRequestBodyS3Handler {
     private static final Logger LOG = LoggerFactory.getLogger(ExecutionsRequestBodyS3Handler.class);
@@ -46,14 +52,18 @@ public class ExecutionsRequestBodyS3Handler {
     private final String versionId;
     private final Partner platform;
     private final MetricsDataS3Client metricsDataS3Client;
+    private final ExecutionFileDAO executionFileDAO;
     private final Map<String, String> executionIdToFileName = new HashMap<>();
     private final Map<String, ExecutionsRequestBody> fileNameToExecutionsRequestBody = new HashMap<>();
+    private final Set<String> lookedUpExecutionIds = new HashSet<>();
+    private boolean searchedUnindexedFiles = false;
 
-    public ExecutionsRequestBodyS3Handler(String trsId, String versionId, Partner platform, MetricsDataS3Client metricsDataS3Client) {
+    public ExecutionsRequestBodyS3Handler(String trsId, String versionId, Partner platform, MetricsDataS3Client metricsDataS3Client, ExecutionFileDAO executionFileDAO) {
         this.trsId = trsId;
         this.versionId = versionId;
         this.platform = platform;
         this.metricsDataS3Client = metricsDataS3Client;
+        this.executionFileDAO = executionFileDAO;
     }
 
     /**
@@ -71,7 +81,7 @@ public class ExecutionsRequestBodyS3Handler {
     }
 
     /**
-     * Creates an S3 object for the ExecutionsRequestBody provided.
+     * Creates an S3 object for the ExecutionsRequestBody provided, and indexes its executions.
      * @param fileName
      * @param ownerId
      * @param description
@@ -85,35 +95,46 @@ public class ExecutionsRequestBodyS3Handler {
             throws JsonProcessingException, AwsServiceException, SdkClientException {
         final String executionsRequestBodyString = OBJECT_MAPPER.writeValueAsString(executionsRequestBody);
         metricsDataS3Client.createS3Object(trsId, versionId, platform.name(), fileName, ownerId, description, executionsRequestBodyString);
+        fileNameToExecutionsRequestBody.put(fileName, executionsRequestBody);
+        executionFileDAO.index(trsId, versionId, platform, fileName, executionsRequestBody.getExecutionIds());
+        executionsRequestBody.getExecutionIds().forEach(executionId -> executionIdToFileName.putIfAbsent(executionId, fileName));
+    }
+
+    /**
+     * Looks up the files of the specified executions in the index, so that later searches for them only retrieve their files.
+     * @param executionIds IDs of the executions that will be searched for
+     */
+    public void loadIndexedFileNames(Collection<String> executionIds) {
+        final List<String> executionIdsToLoad = executionIds.stream()
+                .filter(executionId -> executionId != null && !executionIdToFileName.containsKey(executionId) && !lookedUpExecutionIds.contains(executionId))
+                .toList();
+        if (!executionIdsToLoad.isEmpty()) {
+            lookedUpExecutionIds.addAll(executionIdsToLoad);
+            executionIdToFileName.putAll(executionFileDAO.findFileNames(trsId, versionId, platform, executionIdsToLoad));
+        }
     }
 
     /**
      * Searches S3 for an execution with executionId.
+     * The file containing the execution is looked up in the index. If the execution is not indexed, the files in S3 that are not indexed
+     * are searched, and their executions are added to the index.
      * @param executionId executionId of the execution to find
      * @param returnAsSingleExecutionsRequestBody A boolean indicating if the ExecutionsRequestBody returned should only contain the execution the funtion was searching for.
      *                                            If false, it returns the entire ExecutionsRequestBody of the file that the execution belongs in.
      * @return
      */
     public  Optional<ExecutionsFromS3> searchS3ForExecutionId(String executionId, boolean returnAsSingleExecutionsRequestBody) {
+        loadIndexedFileNames(Collections.singletonList(executionId));
         if (!executionIdToFileName.containsKey(executionId)) {
-            // Find the file that contains the execution ID
-            List<MetricsData> metricsDataList = metricsDataS3Client.getMetricsData(trsId, versionId, platform);
-            for (MetricsData metricsData: metricsDataList) {
-                Optional<ExecutionsRequestBody> executionsRequestBody = getExecutionsRequestBodyByFileName(metricsData.fileName());
-                if (executionsRequestBody.isPresent() && executionsRequestBody.get().containsExecutionId(executionId)) {
-                    // Save the info for this execution ID and all other execution IDs in the found file
-                    final String fileName = metricsData.fileName();
-                    executionIdToFileName.put(executionId, fileName);
-                    fileNameToExecutionsRequestBody.put(fileName, executionsRequestBody.get());
-                    executionsRequestBody.get().getExecutionIds().forEach(executionIdInSameFile -> executionIdToFileName.put(executionIdInSameFile, fileName));
-                    break;
-                }
-            }
+            searchUnindexedFiles();
         }
 
         final String fileName = executionIdToFileName.get(executionId);
-        final ExecutionsRequestBody foundExecutionsRequestBody = fileNameToExecutionsRequestBody.get(fileName);
-        if (foundExecutionsRequestBody != null) {
+        if (fileName == null) {
+            return Optional.empty();
+        }
+        final ExecutionsRequestBody foundExecutionsRequestBody = getCachedExecutionsRequestBody(fileName).orElse(null);
+        if (foundExecutionsRequestBody != null && foundExecutionsRequestBody.containsExecutionId(executionId)) {
             if (returnAsSingleExecutionsRequestBody) {
                 Optional<ExecutionsRequestBody> singleExecutionsRequestBody = foundExecutionsRequestBody.getExecutionAsExecutionsRequestBodyWithOneExecution(executionId);
                 if (singleExecutionsRequestBody.isPresent()) {
@@ -126,5 +147,43 @@ public class ExecutionsRequestBodyS3Handler {
         return Optional.empty();
     }
 
+    private Optional<ExecutionsRequestBody> getCachedExecutionsRequestBody(String fileName) {
+        ExecutionsRequestBody executionsRequestBody = fileNameToExecutionsRequestBody.get(fileName);
+        if (executionsRequestBody == null) {
+            executionsRequestBody = getExecutionsRequestBodyByFileName(fileName).orElse(null);
+            if (executionsRequestBody != null) {
+                fileNameToExecutionsRequestBody.put(fileName, executionsRequestBody);
+            }
+        }
+        return Optional.ofNullable(executionsRequestBody);
+    }
+
+    /**
+     * Searches the files that were submitted before the index existed, or whose executions could not be indexed, and indexes their executions.
+     * Once every file is indexed, this only lists the files in S3.
+     */
+    private void searchUnindexedFiles() {
+        if (searchedUnindexedFiles) {
+            return;
+        }
+        searchedUnindexedFiles = true;
+        final Set<String> indexedFileNames = executionFileDAO.findIndexedFileNames(trsId, versionId, platform);
+        List<MetricsData> metricsDataList = metricsDataS3Client.getMetricsData(trsId, versionId, platform);
+        for (MetricsData metricsData: metricsDataList) {
+            final String fileName = metricsData.fileName();
+            if (indexedFileNames.contains(fileName)) {
+                continue;
+            }
+            Optional<ExecutionsRequestBody> executionsRequestBody = getExecutionsRequestBodyByFileName(fileName);
+            if (executionsRequestBody.isPresent()) {
+                final List<String> executionIds = executionsRequestBody.get().getExecutionIds();
+                LOG.info("Indexing {} executions in metrics file {} for {} version {} platform {}", executionIds.size(), fileName, trsId, versionId, platform);
+                executionFileDAO.index(trsId, versionId, platform, fileName, executionIds);
+                // the first file containing an execution takes precedence, as it does in the index
+                executionIds.forEach(executionIdInFile -> executionIdToFileName.putIfAbsent(executionIdInFile, fileName));
+            }
+        }
+    }
+
     public record ExecutionsFromS3(String fileName, ExecutionsRequestBody executionsRequestBody) {}
 }
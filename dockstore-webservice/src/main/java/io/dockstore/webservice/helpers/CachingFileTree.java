@@ -38,6 +38,11 @@ import java.util.Optional;
  * resource when the code makes multiple passes over the same files,
  * without needing to explicitly propagate the retrieved information
  * (by passing it down the call stack, saving it in a variable, etc).
+ *
+ * File content is deduplicated through the shared FileContentCache.  If the
+ * underlying FileTree has a content ID, its files and directory listings are
+ * also cached across FileTree instances, so that a later request for the same
+ * commit does not read them from the source again.
  */
 public class CachingFileTree implements FileTree {
 
@@ -57,8 +62,15 @@ public class CachingFileTree implements FileTree {
 
     public CachingFileTree(FileTree fileTree) {
         this.fileTree = fileTree;
-        this.filePathToContent = Caffeine.newBuilder().build(filePath -> Optional.ofNullable(intern(fileTree.readFile(filePath))));
-        this.dirPathToFiles = Caffeine.newBuilder().build(dirPath -> fileTree.listFiles(dirPath));
+        FileContentCache fileContentCache = FileContentCache.getInstance();
+        String contentId = fileTree.getContentId();
+        if (contentId != null) {
+            this.filePathToContent = Caffeine.newBuilder().build(filePath -> Optional.ofNullable(fileContentCache.readFile(contentId, filePath, fileTree::readFile)));
+            this.dirPathToFiles = Caffeine.newBuilder().build(dirPath -> fileContentCache.listFiles(contentId, dirPath, fileTree::listFiles));
+        } else {
+            this.filePathToContent = Caffeine.newBuilder().build(filePath -> Optional.ofNullable(fileContentCache.deduplicate(fileTree.readFile(filePath))));
+            this.dirPathToFiles = Caffeine.newBuilder().build(dirPath -> fileTree.listFiles(dirPath));
+        }
     }
 
     @Override
@@ -79,7 +91,8 @@ public class CachingFileTree implements FileTree {
         return paths;
     }
 
-    private String intern(String value) {
-        return value != null ? value.intern() : null;
+    @Override
+    public String getContentId() {
+        return fileTree.getContentId();
     }
 }
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2025 OICR and UCSC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *           http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.dockstore.webservice.helpers;
+
+import com.codahale.metrics.MetricRegistry;
+import com.github.benmanes.caffeine.cache.Cache;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Registers the statistics of Caffeine caches as gauges.
+ */
+public final class CaffeineMetrics {
+
+    private CaffeineMetrics() {
+    }
+
+    /**
+     * Register gauges named hitCount, missCount, evictionCount and size for a cache that records its statistics. The cache is looked
+     * up each time a gauge is read, so that a cache that is replaced when it is reconfigured is still measured, and a null cache,
+     * which is disabled, reads as 0.
+     * @param name the prefix of the gauge names
+     * @param cache supplies the current cache
+     */
+    public static void register(MetricRegistry registry, String name, Supplier<? extends Cache<?, ?>> cache) {
+        registry.registerGauge(MetricRegistry.name(name, "hitCount"), () -> read(cache, current -> current.stats().hitCount()));
+        registry.registerGauge(MetricRegistry.name(name, "missCount"), () -> read(cache, current -> current.stats().missCount()));
+        registry.registerGauge(MetricRegistry.name(name, "evictionCount"), () -> read(cache, current -> current.stats().evictionCount()));
+        registry.registerGauge(MetricRegistry.name(name, "size"), () -> read(cache, Cache::estimatedSize));
+    }
+
+    private static long read(Supplier<? extends Cache<?, ?>> cache, ToLongFunction<Cache<?, ?>> stat) {
+        final Cache<?, ?> current = cache.get();
+        return current == null ? 0 : stat.applyAsLong(current);
+    }
+}
@@ -19,6 +19,11 @@ package io.dockstore.webservice.helpers;
 import static io.dockstore.webservice.languages.LanguageHandlerInterface.formatImageInfo;
 import static io.dockstore.webservice.resources.ResourceConstants.JWT_SECURITY_DEFINITION_NAME;
 
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.google.common.hash.Hashing;
 import com.google.gson.Gson;
 import io.dockstore.common.Registry;
@@ -31,12 +36,14 @@ import io.dockstore.webservice.core.docker.DockerLayer;
 import io.dockstore.webservice.core.docker.DockerManifestList;
 import io.dockstore.webservice.core.docker.DockerPlatform;
 import io.dockstore.webservice.core.docker.DockerPlatformManifest;
+import io.dockstore.webservice.core.docker.DockerTokenResponse;
 import io.dockstore.webservice.languages.LanguageHandlerInterface;
 import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.Response.Status.Family;
 import java.io.IOException;
 import java.io.Reader;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
@@ -44,6 +51,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
@@ -62,9 +70,38 @@ public final class DockerRegistryAPIHelper {
     public static final String OCI_IMAGE_INDEX_MEDIA_TYPE = "application/vnd.oci.image.index.v1+json";
     public static final String DIGEST_HASH_ALGORITHM = "sha256";
 
+    public static final Duration DEFAULT_TOKEN_EXPIRY = Duration.ofSeconds(60);
+    public static final long DEFAULT_TOKEN_CACHE_MAXIMUM_SIZE = 10_000;
+    /**
+     * The part of a token's lifetime, at the end, during which the cached token is no longer used, so that a new token is requested
+     * before the cached one expires.
+     */
+    private static final double TOKEN_REFRESH_FRACTION = 0.2;
+    private static final String PULL_ACTION = "pull";
+
+    private static volatile Cache<TokenKey, DockerToken> tokens = createTokenCache(DEFAULT_TOKEN_CACHE_MAXIMUM_SIZE);
+    private static volatile MetricRegistry metrics = new MetricRegistry();
+
     private DockerRegistryAPIHelper() {
     }
 
+    /**
+     * Replaces the token cache with an empty cache.
+     * @param maximumSize the maximum number of tokens cached
+     */
+    public static void configure(long maximumSize) {
+        tokens = createTokenCache(maximumSize);
+    }
+
+    private static Cache<TokenKey, DockerToken> createTokenCache(long maximumSize) {
+        return Caffeine.newBuilder().maximumSize(maximumSize).expireAfter(new TokenExpiry()).recordStats().build();
+    }
+
+    public static void registerMetrics(MetricRegistry registry) {
+        metrics = registry;
+        CaffeineMetrics.register(registry, MetricRegistry.name(DockerRegistryAPIHelper.class, "tokens"), () -> tokens);
+    }
+
 
     /**
      * Gets images from a registry by retrieving image metadata, including the checksum, using the Docker Registry HTTP API V2.
@@ -207,25 +244,44 @@ public final class DockerRegistryAPIHelper {
      * Get an anonymous token with pull access to make Docker Registry HTTP API V2 calls.
      * Source for token request specs: https://docs.docker.com/registry/spec/auth/token/#requesting-a-token
      *
+     * <p>Tokens are cached until shortly before they expire, so that the images of a repository can be fetched one after the other
+     * without requesting a token for each, and a cached token is never used so close to its expiry that it expires mid-request.
+     * Concurrent requests for the token of the same repository are made once.
+     *
      * @param registryDockerPath
      * @param repo
      * @return token
      */
     public static Optional<String> getDockerToken(String registryDockerPath, String repo) {
-        String getTokenURL = String.format("https://%s/token?scope=repository:%s:pull&service=%s", registryDockerPath, repo, registryDockerPath);
+        return getDockerToken(new TokenKey(registryDockerPath, repo, PULL_ACTION), DockerRegistryAPIHelper::requestDockerToken);
+    }
+
+    static Optional<String> getDockerToken(TokenKey key, Function<TokenKey, Optional<DockerToken>> requester) {
+        // a failed request is returned as null, so that it is not cached
+        final DockerToken token = tokens.get(key, tokenKey -> requester.apply(tokenKey).orElse(null));
+        return Optional.ofNullable(token).map(DockerToken::token);
+    }
+
+    private static Optional<DockerToken> requestDockerToken(TokenKey key) {
+        String getTokenURL = String.format("https://%s/token?scope=%s&service=%s", key.registryDockerPath(), key.scope(), key.registryDockerPath());
         Request request = new Request.Builder().url(getTokenURL).build();
 
         Response tokenResponse;
         try {
-            tokenResponse = CLIENT.newCall(request).execute();
+            tokenResponse = execute(request, key.registryDockerPath(), "token");
         } catch (IOException ex) {
             LOG.error("Could not send token request GET {}", getTokenURL, ex);
             return Optional.empty();
         }
 
         if (tokenResponse.isSuccessful()) {
-            Map<String, String> tokenMap = GSON.fromJson(tokenResponse.body().charStream(), Map.class);
-            return Optional.ofNullable(tokenMap.get("token"));
+            DockerTokenResponse tokenJson = GSON.fromJson(tokenResponse.body().charStream(), DockerTokenResponse.class);
+            if (tokenJson == null || tokenJson.getToken() == null) {
+                return Optional.empty();
+            }
+            // The token spec says that a token without an expires_in is valid for 60 seconds
+            Duration expiresIn = tokenJson.getExpiresIn() == null ? DEFAULT_TOKEN_EXPIRY : Duration.ofSeconds(tokenJson.getExpiresIn());
+            return Optional.of(new DockerToken(tokenJson.getToken(), expiresIn));
         } else {
             LOG.error(getDockerErrorMessage(tokenResponse));
             return Optional.empty();
@@ -267,7 +323,7 @@ public final class DockerRegistryAPIHelper {
                 }
                 Thread.sleep(waitTime);
 
-                manifestResponse = CLIENT.newCall(request).execute();
+                manifestResponse = execute(request, registryDockerPath, "manifest");
                 if (manifestResponse.isSuccessful()) {
                     success = true;
                 } else {
@@ -324,7 +380,7 @@ public final class DockerRegistryAPIHelper {
         Response blobResponse;
         try {
             // This endpoint may issue a 307 redirect to another service to download the blob
-            blobResponse = CLIENT.newCall(request).execute();
+            blobResponse = execute(request, registryDockerPath, "blob");
         } catch (IOException ex) {
             LOG.error("Could not send blob request GET {}", getBlobURL, ex);
             return Optional.empty();
@@ -338,6 +394,15 @@ public final class DockerRegistryAPIHelper {
         }
     }
 
+    /**
+     * Sends a request, timing it with a timer named after the registry and the kind of request.
+     */
+    private static Response execute(Request request, String registryDockerPath, String requestKind) throws IOException {
+        try (Timer.Context ignored = metrics.timer(MetricRegistry.name(DockerRegistryAPIHelper.class, registryDockerPath, requestKind)).time()) {
+            return CLIENT.newCall(request).execute();
+        }
+    }
+
     /**
      * Returns an error message for an unsuccessful Docker Registry HTTP API V2 response
      * Actionable failures are reported as part of 4xx responses, in a json response body with the format defined in https://docs.docker.com/registry/spec/api/#errors
@@ -377,4 +442,41 @@ public final class DockerRegistryAPIHelper {
 
         return Hashing.sha256().hashString(manifestBodyString, StandardCharsets.UTF_8).toString();
     }
+
+    /**
+     * @param registryDockerPath the registry the token is for
+     * @param repo the repository the token grants access to
+     * @param action the access the token grants, such as pull
+     */
+    record TokenKey(String registryDockerPath, String repo, String action) {
+        String scope() {
+            return String.format("repository:%s:%s", repo, action);
+        }
+    }
+
+    /**
+     * @param token the bearer token
+     * @param expiresIn how long the token is valid for, from when it was issued
+     */
+    record DockerToken(String token, Duration expiresIn) {
+    }
+
+    private static final class TokenExpiry implements Expiry<TokenKey, DockerToken> {
+
+        @Override
+        public long expireAfterCreate(TokenKey key, DockerToken token, long currentTime) {
+            final long lifetime = Math.max(0, token.expiresIn().toNanos());
+            return lifetime - (long) (lifetime * TOKEN_REFRESH_FRACTION);
+        }
+
+        @Override
+        public long expireAfterUpdate(TokenKey key, DockerToken token, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, token, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(TokenKey key, DockerToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
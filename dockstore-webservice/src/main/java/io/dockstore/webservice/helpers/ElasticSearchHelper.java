@@ -44,10 +44,16 @@ public final class  ElasticSearchHelper implements Managed {
     }
 
     public static boolean doMappingsExist() {
-        GetMappingsRequest getMappingsRequest = new GetMappingsRequest();
         try {
-            GetMappingsResponse response = restHighLevelClient.indices().getMapping(getMappingsRequest, RequestOptions.DEFAULT);
-            return response.mappings().keySet().containsAll(ElasticListener.INDEXES);
+            for (String index : ElasticListener.INDEXES) {
+                // the index is usually an alias, so the mappings are keyed by the name of the index behind it
+                GetMappingsRequest getMappingsRequest = new GetMappingsRequest().indices(index);
+                GetMappingsResponse response = restHighLevelClient.indices().getMapping(getMappingsRequest, RequestOptions.DEFAULT);
+                if (response.mappings().isEmpty()) {
+                    return false;
+                }
+            }
+            return true;
         } catch (Exception e) {
             LOG.error("Could not get Elasticsearch mappings", e);
             return false;
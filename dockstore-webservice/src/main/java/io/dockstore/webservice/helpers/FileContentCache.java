@@ -0,0 +1,162 @@
+/*
+ * Copyright 2025 OICR and UCSC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.dockstore.webservice.helpers;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import org.apache.commons.codec.digest.DigestUtils;
+
+/**
+ * A size-bounded cache of file content that is shared by all FileTrees.
+ *
+ * File content is stored once per distinct content, keyed by its SHA-256 hash, and
+ * the cache returns the same String instance for identical content, whichever file
+ * it was read from. The content of immutable file trees, identified by their content
+ * ID (for example, a repository and commit SHA), is also indexed by path, so that a
+ * later request for the same tree does not read the file from its source again.
+ */
+public final class FileContentCache {
+
+    public static final long DEFAULT_MAXIMUM_WEIGHT = 64L * 1024 * 1024;
+    private static final long MAXIMUM_INDEX_SIZE = 100_000;
+
+    private static volatile FileContentCache instance = new FileContentCache(DEFAULT_MAXIMUM_WEIGHT);
+
+    /**
+     * Content hash to content, weighed by content length.
+     */
+    private final Cache<String, String> hashToContent;
+    /**
+     * File in an immutable tree to the hash of its content, or empty if the file does not exist.
+     */
+    private final Cache<FileKey, Optional<String>> fileToHash;
+    /**
+     * Directory in an immutable tree to its contents.
+     */
+    private final Cache<FileKey, List<String>> directoryToFiles;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    FileContentCache(long maximumWeight) {
+        this.hashToContent = Caffeine.newBuilder().maximumWeight(maximumWeight).weigher((String hash, String content) -> content.length()).recordStats().build();
+        this.fileToHash = Caffeine.newBuilder().maximumSize(MAXIMUM_INDEX_SIZE).build();
+        this.directoryToFiles = Caffeine.newBuilder().maximumSize(MAXIMUM_INDEX_SIZE).build();
+    }
+
+    public static FileContentCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Replaces the shared cache with an empty cache of the specified size.
+     * @param maximumWeight the maximum total length of the cached content, in characters
+     */
+    public static void setMaximumWeight(long maximumWeight) {
+        instance = new FileContentCache(maximumWeight);
+    }
+
+    /**
+     * Returns the cached String with the same content as the specified String, caching it if there is none.
+     * @param content file content, may be null
+     * @return a String with the same content
+     */
+    public String deduplicate(String content) {
+        if (content == null) {
+            return null;
+        }
+        return hashToContent.get(DigestUtils.sha256Hex(content), hash -> content);
+    }
+
+    /**
+     * Reads a file from an immutable file tree, using the cached content if present.
+     * @param contentId the content ID of the file tree
+     * @param filePath absolute path of the file
+     * @param reader reads the file from the file tree if it is not cached
+     * @return contents of the file, or null if the file did not exist
+     */
+    public String readFile(String contentId, Path filePath, Function<Path, String> reader) {
+        final FileKey key = new FileKey(contentId, filePath);
+        final Optional<String> cachedHash = fileToHash.getIfPresent(key);
+        if (cachedHash != null) {
+            final String content = cachedHash.map(hashToContent::getIfPresent).orElse(null);
+            // the content may have been evicted, in which case the file is read again
+            if (cachedHash.isEmpty() || content != null) {
+                hits.increment();
+                return content;
+            }
+        }
+        misses.increment();
+        final String content = reader.apply(filePath);
+        if (content == null) {
+            fileToHash.put(key, Optional.empty());
+            return null;
+        }
+        final String hash = DigestUtils.sha256Hex(content);
+        fileToHash.put(key, Optional.of(hash));
+        return hashToContent.get(hash, h -> content);
+    }
+
+    /**
+     * Lists the files and subdirectories of a directory in an immutable file tree, using the cached list if present.
+     * @param contentId the content ID of the file tree
+     * @param dirPath absolute path of the directory
+     * @param lister lists the directory if it is not cached
+     * @return list of the names of files and subdirectories
+     */
+    public List<String> listFiles(String contentId, Path dirPath, Function<Path, List<String>> lister) {
+        final FileKey key = new FileKey(contentId, dirPath);
+        final List<String> cachedFiles = directoryToFiles.getIfPresent(key);
+        if (cachedFiles != null) {
+            hits.increment();
+            return cachedFiles;
+        }
+        misses.increment();
+        final List<String> files = lister.apply(dirPath);
+        if (files != null) {
+            directoryToFiles.put(key, List.copyOf(files));
+        }
+        return files;
+    }
+
+    /**
+     * Summarizes the performance of the cache.
+     * @return a map of measure names to values
+     */
+    public Map<String, String> getStatistics() {
+        Map<String, String> results = new HashMap<>();
+        results.put("hitCount", String.valueOf(hits.sum()));
+        results.put("missCount", String.valueOf(misses.sum()));
+        results.put("contentCount", String.valueOf(hashToContent.estimatedSize()));
+        results.put("contentEvictionCount", String.valueOf(hashToContent.stats().evictionCount()));
+        hashToContent.policy().eviction().ifPresent(eviction -> {
+            results.put("maxSize", eviction.getMaximum() + " characters");
+            eviction.weightedSize().ifPresent(size -> results.put("size", size + " characters"));
+        });
+        return results;
+    }
+
+    private record FileKey(String contentId, Path path) {
+    }
+}
@@ -46,4 +46,13 @@ public interface FileTree {
      * @return list of the absolute paths, relative to the file tree root
      */
     List<Path> listPaths();
+
+    /**
+     * Identifies the content of this file tree, if it cannot change, so that its files can be cached across file tree instances.
+     * File trees with the same content ID must have the same files, for example, because they were read from the same commit of the same repository.
+     * @return the content ID, or null if the content of this file tree may change
+     */
+    default String getContentId() {
+        return null;
+    }
 }
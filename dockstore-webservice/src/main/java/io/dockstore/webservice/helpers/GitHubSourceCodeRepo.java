@@ -59,14 +59,17 @@ import io.dockstore.webservice.core.WorkflowMode;
 import io.dockstore.webservice.core.WorkflowVersion;
 import io.dockstore.webservice.jdbi.TokenDAO;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -75,6 +78,10 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.Spliterator;
 import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -88,6 +95,7 @@ import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.http.HttpStatus;
+import org.hibernate.Hibernate;
 import org.kohsuke.github.GHBlob;
 import org.kohsuke.github.GHBranch;
 import org.kohsuke.github.GHCommit;
@@ -111,6 +119,7 @@ import org.kohsuke.github.GitHubRateLimitHandler;
 import org.kohsuke.github.RateLimitChecker.LiteralValue;
 import org.kohsuke.github.connector.GitHubConnectorResponse;
 import org.kohsuke.github.extras.okhttp3.OkHttpGitHubConnector;
+import org.kohsuke.github.function.InputStreamFunction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -136,6 +145,12 @@ public class GitHubSourceCodeRepo extends SourceCodeRepoInterface {
     public static final Pattern GIT_BRANCH_TAG_PATTERN = Pattern.compile("^refs/(tags|heads)/((?!.*//)(?!.*\\^)(?!.*:)(?!.*\\\\)(?!.*@)(?!.*\\[)(?!.*\\?)(?!.*~)(?!.*\\.\\.)[\\p{Punct}\\p{L}\\d\\-_/]+)$");
     private static final Logger LOG = LoggerFactory.getLogger(GitHubSourceCodeRepo.class);
 
+    private static volatile int versionRefreshParallelism = 1;
+    /**
+     * Set on the workers of a concurrent refresh, whose rate limit snapshots would overlap, the usage is reported once per batch instead.
+     */
+    private static final ThreadLocal<Boolean> REFRESH_WORKER = ThreadLocal.withInitial(() -> false);
+
     private final GitHub github;
     private final String githubTokenUsername;
 
@@ -261,19 +276,19 @@ public class GitHubSourceCodeRepo extends SourceCodeRepoInterface {
     }
 
     /**
-     * Reads a Zip file from GitHub that contains the tree corresponding to the specified repository and reference.
+     * Streams a Zip file from GitHub that contains the tree corresponding to the specified repository and commit.
      * @param repositoryId GitHub repository ID
-     * @param reference GitHub reference
-     * @return Zip file contents
+     * @param sha commit SHA
+     * @param streamFunction consumes the Zip file contents
+     * @return the result of the stream function
      */
-    public byte[] readZip(String repositoryId, String reference) {
+    public <T> T readZipAtCommit(String repositoryId, String sha, InputStreamFunction<T> streamFunction) {
         GHRepository repo;
         try {
-            String sha = getCommitID(repositoryId, reference);
             repo = github.getRepository(repositoryId);
-            return repo.readZip(in -> IOUtils.toByteArray(in), sha);
+            return repo.readZip(streamFunction, sha);
         } catch (IOException e) {
-            LOG.error(gitUsername + ": IOException on readZip while trying to get reference " + reference + " from repository " + repositoryId + ", " + e.getMessage(), e);
+            LOG.error(gitUsername + ": IOException on readZip while trying to get commit " + sha + " from repository " + repositoryId + ", " + e.getMessage(), e);
             throw new CustomWebApplicationException("Could not get repository " + repositoryId + " from GitHub.", HttpStatus.SC_BAD_REQUEST);
         }
     }
@@ -287,6 +302,44 @@ public class GitHubSourceCodeRepo extends SourceCodeRepoInterface {
      * @return
      */
     private String readFileFromRepo(final String originalFileName, final String originalReference, final GHRepository originalRepo) {
+        try {
+            return readFileFromRepoOrThrow(originalFileName, originalReference, originalRepo);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads a file at the commit of a reference. Since the content at a commit cannot change, the file is read through the shared
+     * FileContentCache, so that a later refresh of the same commit does not read it from GitHub again.
+     *
+     * @param fileName the filename that we're looking for
+     * @param ref the reference we're looking for, read at its commit if it has one
+     * @param repository the repo we're looking for the file in
+     * @return contents of the file, or null if it could not be read
+     */
+    private String readFileFromRepo(final String fileName, final GitReferenceInfo ref, final GHRepository repository) {
+        if (ref.sha() == null) {
+            return readFileFromRepo(fileName, ref.refName(), repository);
+        }
+        final String contentId = repository.getFullName() + "@" + ref.sha();
+        try {
+            return FileContentCache.getInstance().readFile(contentId, Paths.get(fileName), path -> {
+                try {
+                    return readFileFromRepoOrThrow(fileName, ref.sha(), repository);
+                } catch (IOException e) {
+                    // not cached, the read may succeed next time
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            return null;
+        }
+    }
+
+    private String readFileFromRepoOrThrow(final String originalFileName, final String originalReference, final GHRepository originalRepo) throws IOException {
+        // workers of a concurrent refresh report their usage once per batch
+        final boolean reportRateLimit = !REFRESH_WORKER.get();
         GHRateLimit startRateLimit = null;
         // when looking through submodules, we always look for a specific commit
         boolean submoduleRedirected = false;
@@ -294,7 +347,9 @@ public class GitHubSourceCodeRepo extends SourceCodeRepoInterface {
         String reference = originalReference;
         String fileName = originalFileName;
         try {
-            startRateLimit = getGhRateLimitQuietly();
+            if (reportRateLimit) {
+                startRateLimit = getGhRateLimitQuietly();
+            }
 
             // may need to pass owner from git url, as this may differ from the git username
             List<String> folders = Arrays.asList(fileName.split("/"));
@@ -375,10 +430,12 @@ public class GitHubSourceCodeRepo extends SourceCodeRepoInterface {
             }
         } catch (IOException e) {
             LOG.warn(gitUsername + ": IOException on readFileFromRepo " + fileName + " from repository " + repo.getFullName() +  ":" + reference + ", " + e.getMessage(), e);
-            return null;
+            throw e;
         } finally {
-            GHRateLimit endRateLimit = getGhRateLimitQuietly();
-            reportOnRateLimit("readFileFromRepo", startRateLimit, endRateLimit);
+            if (reportRateLimit) {
+                GHRateLimit endRateLimit = getGhRateLimitQuietly();
+                reportOnRateLimit("readFileFromRepo", startRateLimit, endRateLimit);
+            }
         }
     }
 
@@ -700,15 +757,20 @@ public class GitHubSourceCodeRepo extends SourceCodeRepoInterface {
             throw new CustomWebApplicationException("Could not reach GitHub, please try again later", HttpStatus.SC_SERVICE_UNAVAILABLE);
         }
 
-        // For each branch (reference) found, create a workflow version and find the associated descriptor files
+        // Fetch and parse the descriptor files for each changed branch (reference), possibly concurrently
+        final List<GitReferenceInfo> referencesToRefresh = references.stream()
+                .filter(ref -> toRefreshVersion(ref.sha(), existingDefaults.get(ref.refName()), hardRefresh))
+                .toList();
+        final Map<GitReferenceInfo, WorkflowVersion> refreshedVersions = setupWorkflowVersionsForReferences(referencesToRefresh, workflow,
+                existingWorkflow, existingDefaults, repository, versionName);
+
+        // Add the versions to the workflow serially, in reference order
         for (GitReferenceInfo ref : references) {
             if (ref != null) {
                 final String branchName = ref.refName();
                 final Date lastModified = ref.branchDate();
-                final String commitId = ref.sha();
-                if (toRefreshVersion(commitId, existingDefaults.get(branchName), hardRefresh)) {
-                    WorkflowVersion version = setupWorkflowVersionsHelper(workflow, ref, existingWorkflow, existingDefaults,
-                            repository, null, versionName);
+                if (refreshedVersions.containsKey(ref)) {
+                    WorkflowVersion version = refreshedVersions.get(ref);
                     if (version != null) {
                         workflow.addWorkflowVersion(version);
                     }
@@ -732,6 +794,72 @@ public class GitHubSourceCodeRepo extends SourceCodeRepoInterface {
         return workflow;
     }
 
+    /**
+     * Creates a workflow version for each of the given references. When more than one worker is configured, the references are
+     * fetched and parsed concurrently on virtual threads, bounded by the configured number of workers.
+     * Workers never touch the Hibernate session, lazily loaded collections of the existing versions are initialized up front.
+     * @param references references to create versions for
+     * @param workflow Workflow object
+     * @param existingWorkflow Optional existing workflow
+     * @param existingDefaults Optional mapping of existing versions
+     * @param repository GitHub repository object
+     * @param versionName Optional version name to refresh
+     * @return map from reference to the created version, which may be null if the reference did not contain a valid version
+     */
+    private Map<GitReferenceInfo, WorkflowVersion> setupWorkflowVersionsForReferences(List<GitReferenceInfo> references, Workflow workflow,
+            Optional<Workflow> existingWorkflow, Map<String, WorkflowVersion> existingDefaults, GHRepository repository, Optional<String> versionName) {
+        // identity map since a branch and a tag with the same name and commit are distinct references
+        final Map<GitReferenceInfo, WorkflowVersion> versions = new IdentityHashMap<>();
+        final int workers = Math.min(versionRefreshParallelism, references.size());
+        if (workers <= 1) {
+            references.forEach(ref -> versions.put(ref, setupWorkflowVersionsHelper(workflow, ref, existingWorkflow, existingDefaults, repository, null, versionName)));
+            return versions;
+        }
+
+        references.stream().map(ref -> existingDefaults.get(ref.refName())).filter(Objects::nonNull)
+                .forEach(existingVersion -> Hibernate.initialize(existingVersion.getSourceFiles()));
+        LOG.info("{}: Refreshing {} GitHub references with {} workers", gitUsername, references.size(), workers);
+        GHRateLimit startRateLimit = getGhRateLimitQuietly();
+
+        final List<Future<WorkflowVersion>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(workers, Thread.ofVirtual().name("github-refresh-", 0).factory())) {
+            for (GitReferenceInfo ref : references) {
+                futures.add(executor.submit(() -> {
+                    REFRESH_WORKER.set(true);
+                    try {
+                        return setupWorkflowVersionsHelper(workflow, ref, existingWorkflow, existingDefaults, repository, null, versionName);
+                    } finally {
+                        REFRESH_WORKER.remove();
+                    }
+                }));
+            }
+            for (int i = 0; i < references.size(); i++) {
+                versions.put(references.get(i), futures.get(i).get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CustomWebApplicationException("Interrupted while refreshing versions, please try again later", HttpStatus.SC_SERVICE_UNAVAILABLE);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            LOG.error(gitUsername + ": Could not refresh GitHub references", e.getCause());
+            throw new CustomWebApplicationException("Could not refresh versions, please try again later", HttpStatus.SC_INTERNAL_SERVER_ERROR);
+        }
+        GHRateLimit endRateLimit = getGhRateLimitQuietly();
+        reportOnRateLimit("setupWorkflowVersionsForReferences", startRateLimit, endRateLimit);
+        return versions;
+    }
+
+    /**
+     * Sets the maximum number of references that are fetched and parsed concurrently when refreshing a workflow.
+     * @param parallelism number of workers, 1 or less processes references one at a time
+     */
+    public static void setVersionRefreshParallelism(int parallelism) {
+        versionRefreshParallelism = parallelism;
+    }
+
 
     /**
      * Retrieves a repository from github
@@ -898,7 +1026,7 @@ public class GitHubSourceCodeRepo extends SourceCodeRepoInterface {
         // Grab workflow file from github
         try {
             // Get contents of descriptor file and store
-            String decodedContent = this.readFileFromRepo(calculatedPath, ref.refName(), repository);
+            String decodedContent = this.readFileFromRepo(calculatedPath, ref, repository);
             if (decodedContent != null) {
                 SourceFile file = SourceFile.limitedBuilder().type(identifiedType).content(decodedContent).paths(calculatedPath).build();
                 version = combineVersionAndSourcefile(repository.getFullName(), file, workflow, identifiedType, version, existingDefaults);
@@ -907,7 +1035,7 @@ public class GitHubSourceCodeRepo extends SourceCodeRepoInterface {
                 // TODO: why is this here? Does this code not have a counterpart in BitBucket and GitLab?
                 if (!version.isDirtyBit() && workflow.getDefaultTestParameterFilePath() != null) {
                     String testJsonPath = workflow.getDefaultTestParameterFilePath();
-                    String testJsonContent = this.readFileFromRepo(testJsonPath, ref.refName(), repository);
+                    String testJsonContent = this.readFileFromRepo(testJsonPath, ref, repository);
                     if (testJsonContent != null) {
                         DescriptorLanguage.FileType testJsonType = workflow.getDescriptorType().getTestParamType();
                         SourceFile testJson = SourceFile.limitedBuilder().type(testJsonType).content(testJsonContent).paths(testJsonPath).build();
@@ -954,7 +1082,7 @@ public class GitHubSourceCodeRepo extends SourceCodeRepoInterface {
             return null;
         }
         for (String filePath: files) {
-            String fileContent = this.readFileFromRepo(filePath, ref.refName(), repository);
+            String fileContent = this.readFileFromRepo(filePath, ref, repository);
             if (fileContent != null) {
                 SourceFile file = SourceFile.limitedBuilder().type(DescriptorLanguage.FileType.DOCKSTORE_SERVICE_OTHER).content(fileContent).paths(filePath).build();
                 version.getSourceFiles().add(file);
@@ -1024,7 +1152,7 @@ public class GitHubSourceCodeRepo extends SourceCodeRepoInterface {
         version.setReadMePath(readMePath);
 
         String validationMessage = "";
-        String fileContent = this.readFileFromRepo(primaryDescriptorPath, ref.refName(), repository);
+        String fileContent = this.readFileFromRepo(primaryDescriptorPath, ref, repository);
         if (fileContent != null) {
             // Add primary descriptor file and resolve imports
             DescriptorLanguage.FileType identifiedType = workflow.getDescriptorType().getFileType();
@@ -1040,7 +1168,7 @@ public class GitHubSourceCodeRepo extends SourceCodeRepoInterface {
                     if (hasDuplicate) {
                         continue;
                     }
-                    String testFileContent = this.readFileFromRepo(testParameterPath, ref.refName(), repository);
+                    String testFileContent = this.readFileFromRepo(testParameterPath, ref, repository);
                     if (testFileContent != null) {
                         DescriptorLanguage.FileType testFileType = workflow.getDescriptorType().getTestParamType();
                         SourceFile testFile = SourceFile.limitedBuilder().type(testFileType).content(testFileContent).paths(testParameterPath).build();
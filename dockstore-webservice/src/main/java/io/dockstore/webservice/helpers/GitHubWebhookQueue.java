@@ -0,0 +1,394 @@
+/*
+ * Copyright 2025 OICR and UCSC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *           http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.dockstore.webservice.helpers;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import io.dockstore.webservice.core.QueuedWebhook;
+import io.dropwizard.lifecycle.Managed;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Processes GitHub webhooks in the background, so that bursts of pushes do not tie up requests from the GitHub App lambda.
+ *
+ * <p>The webhooks of a repository are processed one at a time, in the order they were received, so that they never update the
+ * same workflows concurrently; webhooks of different repositories are processed in parallel. The {@link Handler} also keeps
+ * webservices that share the persisted queue from processing webhooks of the same repository at once; a webhook whose repository
+ * is busy in another webservice waits at the head of its repository's queue and is tried again shortly. A webhook that is still
+ * waiting is coalesced with a later webhook of the same type for the same branch or tag, unless a webhook of another type for that
+ * branch or tag was received in between, and only the later one is processed. A webhook that is to be retried stays at the head
+ * of its repository's queue until the retry, so that it is never processed after a later webhook of the same repository.
+ *
+ * <p>Webhooks are persisted by the caller before they are queued and deleted by the {@link Handler} once they are done. Several
+ * webservices can share the persisted queue: each persisted webhook is leased to the webservice that queued it, which renews the
+ * leases of its webhooks while it runs and releases them when it stops. A webservice claims the persisted webhooks that are not
+ * leased, or whose lease has expired because their webservice died, when it starts and then periodically, so a webhook is only
+ * processed twice if a webservice stalls for longer than the lease, which is harmless, as pushes and deletes are idempotent.
+ */
+public class GitHubWebhookQueue implements Managed {
+
+    public static final int DEFAULT_PARALLELISM = 4;
+    public static final int DEFAULT_MAX_RETRIES = 3;
+    public static final Duration DEFAULT_RETRY_DELAY = Duration.ofMinutes(5);
+    public static final Duration DEFAULT_BUSY_DELAY = Duration.ofSeconds(10);
+    public static final Duration DEFAULT_LEASE = Duration.ofMinutes(10);
+    private static final Logger LOG = LoggerFactory.getLogger(GitHubWebhookQueue.class);
+    private static final long STOP_WAIT_MINUTES = 5L;
+    private static final int LEASE_RENEWALS_PER_LEASE = 3;
+
+    private final Handler handler;
+    private final int parallelism;
+    private final int maxRetries;
+    private final Duration retryDelay;
+    private final Duration busyDelay;
+    private final Duration lease;
+    private final String owner = UUID.randomUUID().toString();
+
+    /**
+     * The waiting webhooks of each repository that has a webhook being processed or waiting. Guarded by this.
+     */
+    private final Map<String, List<Item>> repositoryQueues = new HashMap<>();
+    private int queueDepth;
+    private final Timer processingTime = new Timer();
+    private final Timer queueTime = new Timer();
+    private final Counter coalesced = new Counter();
+    private final Counter retried = new Counter();
+    private final Counter failed = new Counter();
+    private volatile ExecutorService workers;
+    private volatile ScheduledExecutorService scheduler;
+
+    public GitHubWebhookQueue(Handler handler, int parallelism, int maxRetries, Duration retryDelay, Duration busyDelay, Duration lease) {
+        this.handler = handler;
+        this.parallelism = Math.max(1, parallelism);
+        this.maxRetries = maxRetries;
+        this.retryDelay = retryDelay;
+        this.busyDelay = busyDelay;
+        this.lease = lease;
+    }
+
+    public void registerMetrics(MetricRegistry registry) {
+        registry.registerGauge(MetricRegistry.name(GitHubWebhookQueue.class, "queueDepth"), this::getQueueDepth);
+        registry.register(MetricRegistry.name(GitHubWebhookQueue.class, "processingTime"), processingTime);
+        registry.register(MetricRegistry.name(GitHubWebhookQueue.class, "queueTime"), queueTime);
+        registry.register(MetricRegistry.name(GitHubWebhookQueue.class, "coalesced"), coalesced);
+        registry.register(MetricRegistry.name(GitHubWebhookQueue.class, "retried"), retried);
+        registry.register(MetricRegistry.name(GitHubWebhookQueue.class, "failed"), failed);
+    }
+
+    /**
+     * @return the number of webhooks that are waiting to be processed
+     */
+    public synchronized int getQueueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * @return the name that this webservice leases persisted webhooks under
+     */
+    public String getOwner() {
+        return owner;
+    }
+
+    /**
+     * Lease a webhook to this webservice, before it is persisted.
+     */
+    public void lease(QueuedWebhook webhook) {
+        webhook.setLeaseOwner(owner);
+        webhook.setLeaseExpiry(Timestamp.from(Instant.now().plus(lease)));
+    }
+
+    /**
+     * Queue a webhook that has been persisted and leased to this webservice.
+     */
+    public void submit(QueuedWebhook webhook) {
+        enqueue(new Item(webhook, List.of(), 0, System.nanoTime()));
+    }
+
+    @Override
+    public void start() throws Exception {
+        workers = Executors.newFixedThreadPool(parallelism, Thread.ofPlatform().name("github-webhook-queue-", 0).daemon(true).factory());
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("github-webhook-scheduler").daemon(true).factory());
+        claim();
+        final long renewalMillis = Math.max(1, lease.toMillis() / LEASE_RENEWALS_PER_LEASE);
+        scheduler.scheduleWithFixedDelay(this::renewAndClaim, renewalMillis, renewalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() throws Exception {
+        // whatever is still waiting stays persisted, and is released to be claimed by another webservice or on the next start
+        scheduler.shutdownNow();
+        workers.shutdown();
+        if (!workers.awaitTermination(STOP_WAIT_MINUTES, TimeUnit.MINUTES)) {
+            LOG.error("GitHub webhook queue did not stop in time, {} webhooks are left to process on the next start", getQueueDepth());
+            workers.shutdownNow();
+        }
+        try {
+            handler.release(owner);
+        } catch (RuntimeException e) {
+            LOG.error("Could not release the leases of the GitHub webhooks, they will be claimed once the leases expire", e);
+        }
+    }
+
+    /**
+     * Claim and queue the persisted webhooks that are not leased, or whose lease has expired.
+     */
+    private void claim() {
+        final List<QueuedWebhook> claimed = handler.claim(owner, Timestamp.from(Instant.now().plus(lease)));
+        if (!claimed.isEmpty()) {
+            LOG.info("Queueing {} GitHub webhooks that were left by a webservice that stopped", claimed.size());
+            claimed.forEach(this::submit);
+        }
+    }
+
+    private void renewAndClaim() {
+        try {
+            handler.renew(owner, Timestamp.from(Instant.now().plus(lease)));
+            claim();
+        } catch (RuntimeException e) {
+            LOG.error("Could not renew or claim the leases of the GitHub webhooks", e);
+        }
+    }
+
+    private synchronized void enqueue(Item item) {
+        final String repository = item.webhook().getRepository();
+        if (workers == null || workers.isShutdown()) {
+            LOG.info("GitHub webhook queue is not running, leaving webhook {} to be claimed once its lease expires", item.webhook().getDeliveryId());
+            return;
+        }
+        List<Item> queue = repositoryQueues.get(repository);
+        if (queue == null) {
+            queue = new ArrayList<>();
+            repositoryQueues.put(repository, queue);
+            queue.add(item);
+            queueDepth++;
+            workers.execute(() -> processNext(repository));
+            return;
+        }
+        // a webhook claimed from a webservice that stopped can be older than the waiting ones, and ids are assigned as webhooks are received
+        int index = queue.size();
+        while (index > 0 && queue.get(index - 1).webhook().getId() > item.webhook().getId()) {
+            index--;
+        }
+        // coalesce with the nearest waiting webhook of the same branch or tag, received before or after, if it is of the same type
+        for (int i : List.of(findSameReference(queue, item, index - 1, -1), findSameReference(queue, item, index, 1))) {
+            if (i >= 0 && queue.get(i).webhook().getType() == item.webhook().getType()) {
+                queue.set(i, coalesce(queue.get(i), item));
+                coalesced.inc();
+                return;
+            }
+        }
+        queue.add(index, item);
+        queueDepth++;
+    }
+
+    /**
+     * @return the index of the first waiting webhook of the same branch or tag, looking from an index in a direction, or -1 if there is none
+     */
+    private static int findSameReference(List<Item> queue, Item item, int from, int step) {
+        for (int i = from; i >= 0 && i < queue.size(); i += step) {
+            if (Objects.equals(queue.get(i).webhook().getGitReference(), item.webhook().getGitReference())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Process the first waiting webhook of a repository, and then schedule the next one, so that busy repositories take turns
+     * with the others. A webhook that is to be retried is put back at the head of the queue, which waits for the retry.
+     */
+    private void processNext(String repository) {
+        final Item item;
+        synchronized (this) {
+            item = repositoryQueues.get(repository).remove(0);
+            queueDepth--;
+        }
+        queueTime.update(System.nanoTime() - item.queuedNanos(), TimeUnit.NANOSECONDS);
+        Retry retry = null;
+        try {
+            retry = process(item);
+        } finally {
+            synchronized (this) {
+                final List<Item> queue = repositoryQueues.get(repository);
+                if (retry != null) {
+                    queue.add(0, retry.item());
+                    queueDepth++;
+                    scheduler.schedule(() -> resume(repository), retry.delay().toMillis(), TimeUnit.MILLISECONDS);
+                } else if (queue.isEmpty()) {
+                    repositoryQueues.remove(repository);
+                } else if (workers.isShutdown()) {
+                    LOG.info("GitHub webhook queue is stopping, leaving the webhooks of {} for the next start", repository);
+                } else {
+                    workers.execute(() -> processNext(repository));
+                }
+            }
+        }
+    }
+
+    /**
+     * Resume the queue of a repository once the webhook at its head is due to be retried.
+     */
+    private synchronized void resume(String repository) {
+        if (workers.isShutdown()) {
+            LOG.info("GitHub webhook queue is stopping, leaving the webhooks of {} for the next start", repository);
+        } else {
+            workers.execute(() -> processNext(repository));
+        }
+    }
+
+    /**
+     * @return the webhook to retry, or null if the webhook is done with
+     */
+    private Retry process(Item item) {
+        Outcome outcome;
+        try (Timer.Context ignored = processingTime.time()) {
+            outcome = handler.process(item.webhook(), item.superseded());
+        } catch (RuntimeException e) {
+            LOG.error("Could not process GitHub webhook " + item.webhook().getDeliveryId(), e);
+            outcome = Outcome.FAILED;
+        }
+        if (outcome == Outcome.BUSY || (outcome == Outcome.RETRY && item.attempts() < maxRetries)) {
+            if (scheduler.isShutdown()) {
+                LOG.info("GitHub webhook queue is stopping, leaving webhook {} to retry on the next start", item.webhook().getDeliveryId());
+                return null;
+            }
+            if (outcome == Outcome.BUSY) {
+                // not an attempt, as the webhook was not processed
+                return new Retry(item, busyDelay);
+            }
+            retried.inc();
+            LOG.info("Retrying GitHub webhook {} for {} in {}", item.webhook().getDeliveryId(), item.webhook().getRepository(), retryDelay);
+            return new Retry(new Item(item.webhook(), item.superseded(), item.attempts() + 1, System.nanoTime()), retryDelay);
+        }
+        if (outcome != Outcome.PROCESSED) {
+            failed.inc();
+        }
+        try {
+            handler.discard(item.webhook(), item.superseded());
+        } catch (RuntimeException e) {
+            // it will be processed again on the next start, which is harmless, as pushes and deletes are idempotent
+            LOG.error("Could not discard GitHub webhook " + item.webhook().getDeliveryId(), e);
+        }
+        return null;
+    }
+
+    /**
+     * Coalesce two webhooks of the same type for the same branch or tag, keeping the one that was received later. The users that
+     * pushed either of them are all credited.
+     */
+    static Item coalesce(Item queued, Item item) {
+        final boolean itemIsLater = item.webhook().getId() > queued.webhook().getId();
+        final Item later = itemIsLater ? item : queued;
+        final Item earlier = itemIsLater ? queued : item;
+        final List<QueuedWebhook> superseded = new ArrayList<>(earlier.superseded());
+        superseded.addAll(later.superseded());
+        superseded.add(earlier.webhook());
+
+        final Set<String> otherUsers = new TreeSet<>(later.webhook().getOtherUsers());
+        otherUsers.addAll(earlier.webhook().getOtherUsers());
+        if (earlier.webhook().getSender() != null && !earlier.webhook().getSender().equals(later.webhook().getSender())) {
+            otherUsers.add(earlier.webhook().getSender());
+        }
+        later.webhook().setOtherUsers(otherUsers);
+        return new Item(later.webhook(), superseded, later.attempts(), Math.min(queued.queuedNanos(), item.queuedNanos()));
+    }
+
+    /**
+     * @param webhook the webhook to process
+     * @param superseded the earlier webhooks that were coalesced into it
+     * @param attempts the number of times processing has been retried
+     * @param queuedNanos when the webhook was queued
+     */
+    record Item(QueuedWebhook webhook, List<QueuedWebhook> superseded, int attempts, long queuedNanos) {
+    }
+
+    /**
+     * @param item the webhook to put back at the head of its repository's queue
+     * @param delay how long to wait before processing it again
+     */
+    private record Retry(Item item, Duration delay) {
+    }
+
+    public enum Outcome {
+        PROCESSED,
+        FAILED,
+        /**
+         * The webhook could not be processed for now, for example because the GitHub rate limit was hit.
+         */
+        RETRY,
+        /**
+         * Another webservice is processing a webhook of the same repository.
+         */
+        BUSY
+    }
+
+    /**
+     * Processes and persists the queued webhooks.
+     */
+    public interface Handler {
+        /**
+         * Lease the persisted webhooks that are not leased, or whose lease has expired, to a webservice. Webhooks that another
+         * webservice is claiming at the same time are skipped rather than waited for.
+         * @param owner the webservice
+         * @param leaseExpiry when the leases expire unless renewed
+         * @return the claimed webhooks, in the order they were queued
+         */
+        List<QueuedWebhook> claim(String owner, Timestamp leaseExpiry);
+
+        /**
+         * Renew the leases of the persisted webhooks that are leased to a webservice.
+         */
+        void renew(String owner, Timestamp leaseExpiry);
+
+        /**
+         * Release the leases of the persisted webhooks that are leased to a webservice, so that they can be claimed right away.
+         */
+        void release(String owner);
+
+        /**
+         * Process a webhook, unless another webservice is processing a webhook of the same repository. Called concurrently, but
+         * never for two webhooks of the same repository at once.
+         * @param webhook the webhook
+         * @param superseded the earlier webhooks that were coalesced into it, and are not processed
+         * @return the outcome, which is {@link Outcome#BUSY} if the webhook was not processed because its repository is busy
+         */
+        Outcome process(QueuedWebhook webhook, List<QueuedWebhook> superseded);
+
+        /**
+         * Delete a webhook that is done with, and the webhooks that it superseded, from the persisted queue.
+         */
+        void discard(QueuedWebhook webhook, List<QueuedWebhook> superseded);
+    }
+}
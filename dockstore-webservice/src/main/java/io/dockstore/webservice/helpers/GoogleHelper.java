@@ -17,6 +17,7 @@ import io.dockstore.webservice.core.User;
 import io.dockstore.webservice.resources.TokenResource;
 import java.io.IOException;
 import java.text.MessageFormat;
+import java.time.Duration;
 import java.util.Map;
 import java.util.Optional;
 import org.apache.http.HttpStatus;
@@ -119,17 +120,26 @@ public final class GoogleHelper {
     }
 
     public static Optional<Userinfoplus> userinfoplusFromToken(String token)  {
-        if (isValidToken(token)) {
+        return verifyToken(token).map(VerifiedToken::userinfoplus);
+    }
+
+    /**
+     * Verifies that a Google access token is valid and was issued for one of our client ids.
+     * @param token The Google access token
+     * @return the user the token belongs to and how long until the token expires, or empty if the token is not valid
+     */
+    public static Optional<VerifiedToken> verifyToken(String token) {
+        return tokenInfoFromToken(token).filter(GoogleHelper::isValidAudience).flatMap(tokenInfo -> {
             GoogleCredential credential = new GoogleCredential().setAccessToken(token);
             Oauth2 oauth2;
             try {
                 oauth2 = new Oauth2.Builder(TokenResource.HTTP_TRANSPORT, TokenResource.JSON_FACTORY, credential).setApplicationName("").build();
-                return Optional.ofNullable(oauth2.userinfo().get().execute());
+                final Duration expiresIn = tokenInfo.getExpiresIn() == null ? Duration.ZERO : Duration.ofSeconds(tokenInfo.getExpiresIn());
+                return Optional.ofNullable(oauth2.userinfo().get().execute()).map(userinfoplus -> new VerifiedToken(userinfoplus, expiresIn));
             } catch (Exception ex) {
                 return Optional.empty();
             }
-        }
-        return Optional.empty();
+        });
     }
 
     static boolean isValidAudience(Tokeninfo tokenInfo) {
@@ -160,10 +170,6 @@ public final class GoogleHelper {
         }
     }
 
-    private static boolean isValidToken(String googleToken) {
-        return tokenInfoFromToken(googleToken).map(GoogleHelper::isValidAudience).orElse(false);
-    }
-
     /**
      * Gets the Google TokenResponse
      *
@@ -187,4 +193,10 @@ public final class GoogleHelper {
         }
     }
 
+    /**
+     * @param userinfoplus the user a Google access token belongs to
+     * @param expiresIn how long the token was valid for when it was verified
+     */
+    public record VerifiedToken(Userinfoplus userinfoplus, Duration expiresIn) {
+    }
 }
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2025 OICR and UCSC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *           http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.dockstore.webservice.helpers;
+
+import com.codahale.metrics.MetricRegistry;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.google.api.services.oauth2.model.Userinfoplus;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+import org.apache.commons.codec.digest.DigestUtils;
+
+/**
+ * Caches the verification of Google access tokens, so that a client that repeatedly sends the same token, valid or not, does not
+ * cause a call to Google for every request.
+ *
+ * <p>A valid token is cached until it expires, but no longer than a configurable maximum, so that a revoked token stops working
+ * after a while. An invalid token is cached for a short time, in case it was only rejected because Google could not be reached.
+ * Concurrent verifications of the same token are made once, with the other callers waiting for the result. Tokens are cached by
+ * their SHA-256 hash rather than their content.
+ */
+public final class GoogleTokenCache {
+
+    public static final long DEFAULT_MAXIMUM_SIZE = 10_000;
+    public static final Duration DEFAULT_MAXIMUM_EXPIRY = Duration.ofMinutes(10);
+    public static final Duration DEFAULT_NEGATIVE_EXPIRY = Duration.ofSeconds(30);
+
+    private static volatile Cache<String, Verification> verifications = createCache(DEFAULT_MAXIMUM_SIZE, DEFAULT_MAXIMUM_EXPIRY,
+        DEFAULT_NEGATIVE_EXPIRY);
+
+    private GoogleTokenCache() {
+    }
+
+    /**
+     * Replaces the cache with an empty cache.
+     * @param maximumSize the maximum number of tokens cached
+     * @param maximumExpiry the longest a valid token is cached
+     * @param negativeExpiry how long an invalid token is cached
+     */
+    public static void configure(long maximumSize, Duration maximumExpiry, Duration negativeExpiry) {
+        verifications = createCache(maximumSize, maximumExpiry, negativeExpiry);
+    }
+
+    public static void registerMetrics(MetricRegistry registry) {
+        CaffeineMetrics.register(registry, MetricRegistry.name(GoogleTokenCache.class), () -> verifications);
+    }
+
+    /**
+     * @param token a Google access token
+     * @return the user the token belongs to, or empty if the token is not valid
+     */
+    public static Optional<Userinfoplus> userinfoplusFromToken(String token) {
+        return userinfoplusFromToken(token, GoogleHelper::verifyToken);
+    }
+
+    static Optional<Userinfoplus> userinfoplusFromToken(String token, Function<String, Optional<GoogleHelper.VerifiedToken>> verifier) {
+        final Verification verification = verifications.get(DigestUtils.sha256Hex(token), key -> new Verification(verifier.apply(token).orElse(null)));
+        return Optional.ofNullable(verification.verifiedToken()).map(GoogleHelper.VerifiedToken::userinfoplus);
+    }
+
+    private static Cache<String, Verification> createCache(long maximumSize, Duration maximumExpiry, Duration negativeExpiry) {
+        return Caffeine.newBuilder().maximumSize(maximumSize).expireAfter(new VerificationExpiry(maximumExpiry, negativeExpiry)).recordStats().build();
+    }
+
+    /**
+     * @param verifiedToken the verified token, or null if the token is not valid
+     */
+    private record Verification(GoogleHelper.VerifiedToken verifiedToken) {
+    }
+
+    private record VerificationExpiry(Duration maximumExpiry, Duration negativeExpiry) implements Expiry<String, Verification> {
+
+        @Override
+        public long expireAfterCreate(String key, Verification verification, long currentTime) {
+            if (verification.verifiedToken() == null) {
+                return negativeExpiry.toNanos();
+            }
+            final Duration expiresIn = verification.verifiedToken().expiresIn();
+            return expiresIn.compareTo(maximumExpiry) < 0 ? Math.max(0, expiresIn.toNanos()) : maximumExpiry.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Verification verification, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, Verification verification, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2025 OICR and UCSC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *           http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.dockstore.webservice.helpers;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.apache.http.HttpStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A cache of the content of descriptors imported by URL, such as WDL HTTP imports, which are often shared libraries that many
+ * workflows import.
+ *
+ * Content is kept in memory, bounded by its total length, for a limited time, and optionally also in a directory, so that it
+ * survives restarts. Concurrent requests for the same URL share a single download, and downloads run concurrently on a small
+ * pool through a shared HTTP client, which reuses connections to each host. Failed downloads are not cached.
+ */
+public final class HttpImportCache {
+
+    public static final long DEFAULT_MAXIMUM_WEIGHT = 32L * 1024 * 1024;
+    public static final Duration DEFAULT_EXPIRY = Duration.ofHours(1);
+    private static final Logger LOG = LoggerFactory.getLogger(HttpImportCache.class);
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final int PARALLELISM = 8;
+
+    private static final Timer FETCH_LATENCY = new Timer();
+    private static final Counter FETCH_FAILURES = new Counter();
+    private static final Counter DISK_HITS = new Counter();
+    private static final ExecutorService EXECUTOR = createExecutor();
+    private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
+        .connectTimeout(CONNECT_TIMEOUT)
+        .followRedirects(HttpClient.Redirect.NORMAL)
+        .build();
+
+    private static volatile HttpImportCache instance = new HttpImportCache(DEFAULT_MAXIMUM_WEIGHT, DEFAULT_EXPIRY, null);
+
+    private final AsyncLoadingCache<String, String> urlToContent;
+    private final Duration expiry;
+    private final Path directory;
+
+    HttpImportCache(long maximumWeight, Duration expiry, Path directory) {
+        this.expiry = expiry;
+        this.directory = directory;
+        this.urlToContent = Caffeine.newBuilder()
+            .maximumWeight(maximumWeight)
+            .weigher((String url, String content) -> content.length())
+            .expireAfterWrite(expiry)
+            .executor(EXECUTOR)
+            .recordStats()
+            .buildAsync(this::load);
+    }
+
+    public static HttpImportCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Replaces the shared cache with an empty cache.
+     * @param maximumWeight the maximum total length of the content cached in memory, in characters
+     * @param expiry how long content is cached
+     * @param directory the directory that content is also cached in, or null to cache it in memory only
+     */
+    public static void configure(long maximumWeight, Duration expiry, Path directory) {
+        instance = new HttpImportCache(maximumWeight, expiry, directory);
+    }
+
+    public static void registerMetrics(MetricRegistry registry) {
+        registry.register(MetricRegistry.name(HttpImportCache.class, "fetchLatency"), FETCH_LATENCY);
+        registry.register(MetricRegistry.name(HttpImportCache.class, "fetchFailures"), FETCH_FAILURES);
+        registry.register(MetricRegistry.name(HttpImportCache.class, "diskHits"), DISK_HITS);
+        CaffeineMetrics.register(registry, MetricRegistry.name(HttpImportCache.class), () -> instance.urlToContent.synchronous());
+    }
+
+    /**
+     * Starts getting the content at a URL, without waiting for it.
+     * @param url the URL
+     * @return the content, which is truncated at 1 MB
+     */
+    public CompletableFuture<String> getAsync(String url) {
+        return urlToContent.get(url);
+    }
+
+    /**
+     * Gets the content at a URL.
+     * @param url the URL
+     * @return the content, which is truncated at 1 MB
+     * @throws IOException if the content could not be retrieved
+     */
+    public String get(String url) throws IOException {
+        return join(getAsync(url));
+    }
+
+    /**
+     * Waits for content that is being retrieved.
+     * @param content the future content
+     * @return the content
+     * @throws IOException if the content could not be retrieved
+     */
+    public static String join(CompletableFuture<String> content) throws IOException {
+        try {
+            return content.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private String load(String url) throws IOException, InterruptedException {
+        final Path file = getFile(url);
+        if (file != null) {
+            final String content = readFile(file);
+            if (content != null) {
+                DISK_HITS.inc();
+                return content;
+            }
+        }
+        final String content = fetch(url);
+        if (file != null) {
+            writeFile(file, content);
+        }
+        return content;
+    }
+
+    private static String fetch(String url) throws IOException, InterruptedException {
+        final Timer.Context time = FETCH_LATENCY.time();
+        try {
+            final HttpRequest request = HttpRequest.newBuilder(URI.create(url)).timeout(REQUEST_TIMEOUT).GET().build();
+            final HttpResponse<InputStream> response = HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            try (InputStream is = response.body();
+                BoundedInputStream boundedInputStream = new BoundedInputStream(is, FileUtils.ONE_MB)) {
+                // the same errors that URL.openStream() reports
+                if (response.statusCode() == HttpStatus.SC_NOT_FOUND || response.statusCode() == HttpStatus.SC_GONE) {
+                    throw new FileNotFoundException(url);
+                }
+                if (response.statusCode() >= HttpStatus.SC_BAD_REQUEST) {
+                    throw new IOException("Server returned HTTP response code: " + response.statusCode() + " for URL: " + url);
+                }
+                return IOUtils.toString(boundedInputStream, StandardCharsets.UTF_8);
+            }
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            FETCH_FAILURES.inc();
+            if (e instanceof InterruptedException) {
+                throw new InterruptedIOException("Interrupted while retrieving " + url);
+            }
+            throw e;
+        } finally {
+            time.stop();
+        }
+    }
+
+    private Path getFile(String url) {
+        return directory == null ? null : directory.resolve(DigestUtils.sha256Hex(url));
+    }
+
+    /**
+     * @return the content of the file, or null if it does not exist or has expired
+     */
+    private String readFile(Path file) {
+        try {
+            if (!Files.exists(file)) {
+                return null;
+            }
+            if (Files.getLastModifiedTime(file).toInstant().plus(expiry).isBefore(Instant.now())) {
+                Files.deleteIfExists(file);
+                return null;
+            }
+            return Files.readString(file, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            LOG.warn("Could not read cached import " + file, e);
+            return null;
+        }
+    }
+
+    private void writeFile(Path file, String content) {
+        try {
+            Files.createDirectories(directory);
+            // readers never see a partially written file
+            final Path tempFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            Files.writeString(tempFile, content, StandardCharsets.UTF_8);
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.warn("Could not cache import " + file, e);
+        }
+    }
+
+    private static ExecutorService createExecutor() {
+        final AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(PARALLELISM, runnable -> {
+            Thread thread = new Thread(runnable, "http-import-fetcher-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2025 OICR and UCSC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *           http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.dockstore.webservice.helpers;
+
+import com.codahale.metrics.MetricRegistry;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.dockstore.common.Registry;
+import io.dockstore.webservice.core.Checksum;
+import io.dockstore.webservice.core.Image;
+import io.dockstore.webservice.languages.LanguageHandlerInterface.DockerSpecifier;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches the images fetched from Docker registries, and fetches the images of several lookups concurrently.
+ *
+ * <p>An image specified by digest never changes, so its lookup is cached until it is evicted for space. An image specified by tag,
+ * or by no tag at all, can be pushed again at any time, so its lookup is only cached for a short time. Empty results are not
+ * cached, as they are usually the result of a registry error. Concurrent lookups of the same image are made once, and the number
+ * of concurrent requests to each registry is capped, so that a workflow with many images does not trip a registry's rate limit.
+ * The cache holds immutable copies of the images, and every lookup returns new {@link Image} entities.
+ */
+public final class ImageMetadataCache {
+
+    public static final int DEFAULT_PARALLELISM_PER_REGISTRY = 4;
+    public static final long DEFAULT_MAXIMUM_SIZE = 10_000;
+    public static final Duration DEFAULT_TAG_EXPIRY = Duration.ofMinutes(5);
+    private static final Logger LOG = LoggerFactory.getLogger(ImageMetadataCache.class);
+
+    private static volatile Map<Registry, Semaphore> registryPermits = createPermits(DEFAULT_PARALLELISM_PER_REGISTRY);
+    private static volatile Cache<Lookup, List<CachedImage>> digestLookups = createCache(DEFAULT_MAXIMUM_SIZE, null);
+    private static volatile Cache<Lookup, List<CachedImage>> tagLookups = createCache(DEFAULT_MAXIMUM_SIZE, DEFAULT_TAG_EXPIRY);
+
+    private ImageMetadataCache() {
+    }
+
+    /**
+     * Replaces the caches with empty caches.
+     * @param parallelismPerRegistry the maximum number of concurrent lookups to each registry
+     * @param maximumSize the maximum number of lookups cached, for each of the digest and tag caches
+     * @param tagExpiry how long the lookup of an image that is not specified by digest is cached
+     */
+    public static void configure(int parallelismPerRegistry, long maximumSize, Duration tagExpiry) {
+        registryPermits = createPermits(parallelismPerRegistry);
+        digestLookups = createCache(maximumSize, null);
+        tagLookups = createCache(maximumSize, tagExpiry);
+    }
+
+    public static void registerMetrics(MetricRegistry registry) {
+        CaffeineMetrics.register(registry, MetricRegistry.name(ImageMetadataCache.class, "digest"), () -> digestLookups);
+        CaffeineMetrics.register(registry, MetricRegistry.name(ImageMetadataCache.class, "tag"), () -> tagLookups);
+    }
+
+    /**
+     * Looks up the images of each lookup, from the cache if possible, and concurrently otherwise.
+     * @param lookups the lookups
+     * @param fetcher fetches the images of a lookup from its registry, returning an empty set if they could not be fetched
+     * @return the images of each lookup, in the order of the lookups
+     */
+    public static List<Set<Image>> getImages(List<Lookup> lookups, Function<Lookup, Set<Image>> fetcher) {
+        if (lookups.size() <= 1) {
+            return lookups.stream().map(lookup -> getImages(lookup, fetcher)).toList();
+        }
+        final List<Future<Set<Image>>> futures = new ArrayList<>();
+        final List<Set<Image>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("image-lookup-", 0).factory())) {
+            for (Lookup lookup : lookups) {
+                futures.add(executor.submit(() -> getImages(lookup, fetcher)));
+            }
+            for (Future<Set<Image>> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+        } catch (ExecutionException e) {
+            LOG.error("Error getting images from registries", e.getCause());
+            futures.forEach(future -> future.cancel(true));
+        }
+        while (results.size() < lookups.size()) {
+            results.add(Set.of());
+        }
+        return results;
+    }
+
+    /**
+     * Looks up the images of a lookup, from the cache if possible.
+     * @param lookup the lookup
+     * @param fetcher fetches the images of a lookup from its registry, returning an empty set if they could not be fetched
+     * @return the images, or an empty set if they could not be fetched
+     */
+    public static Set<Image> getImages(Lookup lookup, Function<Lookup, Set<Image>> fetcher) {
+        final Cache<Lookup, List<CachedImage>> cache = lookup.specifier() == DockerSpecifier.DIGEST ? digestLookups : tagLookups;
+        // an empty result is returned as null, so that it is not cached
+        final List<CachedImage> cachedImages = cache.get(lookup, key -> fetch(key, fetcher));
+        if (cachedImages == null) {
+            return new HashSet<>();
+        }
+        final Set<Image> images = new HashSet<>();
+        cachedImages.forEach(cachedImage -> images.add(cachedImage.toImage()));
+        return images;
+    }
+
+    private static List<CachedImage> fetch(Lookup lookup, Function<Lookup, Set<Image>> fetcher) {
+        final Semaphore permits = registryPermits.get(lookup.registry());
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        try {
+            final Set<Image> images = fetcher.apply(lookup);
+            return images.isEmpty() ? null : images.stream().map(CachedImage::new).toList();
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static Map<Registry, Semaphore> createPermits(int parallelismPerRegistry) {
+        final Map<Registry, Semaphore> permits = new EnumMap<>(Registry.class);
+        for (Registry registry : Registry.values()) {
+            permits.put(registry, new Semaphore(Math.max(1, parallelismPerRegistry)));
+        }
+        return Collections.unmodifiableMap(permits);
+    }
+
+    private static Cache<Lookup, List<CachedImage>> createCache(long maximumSize, Duration expiry) {
+        final Caffeine<Object, Object> builder = Caffeine.newBuilder().maximumSize(maximumSize).recordStats();
+        if (expiry != null) {
+            builder.expireAfterWrite(expiry);
+        }
+        return builder.build();
+    }
+
+    /**
+     * @param registry the registry the image is in
+     * @param repository the repository name of the image, without the registry docker path
+     * @param specifier how the image is specified
+     * @param specifierName the tag or digest of the image
+     */
+    public record Lookup(Registry registry, String repository, DockerSpecifier specifier, String specifierName) {
+    }
+
+    /**
+     * An immutable copy of an {@link Image}, without its database fields.
+     */
+    private record CachedImage(List<Checksum> checksums, String repository, String tag, String imageID, Registry imageRegistry, Long size,
+                               String imageUpdateDate, String architecture, String os, DockerSpecifier specifier) {
+
+        CachedImage(Image image) {
+            this(List.copyOf(copyChecksums(image.getChecksums())), image.getRepository(), image.getTag(), image.getImageID(), image.getImageRegistry(),
+                image.getSize(), image.getImageUpdateDate(), image.getArchitecture(), image.getOs(), image.getSpecifier());
+        }
+
+        Image toImage() {
+            final Image image = new Image(copyChecksums(checksums), repository, tag, imageID, imageRegistry, size, imageUpdateDate);
+            image.setArchitecture(architecture);
+            image.setOs(os);
+            image.setSpecifier(specifier);
+            return image;
+        }
+
+        private static List<Checksum> copyChecksums(List<Checksum> checksums) {
+            final List<Checksum> copies = new ArrayList<>();
+            if (checksums != null) {
+                checksums.forEach(checksum -> copies.add(new Checksum(checksum.getType(), checksum.getChecksum())));
+            }
+            return copies;
+        }
+    }
+}
@@ -16,8 +16,14 @@
 
 package io.dockstore.webservice.helpers;
 
+import com.codahale.metrics.MetricRegistry;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.collect.Lists;
 import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.UriBuilder;
 import java.io.IOException;
 import java.net.MalformedURLException;
@@ -28,28 +34,54 @@ import java.net.URL;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
 import java.util.stream.Collectors;
-import org.apache.commons.collections.map.LRUMap;
 import org.apache.http.HttpStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Checks URLs by invoking the check URL lambda.
+ *
+ * All instances share one HTTP client, which reuses connections to the lambda, and a cache of the results, which expire after a
+ * while because the openness of a URL can change. URLs are checked concurrently, up to a configurable limit. If a batch size
+ * is configured, URLs are sent to the lambda in batches, with a POST to the lambda URL whose body is
+ * <code>{"urls": ["https://..."]}</code> and whose response is <code>{"message": {"https://...": true}}</code>; if the lambda
+ * does not support batches, the URLs of a failed batch are checked one at a time.
+ */
 public final class LambdaUrlChecker implements CheckUrlInterface {
 
+    public static final int DEFAULT_PARALLELISM = 8;
+    public static final long DEFAULT_CACHE_MAXIMUM_SIZE = 10_000;
+    public static final Duration DEFAULT_CACHE_EXPIRY = Duration.ofDays(1);
     private static final Logger LOGGER = LoggerFactory.getLogger(LambdaUrlChecker.class);
     private static final Gson GSON = new Gson(); // Thread-safe
-    private static final int LRU_CACHE_SIZE = 50;
     private static final String S3_PROTOCOL = "s3://";
     private static final String GS_PROTOCOL = "gs://";
-    private String checkUrlLambdaUrl;
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
+        .proxy(ProxySelector.getDefault())
+        .connectTimeout(CONNECT_TIMEOUT)
+        .build();
+
+    private static volatile int parallelism = DEFAULT_PARALLELISM;
+    private static volatile int batchSize = 0;
+    private static volatile Cache<String, Boolean> checkedUrls = createCache(DEFAULT_CACHE_MAXIMUM_SIZE, DEFAULT_CACHE_EXPIRY);
 
-    private Map<String, Boolean> checkedUrlsMap = Collections.synchronizedMap(new LRUMap(LRU_CACHE_SIZE));
+    private String checkUrlLambdaUrl;
 
     public LambdaUrlChecker(String checkUrlLambdaUrl) {
         // Hackish, remove trailing slash if present. Ideally, the configured url would just not have the trailing slash to begin with,
@@ -57,6 +89,27 @@ public final class LambdaUrlChecker implements CheckUrlInterface {
         this.checkUrlLambdaUrl = checkUrlLambdaUrl.replaceAll("/$", "");
     }
 
+    /**
+     * Configures all instances, replacing the cache of results with an empty cache.
+     * @param parallelism the maximum number of concurrent requests to the lambda for one set of URLs, 1 or less sends them one at a time
+     * @param batchSize the maximum number of URLs sent to the lambda in one request, 1 or less sends one URL per request
+     * @param cacheMaximumSize the maximum number of results cached
+     * @param cacheExpiry how long results are cached
+     */
+    public static void configure(int parallelism, int batchSize, long cacheMaximumSize, Duration cacheExpiry) {
+        LambdaUrlChecker.parallelism = parallelism;
+        LambdaUrlChecker.batchSize = batchSize;
+        checkedUrls = createCache(cacheMaximumSize, cacheExpiry);
+    }
+
+    public static void registerMetrics(MetricRegistry registry) {
+        CaffeineMetrics.register(registry, MetricRegistry.name(LambdaUrlChecker.class), () -> checkedUrls);
+    }
+
+    private static Cache<String, Boolean> createCache(long maximumSize, Duration expiry) {
+        return Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(expiry).recordStats().build();
+    }
+
     String getCheckUrlLambdaUrl() {
         return checkUrlLambdaUrl;
     }
@@ -69,22 +122,37 @@ public final class LambdaUrlChecker implements CheckUrlInterface {
         } catch (URISyntaxException e) {
             return Optional.of(false);
         }
-        final Boolean check = checkedUrlsMap.get(url);
-        if (check != null) {
-            return Optional.of(check);
+        request = HttpRequest.newBuilder().uri(uri).timeout(REQUEST_TIMEOUT).GET().build();
+        return send(request).flatMap(body -> parseResponse(body, LambdaResponse.class)).map(LambdaResponse::isMessage);
+    }
+
+    /**
+     * Checks a batch of URLs with one request.
+     * @param urls the URLs
+     * @return the results, or empty if the lambda could not check the batch
+     */
+    private Optional<Map<String, Boolean>> checkBatch(List<String> urls) {
+        final HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder().uri(new URI(checkUrlLambdaUrl)).timeout(REQUEST_TIMEOUT)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+                .POST(HttpRequest.BodyPublishers.ofString(GSON.toJson(new LambdaBatchRequest(urls))))
+                .build();
+        } catch (URISyntaxException e) {
+            return Optional.empty();
         }
-        request = HttpRequest.newBuilder().uri(uri).GET().build();
+        return send(request).flatMap(body -> parseResponse(body, LambdaBatchResponse.class)).map(LambdaBatchResponse::getMessage);
+    }
+
+    private Optional<String> send(HttpRequest request) {
         try {
-            final HttpResponse<String> httpResponse = HttpClient.newBuilder().proxy(ProxySelector.getDefault()).build()
-                    .send(request, HttpResponse.BodyHandlers.ofString());
+            final HttpResponse<String> httpResponse = HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
             final String body = httpResponse.body();
             if (httpResponse.statusCode() >= HttpStatus.SC_MULTIPLE_CHOICES) { // a 3xx isn't an error, but if we get it (we shouldn't), we're not following it
                 LOGGER.error("Error invoking checkUrl lambda; status code: {}; body: {}", httpResponse.statusCode(), body);
                 return Optional.empty();
             }
-            final Optional<Boolean> checkStatus = checkStatus(body);
-            checkStatus.ifPresent(b -> checkedUrlsMap.put(url, b));
-            return checkStatus;
+            return Optional.ofNullable(body);
         } catch (IOException e) {
             LOGGER.error("Error checking url", e);
             return Optional.empty();
@@ -94,16 +162,13 @@ public final class LambdaUrlChecker implements CheckUrlInterface {
         }
     }
 
-    private Optional<Boolean> checkStatus(final String body) {
-        if (body != null) {
-            try {
-                final LambdaResponse lambdaResponse = GSON.fromJson(body, LambdaResponse.class);
-                return Optional.of(lambdaResponse.isMessage());
-            } catch (JsonSyntaxException e) {
-                LOGGER.error("Error reading response from check url lambda", e);
-            }
+    private static <T> Optional<T> parseResponse(final String body, Class<T> responseClass) {
+        try {
+            return Optional.ofNullable(GSON.fromJson(body, responseClass));
+        } catch (JsonSyntaxException e) {
+            LOGGER.error("Error reading response from check url lambda", e);
+            return Optional.empty();
         }
-        return Optional.empty();
     }
 
     private static boolean hasMalformedOrFileProtocolUrl(Set<String> possibleUrls) {
@@ -131,17 +196,86 @@ public final class LambdaUrlChecker implements CheckUrlInterface {
         if (hasMalformedOrFileProtocolUrl(convertedUrls)) {
             return UrlStatus.NOT_ALL_OPEN;
         }
-        List<Optional<Boolean>> objectStream = convertedUrls.parallelStream().map(this::checkUrl)
-            .collect(Collectors.toCollection(ArrayList::new));
-        if (objectStream.stream().anyMatch(urlStatus -> urlStatus.isPresent() && urlStatus.get().equals(false))) {
+        final Cache<String, Boolean> cache = checkedUrls;
+        final Map<String, Boolean> cachedUrls = cache.getAllPresent(convertedUrls);
+        if (cachedUrls.containsValue(false)) {
             return UrlStatus.NOT_ALL_OPEN;
         }
-        if (objectStream.stream().anyMatch(Optional::isEmpty)) {
+        final List<String> uncheckedUrls = convertedUrls.stream().filter(url -> !cachedUrls.containsKey(url)).toList();
+        final Collection<Optional<Boolean>> urlStatuses = checkUncachedUrls(uncheckedUrls).values();
+        if (urlStatuses.stream().anyMatch(urlStatus -> urlStatus.isPresent() && urlStatus.get().equals(false))) {
+            return UrlStatus.NOT_ALL_OPEN;
+        }
+        if (urlStatuses.stream().anyMatch(Optional::isEmpty)) {
             return UrlStatus.UNKNOWN;
         }
         return UrlStatus.ALL_OPEN;
     }
 
+    /**
+     * Checks URLs with the lambda, caching the results.
+     * @param urls the URLs
+     * @return map of the URLs to whether they are open, or empty if that could not be determined
+     */
+    private Map<String, Optional<Boolean>> checkUncachedUrls(List<String> urls) {
+        final Map<String, Optional<Boolean>> urlStatuses = new HashMap<>();
+        List<String> individualUrls = urls;
+        if (batchSize > 1 && urls.size() > 1) {
+            final List<List<String>> batches = Lists.partition(urls, batchSize);
+            final List<Optional<Map<String, Boolean>>> batchResults = runConcurrently(batches, this::checkBatch, Optional.empty());
+            individualUrls = new ArrayList<>();
+            for (int i = 0; i < batches.size(); i++) {
+                final Optional<Map<String, Boolean>> batchResult = batchResults.get(i);
+                if (batchResult.isPresent()) {
+                    batches.get(i).forEach(url -> urlStatuses.put(url, Optional.ofNullable(batchResult.get().get(url))));
+                } else {
+                    individualUrls.addAll(batches.get(i));
+                }
+            }
+        }
+        final List<Optional<Boolean>> individualResults = runConcurrently(individualUrls, this::checkUrl, Optional.empty());
+        for (int i = 0; i < individualUrls.size(); i++) {
+            urlStatuses.put(individualUrls.get(i), individualResults.get(i));
+        }
+        final Cache<String, Boolean> cache = checkedUrls;
+        urlStatuses.forEach((url, urlStatus) -> urlStatus.ifPresent(open -> cache.put(url, open)));
+        return urlStatuses;
+    }
+
+    /**
+     * Applies a function to each item, concurrently up to the configured parallelism.
+     * @param items the items
+     * @param function the function, which should not throw
+     * @param interruptedResult the result for the items that were not processed because the thread was interrupted
+     * @return the results, in the order of the items
+     */
+    private static <T, R> List<R> runConcurrently(List<T> items, Function<T, R> function, R interruptedResult) {
+        final int workers = Math.min(parallelism, items.size());
+        if (workers <= 1) {
+            return items.stream().map(function).collect(Collectors.toCollection(ArrayList::new));
+        }
+        final List<Future<R>> futures = new ArrayList<>();
+        final List<R> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(workers, Thread.ofVirtual().name("check-url-", 0).factory())) {
+            for (T item : items) {
+                futures.add(executor.submit(() -> function.apply(item)));
+            }
+            for (Future<R> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+        } catch (ExecutionException e) {
+            LOGGER.error("Error checking urls", e.getCause());
+            futures.forEach(future -> future.cancel(true));
+        }
+        while (results.size() < items.size()) {
+            results.add(interruptedResult);
+        }
+        return results;
+    }
+
     /**
      * If <code>possibleUrl</code> is an s3 or gs URI, convert it to an https url, otherwise return it as is.
      * @param possibleUrl
@@ -179,6 +313,26 @@ public final class LambdaUrlChecker implements CheckUrlInterface {
         return s3Uri;
     }
 
+    private static class LambdaBatchRequest {
+        private final List<String> urls;
+
+        LambdaBatchRequest(List<String> urls) {
+            this.urls = urls;
+        }
+    }
+
+    private static class LambdaBatchResponse {
+        private Map<String, Boolean> message;
+
+        public Map<String, Boolean> getMessage() {
+            return message;
+        }
+
+        public void setMessage(Map<String, Boolean> message) {
+            this.message = message;
+        }
+    }
+
     private static class LambdaResponse {
         private boolean message;
 
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2025 OICR and UCSC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.dockstore.webservice.helpers;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import io.dockstore.common.metrics.MetricsDataS3Client;
+import io.dockstore.webservice.DockstoreWebserviceConfiguration;
+import io.dropwizard.lifecycle.Managed;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.core.metrics.CoreMetric;
+import software.amazon.awssdk.http.HttpMetric;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.metrics.MetricCollection;
+import software.amazon.awssdk.metrics.MetricPublisher;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+
+/**
+ * Owns the S3 client that execution metrics are read from and written to, so that requests share its connection pool
+ * instead of each creating a client. The client is created on first use, because it cannot be created without AWS
+ * credentials and a region, which are not needed by deployments that do not collect metrics.
+ *
+ * Also owns the executor that writes the files of a batch submission concurrently.
+ */
+public class MetricsDataS3ClientManager implements Managed {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MetricsDataS3ClientManager.class);
+    private static final long SHUTDOWN_WAIT_SECONDS = 30;
+
+    private final DockstoreWebserviceConfiguration.MetricsConfig config;
+    private final Timer apiCalls = new Timer();
+    private final Meter failedApiCalls = new Meter();
+    private final AtomicInteger leasedConnections = new AtomicInteger();
+    private final AtomicInteger availableConnections = new AtomicInteger();
+    private final AtomicInteger pendingConnectionAcquires = new AtomicInteger();
+    private S3Client s3Client;
+    private MetricsDataS3Client metricsDataS3Client;
+    private ExecutorService executor;
+
+    public MetricsDataS3ClientManager(DockstoreWebserviceConfiguration.MetricsConfig config) {
+        this.config = config;
+    }
+
+    public void registerMetrics(MetricRegistry registry) {
+        registry.register(MetricRegistry.name(MetricsDataS3ClientManager.class, "apiCalls"), apiCalls);
+        registry.register(MetricRegistry.name(MetricsDataS3ClientManager.class, "failedApiCalls"), failedApiCalls);
+        registry.registerGauge(MetricRegistry.name(MetricsDataS3ClientManager.class, "leasedConnections"), leasedConnections::get);
+        registry.registerGauge(MetricRegistry.name(MetricsDataS3ClientManager.class, "availableConnections"), availableConnections::get);
+        registry.registerGauge(MetricRegistry.name(MetricsDataS3ClientManager.class, "pendingConnectionAcquires"), pendingConnectionAcquires::get);
+        registry.registerGauge(MetricRegistry.name(MetricsDataS3ClientManager.class, "maxConnections"), config::getS3MaxConnections);
+    }
+
+    /**
+     * Gets the shared client, creating it if necessary.
+     * @return the client
+     * @throws URISyntaxException if the configured endpoint override is invalid
+     */
+    public synchronized MetricsDataS3Client getClient() throws URISyntaxException {
+        if (metricsDataS3Client == null) {
+            s3Client = createS3Client();
+            metricsDataS3Client = new MetricsDataS3Client(config.getS3BucketName(), s3Client);
+        }
+        return metricsDataS3Client;
+    }
+
+    /**
+     * Gets the executor for writing the files of a batch submission.
+     * @return the executor
+     */
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    private S3Client createS3Client() throws URISyntaxException {
+        ApacheHttpClient.Builder httpClientBuilder = ApacheHttpClient.builder()
+            .maxConnections(config.getS3MaxConnections())
+            .connectionAcquisitionTimeout(Duration.ofSeconds(config.getS3ConnectionAcquisitionTimeoutSeconds()));
+        S3ClientBuilder builder = S3Client.builder()
+            .credentialsProvider(DefaultCredentialsProvider.create())
+            .httpClientBuilder(httpClientBuilder)
+            .overrideConfiguration(overrides -> overrides.addMetricPublisher(new RegistryMetricPublisher()));
+        if (config.getS3EndpointOverride() != null) {
+            LOG.info("Using endpoint override: {}", config.getS3EndpointOverride());
+            builder.endpointOverride(new URI(config.getS3EndpointOverride()));
+        }
+        return builder.build();
+    }
+
+    @Override
+    public void start() throws Exception {
+        final AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(config.getBatchSubmissionParallelism(), runnable -> {
+            Thread thread = new Thread(runnable, "metrics-s3-writer-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void stop() throws Exception {
+        executor.shutdown();
+        if (!executor.awaitTermination(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS)) {
+            LOG.error("Execution metrics files were still being written to S3 at shutdown");
+        }
+        synchronized (this) {
+            if (s3Client != null) {
+                s3Client.close();
+            }
+        }
+    }
+
+    /**
+     * Records the metrics that the SDK collects for each API call. The connection pool metrics are reported by the
+     * HTTP client when a connection is leased, so the gauges show the state of the pool as of the last request.
+     */
+    private final class RegistryMetricPublisher implements MetricPublisher {
+
+        @Override
+        public void publish(MetricCollection metricCollection) {
+            metricCollection.metricValues(CoreMetric.API_CALL_DURATION).forEach(duration -> apiCalls.update(duration));
+            if (metricCollection.metricValues(CoreMetric.API_CALL_SUCCESSFUL).contains(Boolean.FALSE)) {
+                failedApiCalls.mark();
+            }
+            recordConnectionPool(metricCollection);
+        }
+
+        private void recordConnectionPool(MetricCollection metricCollection) {
+            metricCollection.metricValues(HttpMetric.LEASED_CONCURRENCY).forEach(leasedConnections::set);
+            metricCollection.metricValues(HttpMetric.AVAILABLE_CONCURRENCY).forEach(availableConnections::set);
+            metricCollection.metricValues(HttpMetric.PENDING_CONCURRENCY_ACQUIRES).forEach(pendingConnectionAcquires::set);
+            metricCollection.children().forEach(this::recordConnectionPool);
+        }
+
+        @Override
+        public void close() {
+            // nothing to release, the metrics are owned by the registry
+        }
+    }
+}
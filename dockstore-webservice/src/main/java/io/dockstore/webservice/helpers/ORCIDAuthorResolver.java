@@ -0,0 +1,126 @@
+/*
+ * Copyright 2025 OICR and UCSC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.dockstore.webservice.helpers;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.dockstore.webservice.core.OrcidAuthorInformation;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves ORCID iDs to the public information of their ORCID records, caching the results.
+ *
+ * Concurrent requests for the same ORCID iD share a single request to ORCID, and the records of a batch of ORCID iDs,
+ * such as the authors of the entries being indexed, can be prefetched concurrently. ORCID iDs that could not be resolved
+ * are cached for a shorter time than records, so that an ORCID outage does not hide authors for long.
+ */
+public final class ORCIDAuthorResolver {
+
+    private static final int MAXIMUM_SIZE = 10_000;
+    private static final Duration FOUND_EXPIRY = Duration.ofHours(24);
+    private static final Duration NOT_FOUND_EXPIRY = Duration.ofMinutes(10);
+    private static final int PARALLELISM = 8;
+
+    private static final ExecutorService EXECUTOR = createExecutor();
+    private static volatile Function<String, Optional<OrcidAuthorInformation>> loader = ORCIDAuthorResolver::load;
+    private static final AsyncLoadingCache<String, Optional<OrcidAuthorInformation>> CACHE = Caffeine.newBuilder()
+        .maximumSize(MAXIMUM_SIZE)
+        .expireAfter(new ResultExpiry())
+        .executor(EXECUTOR)
+        .buildAsync(orcidId -> loader.apply(orcidId));
+
+    private ORCIDAuthorResolver() {
+    }
+
+    /**
+     * Gets the public information of an ORCID record.
+     * @param orcidId ORCID iD
+     * @return the information, or empty if the record does not exist, is deactivated, or could not be retrieved
+     */
+    public static Optional<OrcidAuthorInformation> getOrcidAuthorInformation(String orcidId) {
+        return CACHE.get(orcidId).join();
+    }
+
+    /**
+     * Gets the public information of several ORCID records, retrieving the records that are not cached concurrently.
+     * @param orcidIds ORCID iDs
+     * @return the information of the records that could be retrieved
+     */
+    public static Set<OrcidAuthorInformation> getOrcidAuthorInformation(Collection<String> orcidIds) {
+        return CACHE.getAll(orcidIds).join().values().stream()
+            .flatMap(Optional::stream)
+            .collect(Collectors.toSet());
+    }
+
+    /**
+     * Starts retrieving the ORCID records that are not cached, without waiting for them.
+     * @param orcidIds ORCID iDs that will be needed soon
+     */
+    public static void prefetch(Collection<String> orcidIds) {
+        CACHE.getAll(orcidIds);
+    }
+
+    /**
+     * Replaces how ORCID records are retrieved and clears the cache, for tests.
+     * @param newLoader retrieves the public information of an ORCID record
+     */
+    static void setLoader(Function<String, Optional<OrcidAuthorInformation>> newLoader) {
+        loader = newLoader;
+        CACHE.synchronous().invalidateAll();
+    }
+
+    private static Optional<OrcidAuthorInformation> load(String orcidId) {
+        return ORCIDHelper.getOrcidAuthorInformation(orcidId, ORCIDHelper.getOrcidAccessToken().orElse(null));
+    }
+
+    private static ExecutorService createExecutor() {
+        final AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(PARALLELISM, runnable -> {
+            Thread thread = new Thread(runnable, "orcid-resolver-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static final class ResultExpiry implements Expiry<String, Optional<OrcidAuthorInformation>> {
+
+        @Override
+        public long expireAfterCreate(String orcidId, Optional<OrcidAuthorInformation> information, long currentTime) {
+            return (information.isPresent() ? FOUND_EXPIRY : NOT_FOUND_EXPIRY).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String orcidId, Optional<OrcidAuthorInformation> information, long currentTime, long currentDuration) {
+            return expireAfterCreate(orcidId, information, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String orcidId, Optional<OrcidAuthorInformation> information, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -35,6 +35,7 @@ import java.util.GregorianCalendar;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.xml.datatype.DatatypeConfigurationException;
 import javax.xml.datatype.DatatypeFactory;
 import javax.xml.datatype.XMLGregorianCalendar;
@@ -69,6 +70,11 @@ public final class ORCIDHelper {
     private static final Logger LOG = LoggerFactory.getLogger(ORCIDHelper.class);
     private static final String ORCID_XML_CONTENT_TYPE = "application/vnd.orcid+xml";
     private static final ObjectMapper MAPPER = Jackson.newObjectMapper();
+    private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder().proxy(ProxySelector.getDefault()).build();
+    /**
+     * JAXBContexts are thread-safe and expensive to create, so one is created per class
+     */
+    private static final Map<Class<?>, JAXBContext> JAXB_CONTEXTS = new ConcurrentHashMap<>();
 
     private static String baseApiUrl; // baseApiUrl should result in something like "https://api.sandbox.orcid.org/v3.0/" or "https://api.orcid.org/v3.0/"
     private static String basePublicUrl; // basePublicUrl should result in something like "https://pub.orcid.org/v3.0/"
@@ -116,7 +122,7 @@ public final class ORCIDHelper {
                 HttpRequest request = HttpRequest.newBuilder().uri(new URI(baseUrl + "oauth/token"))
                         .header(HttpHeaders.ACCEPT, "application/json").headers(HttpHeaders.CONTENT_TYPE, "application/x-www-form-urlencoded").POST(ofString(requestData)).build();
 
-                HttpResponse<String> response = HttpClient.newBuilder().proxy(ProxySelector.getDefault()).build().send(request, HttpResponse.BodyHandlers.ofString());
+                HttpResponse<String> response = HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
                 if (response.statusCode() != HttpStatus.SC_OK) {
                     if (LOG.isErrorEnabled()) {
                         LOG.error("Could not get ORCID access token: {}", response.body());
@@ -215,7 +221,7 @@ public final class ORCIDHelper {
     public static HttpResponse<String> postWorkString(String id, String workString, String token)
             throws IOException, URISyntaxException, InterruptedException {
         HttpRequest request = HttpRequest.newBuilder().uri(new URI(baseApiUrl + id + "/work")).header(HttpHeaders.CONTENT_TYPE, ORCID_XML_CONTENT_TYPE).header(HttpHeaders.AUTHORIZATION, JWT_SECURITY_DEFINITION_NAME + " " + token).POST(ofString(workString)).build();
-        return HttpClient.newBuilder().proxy(ProxySelector.getDefault()).build().send(request,
+        return HTTP_CLIENT.send(request,
                 HttpResponse.BodyHandlers.ofString());
     }
 
@@ -226,7 +232,7 @@ public final class ORCIDHelper {
     public static HttpResponse<String> putWorkString(String id, String workString, String token, String putCode)
             throws IOException, URISyntaxException, InterruptedException {
         HttpRequest request = HttpRequest.newBuilder().uri(new URI(baseApiUrl + id + "/work/" + putCode)).header(HttpHeaders.CONTENT_TYPE, ORCID_XML_CONTENT_TYPE).header(HttpHeaders.AUTHORIZATION, JWT_SECURITY_DEFINITION_NAME + " " + token).PUT(ofString(workString)).build();
-        return HttpClient.newBuilder().proxy(ProxySelector.getDefault()).build().send(request,
+        return HTTP_CLIENT.send(request,
                 HttpResponse.BodyHandlers.ofString());
     }
 
@@ -253,7 +259,7 @@ public final class ORCIDHelper {
     }
 
     private static String transformWork(Work work) throws JAXBException {
-        JAXBContext context = JAXBContext.newInstance(Work.class);
+        JAXBContext context = getJAXBContext(Work.class);
         StringWriter writer = new StringWriter();
         Marshaller marshaller = context.createMarshaller();
         marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
@@ -288,7 +294,7 @@ public final class ORCIDHelper {
      */
     public static HttpResponse<String> getAllWorks(String id, String token) throws IOException, URISyntaxException, InterruptedException {
         HttpRequest request = HttpRequest.newBuilder().uri(new URI(baseApiUrl + id + "/works")).header(HttpHeaders.CONTENT_TYPE, ORCID_XML_CONTENT_TYPE).header(HttpHeaders.AUTHORIZATION, JWT_SECURITY_DEFINITION_NAME + " " + token).GET().build();
-        return HttpClient.newBuilder().proxy(ProxySelector.getDefault()).build().send(request,
+        return HTTP_CLIENT.send(request,
                 HttpResponse.BodyHandlers.ofString());
     }
 
@@ -296,7 +302,7 @@ public final class ORCIDHelper {
      * Transforms the ORCID XML response from a get all works call to a Works object. Assumes that the XML from Orcid is safe.
      */
     private static Works transformXmlToWorks(String worksXml) throws JAXBException {
-        JAXBContext context = JAXBContext.newInstance(Works.class);
+        JAXBContext context = getJAXBContext(Works.class);
         Unmarshaller unmarshaller = context.createUnmarshaller();
         return (Works) unmarshaller.unmarshal(new StringReader(worksXml));
     }
@@ -380,7 +386,7 @@ public final class ORCIDHelper {
         HttpRequest request = HttpRequest.newBuilder().uri(new URI(baseApiUrl + id))
                 .header(HttpHeaders.CONTENT_TYPE, ORCID_XML_CONTENT_TYPE)
                 .header(HttpHeaders.AUTHORIZATION, JWT_SECURITY_DEFINITION_NAME + " " + token).GET().build();
-        final HttpResponse<String> memberAPIResponse = HttpClient.newBuilder().proxy(ProxySelector.getDefault()).build().send(request,
+        final HttpResponse<String> memberAPIResponse = HTTP_CLIENT.send(request,
             BodyHandlers.ofString());
         if (memberAPIResponse.statusCode() == HttpStatus.SC_OK) {
             return memberAPIResponse;
@@ -390,7 +396,7 @@ public final class ORCIDHelper {
         request = HttpRequest.newBuilder().uri(new URI(basePublicUrl + id))
             .header(HttpHeaders.CONTENT_TYPE, ORCID_XML_CONTENT_TYPE)
             .GET().build();
-        return HttpClient.newBuilder().proxy(ProxySelector.getDefault()).build().send(request, BodyHandlers.ofString());
+        return HTTP_CLIENT.send(request, BodyHandlers.ofString());
     }
 
     /**
@@ -399,11 +405,20 @@ public final class ORCIDHelper {
      * @return Record Object
      */
     public static Record transformXmlToRecord(String recordXml) throws JAXBException {
-        JAXBContext context = JAXBContext.newInstance(Record.class);
+        JAXBContext context = getJAXBContext(Record.class);
         Unmarshaller unmarshaller = context.createUnmarshaller();
         return (Record) unmarshaller.unmarshal(new StringReader(recordXml));
     }
 
+    private static JAXBContext getJAXBContext(Class<?> type) throws JAXBException {
+        JAXBContext context = JAXB_CONTEXTS.get(type);
+        if (context == null) {
+            context = JAXBContext.newInstance(type);
+            JAXB_CONTEXTS.putIfAbsent(type, context);
+        }
+        return context;
+    }
+
     public static boolean isValidOrcidId(String orcidId) {
         return ValidationConstants.ORCID_ID_PATTERN.matcher(orcidId).matches();
     }
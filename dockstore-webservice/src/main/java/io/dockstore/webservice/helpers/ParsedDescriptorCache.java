@@ -0,0 +1,89 @@
+/*
+ * Copyright 2025 OICR and UCSC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.dockstore.webservice.helpers;
+
+import io.dockstore.webservice.core.SourceFile;
+import io.dockstore.webservice.core.WorkflowVersion;
+import io.dockstore.webservice.jdbi.WorkflowVersionDAO;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.apache.commons.codec.digest.DigestUtils;
+
+/**
+ * Reuses the DAG JSON produced by the language handlers, using a hash of the descriptors it was produced from.
+ * The hash is stored with the DAG on the workflow version, so that a refresh that leaves the descriptors unchanged keeps the DAG,
+ * and another version of the same workflow with the same descriptors, such as a branch and a tag on the same commit, reuses it.
+ * The tool table is not reused, because it links to registered Dockstore tools, which may change while the descriptors do not.
+ */
+public final class ParsedDescriptorCache {
+
+    private ParsedDescriptorCache() {
+    }
+
+    /**
+     * Computes a hash of the descriptors of a workflow version: the primary descriptor path, followed by the
+     * type, path and content hash of each source file, sorted by path.
+     * The content is hashed rather than using the checksum column, because the column is only updated when the file is reloaded from the database.
+     * @param workflowVersion the workflow version
+     * @return the hash
+     */
+    public static String hashDescriptors(WorkflowVersion workflowVersion) {
+        String files = workflowVersion.getSourceFiles().stream()
+            .map(file -> file.getType() + ":" + file.getPath() + ":" + hashContent(file))
+            .sorted()
+            .collect(Collectors.joining("\n"));
+        return DigestUtils.sha256Hex(workflowVersion.getWorkflowPath() + "\n" + files);
+    }
+
+    private static String hashContent(SourceFile file) {
+        return file.getContent() == null ? "" : DigestUtils.sha256Hex(file.getContent());
+    }
+
+    /**
+     * Gets the DAG JSON of a workflow version, reusing the DAG of another version of the same workflow with the same descriptors, if there is one.
+     * @param workflowVersionDAO looks up the stored DAGs
+     * @param workflowId id of the workflow of the version
+     * @param workflowVersion the workflow version
+     * @param parser produces the JSON if there is none to reuse, may return null
+     * @return the JSON, or null if none could be produced
+     */
+    public static String getDag(WorkflowVersionDAO workflowVersionDAO, long workflowId, WorkflowVersion workflowVersion, Supplier<String> parser) {
+        final String dagJson = workflowVersionDAO.findDagJsonByDescriptorHash(workflowId, hashDescriptors(workflowVersion));
+        return dagJson != null ? dagJson : parser.get();
+    }
+
+    /**
+     * Stores the DAG JSON of a workflow version, along with the hash of the descriptors it was produced from.
+     * @param workflowVersion the workflow version
+     * @param dagJson the JSON, or null to clear it
+     */
+    public static void setDag(WorkflowVersion workflowVersion, String dagJson) {
+        workflowVersion.setDagJson(dagJson);
+        workflowVersion.setDagDescriptorHash(dagJson != null ? hashDescriptors(workflowVersion) : null);
+    }
+
+    /**
+     * Determines if the descriptors of a workflow version are the ones that its stored DAG was produced from.
+     * @param workflowVersion the workflow version
+     * @return true if the descriptors are unchanged
+     */
+    public static boolean isUnchanged(WorkflowVersion workflowVersion) {
+        return workflowVersion.getDagDescriptorHash() != null && Objects.equals(workflowVersion.getDagDescriptorHash(), hashDescriptors(workflowVersion));
+    }
+}
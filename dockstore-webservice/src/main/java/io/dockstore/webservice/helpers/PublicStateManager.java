@@ -44,6 +44,8 @@ public final class PublicStateManager {
 
     public void reset() {
         config = null;
+        sitemapListener.invalidateCache();
+        rssListener.invalidateCache();
         listeners.clear();
         listeners.add(sitemapListener);
         listeners.add(rssListener);
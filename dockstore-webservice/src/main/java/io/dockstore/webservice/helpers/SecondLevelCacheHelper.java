@@ -0,0 +1,116 @@
+/*
+ * Copyright 2025 OICR and UCSC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *           http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.dockstore.webservice.helpers;
+
+import com.codahale.metrics.MetricRegistry;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Names and reports on the regions of the Hibernate second-level cache, which holds the read-mostly reference entities
+ * (categories and other collections, labels, file formats, organizations and cloud instances) and the results of the queries
+ * that look them up.
+ *
+ * The cache is off unless it is enabled with the Hibernate properties of the database configuration, for example:
+ * <pre>
+ * hibernate.cache.use_second_level_cache: true
+ * hibernate.cache.use_query_cache: true
+ * hibernate.cache.region.factory_class: jcache
+ * hibernate.javax.cache.provider: com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider
+ * hibernate.javax.cache.uri: classpath:hibernate-jcache.conf
+ * hibernate.javax.cache.missing_cache_strategy: fail
+ * </pre>
+ * hibernate-jcache.conf configures the size and expiry of every region. Hibernate evicts cached entities and invalidates cached
+ * query results when they are written through a session, so writes that bypass Hibernate, such as SQL run directly against
+ * the database, are not seen until the cached entries expire. The hit and miss counts are only collected if
+ * hibernate.generate_statistics is also enabled.
+ */
+public final class SecondLevelCacheHelper {
+
+    public static final String COLLECTION_REGION = "collection";
+    public static final String LABEL_REGION = "label";
+    public static final String FILE_FORMAT_REGION = "fileformat";
+    public static final String ORGANIZATION_REGION = "organization";
+    public static final String CLOUD_INSTANCE_REGION = "cloudinstance";
+    public static final String QUERY_RESULTS_REGION = RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME;
+    public static final List<String> REGIONS = List.of(COLLECTION_REGION, LABEL_REGION, FILE_FORMAT_REGION, ORGANIZATION_REGION, CLOUD_INSTANCE_REGION,
+        QUERY_RESULTS_REGION);
+
+    private SecondLevelCacheHelper() {
+    }
+
+    public static boolean isEnabled(SessionFactory sessionFactory) {
+        return sessionFactory.getSessionFactoryOptions().isSecondLevelCacheEnabled();
+    }
+
+    /**
+     * Registers the hit ratio, hit count and miss count of every region, if the second-level cache is enabled.
+     */
+    public static void registerMetrics(SessionFactory sessionFactory, MetricRegistry registry) {
+        if (!isEnabled(sessionFactory)) {
+            return;
+        }
+        final Statistics statistics = sessionFactory.getStatistics();
+        for (String region : REGIONS) {
+            registry.registerGauge(MetricRegistry.name(SecondLevelCacheHelper.class, region, "hitRatio"),
+                () -> getRegionStatistics(statistics, region).map(SecondLevelCacheHelper::hitRatio).orElse(0.0));
+            registry.registerGauge(MetricRegistry.name(SecondLevelCacheHelper.class, region, "hitCount"),
+                () -> getRegionStatistics(statistics, region).map(CacheRegionStatistics::getHitCount).orElse(0L));
+            registry.registerGauge(MetricRegistry.name(SecondLevelCacheHelper.class, region, "missCount"),
+                () -> getRegionStatistics(statistics, region).map(CacheRegionStatistics::getMissCount).orElse(0L));
+        }
+    }
+
+    /**
+     * @return measures of the performance of every region, or only whether the cache is enabled if it is not
+     */
+    public static Map<String, String> getStatistics(SessionFactory sessionFactory) {
+        final Map<String, String> results = new HashMap<>();
+        final boolean enabled = isEnabled(sessionFactory);
+        results.put("enabled", String.valueOf(enabled));
+        if (!enabled) {
+            return results;
+        }
+        final Statistics statistics = sessionFactory.getStatistics();
+        results.put("statisticsEnabled", String.valueOf(statistics.isStatisticsEnabled()));
+        for (String region : REGIONS) {
+            getRegionStatistics(statistics, region).ifPresent(regionStatistics -> {
+                results.put(region + ".hitRatio", String.valueOf(hitRatio(regionStatistics)));
+                results.put(region + ".hitCount", String.valueOf(regionStatistics.getHitCount()));
+                results.put(region + ".missCount", String.valueOf(regionStatistics.getMissCount()));
+                results.put(region + ".putCount", String.valueOf(regionStatistics.getPutCount()));
+            });
+        }
+        return results;
+    }
+
+    private static Optional<CacheRegionStatistics> getRegionStatistics(Statistics statistics, String region) {
+        return Optional.ofNullable(statistics.getCacheRegionStatistics(region));
+    }
+
+    private static double hitRatio(CacheRegionStatistics regionStatistics) {
+        final long lookups = regionStatistics.getHitCount() + regionStatistics.getMissCount();
+        return lookups == 0 ? 0.0 : (double) regionStatistics.getHitCount() / lookups;
+    }
+}
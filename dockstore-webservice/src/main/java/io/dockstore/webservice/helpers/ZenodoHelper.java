@@ -663,7 +663,7 @@ public final class ZenodoHelper {
                 .map(ZenodoHelper::fromDockstoreAuthor);
         final Stream<Author> orcidAuthors = inputOrcidAuthors.stream()
                 .map(OrcidAuthor::getOrcid)
-                .map(orcidId -> ORCIDHelper.getOrcidAuthorInformation(orcidId, null))
+                .map(ORCIDAuthorResolver::getOrcidAuthorInformation)
                 .flatMap(Optional::stream)
                 .map(ZenodoHelper::fromOrcidAuthorInfo);
         return Stream.concat(authors, orcidAuthors).toList();
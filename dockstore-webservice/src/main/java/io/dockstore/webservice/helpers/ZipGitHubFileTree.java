@@ -19,16 +19,23 @@ package io.dockstore.webservice.helpers;
 
 import io.dockstore.common.Utilities;
 import io.dockstore.webservice.CustomWebApplicationException;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.function.Predicate;
 import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
 import org.apache.commons.compress.archivers.zip.ZipFile;
 import org.apache.commons.compress.utils.SeekableInMemoryByteChannel;
@@ -40,52 +47,139 @@ import org.slf4j.LoggerFactory;
 /**
  * Abstracts the file tree corresponding to a reference to a GitHub repository.
  *
- * Upon initialization, this implementation retrieves a Zipball of the ref/repo
- * file tree and constructs a path-to-ZipArchiveEntry map corresponding to normal
- * (non-symlink) files.  Sebsequently, on demand, the map is used to extract file
- * contents and a list of paths.
+ * Upon initialization, this implementation resolves the commit SHA of the ref.
+ * The first time the list of paths, or a file that is not already held by the
+ * shared FileContentCache for that commit, is needed, it retrieves a Zipball of the
+ * repo file tree at the commit and constructs a path-to-ZipArchiveEntry map
+ * corresponding to normal (non-symlink) files.  Sebsequently, on demand, the map
+ * is used to extract file contents and a list of paths.
  *
  * The zip file and path-to-entry map do not include submodule files or paths
  * that contain a symlink component.  If `readFile` can't find a path in the map,
  * we attempt to read the file via `GitHubSourceCodeRepo.readFile`, which
  * supports symlinks and submodules.
+ *
+ * Zipballs smaller than the memory threshold are held in memory.  Larger Zipballs
+ * are streamed to a temporary file, which is read through a `FileChannel` and
+ * deleted when the tree is closed, so that memory use does not grow with the
+ * size of the repository.  Optionally, only the paths that match a filter are
+ * indexed and listed, which keeps the map small for repositories with many files.
  */
-public class ZipGitHubFileTree implements FileTree {
+public class ZipGitHubFileTree implements FileTree, Closeable {
 
+    public static final int DEFAULT_MEMORY_THRESHOLD = 32 * 1024 * 1024;
     private static final Logger LOG = LoggerFactory.getLogger(ZipGitHubFileTree.class);
 
+    private static volatile int memoryThreshold = DEFAULT_MEMORY_THRESHOLD;
+
     private final GitHubSourceCodeRepo gitHubSourceCodeRepo;
     private final String repository;
     private final String ref;
-    private final ZipFile zipFile;
-    private final Map<Path, ZipArchiveEntry> pathToEntry;
+    private final String commitSha;
+    private final Predicate<Path> pathFilter;
+    /**
+     * The downloaded Zipball, or null if it has not been needed yet. Guarded by this.
+     */
+    private ZipFile zipFile;
+    private final Map<Path, ZipArchiveEntry> pathToEntry = new LinkedHashMap<>();
+    /**
+     * Name component that GitHub prepends to every entry in the Zipball, or null if the Zipball is empty.
+     */
+    private String zipPrefix;
 
     public ZipGitHubFileTree(GitHubSourceCodeRepo gitHubSourceCodeRepo, String repository, String ref) {
+        this(gitHubSourceCodeRepo, repository, ref, path -> true);
+    }
+
+    /**
+     * Creates a file tree that only indexes the paths that match the specified filter.
+     * Files with other paths can still be read, but are not included in the list returned by `listPaths`.
+     * @param pathFilter selects the absolute paths to index
+     */
+    public ZipGitHubFileTree(GitHubSourceCodeRepo gitHubSourceCodeRepo, String repository, String ref, Predicate<Path> pathFilter) {
         this.gitHubSourceCodeRepo = gitHubSourceCodeRepo;
         this.repository = repository;
         this.ref = ref;
-        // Read the Zip contents and create an in-memory ZipFile.
-        byte[] zipBytes = gitHubSourceCodeRepo.readZip(repository, ref);
-        LOG.info("downloaded Zip of GitHub repository: %d bytes".formatted(zipBytes.length));
-        SeekableInMemoryByteChannel zipChannel = new SeekableInMemoryByteChannel(zipBytes);
+        this.commitSha = gitHubSourceCodeRepo.getCommitID(repository, ref);
+        this.pathFilter = pathFilter;
+    }
+
+    /**
+     * Downloads the Zipball and indexes its entries, if that has not been done yet.
+     * @return the Zip file
+     */
+    private synchronized ZipFile openZip() {
+        if (zipFile != null) {
+            return zipFile;
+        }
+        // Download the Zip contents and create a ZipFile, backed by memory or a temporary file depending on its size.
+        SeekableByteChannel zipChannel = gitHubSourceCodeRepo.readZipAtCommit(repository, reference(), ZipGitHubFileTree::download);
+        ZipFile openedZipFile;
         try {
-            zipFile = new ZipFile(zipChannel);
+            openedZipFile = new ZipFile(zipChannel);
         } catch (IOException e) {
             LOG.error("could not read zip archive of GitHub repository", e);
+            IOUtils.closeQuietly(zipChannel);
             throw new CustomWebApplicationException("could not read GitHub repository", HttpStatus.SC_BAD_REQUEST);
         }
-        // Create a Map of absolute paths to Zip file entries for normal (non-symlink) files.
-        pathToEntry = Collections.list(zipFile.getEntries()).stream()
-            .filter(entry -> !entry.isDirectory() && !entry.isUnixSymlink())
-            .collect(Collectors.toMap(this::pathFromEntry, entry -> entry, (valueA, valueB) -> valueA));
+        // Create a Map of absolute paths to Zip file entries for normal (non-symlink) files that match the filter.
+        String prefix = null;
+        try {
+            for (ZipArchiveEntry entry : Collections.list(openedZipFile.getEntries())) {
+                if (prefix == null) {
+                    prefix = entry.getName().split("/", 2)[0] + "/";
+                }
+                if (!entry.isDirectory() && !entry.isUnixSymlink()) {
+                    Path path = pathFromEntry(entry);
+                    if (pathFilter.test(path)) {
+                        pathToEntry.putIfAbsent(path, entry);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            IOUtils.closeQuietly(openedZipFile);
+            pathToEntry.clear();
+            throw e;
+        }
+        zipPrefix = prefix;
+        zipFile = openedZipFile;
+        return zipFile;
+    }
+
+    /**
+     * Reads the Zip contents into memory if they are smaller than the memory threshold, otherwise, streams them to a temporary file.
+     */
+    private static SeekableByteChannel download(InputStream in) throws IOException {
+        final int threshold = memoryThreshold;
+        final byte[] head = in.readNBytes(threshold);
+        if (head.length < threshold) {
+            LOG.info("downloaded Zip of GitHub repository: %d bytes".formatted(head.length));
+            return new SeekableInMemoryByteChannel(head);
+        }
+        final Path tempFile = Files.createTempFile("github-zip-", ".zip");
+        try {
+            try (OutputStream out = Files.newOutputStream(tempFile)) {
+                out.write(head);
+                in.transferTo(out);
+            }
+            LOG.info("downloaded Zip of GitHub repository to temporary file: %d bytes".formatted(Files.size(tempFile)));
+            return FileChannel.open(tempFile, StandardOpenOption.READ, StandardOpenOption.DELETE_ON_CLOSE);
+        } catch (IOException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
     }
 
     @Override
     public String readFile(Path filePath) {
         // If specified file is included in the ZipFile, uncompress its content, convert it to a string, and return it.
+        ZipFile zip = openZip();
         ZipArchiveEntry entry = pathToEntry.get(filePath);
+        if (entry == null) {
+            entry = findEntry(zip, filePath);
+        }
         if (entry != null) {
-            try (InputStream in = zipFile.getInputStream(entry)) {
+            try (InputStream in = zip.getInputStream(entry)) {
                 return IOUtils.toString(in, StandardCharsets.UTF_8);
             } catch (IOException e) {
                 LOG.error("could not extract file from ZipArchiveEntry: " + stringifyAndClean(entry), e);
@@ -93,19 +187,65 @@ public class ZipGitHubFileTree implements FileTree {
             }
         }
         // Otherwise, use our existing GitHub API code [to handle symlinks and submodules].
-        return gitHubSourceCodeRepo.readFile(filePath.toString(), repository, ref);
+        return gitHubSourceCodeRepo.readFile(repository, filePath.toString(), reference());
     }
 
     @Override
     public List<String> listFiles(Path dirPath) {
-        return gitHubSourceCodeRepo.listFiles(dirPath.toString(), repository, ref);
+        return gitHubSourceCodeRepo.listFiles(repository, dirPath.toString(), reference());
     }
 
     @Override
     public List<Path> listPaths() {
+        openZip();
         return new ArrayList<>(pathToEntry.keySet());
     }
 
+    @Override
+    public String getContentId() {
+        return commitSha != null ? repository + "@" + commitSha : null;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (zipFile == null) {
+            return;
+        }
+        try {
+            // Also closes the underlying channel, which deletes the temporary file, if any.
+            zipFile.close();
+        } catch (IOException e) {
+            LOG.error("could not close zip archive of GitHub repository", e);
+        }
+    }
+
+    /**
+     * Sets the size above which downloaded Zipballs are stored in a temporary file rather than in memory.
+     * @param threshold size in bytes
+     */
+    public static void setMemoryThreshold(int threshold) {
+        memoryThreshold = threshold;
+    }
+
+    /**
+     * Finds the Zip entry of a normal file whose path was not indexed.
+     * @return the Zip entry, or null if there is none
+     */
+    private ZipArchiveEntry findEntry(ZipFile zip, Path filePath) {
+        if (!filePath.isAbsolute() || filePath.getNameCount() == 0 || zipPrefix == null) {
+            return null;
+        }
+        ZipArchiveEntry entry = zip.getEntry(zipPrefix + filePath.toString().substring(1));
+        return entry != null && !entry.isDirectory() && !entry.isUnixSymlink() ? entry : null;
+    }
+
+    /**
+     * @return the commit SHA, or the ref if the SHA could not be resolved
+     */
+    private String reference() {
+        return commitSha != null ? commitSha : ref;
+    }
+
     /**
      * Computes a file's absolute path, relative to the repo root, from the information in a specified Zip entry.
      * In a GitHub Zipball, all file paths are prepended with a path component formed from the repo/ref information, which this code strips off.
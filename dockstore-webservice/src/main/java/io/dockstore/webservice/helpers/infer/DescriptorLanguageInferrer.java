@@ -91,7 +91,8 @@ public abstract class DescriptorLanguageInferrer implements Inferrer {
         return fileTree.listPaths().stream().anyMatch(this::isDescriptorPath);
     }
 
-    protected final boolean isDescriptorPath(Path path) {
+    @Override
+    public final boolean isDescriptorPath(Path path) {
         return isDescriptorPath(path.toString());
     }
 
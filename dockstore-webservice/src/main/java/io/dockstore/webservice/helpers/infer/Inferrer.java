@@ -47,6 +47,13 @@ public interface Inferrer {
      */
     boolean containsDescriptorPath(FileTree fileTree);
 
+    /**
+     * Returns true if the specified path could be a descriptor that this inferrer examines.
+     * @param path absolute path of a file
+     * @return
+     */
+    boolean isDescriptorPath(Path path);
+
     /**
      * Describes an inferred entry.
      */
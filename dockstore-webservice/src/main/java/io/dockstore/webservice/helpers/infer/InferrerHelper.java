@@ -33,6 +33,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.mutable.MutableLong;
@@ -63,6 +64,15 @@ public class InferrerHelper {
         return getInferrers().stream().anyMatch(inferrer -> inferrer.containsDescriptorPath(fileTree));
     }
 
+    /**
+     * Returns a filter that selects the paths that any of the inferrers returned by #getInferrers might examine.
+     * Used to avoid indexing the other files in a repository.
+     */
+    public Predicate<Path> getDescriptorPathFilter() {
+        List<Inferrer> inferrers = getInferrers();
+        return path -> inferrers.stream().anyMatch(inferrer -> inferrer.isDescriptorPath(path));
+    }
+
     /**
      * Produces a "standard" list of inferrers.
      */
@@ -0,0 +1,442 @@
+/*
+ * Copyright 2025 OICR and UCSC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *           http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.dockstore.webservice.helpers.statelisteners;
+
+import com.google.common.collect.Lists;
+import com.google.common.io.Resources;
+import io.dockstore.webservice.CustomWebApplicationException;
+import io.dockstore.webservice.DockstoreWebserviceConfiguration;
+import io.dockstore.webservice.api.IndexRebuildStatus;
+import io.dockstore.webservice.api.IndexRebuildStatus.State;
+import io.dockstore.webservice.core.Entry;
+import io.dockstore.webservice.helpers.ElasticSearchHelper;
+import io.dockstore.webservice.helpers.PublicStateManager;
+import io.dockstore.webservice.helpers.StateManagerMode;
+import io.dockstore.webservice.jdbi.EntryDAO;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+import org.apache.http.HttpStatus;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequest;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequest.AliasActions;
+import org.elasticsearch.action.admin.indices.alias.get.GetAliasesRequest;
+import org.elasticsearch.action.admin.indices.delete.DeleteIndexRequest;
+import org.elasticsearch.action.admin.indices.refresh.RefreshRequest;
+import org.elasticsearch.action.admin.indices.settings.put.UpdateSettingsRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkProcessor;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.client.indices.CreateIndexRequest;
+import org.elasticsearch.client.indices.GetIndexRequest;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.context.internal.ManagedSessionContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Rebuilds the Elasticsearch indices without taking search down.
+ *
+ * <p>The indices that are searched are aliases. A rebuild creates a new timestamped index behind each alias and populates it:
+ * the IDs of the published entries are read up front and split into pages, which are loaded and converted to documents in parallel,
+ * each by a thread with its own session, and handed to a shared bulk processor that blocks the readers while too many bulk requests
+ * are in flight. Updates of single entries that are made meanwhile are recorded and applied to the new indices before the aliases are
+ * atomically moved to them. The previous indices are then deleted, and the sitemap and RSS feed are rebuilt from scratch, as they are
+ * after a bulk upsert. If the rebuild fails, the new indices are deleted and the aliases keep pointing at the previous ones.
+ */
+public class ElasticIndexRebuilder {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ElasticIndexRebuilder.class);
+    private static final DateTimeFormatter INDEX_SUFFIX_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss").withZone(ZoneOffset.UTC);
+    private static final Map<String, String> MAPPINGS = Map.of(
+        ElasticListener.TOOLS_INDEX, "queries/mapping_tool.json",
+        ElasticListener.WORKFLOWS_INDEX, "queries/mapping_workflow.json",
+        ElasticListener.NOTEBOOKS_INDEX, "queries/mapping_notebook.json");
+    private static final String REFRESH_INTERVAL = "index.refresh_interval";
+    private static final String SEARCH_INDEXING_FAILED = "Search indexing failed";
+    private static final int PAGE_SIZE = 500;
+    private static final long BULK_WAIT_MINUTES = 5L;
+
+    private final PublicStateManager publicStateManager;
+    private final ElasticListener elasticListener;
+    private final PopulateEntryListener populateEntryListener;
+    private final SessionFactory sessionFactory;
+    private final DockstoreWebserviceConfiguration.ElasticSearchConfig config;
+    private final List<EntryDAO<?>> entryDAOs;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    /**
+     * Updates of single entries made during the rebuild, null when no rebuild is in progress.
+     */
+    private volatile ConcurrentLinkedQueue<RecordedUpdate> recordedUpdates;
+    private volatile State state = State.NOT_STARTED;
+    private volatile Date startTime;
+    private volatile Date endTime;
+    private volatile List<String> indices = List.of();
+    private volatile long total;
+    private volatile String message;
+
+    /**
+     * @param publicStateManager the state manager whose listeners convert entries to documents and cache the sitemap and RSS feed
+     * @param populateEntryListener the listener that sets the fields of entries that the documents need but Hibernate does not load
+     * @param sessionFactory the factory of the sessions that the entries are read in
+     * @param config the Elasticsearch configuration
+     * @param entryDAOs DAOs that together find every published entry
+     */
+    public ElasticIndexRebuilder(PublicStateManager publicStateManager, PopulateEntryListener populateEntryListener, SessionFactory sessionFactory,
+        DockstoreWebserviceConfiguration.ElasticSearchConfig config, List<EntryDAO<?>> entryDAOs) {
+        this.publicStateManager = publicStateManager;
+        this.elasticListener = publicStateManager.getElasticListener();
+        this.populateEntryListener = populateEntryListener;
+        this.sessionFactory = sessionFactory;
+        this.config = config;
+        this.entryDAOs = entryDAOs;
+    }
+
+    /**
+     * @return the progress of the rebuild in progress, or else of the last one
+     */
+    public IndexRebuildStatus getStatus() {
+        return new IndexRebuildStatus(state, startTime, endTime, indices, total, processed.get(), failed.get(), message);
+    }
+
+    /**
+     * Record an update of a single entry, so that it is applied to the indices being built, if any.
+     * @param entry the updated entry
+     * @param index the alias of the index of the entry
+     */
+    void recordUpdate(Entry entry, String index) {
+        final ConcurrentLinkedQueue<RecordedUpdate> updates = recordedUpdates;
+        if (updates != null) {
+            updates.add(new RecordedUpdate(Hibernate.getClass(entry), entry.getId(), index));
+        }
+    }
+
+    /**
+     * Rebuild the indices, returning once the aliases point at the new indices.
+     * @return the number of published entries that were read
+     */
+    public long rebuild() {
+        if (!running.compareAndSet(false, true)) {
+            throw new CustomWebApplicationException("The search indices are already being rebuilt", HttpStatus.SC_CONFLICT);
+        }
+        final String suffix = INDEX_SUFFIX_FORMAT.format(Instant.now());
+        final Map<String, String> newIndices = new LinkedHashMap<>();
+        ElasticListener.INDEXES.forEach(alias -> newIndices.put(alias, alias + "_" + suffix));
+        state = State.RUNNING;
+        startTime = new Date();
+        endTime = null;
+        indices = List.copyOf(newIndices.values());
+        total = 0;
+        processed.set(0);
+        failed.set(0);
+        message = null;
+        recordedUpdates = new ConcurrentLinkedQueue<>();
+
+        final AtomicInteger threadCount = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(config.getReindexParallelism(), runnable -> {
+            Thread thread = new Thread(runnable, "elasticsearch-reindex-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        RestHighLevelClient client = null;
+        boolean swapped = false;
+        try {
+            // FYI. it is real tempting to use a try ... catch with resources to close this client, but it actually permanently messes up the client!
+            client = ElasticSearchHelper.restHighLevelClient();
+            for (Map.Entry<String, String> aliasAndIndex : newIndices.entrySet()) {
+                createIndex(client, MAPPINGS.get(aliasAndIndex.getKey()), aliasAndIndex.getValue());
+            }
+            LOG.info("Populating indices {}", newIndices.values());
+            populate(executor, newIndices);
+            applyRecordedUpdates(executor, newIndices::get);
+            for (String index : newIndices.values()) {
+                finishIndex(client, index);
+            }
+            swapAliases(client, newIndices);
+            swapped = true;
+            LOG.info("Moved aliases {} to indices {}", newIndices.keySet(), newIndices.values());
+            // updates recorded after the last replay went to the previous indices, so apply them through the aliases
+            applyRecordedUpdates(executor, UnaryOperator.identity());
+            recordedUpdates = null;
+            deletePreviousIndices(client, newIndices);
+            publicStateManager.getSitemapListener().invalidateCache();
+            publicStateManager.getRSSListener().invalidateCache();
+            state = State.SUCCEEDED;
+            LOG.info("Rebuilt search indices with {} entries, {} documents failed", processed.get(), failed.get());
+            return processed.get();
+        } catch (Exception e) {
+            LOG.error("Could not rebuild search indices", e);
+            message = e.getMessage();
+            state = State.FAILED;
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            if (client != null && !swapped) {
+                deleteIndices(client, newIndices.values());
+            }
+            throw new CustomWebApplicationException(SEARCH_INDEXING_FAILED, HttpStatus.SC_INTERNAL_SERVER_ERROR);
+        } finally {
+            recordedUpdates = null;
+            executor.shutdownNow();
+            endTime = new Date();
+            running.set(false);
+        }
+    }
+
+    /**
+     * Create an index with a mapping, which is not refreshed until it is finished.
+     */
+    private void createIndex(RestHighLevelClient client, String resourceName, String index) throws IOException {
+        final String mapping = Resources.toString(Resources.getResource(resourceName), StandardCharsets.UTF_8);
+        client.indices().create(new CreateIndexRequest(index).source(mapping, XContentType.JSON), RequestOptions.DEFAULT);
+        // the mapping has its own settings, so the refresh interval is set separately
+        final UpdateSettingsRequest settingsRequest = new UpdateSettingsRequest(index).settings(Settings.builder().put(REFRESH_INTERVAL, "-1"));
+        client.indices().putSettings(settingsRequest, RequestOptions.DEFAULT);
+    }
+
+    private void finishIndex(RestHighLevelClient client, String index) throws IOException {
+        final UpdateSettingsRequest settingsRequest = new UpdateSettingsRequest(index).settings(Settings.builder().putNull(REFRESH_INTERVAL));
+        client.indices().putSettings(settingsRequest, RequestOptions.DEFAULT);
+        client.indices().refresh(new RefreshRequest(index), RequestOptions.DEFAULT);
+    }
+
+    private void populate(ExecutorService executor, Map<String, String> newIndices) throws Exception {
+        final BulkProcessor bulkProcessor = elasticListener.newBulkProcessor(new RebuildBulkListener(), config.getReindexConcurrentBulkRequests());
+        try {
+            // reading the IDs up front lets the pages be read in parallel without the cost of an offset
+            final List<Future<List<Long>>> ids = new ArrayList<>();
+            for (EntryDAO<?> entryDAO : entryDAOs) {
+                ids.add(executor.submit(() -> inSession(entryDAO::findAllPublishedIds)));
+            }
+            final List<Future<?>> pages = new ArrayList<>();
+            long count = 0;
+            for (int i = 0; i < entryDAOs.size(); i++) {
+                final EntryDAO<?> entryDAO = entryDAOs.get(i);
+                final List<Long> daoIds = ids.get(i).get();
+                count += daoIds.size();
+                total = count;
+                for (List<Long> page : Lists.partition(daoIds, PAGE_SIZE)) {
+                    pages.add(executor.submit(() -> inSession(() -> indexPage(entryDAO, page, newIndices, bulkProcessor))));
+                }
+            }
+            for (Future<?> page : pages) {
+                page.get();
+            }
+        } finally {
+            awaitClose(bulkProcessor);
+        }
+    }
+
+    private Void indexPage(EntryDAO<?> entryDAO, List<Long> ids, Map<String, String> newIndices, BulkProcessor bulkProcessor) throws IOException {
+        final List<Entry> entries = new ArrayList<>(entryDAO.findByIds(ids));
+        processed.addAndGet(entries.size());
+        createIndexRequests(entries, newIndices::get).forEach(bulkProcessor::add);
+        return null;
+    }
+
+    /**
+     * Convert entries to documents, as the listeners of the PublicStateManager do in a bulk upsert.
+     * @param targetIndex maps the alias of the index of an entry to the index that its document is added to
+     */
+    List<IndexRequest> createIndexRequests(List<Entry> entries, UnaryOperator<String> targetIndex) throws IOException {
+        entries.forEach(elasticListener::eagerLoadEntry);
+        final List<Entry> indexedEntries = ElasticListener.filterCheckerWorkflows(entries);
+        if (indexedEntries.isEmpty()) {
+            return List.of();
+        }
+        populateEntryListener.populate(indexedEntries);
+        ElasticListener.prefetchOrcidAuthors(indexedEntries);
+        final List<IndexRequest> requests = new ArrayList<>();
+        for (Entry entry : indexedEntries) {
+            final String index = elasticListener.determineIndex(entry);
+            if (index != null) {
+                requests.add(elasticListener.createIndexRequest(targetIndex.apply(index), entry));
+            }
+        }
+        return requests;
+    }
+
+    /**
+     * Apply the updates recorded so far, reloading each entry to index its current state.
+     * @param targetIndex maps the alias of the index of an update to the index that it is applied to
+     */
+    private void applyRecordedUpdates(ExecutorService executor, UnaryOperator<String> targetIndex) throws Exception {
+        // polling drains the updates without losing any that are recorded meanwhile, they are left for the next replay
+        final Set<RecordedUpdate> updates = new LinkedHashSet<>();
+        final ConcurrentLinkedQueue<RecordedUpdate> queuedUpdates = recordedUpdates;
+        for (RecordedUpdate update = queuedUpdates.poll(); update != null; update = queuedUpdates.poll()) {
+            updates.add(update);
+        }
+        if (updates.isEmpty()) {
+            return;
+        }
+        LOG.info("Applying {} updates made during the rebuild", updates.size());
+        final BulkProcessor bulkProcessor = elasticListener.newBulkProcessor(new RebuildBulkListener());
+        try {
+            executor.submit(() -> inSession(() -> {
+                for (RecordedUpdate update : updates) {
+                    bulkProcessor.add(createRequest(update, targetIndex.apply(update.index())));
+                    sessionFactory.getCurrentSession().clear();
+                }
+                return null;
+            })).get();
+        } finally {
+            awaitClose(bulkProcessor);
+        }
+    }
+
+    private DocWriteRequest<?> createRequest(RecordedUpdate update, String index) throws IOException {
+        final Entry entry = sessionFactory.getCurrentSession().get(update.entryClass(), update.entryId());
+        if (entry != null && elasticListener.isIndexable(entry, StateManagerMode.PUBLISH)) {
+            return createIndexRequests(List.of(entry), alias -> index).get(0);
+        }
+        // the entry has been deleted or unpublished
+        return new DeleteRequest(index, String.valueOf(update.entryId()));
+    }
+
+    /**
+     * Atomically move each alias to its new index. An index that was created before the indices were aliased, and so has the name
+     * of the alias, is deleted as part of the same request.
+     */
+    private void swapAliases(RestHighLevelClient client, Map<String, String> newIndices) throws IOException {
+        final IndicesAliasesRequest request = new IndicesAliasesRequest();
+        for (Map.Entry<String, String> aliasAndIndex : newIndices.entrySet()) {
+            final String alias = aliasAndIndex.getKey();
+            final Set<String> aliasedIndices = client.indices().getAlias(new GetAliasesRequest(alias), RequestOptions.DEFAULT).getAliases().keySet();
+            if (!aliasedIndices.isEmpty()) {
+                request.addAliasAction(AliasActions.remove().indices(aliasedIndices.toArray(String[]::new)).alias(alias));
+            } else if (client.indices().exists(new GetIndexRequest(alias), RequestOptions.DEFAULT)) {
+                request.addAliasAction(AliasActions.removeIndex().index(alias));
+            }
+            request.addAliasAction(AliasActions.add().index(aliasAndIndex.getValue()).alias(alias));
+        }
+        client.indices().updateAliases(request, RequestOptions.DEFAULT);
+    }
+
+    private void deletePreviousIndices(RestHighLevelClient client, Map<String, String> newIndices) {
+        for (Map.Entry<String, String> aliasAndIndex : newIndices.entrySet()) {
+            try {
+                final String[] timestampedIndices = client.indices().get(new GetIndexRequest(aliasAndIndex.getKey() + "_*"), RequestOptions.DEFAULT).getIndices();
+                final List<String> previousIndices = new ArrayList<>(List.of(timestampedIndices));
+                previousIndices.remove(aliasAndIndex.getValue());
+                deleteIndices(client, previousIndices);
+            } catch (IOException | RuntimeException e) {
+                LOG.warn("Could not find previous " + aliasAndIndex.getKey() + " indices", e);
+            }
+        }
+    }
+
+    private void deleteIndices(RestHighLevelClient client, Collection<String> indicesToDelete) {
+        for (String index : indicesToDelete) {
+            try {
+                client.indices().delete(new DeleteIndexRequest(index), RequestOptions.DEFAULT);
+            } catch (IOException | RuntimeException e) {
+                LOG.warn("Could not delete elastic search index " + index, e);
+            }
+        }
+    }
+
+    private void awaitClose(BulkProcessor bulkProcessor) throws InterruptedException {
+        if (!bulkProcessor.awaitClose(BULK_WAIT_MINUTES, TimeUnit.MINUTES)) {
+            throw new CustomWebApplicationException("Could not submit search indices to elastic search in time", HttpStatus.SC_INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Run the work in a new read-only session that is bound to the current thread.
+     */
+    private <T> T inSession(Callable<T> work) throws Exception {
+        final Session session = sessionFactory.openSession();
+        ManagedSessionContext.bind(session);
+        try {
+            session.beginTransaction();
+            session.setDefaultReadOnly(true);
+            final T result = work.call();
+            session.getTransaction().rollback();
+            return result;
+        } finally {
+            ManagedSessionContext.unbind(sessionFactory);
+            session.close();
+        }
+    }
+
+    record RecordedUpdate(Class<? extends Entry> entryClass, long entryId, String index) {
+    }
+
+    /**
+     * Counts the documents that could not be indexed. A failed document does not fail the rebuild, it is logged and reported in the
+     * status instead.
+     */
+    private final class RebuildBulkListener implements BulkProcessor.Listener {
+
+        @Override
+        public void beforeBulk(long executionId, BulkRequest request) {
+            LOG.debug("Executing reindex bulk [{}] with {} requests", executionId, request.numberOfActions());
+        }
+
+        @Override
+        public void afterBulk(long executionId, BulkRequest request, BulkResponse response) {
+            if (response.hasFailures()) {
+                for (BulkItemResponse itemResponse : response.getItems()) {
+                    if (itemResponse.isFailed()) {
+                        failed.incrementAndGet();
+                        LOG.error("Could not index entry {} in {}: {}", itemResponse.getId(), itemResponse.getIndex(), itemResponse.getFailureMessage());
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void afterBulk(long executionId, BulkRequest request, Throwable failure) {
+            failed.addAndGet(request.numberOfActions());
+            LOG.error("Failed to execute reindex bulk [" + executionId + "]", failure);
+        }
+    }
+}
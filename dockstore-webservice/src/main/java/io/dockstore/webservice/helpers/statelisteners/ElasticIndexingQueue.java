@@ -0,0 +1,357 @@
+/*
+ * Copyright 2025 OICR and UCSC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dockstore.webservice.helpers.statelisteners;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import io.dockstore.webservice.DockstoreWebserviceConfiguration;
+import io.dockstore.webservice.core.Entry;
+import io.dockstore.webservice.helpers.StateManagerMode;
+import io.dropwizard.lifecycle.Managed;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkProcessor;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.context.internal.ManagedSessionContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Indexes entries in Elasticsearch in the background, so that requests and webhooks do not wait on Elasticsearch.
+ *
+ * <p>An update is queued by index and entry id once the surrounding transaction commits. Repeated updates to an entry that is
+ * still queued are coalesced into the latest one. The queue is periodically drained, each entry is reloaded in a separate session
+ * and the resulting documents are posted through the same bulk processor configuration as a full reindex.
+ * Failed updates are retried a limited number of times and then dead-lettered.
+ */
+public class ElasticIndexingQueue implements Managed {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ElasticIndexingQueue.class);
+    private static final int MAX_DEAD_LETTERS = 1000;
+    private static final long BULK_WAIT_MINUTES = 5L;
+
+    private final ElasticListener elasticListener;
+    private final SessionFactory sessionFactory;
+    private final DockstoreWebserviceConfiguration.ElasticSearchConfig config;
+
+    /**
+     * Pending updates in the order they were first queued. Guarded by this.
+     */
+    private final Map<Key, Item> pending = new LinkedHashMap<>();
+    /**
+     * Slots held by updates that wait for their transaction to complete. Guarded by this.
+     */
+    private int reserved;
+    private final Deque<DeadLetter> deadLetters = new ConcurrentLinkedDeque<>();
+    private final Timer indexingLag = new Timer();
+    private final Counter coalesced = new Counter();
+    private final Counter retried = new Counter();
+    private final Counter deadLettered = new Counter();
+    private ScheduledExecutorService executor;
+
+    public ElasticIndexingQueue(ElasticListener elasticListener, SessionFactory sessionFactory, DockstoreWebserviceConfiguration.ElasticSearchConfig config) {
+        this.elasticListener = elasticListener;
+        this.sessionFactory = sessionFactory;
+        this.config = config;
+    }
+
+    public void registerMetrics(MetricRegistry registry) {
+        registry.registerGauge(MetricRegistry.name(ElasticIndexingQueue.class, "queueDepth"), this::getQueueDepth);
+        registry.registerGauge(MetricRegistry.name(ElasticIndexingQueue.class, "deadLetters"), deadLetters::size);
+        registry.register(MetricRegistry.name(ElasticIndexingQueue.class, "indexingLag"), indexingLag);
+        registry.register(MetricRegistry.name(ElasticIndexingQueue.class, "coalesced"), coalesced);
+        registry.register(MetricRegistry.name(ElasticIndexingQueue.class, "retried"), retried);
+        registry.register(MetricRegistry.name(ElasticIndexingQueue.class, "deadLettered"), deadLettered);
+    }
+
+    /**
+     * Queue an update of the entry in the specified index. If a transaction is in progress, the update is queued after the transaction
+     * commits, and dropped if it rolls back.
+     * @param entry the entry to index
+     * @param index the Elasticsearch index of the entry
+     * @param command the command to perform
+     * @return false if the queue is full, in which case the caller should perform the update itself
+     */
+    public boolean offer(Entry entry, String index, StateManagerMode command) {
+        final Key key = new Key(index, entry.getId());
+        final Item item = new Item(Hibernate.getClass(entry), command, System.nanoTime(), 0);
+        final Transaction transaction = getActiveTransaction();
+        // the capacity check and the enqueue, or the reservation of a slot until the transaction completes, happen under one lock
+        synchronized (this) {
+            if (transaction == null && pending.containsKey(key)) {
+                put(key, item);
+                return true;
+            }
+            if (isFull()) {
+                LOG.warn("Elasticsearch indexing queue is full, indexing entry {} synchronously", entry.getId());
+                return false;
+            }
+            if (transaction == null) {
+                put(key, item);
+                return true;
+            }
+            reserved++;
+        }
+        transaction.registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+                // nothing to do until we know whether the transaction committed
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                synchronized (ElasticIndexingQueue.this) {
+                    reserved--;
+                    if (status == Status.STATUS_COMMITTED) {
+                        put(key, item);
+                    }
+                }
+            }
+        });
+        return true;
+    }
+
+    public synchronized int getQueueDepth() {
+        return pending.size();
+    }
+
+    synchronized int getReserved() {
+        return reserved;
+    }
+
+    /**
+     * @return the most recent updates that could not be indexed, oldest first
+     */
+    public List<DeadLetter> getDeadLetters() {
+        return new ArrayList<>(deadLetters);
+    }
+
+    @Override
+    public void start() throws Exception {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "elasticsearch-indexing-queue");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final long interval = config.getIndexingFlushIntervalMillis();
+        executor.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() throws Exception {
+        executor.shutdown();
+        if (executor.awaitTermination(BULK_WAIT_MINUTES, TimeUnit.MINUTES)) {
+            // index whatever was queued after the last scheduled flush
+            flushQuietly();
+        } else {
+            LOG.error("Elasticsearch indexing queue did not stop in time, {} updates were not indexed", getQueueDepth());
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // an exception would cancel all future flushes
+            LOG.error("Could not flush the Elasticsearch indexing queue", e);
+        }
+    }
+
+    /**
+     * Drain the queue and post the updates to Elasticsearch, waiting until the bulk requests complete.
+     */
+    void flush() {
+        final Map<Key, Item> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = new LinkedHashMap<>(pending);
+            pending.clear();
+        }
+
+        final BulkProcessor bulkProcessor = elasticListener.newBulkProcessor(new QueueBulkListener(batch));
+        final Session session = sessionFactory.openSession();
+        ManagedSessionContext.bind(session);
+        try {
+            session.beginTransaction();
+            session.setDefaultReadOnly(true);
+            batch.forEach((key, item) -> {
+                try {
+                    final DocWriteRequest<?> request = createRequest(session, key, item);
+                    if (request != null) {
+                        bulkProcessor.add(request);
+                    }
+                } catch (Exception e) {
+                    LOG.error("Could not create Elasticsearch request for entry " + key.entryId(), e);
+                    retry(key, item, e.getMessage());
+                }
+                // documents are built one at a time, so nothing needs to stay in the session
+                session.clear();
+            });
+            session.getTransaction().rollback();
+        } finally {
+            ManagedSessionContext.unbind(sessionFactory);
+            session.close();
+        }
+
+        try {
+            if (!bulkProcessor.awaitClose(BULK_WAIT_MINUTES, TimeUnit.MINUTES)) {
+                LOG.error("Could not submit queued updates to elastic search in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOG.error("Interrupted while submitting queued updates to elastic search", e);
+        }
+    }
+
+    /**
+     * Create the request for a queued update, reloading the entry in the current session.
+     * @return the request, or null if nothing needs to be indexed
+     */
+    private DocWriteRequest<?> createRequest(Session session, Key key, Item item) throws Exception {
+        if (item.command() == StateManagerMode.DELETE) {
+            return new DeleteRequest(key.index(), String.valueOf(key.entryId()));
+        }
+        final Entry entry = session.get(item.entryClass(), key.entryId());
+        if (entry == null || !elasticListener.isIndexable(entry, item.command())) {
+            // the entry has since been deleted or unpublished, a queued delete takes care of the document
+            LOG.info("Skipping queued {} for entry {} that is no longer indexable", item.command(), key.entryId());
+            return null;
+        }
+        return elasticListener.createUpdateRequest(key.index(), entry);
+    }
+
+    private synchronized boolean isFull() {
+        return pending.size() + reserved >= config.getIndexingQueueCapacity();
+    }
+
+    private synchronized void put(Key key, Item item) {
+        final Item previous = pending.get(key);
+        if (previous == null) {
+            pending.put(key, item);
+        } else {
+            // keep the original queue time so that the lag covers the whole time the entry was waiting
+            pending.put(key, new Item(item.entryClass(), item.command(), previous.queuedNanos(), 0));
+            coalesced.inc();
+        }
+    }
+
+    private void retry(Key key, Item item, String reason) {
+        if (item.attempts() >= config.getIndexingMaxRetries()) {
+            deadLetter(key, item, reason);
+            return;
+        }
+        synchronized (this) {
+            if (pending.containsKey(key)) {
+                // a newer update supersedes the failed one
+                retried.inc();
+                return;
+            }
+            if (!isFull()) {
+                retried.inc();
+                pending.put(key, new Item(item.entryClass(), item.command(), item.queuedNanos(), item.attempts() + 1));
+                return;
+            }
+        }
+        deadLetter(key, item, reason + ", and the queue is too full to retry");
+    }
+
+    private void deadLetter(Key key, Item item, String reason) {
+        LOG.error("Giving up on {} of entry {} in index {}: {}", item.command(), key.entryId(), key.index(), reason);
+        deadLettered.inc();
+        deadLetters.addLast(new DeadLetter(key.index(), key.entryId(), item.command(), reason, new Date()));
+        while (deadLetters.size() > MAX_DEAD_LETTERS) {
+            deadLetters.pollFirst();
+        }
+    }
+
+    private Transaction getActiveTransaction() {
+        if (!ManagedSessionContext.hasBind(sessionFactory)) {
+            return null;
+        }
+        final Transaction transaction = sessionFactory.getCurrentSession().getTransaction();
+        return transaction != null && transaction.isActive() ? transaction : null;
+    }
+
+    record Key(String index, long entryId) {
+    }
+
+    record Item(Class<? extends Entry> entryClass, StateManagerMode command, long queuedNanos, int attempts) {
+    }
+
+    public record DeadLetter(String index, long entryId, StateManagerMode command, String reason, Date date) {
+    }
+
+    /**
+     * Records the outcome of each queued update, retrying the ones that failed.
+     */
+    private final class QueueBulkListener implements BulkProcessor.Listener {
+        private final Map<Key, Item> batch;
+
+        QueueBulkListener(Map<Key, Item> batch) {
+            this.batch = batch;
+        }
+
+        @Override
+        public void beforeBulk(long executionId, BulkRequest request) {
+            LOG.debug("Executing queued bulk [{}] with {} requests", executionId, request.numberOfActions());
+        }
+
+        @Override
+        public void afterBulk(long executionId, BulkRequest request, BulkResponse response) {
+            for (BulkItemResponse itemResponse : response.getItems()) {
+                final DocWriteRequest<?> itemRequest = request.requests().get(itemResponse.getItemId());
+                final Key key = new Key(itemRequest.index(), Long.parseLong(itemRequest.id()));
+                final Item item = batch.get(key);
+                if (itemResponse.isFailed()) {
+                    retry(key, item, itemResponse.getFailureMessage());
+                } else {
+                    indexingLag.update(System.nanoTime() - item.queuedNanos(), TimeUnit.NANOSECONDS);
+                }
+            }
+        }
+
+        @Override
+        public void afterBulk(long executionId, BulkRequest request, Throwable failure) {
+            LOG.error("Failed to execute queued bulk [" + executionId + "]", failure);
+            for (DocWriteRequest<?> itemRequest : request.requests()) {
+                final Key key = new Key(itemRequest.index(), Long.parseLong(itemRequest.id()));
+                retry(key, batch.get(key), failure.getMessage());
+            }
+        }
+    }
+}
@@ -30,7 +30,6 @@ import io.dockstore.webservice.core.Entry;
 import io.dockstore.webservice.core.EntryTypeMetadata;
 import io.dockstore.webservice.core.Label;
 import io.dockstore.webservice.core.OrcidAuthor;
-import io.dockstore.webservice.core.OrcidAuthorInformation;
 import io.dockstore.webservice.core.SourceFile;
 import io.dockstore.webservice.core.Tool;
 import io.dockstore.webservice.core.User;
@@ -40,6 +39,7 @@ import io.dockstore.webservice.core.metrics.MetricsByStatus;
 import io.dockstore.webservice.core.metrics.TimeSeriesMetric;
 import io.dockstore.webservice.helpers.ElasticSearchHelper;
 import io.dockstore.webservice.helpers.EntryVersionHelper;
+import io.dockstore.webservice.helpers.ORCIDAuthorResolver;
 import io.dockstore.webservice.helpers.ORCIDHelper;
 import io.dockstore.webservice.helpers.StateManagerMode;
 import io.dropwizard.jackson.Jackson;
@@ -101,22 +101,40 @@ public class ElasticListener implements StateListenerInterface {
     protected static final String VALIDATION_PARTNERS = "validation_partners";
     private static final int WEEKS_PER_YEAR = 52;
     private DockstoreWebserviceConfiguration.ElasticSearchConfig elasticSearchConfig;
+    private ElasticIndexingQueue indexingQueue;
+    private ElasticIndexRebuilder indexRebuilder;
 
     @Override
     public void setConfig(DockstoreWebserviceConfiguration config) {
         this.elasticSearchConfig = config.getEsConfiguration();
     }
 
+    /**
+     * Set the queue used to index single entries in the background
+     * @param indexingQueue the queue, or null to index single entries synchronously
+     */
+    public void setIndexingQueue(ElasticIndexingQueue indexingQueue) {
+        this.indexingQueue = indexingQueue;
+    }
+
+    /**
+     * Set the rebuilder that is told about updates of single entries, so that it can apply them to the indices that it is building
+     * @param indexRebuilder the rebuilder
+     */
+    public void setIndexRebuilder(ElasticIndexRebuilder indexRebuilder) {
+        this.indexRebuilder = indexRebuilder;
+    }
+
     /**
      * Manually eager load certain fields
      * @param entry
      */
-    private void eagerLoadEntry(Entry entry) {
+    void eagerLoadEntry(Entry entry) {
         Hibernate.initialize(entry.getAliases());
         Hibernate.initialize(entry.getMetricsByPlatform());
     }
 
-    private String determineIndex(Entry entry) {
+    String determineIndex(Entry entry) {
         if (entry.getEntryTypeMetadata().isEsSupported()) {
             return entry.getEntryTypeMetadata().getEsIndex();
         } else {
@@ -139,6 +157,9 @@ public class ElasticListener implements StateListenerInterface {
         if (index == null) {
             return;
         }
+        if (indexRebuilder != null) {
+            indexRebuilder.recordUpdate(entry, index);
+        }
         LOGGER.info("Performing index update with " + command + ".");
         if (StringUtils.isEmpty(elasticSearchConfig.getHostname())) {
             LOGGER.error("No elastic search host found.");
@@ -148,19 +169,17 @@ public class ElasticListener implements StateListenerInterface {
             LOGGER.info("Could not perform the elastic search index update.");
             return;
         }
+        if (indexingQueue != null && indexingQueue.offer(entry, index, command)) {
+            LOGGER.info("Queued index update with " + command + ".");
+            return;
+        }
         try {
             RestHighLevelClient client = ElasticSearchHelper.restHighLevelClient();
             DocWriteResponse post;
             switch (command) {
             case PUBLISH:
             case UPDATE:
-                UpdateRequest updateRequest = new UpdateRequest(index, String.valueOf(entry.getId()));
-                String json = MAPPER.writeValueAsString(dockstoreEntryToElasticSearchObject(entry));
-                // The below should've worked but it doesn't, the 2 lines after are used instead
-                // updateRequest.upsert(json, XContentType.JSON);
-                updateRequest.doc(json, XContentType.JSON);
-                updateRequest.docAsUpsert(true);
-                post = client.update(updateRequest, RequestOptions.DEFAULT);
+                post = client.update(createUpdateRequest(index, entry), RequestOptions.DEFAULT);
                 break;
             case DELETE:
                 DeleteRequest deleteRequest = new DeleteRequest(index, String.valueOf(entry.getId()));
@@ -180,6 +199,46 @@ public class ElasticListener implements StateListenerInterface {
         }
     }
 
+    /**
+     * Create a request that updates the document of the entry, creating it if necessary
+     * @param index the index of the entry
+     * @param entry the entry
+     * @return the update request
+     * @throws IOException Mapper problems
+     */
+    UpdateRequest createUpdateRequest(String index, Entry entry) throws IOException {
+        eagerLoadEntry(entry);
+        UpdateRequest updateRequest = new UpdateRequest(index, String.valueOf(entry.getId()));
+        String json = MAPPER.writeValueAsString(dockstoreEntryToElasticSearchObject(entry));
+        // The below should've worked but it doesn't, the 2 lines after are used instead
+        // updateRequest.upsert(json, XContentType.JSON);
+        updateRequest.doc(json, XContentType.JSON);
+        updateRequest.docAsUpsert(true);
+        return updateRequest;
+    }
+
+    /**
+     * Create a request that indexes the document of the entry, replacing any previous document
+     * @param index the index of the entry
+     * @param entry the entry
+     * @return the index request
+     * @throws IOException Mapper problems
+     */
+    IndexRequest createIndexRequest(String index, Entry entry) throws IOException {
+        String json = MAPPER.writeValueAsString(dockstoreEntryToElasticSearchObject(entry));
+        return new IndexRequest(index).id(String.valueOf(entry.getId())).source(json, XContentType.JSON);
+    }
+
+    /**
+     * Check if the entry should have a document after the specified command
+     * @param entry the entry
+     * @param command the command
+     * @return true if the entry belongs in an index and the command may be performed on it
+     */
+    boolean isIndexable(Entry entry, StateManagerMode command) {
+        return filterCheckerWorkflows(entry) != null && determineIndex(entry) != null && checkValid(entry, command);
+    }
+
     /**
      * Check if the entry is valid to perform the elastic operation
      *
@@ -205,6 +264,7 @@ public class ElasticListener implements StateListenerInterface {
     public void bulkUpsert(List<Entry> entries) {
         entries.forEach(this::eagerLoadEntry);
         entries = filterCheckerWorkflows(entries);
+        prefetchOrcidAuthors(entries);
         // For each index, bulk index the corresponding entries
         for (String index: INDEXES) {
             postBulkUpdate(index, filterEntriesByIndex(entries, index));
@@ -254,20 +314,10 @@ public class ElasticListener implements StateListenerInterface {
         };
 
         try {
-            RestHighLevelClient client = ElasticSearchHelper.restHighLevelClient();
-            BulkProcessor.Builder builder = BulkProcessor.builder(
-                (request, bulkListener) ->
-                        client.bulkAsync(request, RequestOptions.DEFAULT, bulkListener),
-                listener);
-
-            configureBulkProcessorBuilder(builder);
-
-            BulkProcessor bulkProcessor = builder.build();
+            BulkProcessor bulkProcessor = newBulkProcessor(listener);
             entries.forEach(entry -> {
                 try {
-                    String s = MAPPER.writeValueAsString(dockstoreEntryToElasticSearchObject(entry));
-                    bulkProcessor.add(new IndexRequest(index).id(String.valueOf(entry.getId())).source(s, XContentType.JSON));
-
+                    bulkProcessor.add(createIndexRequest(index, entry));
                 } catch (IOException e) {
                     LOGGER.error(MAPPER_ERROR, e);
                     throw new CustomWebApplicationException(MAPPER_ERROR, HttpStatus.SC_INTERNAL_SERVER_ERROR);
@@ -293,6 +343,32 @@ public class ElasticListener implements StateListenerInterface {
         }
     }
 
+    /**
+     * Create a bulk processor with the Dockstore settings
+     * @param listener listener notified of the outcome of each bulk request
+     * @return the bulk processor
+     */
+    BulkProcessor newBulkProcessor(BulkProcessor.Listener listener) {
+        return newBulkProcessor(listener, 1);
+    }
+
+    /**
+     * Create a bulk processor with the Dockstore settings, which blocks additions while the specified number of bulk requests are in flight
+     * @param listener listener notified of the outcome of each bulk request
+     * @param concurrentRequests the number of bulk requests that may execute while new ones are accumulated
+     * @return the bulk processor
+     */
+    BulkProcessor newBulkProcessor(BulkProcessor.Listener listener, int concurrentRequests) {
+        RestHighLevelClient client = ElasticSearchHelper.restHighLevelClient();
+        BulkProcessor.Builder builder = BulkProcessor.builder(
+            (request, bulkListener) ->
+                    client.bulkAsync(request, RequestOptions.DEFAULT, bulkListener),
+            listener);
+        configureBulkProcessorBuilder(builder);
+        builder.setConcurrentRequests(concurrentRequests);
+        return builder.build();
+    }
+
     /**
      * Configures the builder for the ES bulk processor. The default settings were causing AWS
      * ES 429 (too many requests) errors with our current prod data. Drop the default size
@@ -619,18 +695,29 @@ public class ElasticListener implements StateListenerInterface {
         if (!entry.getOrcidAuthors().isEmpty()) {
             Optional<String> token = ORCIDHelper.getOrcidAccessToken();
             if (token.isPresent()) {
-                Set<OrcidAuthorInformation> orcidAuthorInformation = ((Set<OrcidAuthor>)entry.getOrcidAuthors()).stream()
-                        .map(orcidAuthor -> ORCIDHelper.getOrcidAuthorInformation(orcidAuthor.getOrcid(), token.get()))
-                        .filter(Optional::isPresent)
-                        .map(Optional::get)
-                        .collect(Collectors.toSet());
-                allAuthors.addAll(orcidAuthorInformation);
+                List<String> orcidIds = ((Set<OrcidAuthor>)entry.getOrcidAuthors()).stream().map(OrcidAuthor::getOrcid).toList();
+                allAuthors.addAll(ORCIDAuthorResolver.getOrcidAuthorInformation(orcidIds));
             }
         }
         allAuthors.addAll(entry.getAuthors());
         return allAuthors;
     }
 
+    /**
+     * Starts retrieving the ORCID records of the ORCID authors of the entries concurrently, so that indexing does not wait for them one at a time.
+     * @param entries
+     */
+    static void prefetchOrcidAuthors(List<Entry> entries) {
+        List<String> orcidIds = entries.stream()
+                .flatMap(entry -> ((Set<OrcidAuthor>)entry.getOrcidAuthors()).stream())
+                .map(OrcidAuthor::getOrcid)
+                .distinct()
+                .toList();
+        if (!orcidIds.isEmpty() && ORCIDHelper.getOrcidAccessToken().isPresent()) {
+            ORCIDAuthorResolver.prefetch(orcidIds);
+        }
+    }
+
     private static Set<Author> getAllAuthorsAndPad(Entry entry) {
         Set<Author> allAuthors = getAllAuthors(entry);
         if (allAuthors.isEmpty()) {
@@ -645,7 +732,7 @@ public class ElasticListener implements StateListenerInterface {
      * @param entry     The entry to check
      * @return          null if checker, entry otherwise
      */
-    private static Entry filterCheckerWorkflows(Entry entry) {
+    static Entry filterCheckerWorkflows(Entry entry) {
         return entry instanceof Workflow workflow && workflow.isIsChecker() ? null : entry;
     }
 
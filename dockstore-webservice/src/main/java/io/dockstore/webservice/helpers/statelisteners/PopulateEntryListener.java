@@ -39,7 +39,7 @@ public class PopulateEntryListener implements StateListenerInterface {
         this.entryDAO = entryDAO;
     }
 
-    private void populate(List<Entry> entries) {
+    void populate(List<Entry> entries) {
         // Run a query to determine the Categories containing each specified Entry.
         List<Long> entryIds = entries.stream().map(Entry::getId).collect(Collectors.toList());
         Map<Entry, List<Category>> entryToCategories = entryDAO.findCategoriesByEntryIds(entryIds);
@@ -15,44 +15,188 @@
  */
 package io.dockstore.webservice.helpers.statelisteners;
 
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
+import static io.dockstore.webservice.resources.MetadataResource.RSS_ENTRY_LIMIT;
+
+import io.dockstore.webservice.core.AppTool;
+import io.dockstore.webservice.core.BioWorkflow;
 import io.dockstore.webservice.core.Entry;
+import io.dockstore.webservice.core.Notebook;
+import io.dockstore.webservice.core.Tool;
+import io.dockstore.webservice.core.Workflow;
+import io.dockstore.webservice.helpers.MetadataResourceHelper;
 import io.dockstore.webservice.helpers.StateManagerMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Future home of code for managing the RSS feed
+ * Maintains the RSS feed. The newest {@value io.dockstore.webservice.resources.MetadataResource#RSS_ENTRY_LIMIT} published entries
+ * of each entry type are loaded on first use, then kept up to date as entries are published, updated and unpublished.
+ * The rendered feed is cached along with an ETag and last modified date, so that conditional requests do not need to render it.
+ * The feed is reloaded in full when an entry drops out of it, and once it is older than the reconciliation interval.
  */
 public class RSSListener implements StateListenerInterface {
 
-    public static final String RSS_KEY = "rss";
+    public static final Duration RECONCILIATION_INTERVAL = Duration.ofHours(1);
     private static final Logger LOGGER = LoggerFactory.getLogger(RSSListener.class);
-    private Cache<String, String> cache = Caffeine.newBuilder().build();
+    private static final int DESCRIPTION_LIMIT = 200;
+
+    /**
+     * Feed items by URL. Guarded by this.
+     */
+    private final Map<String, FeedItem> items = new HashMap<>();
+    private long sequence;
+    private Instant lastBuilt;
+    private Feed feed;
 
     /**
-     * Custom getter
-     * @return
+     * Get the rendered feed.
+     * @param newestEntries supplies the newest published entries of each type, newest first, used when the feed needs to be reloaded
+     * @param renderer renders the feed items, oldest first
+     * @return the rendered feed
      */
-    public Cache<String, String> getCache() {
-        return cache;
+    public synchronized Feed getFeed(Supplier<List<Entry<?, ?>>> newestEntries, Function<List<FeedItem>, String> renderer) {
+        if (lastBuilt == null || lastBuilt.plus(RECONCILIATION_INTERVAL).isBefore(Instant.now())) {
+            reload(newestEntries.get());
+        }
+        if (feed == null) {
+            final List<FeedItem> sortedItems = new ArrayList<>(items.values());
+            sortedItems.sort(Comparator.comparingLong(item -> item.lastUpdated().getTime()));
+            final String xml = renderer.apply(sortedItems);
+            feed = new Feed(xml, DigestUtils.sha256Hex(xml), new Date());
+        }
+        return feed;
+    }
+
+    private void reload(List<Entry<?, ?>> newestEntries) {
+        items.clear();
+        // the entries are newest first, rank them so that the oldest entry of a type is evicted first
+        sequence += newestEntries.size();
+        long rank = sequence;
+        for (Entry<?, ?> entry : newestEntries) {
+            final FeedItem item = createItem(entry, rank--);
+            if (item != null) {
+                items.put(item.url(), item);
+            }
+        }
+        feed = null;
+        lastBuilt = Instant.now();
+        LOGGER.info("Reloaded RSS feed with {} entries", items.size());
     }
 
     @Override
-    public void handleIndexUpdate(Entry entry, StateManagerMode command) {
-        //TODO ideally, we could should update the rss for the one new entry
-        invalidateCache();
+    public synchronized void handleIndexUpdate(Entry entry, StateManagerMode command) {
+        if (lastBuilt == null) {
+            // not loaded yet, the first request will pick up the change
+            return;
+        }
+        final FeedItem item = createItem(entry, sequence + 1);
+        if (item == null) {
+            return;
+        }
+        if (command != StateManagerMode.DELETE && entry.getIsPublished()) {
+            final FeedItem existing = items.get(item.url());
+            if (existing != null && existing.lastUpdated().getTime() == item.lastUpdated().getTime()) {
+                // the date the feed is sorted by did not change, so the entry keeps its position
+                final FeedItem updated = new FeedItem(item.type(), item.url(), item.title(), item.description(), existing.lastUpdated(), existing.rank());
+                if (!updated.equals(existing)) {
+                    items.put(updated.url(), updated);
+                    feed = null;
+                }
+            } else if (existing != null || command == StateManagerMode.PUBLISH || belongsInFeed(item)) {
+                // the entry was just published or its date changed, so it is now the newest entry of its type
+                sequence++;
+                items.put(item.url(), item);
+                evictOldest(item.type());
+                feed = null;
+            }
+        } else if (items.remove(item.url()) != null) {
+            // another entry needs to take its place
+            invalidateCache();
+        }
     }
 
-    public void invalidateCache() {
-        this.cache.invalidateAll();
+    /**
+     * @return true if the item belongs in a feed that does not already contain it, either because the feed has room for another
+     *     entry of its type or because it was updated more recently than an entry of its type in the feed
+     */
+    private boolean belongsInFeed(FeedItem item) {
+        final List<FeedItem> itemsOfType = items.values().stream().filter(other -> other.type() == item.type()).toList();
+        return itemsOfType.size() < RSS_ENTRY_LIMIT
+            || itemsOfType.stream().anyMatch(other -> other.lastUpdated().getTime() < item.lastUpdated().getTime());
+    }
+
+    private void evictOldest(Class<?> type) {
+        final List<FeedItem> itemsOfType = items.values().stream().filter(item -> item.type() == type).toList();
+        if (itemsOfType.size() > RSS_ENTRY_LIMIT) {
+            itemsOfType.stream().min(Comparator.comparingLong(FeedItem::rank)).ifPresent(oldest -> items.remove(oldest.url()));
+        }
+    }
+
+    /**
+     * Create the feed item of an entry
+     * @param entry the entry
+     * @param rank the position of the entry among entries of the same type, higher is newer
+     * @return the feed item, or null if the entry type is not part of the feed
+     */
+    private static FeedItem createItem(Entry<?, ?> entry, long rank) {
+        final String title;
+        final String url;
+        // AppTools, BioWorkflows, and Notebooks are all subclasses of Workflows
+        if (entry instanceof BioWorkflow || entry instanceof AppTool || entry instanceof Notebook) {
+            title = ((Workflow) entry).getWorkflowPath();
+            url = MetadataResourceHelper.createWorkflowURL((Workflow) entry);
+        } else if (entry instanceof Tool tool) {
+            title = tool.getPath();
+            url = MetadataResourceHelper.createToolURL(tool);
+        } else {
+            return null;
+        }
+        final Date lastUpdated = entry.getLastUpdated() == null ? new Date() : entry.getLastUpdated();
+        return new FeedItem(Hibernate.getClass(entry), url, title, StringUtils.truncate(entry.getDescription(), DESCRIPTION_LIMIT), lastUpdated, rank);
+    }
+
+    public synchronized void invalidateCache() {
+        lastBuilt = null;
+        feed = null;
     }
 
     @Override
     public void bulkUpsert(List<Entry> entries) {
-        //TODO ideally, the listener should know how to generate a whole new rss, probably not worth it right now
+        // a bulk upsert reindexes everything, so reload the feed from scratch too
         invalidateCache();
     }
+
+    /**
+     * An entry in the feed
+     * @param type the entry type, each type has its own limit
+     * @param url the URL of the entry, which is also its guid
+     * @param title the title
+     * @param description the truncated description
+     * @param lastUpdated the publication date shown in the feed
+     * @param rank the position among entries of the same type, higher is newer
+     */
+    public record FeedItem(Class<?> type, String url, String title, String description, Date lastUpdated, long rank) {
+    }
+
+    /**
+     * A rendered feed
+     * @param xml the feed
+     * @param etag the entity tag of the feed
+     * @param lastModified when the feed was rendered
+     */
+    public record Feed(String xml, String etag, Date lastModified) {
+    }
 }
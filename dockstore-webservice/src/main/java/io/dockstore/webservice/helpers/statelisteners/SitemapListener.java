@@ -15,48 +15,146 @@
  */
 package io.dockstore.webservice.helpers.statelisteners;
 
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
+import io.dockstore.webservice.core.AppTool;
+import io.dockstore.webservice.core.BioWorkflow;
 import io.dockstore.webservice.core.Entry;
+import io.dockstore.webservice.core.Notebook;
+import io.dockstore.webservice.core.Tool;
+import io.dockstore.webservice.core.Workflow;
+import io.dockstore.webservice.helpers.MetadataResourceHelper;
 import io.dockstore.webservice.helpers.StateManagerMode;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
+import java.util.NavigableSet;
 import java.util.SortedSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Future home of code for managing the sitemap
+ * Maintains the sitemap. The sitemap is built in full on first use, then kept up to date one entry at a time as entries are
+ * published and unpublished. As a safety net for changes that are not reported to the listener, such as approved organizations
+ * and collections, the sitemap is rebuilt in full once it is older than the reconciliation interval.
  */
 public class SitemapListener implements StateListenerInterface {
-    // The cache only has one key, arbitrarily choosing it to be this
-    public static final String SITEMAP_KEY = "sitemap";
+    public static final Duration RECONCILIATION_INTERVAL = Duration.ofHours(1);
     private static final Logger LOGGER = LoggerFactory.getLogger(SitemapListener.class);
-    private Cache<String, SortedSet<String>> cache = Caffeine.newBuilder().build();
+
+    private final NavigableSet<String> urls = new ConcurrentSkipListSet<>();
+    private final AtomicLong changeCount = new AtomicLong();
+    private volatile Instant lastBuilt;
+    private volatile Rendered rendered;
 
     /**
-     * Custom getter
-     * @return
+     * Get the sitemap, one URL per line.
+     * @param fullSitemap supplies every URL in the sitemap, used when the sitemap has not been built or needs to be reconciled
+     * @return the sitemap
      */
-    public Cache<String, SortedSet<String>> getCache() {
-        return cache;
+    public String getSitemap(Supplier<SortedSet<String>> fullSitemap) {
+        final Instant built = lastBuilt;
+        if (built == null || built.plus(RECONCILIATION_INTERVAL).isBefore(Instant.now())) {
+            rebuild(fullSitemap);
+        }
+        final Rendered current = rendered;
+        final long changes = changeCount.get();
+        if (current != null && current.changeCount() == changes) {
+            return current.text();
+        }
+        final StringWriter writer = new StringWriter();
+        writeSitemap(writer);
+        final String text = writer.toString();
+        // only keep the rendering if no URL changed while it was being written
+        if (changeCount.get() == changes) {
+            rendered = new Rendered(changes, text);
+        }
+        return text;
+    }
+
+    /**
+     * Stream the sitemap to a writer, one URL per line
+     * @param writer the writer
+     */
+    public void writeSitemap(Writer writer) {
+        try {
+            boolean first = true;
+            for (String url : urls) {
+                if (!first) {
+                    writer.write(System.lineSeparator());
+                }
+                writer.write(url);
+                first = false;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private synchronized void rebuild(Supplier<SortedSet<String>> fullSitemap) {
+        final Instant built = lastBuilt;
+        if (built != null && !built.plus(RECONCILIATION_INTERVAL).isBefore(Instant.now())) {
+            // another request rebuilt the sitemap while this one was waiting
+            return;
+        }
+        final SortedSet<String> allUrls = fullSitemap.get();
+        urls.retainAll(allUrls);
+        urls.addAll(allUrls);
+        changeCount.incrementAndGet();
+        lastBuilt = Instant.now();
+        LOGGER.info("Rebuilt sitemap with {} URLs", allUrls.size());
     }
 
     @Override
     public void handleIndexUpdate(Entry entry, StateManagerMode command) {
-        //TODO ideally, we could should update the sitemap for the one new entry
-        if (command == StateManagerMode.UPDATE) {
+        if (lastBuilt == null) {
+            // not built yet, the first request will pick up the change
             return;
         }
-        invalidateCache();
+        final String url = createURL(entry);
+        if (url == null) {
+            return;
+        }
+        final boolean changed;
+        if (command != StateManagerMode.DELETE && entry.getIsPublished()) {
+            changed = urls.add(url);
+        } else {
+            changed = urls.remove(url);
+        }
+        if (changed) {
+            changeCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * The URL of the entry in the sitemap
+     * @param entry the entry
+     * @return the URL, or null if the entry type is not part of the sitemap
+     */
+    private static String createURL(Entry entry) {
+        if (entry instanceof Tool tool) {
+            return MetadataResourceHelper.createToolURL(tool);
+        } else if (entry instanceof BioWorkflow || entry instanceof AppTool || entry instanceof Notebook) {
+            return MetadataResourceHelper.createWorkflowURL((Workflow) entry);
+        }
+        return null;
     }
 
     public void invalidateCache() {
-        this.cache.invalidateAll();
+        lastBuilt = null;
     }
 
     @Override
     public void bulkUpsert(List<Entry> entries) {
-        //TODO ideally, the listener should know how to generate a whole new sitemap, probably not worth it right now
+        // a bulk upsert reindexes everything, so rebuild the sitemap from scratch too
         invalidateCache();
     }
+
+    private record Rendered(long changeCount, String text) {
+    }
 }
@@ -339,6 +339,27 @@ public abstract class EntryDAO<T extends Entry> extends AbstractDockstoreDAO<T>
         return typedQuery.getResultList();
     }
 
+    /**
+     * Get the IDs of all published entries, in ascending order
+     * @return the IDs
+     */
+    public List<Long> findAllPublishedIds() {
+        HibernateCriteriaBuilder cb = currentSession().getCriteriaBuilder();
+        JpaCriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<T> entry = query.from(typeOfT);
+        query.select(entry.get("id")).where(cb.isTrue(entry.get("isPublished"))).orderBy(cb.asc(entry.get("id")));
+        return currentSession().createQuery(query).getResultList();
+    }
+
+    /**
+     * Get the entries with the specified IDs in a single round trip, skipping IDs that no longer exist
+     * @param ids the IDs
+     * @return the entries, in the order of their IDs
+     */
+    public List<T> findByIds(List<Long> ids) {
+        return currentSession().byMultipleIds(typeOfT).multiLoad(ids).stream().filter(Objects::nonNull).toList();
+    }
+
     public long countAllHosted(long userid) {
         return ((Long)namedQuery("Entry.hostedWorkflowCount").setParameter("userid", userid).getSingleResult());
     }
@@ -503,6 +524,27 @@ public abstract class EntryDAO<T extends Entry> extends AbstractDockstoreDAO<T>
         return query.getResultList();
     }
 
+    /**
+     * Like #filterTrsToolsGet, but seeks past the specified id instead of skipping a number of rows, so that deep pages are as fast as the first page.
+     * @param afterId only entries with a greater id are returned
+     * @param pageRemaining maximum number of entries to return
+     * @return the matching entries, ordered by id
+     */
+    @SuppressWarnings("checkstyle:ParameterNumber")
+    public List<T> filterTrsToolsGetAfter(DescriptorLanguage descriptorLanguage, String registry, String organization, String name, String toolname,
+        String description, String author, Boolean checker, long afterId, int pageRemaining) {
+
+        final HibernateCriteriaBuilder cb = currentSession().getCriteriaBuilder();
+        final JpaCriteriaQuery<T> q = cb.createQuery(typeOfT);
+        final Root<T> tRoot = generatePredicate(descriptorLanguage, registry, organization, name, toolname, description, author, checker, cb, q);
+        q.where(cb.and(q.getRestriction(), cb.greaterThan(tRoot.get("id"), afterId)));
+        // order by id
+        q.orderBy(cb.asc(tRoot.get("id")));
+        TypedQuery<T> query = currentSession().createQuery(q);
+        query.setMaxResults(pageRemaining);
+        return query.getResultList();
+    }
+
     @SuppressWarnings("checkstyle:ParameterNumber")
     protected abstract Root<T> generatePredicate(DescriptorLanguage descriptorLanguage, String registry, String organization, String name, String toolname, String description, String author, Boolean checker,
         CriteriaBuilder cb, CriteriaQuery<?> q);
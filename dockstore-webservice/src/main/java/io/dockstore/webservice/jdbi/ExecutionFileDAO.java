@@ -0,0 +1,92 @@
+/*
+ * Copyright 2025 OICR and UCSC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dockstore.webservice.jdbi;
+
+import com.google.common.collect.Iterables;
+import io.dockstore.common.Partner;
+import io.dockstore.webservice.core.metrics.ExecutionFile;
+import io.dropwizard.hibernate.AbstractDAO;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.hibernate.SessionFactory;
+
+public class ExecutionFileDAO extends AbstractDAO<ExecutionFile> {
+
+    // keeps the number of query parameters well below the PostgreSQL limit
+    private static final int BATCH_SIZE = 1000;
+
+    public ExecutionFileDAO(SessionFactory sessionFactory) {
+        super(sessionFactory);
+    }
+
+    /**
+     * Finds the names of the S3 files that the specified executions were submitted in.
+     * @param trsId TRS ID of the entry
+     * @param versionId name of the version
+     * @param platform platform that the executions were submitted for
+     * @param executionIds IDs of the executions
+     * @return a map of execution ID to file name, without the executions that are not indexed
+     */
+    public Map<String, String> findFileNames(String trsId, String versionId, Partner platform, Collection<String> executionIds) {
+        Map<String, String> executionIdToFileName = new HashMap<>();
+        for (List<String> batch : Iterables.partition(new LinkedHashSet<>(executionIds), BATCH_SIZE)) {
+            List<ExecutionFile> executionFiles = list(namedTypedQuery("io.dockstore.webservice.core.metrics.ExecutionFile.findByExecutionIds")
+                .setParameter("trsId", trsId)
+                .setParameter("versionId", versionId)
+                .setParameter("platform", platform)
+                .setParameter("executionIds", batch));
+            executionFiles.forEach(executionFile -> executionIdToFileName.put(executionFile.getExecutionId(), executionFile.getFileName()));
+        }
+        return executionIdToFileName;
+    }
+
+    /**
+     * Finds the names of the S3 files whose executions are indexed.
+     * @param trsId TRS ID of the entry
+     * @param versionId name of the version
+     * @param platform platform that the executions were submitted for
+     * @return the file names
+     */
+    public Set<String> findIndexedFileNames(String trsId, String versionId, Partner platform) {
+        return new HashSet<>(currentSession().createNamedQuery("io.dockstore.webservice.core.metrics.ExecutionFile.findFileNames", String.class)
+            .setParameter("trsId", trsId)
+            .setParameter("versionId", versionId)
+            .setParameter("platform", platform)
+            .getResultList());
+    }
+
+    /**
+     * Indexes the executions that were submitted in an S3 file. Executions that are already indexed keep their existing file,
+     * matching a search of the files in S3, which returns the first file containing the execution.
+     * @param trsId TRS ID of the entry
+     * @param versionId name of the version
+     * @param platform platform that the executions were submitted for
+     * @param fileName name of the S3 file
+     * @param executionIds IDs of the executions in the file
+     */
+    public void index(String trsId, String versionId, Partner platform, String fileName, Collection<String> executionIds) {
+        Set<String> indexedExecutionIds = findFileNames(trsId, versionId, platform, executionIds).keySet();
+        new LinkedHashSet<>(executionIds).stream()
+            .filter(executionId -> !indexedExecutionIds.contains(executionId))
+            .forEach(executionId -> persist(new ExecutionFile(trsId, versionId, platform, executionId, fileName)));
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2025 OICR and UCSC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *           http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.dockstore.webservice.jdbi;
+
+import io.dockstore.webservice.core.QueuedWebhook;
+import io.dropwizard.hibernate.AbstractDAO;
+import java.sql.Timestamp;
+import java.util.List;
+import org.hibernate.SessionFactory;
+
+public class QueuedWebhookDAO extends AbstractDAO<QueuedWebhook> {
+
+    public QueuedWebhookDAO(SessionFactory factory) {
+        super(factory);
+    }
+
+    public long create(QueuedWebhook queuedWebhook) {
+        return persist(queuedWebhook).getId();
+    }
+
+    /**
+     * @return every queued webhook, in the order they were queued
+     */
+    public List<QueuedWebhook> findAll() {
+        return list(namedTypedQuery("io.dockstore.webservice.core.QueuedWebhook.findAll"));
+    }
+
+    /**
+     * Lease the queued webhooks that are not leased to another owner, and whose lease has expired, if they have one. The rows are
+     * locked until the transaction ends, and rows that another transaction has locked are skipped, so concurrent claims never
+     * lease the same webhook.
+     * @return the claimed webhooks, in the order they were queued
+     */
+    public List<QueuedWebhook> claim(String owner, Timestamp now, Timestamp leaseExpiry) {
+        final List<Long> ids = ((List<?>)namedQuery("io.dockstore.webservice.core.QueuedWebhook.lockClaimableIds").setParameter("owner", owner)
+            .setParameter("now", now).list()).stream().map(id -> ((Number)id).longValue()).toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        namedQuery("io.dockstore.webservice.core.QueuedWebhook.lease").setParameter("owner", owner).setParameter("leaseExpiry", leaseExpiry)
+            .setParameterList("ids", ids).executeUpdate();
+        return list(namedTypedQuery("io.dockstore.webservice.core.QueuedWebhook.findByIds").setParameterList("ids", ids));
+    }
+
+    /**
+     * Lock a repository until the transaction ends, so that webservices that share the queue never process webhooks of the same
+     * repository at once. Distinct repositories can share a lock, which only serializes them.
+     * @return true if the repository was locked, false if another transaction holds the lock
+     */
+    public boolean tryLockRepository(String repository) {
+        return (Boolean)namedQuery("io.dockstore.webservice.core.QueuedWebhook.tryLockRepository").setParameter("repository", repository).uniqueResult();
+    }
+
+    public int renew(String owner, Timestamp leaseExpiry) {
+        return namedQuery("io.dockstore.webservice.core.QueuedWebhook.renew").setParameter("owner", owner).setParameter("leaseExpiry", leaseExpiry).executeUpdate();
+    }
+
+    public int release(String owner) {
+        return namedQuery("io.dockstore.webservice.core.QueuedWebhook.release").setParameter("owner", owner).executeUpdate();
+    }
+
+    public void deleteByIds(List<Long> ids) {
+        if (!ids.isEmpty()) {
+            namedQuery("io.dockstore.webservice.core.QueuedWebhook.deleteByIds").setParameterList("ids", ids).executeUpdate();
+        }
+    }
+}
@@ -56,6 +56,17 @@ public class WorkflowVersionDAO extends VersionDAO<WorkflowVersion> {
         return uniqueResult(namedTypedQuery("io.dockstore.webservice.core.WorkflowVersion.getByAlias").setParameter("alias", alias));
     }
 
+    /**
+     * Finds the DAG JSON stored on a version of a workflow that was produced from descriptors with the specified hash.
+     * @param workflowId id of workflow
+     * @param descriptorHash hash of the descriptors
+     * @return the DAG JSON, or null if no version has it
+     */
+    public String findDagJsonByDescriptorHash(long workflowId, String descriptorHash) {
+        return this.currentSession().createNamedQuery("io.dockstore.webservice.core.WorkflowVersion.findDagJsonByDescriptorHash", String.class)
+            .setParameter("id", workflowId).setParameter("descriptorHash", descriptorHash).setMaxResults(1).uniqueResult();
+    }
+
     /**
      * Returns all versions for the specific Workflow.
      * @param workflowId id of workflow
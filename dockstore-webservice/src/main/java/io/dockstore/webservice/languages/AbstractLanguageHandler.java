@@ -4,7 +4,7 @@ import io.dockstore.common.DescriptorLanguage;
 import io.dockstore.webservice.core.SourceFile;
 import io.dockstore.webservice.core.Version;
 import io.dockstore.webservice.helpers.SourceCodeRepoInterface;
-import java.util.Map;
+import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -22,22 +22,21 @@ public abstract class AbstractLanguageHandler {
     protected abstract DescriptorLanguage.FileType getFileType();
 
     /**
-     * Grabs a import file from Git based on its absolute path and add to imports mapping
+     * Grabs a import file from Git based on its absolute path
      * @param repositoryId              identifies the git repository that we wish to use, normally something like 'organization/repo_name`
      * @param version                   version of the files to get
-     * @param imports                   mapping of filenames to imports
      * @param givenImportPath           import path from CWL file
      * @param sourceCodeRepoInterface   used too retrieve imports
      * @param absoluteImportPath        absolute path of import in git repository
+     * @return the import, or null if it could not be read
      */
-    protected void handleImport(String repositoryId, Version version, Map<String, SourceFile> imports, String givenImportPath, SourceCodeRepoInterface sourceCodeRepoInterface, String absoluteImportPath) {
-        sourceCodeRepoInterface.readFile(repositoryId, version, getFileType(), absoluteImportPath)
-            .ifPresentOrElse(
-                file -> {
-                    file.setPath(givenImportPath);
-                    imports.put(absoluteImportPath, file);
-                },
-                () -> LOG.error("Could not read: {}", absoluteImportPath)
-            );
+    protected SourceFile readImport(String repositoryId, Version version, String givenImportPath, SourceCodeRepoInterface sourceCodeRepoInterface, String absoluteImportPath) {
+        Optional<SourceFile> file = sourceCodeRepoInterface.readFile(repositoryId, version, getFileType(), absoluteImportPath);
+        if (file.isEmpty()) {
+            LOG.error("Could not read: {}", absoluteImportPath);
+            return null;
+        }
+        file.get().setPath(givenImportPath);
+        return file.get();
     }
 }
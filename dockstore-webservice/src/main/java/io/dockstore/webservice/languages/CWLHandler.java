@@ -323,20 +323,20 @@ public class CWLHandler extends AbstractLanguageHandler implements LanguageHandl
     @Override
     public Map<String, SourceFile> processImports(String repositoryId, String content, Version version,
         SourceCodeRepoInterface sourceCodeRepoInterface, String workingDirectoryForFile) {
-        Map<String, SourceFile> imports = new HashMap<>();
-        processImport(repositoryId, content, version, sourceCodeRepoInterface, workingDirectoryForFile, imports);
-        return imports;
+        ParsedInformation parsedInformation = getParsedInformation(version, DescriptorLanguage.CWL);
+        return resolveImportGraph(workingDirectoryForFile, content, (filePath, fileContent) -> findImports(parsedInformation, filePath, fileContent),
+            (absoluteImportPath, importPath) -> readImport(repositoryId, version, importPath, sourceCodeRepoInterface, absoluteImportPath));
     }
 
-    private void processImport(String repositoryId, String content, Version version,
-        SourceCodeRepoInterface sourceCodeRepoInterface, String workingDirectoryForFile, Map<String, SourceFile> imports) {
-
+    private Map<String, String> findImports(ParsedInformation parsedInformation, String filePath, String content) {
+        Map<String, String> imports = new LinkedHashMap<>();
         try {
             Map<String, Object> fileContentMap = parseAsMap(content);
-            handleMap(repositoryId, workingDirectoryForFile, version, imports, fileContentMap, sourceCodeRepoInterface);
+            handleMap(parsedInformation, filePath, imports, fileContentMap);
         } catch (YAMLException | JsonParseException e) {
             SourceCodeRepoInterface.LOG.error("Could not process content from workflow as yaml", e);
         }
+        return imports;
     }
 
     /**
@@ -761,29 +761,22 @@ public class CWLHandler extends AbstractLanguageHandler implements LanguageHandl
     }
 
     /**
-     * Iterates over a map of CWL file content looking for imports. When import is found. will grab the imported file from Git
-     * and prepare it for import finding.
-     * @param repositoryId              identifies the git repository that we wish to use, normally something like 'organization/repo_name`
+     * Iterates over a map of CWL file content looking for imports.
+     * @param parsedInformation         records whether the version has local or HTTP imports
      * @param parentFilePath            absolute path to the parent file which references the imported file
-     * @param version                   version of the files to get
-     * @param imports                   mapping of filenames to imports
+     * @param imports                   mapping of absolute import paths to the import paths given in the file
      * @param fileContentMap            CWL file mapping
-     * @param sourceCodeRepoInterface   used too retrieve imports
      */
-    private void handleMap(String repositoryId, String parentFilePath, Version version, Map<String, SourceFile> imports, Map<String, ?> fileContentMap,
-        SourceCodeRepoInterface sourceCodeRepoInterface) {
+    private void handleMap(ParsedInformation parsedInformation, String parentFilePath, Map<String, String> imports, Map<String, ?> fileContentMap) {
         Set<String> importKeywords = Sets.newHashSet("$import", "$include", "$mixin", "import", "include", "mixin");
-        ParsedInformation parsedInformation = getParsedInformation(version, DescriptorLanguage.CWL);
         for (Map.Entry<String, ?> e : fileContentMap.entrySet()) {
             final Object mapValue = e.getValue();
-            String absoluteImportPath;
 
             if (importKeywords.contains(e.getKey().toLowerCase())) {
                 // handle imports and includes
                 if (mapValue instanceof String) {
                     setImportsBasedOnMapValue(parsedInformation, (String)mapValue);
-                    absoluteImportPath = unsafeConvertRelativePathToAbsolutePath(parentFilePath, (String)mapValue);
-                    handleAndProcessImport(repositoryId, absoluteImportPath, version, imports, (String)mapValue, sourceCodeRepoInterface);
+                    imports.putIfAbsent(unsafeConvertRelativePathToAbsolutePath(parentFilePath, (String)mapValue), (String)mapValue);
                 }
             } else if (e.getKey().equalsIgnoreCase("run")) {
                 // for workflows, bare files may be referenced. See https://github.com/dockstore/dockstore/issues/208
@@ -792,24 +785,13 @@ public class CWLHandler extends AbstractLanguageHandler implements LanguageHandl
                 //  run: revtool.cwl
                 if (mapValue instanceof String) {
                     setImportsBasedOnMapValue(parsedInformation, (String)mapValue);
-                    absoluteImportPath = unsafeConvertRelativePathToAbsolutePath(parentFilePath, (String)mapValue);
-                    handleAndProcessImport(repositoryId, absoluteImportPath, version, imports, (String)mapValue, sourceCodeRepoInterface);
+                    imports.putIfAbsent(unsafeConvertRelativePathToAbsolutePath(parentFilePath, (String)mapValue), (String)mapValue);
                 } else if (mapValue instanceof Map) {
                     // this handles the case where an import is used
-                    handleMap(repositoryId, parentFilePath, version, imports, (Map)mapValue, sourceCodeRepoInterface);
+                    handleMap(parsedInformation, parentFilePath, imports, (Map)mapValue);
                 }
             } else {
-                handleMapValue(repositoryId, parentFilePath, version, imports, mapValue, sourceCodeRepoInterface);
-            }
-        }
-    }
-
-    private void handleAndProcessImport(String repositoryId, String absolutePath, Version version, Map<String, SourceFile> imports, String relativePath, SourceCodeRepoInterface sourceCodeRepoInterface) {
-        if (!imports.containsKey(absolutePath)) {
-            handleImport(repositoryId, version, imports, relativePath, sourceCodeRepoInterface, absolutePath);
-            SourceFile imported = imports.get(absolutePath);
-            if (imported != null) {
-                processImport(repositoryId, imported.getContent(), version, sourceCodeRepoInterface, absolutePath, imports);
+                handleMapValue(parsedInformation, parentFilePath, imports, mapValue);
             }
         }
     }
@@ -831,20 +813,17 @@ public class CWLHandler extends AbstractLanguageHandler implements LanguageHandl
 
     /**
      * Iterate over object and pass any mappings to check for imports.
-     * @param repositoryId              identifies the git repository that we wish to use, normally something like 'organization/repo_name`
+     * @param parsedInformation         records whether the version has local or HTTP imports
      * @param parentFilePath            absolute path to the parent file which references the imported file
-     * @param version                   version of the files to get
-     * @param imports                   mapping of filenames to imports
+     * @param imports                   mapping of absolute import paths to the import paths given in the file
      * @param mapValue                  CWL file object
-     * @param sourceCodeRepoInterface   used too retrieve imports
      */
-    private void handleMapValue(String repositoryId, String parentFilePath, Version version, Map<String, SourceFile> imports,
-        Object mapValue, SourceCodeRepoInterface sourceCodeRepoInterface) {
+    private void handleMapValue(ParsedInformation parsedInformation, String parentFilePath, Map<String, String> imports, Object mapValue) {
         if (mapValue instanceof Map) {
-            handleMap(repositoryId, parentFilePath, version, imports, (Map)mapValue, sourceCodeRepoInterface);
+            handleMap(parsedInformation, parentFilePath, imports, (Map)mapValue);
         } else if (mapValue instanceof List) {
             for (Object listMember : (List)mapValue) {
-                handleMapValue(repositoryId, parentFilePath, version, imports, listMember, sourceCodeRepoInterface);
+                handleMapValue(parsedInformation, parentFilePath, imports, listMember);
             }
         }
     }
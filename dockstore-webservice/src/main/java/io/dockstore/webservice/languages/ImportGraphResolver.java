@@ -0,0 +1,160 @@
+/*
+ * Copyright 2025 OICR and UCSC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *           http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.dockstore.webservice.languages;
+
+import io.dockstore.webservice.CustomWebApplicationException;
+import io.dockstore.webservice.core.SourceFile;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.http.HttpStatus;
+
+/**
+ * Resolves the graph of files that a descriptor imports.
+ *
+ * The graph is discovered level by level: the imports of every file in a level are found, and then all the files of the next level
+ * are read concurrently, so that resolving a workflow with many imports takes roughly as many round trips to the source code
+ * repository as the graph is deep, rather than one per file. Each absolute path is read at most once, which also stops cycles.
+ * Imports are found on the calling thread, so finders may update the version being parsed; only the reads are concurrent.
+ */
+public final class ImportGraphResolver {
+
+    public static final int DEFAULT_PARALLELISM = 8;
+
+    private static volatile int parallelism = DEFAULT_PARALLELISM;
+
+    private ImportGraphResolver() {
+    }
+
+    /**
+     * Sets the maximum number of imports that are read concurrently.
+     * @param parallelism number of workers, 1 or less reads imports one at a time
+     */
+    public static void setParallelism(int parallelism) {
+        ImportGraphResolver.parallelism = parallelism;
+    }
+
+    /**
+     * Resolves the imports of a file, and recursively the imports of those imports.
+     * @param filePath absolute path of the file
+     * @param content content of the file
+     * @param finder finds the imports of a file
+     * @param reader reads an import
+     * @return map of absolute paths to the imports that could be read, in the order that they were discovered
+     */
+    public static Map<String, SourceFile> resolve(String filePath, String content, ImportFinder finder, ImportReader reader) {
+        final Map<String, SourceFile> imports = new LinkedHashMap<>();
+        // includes the imports that could not be read, so that they are only tried once
+        final Set<String> visited = new HashSet<>();
+        Map<String, String> frontier = unvisited(finder.findImports(filePath, content), visited);
+        while (!frontier.isEmpty()) {
+            final Map<String, String> next = new LinkedHashMap<>();
+            for (Map.Entry<String, SourceFile> entry : readAll(frontier, reader).entrySet()) {
+                imports.put(entry.getKey(), entry.getValue());
+                finder.findImports(entry.getKey(), entry.getValue().getContent()).forEach(next::putIfAbsent);
+            }
+            frontier = unvisited(next, visited);
+        }
+        return imports;
+    }
+
+    /**
+     * Reads a set of files concurrently.
+     * @param absolutePathToGivenPath map of the absolute paths of the files to their paths as given in the importing file
+     * @param reader reads a file
+     * @return map of absolute paths to the files that could be read, in the iteration order of the given map
+     */
+    public static Map<String, SourceFile> readAll(Map<String, String> absolutePathToGivenPath, ImportReader reader) {
+        final Map<String, SourceFile> files = new LinkedHashMap<>();
+        final int workers = Math.min(parallelism, absolutePathToGivenPath.size());
+        if (workers <= 1) {
+            absolutePathToGivenPath.forEach((absolutePath, givenPath) -> putIfRead(files, absolutePath, reader.readImport(absolutePath, givenPath)));
+            return files;
+        }
+
+        final List<String> absolutePaths = new ArrayList<>(absolutePathToGivenPath.keySet());
+        final List<Future<SourceFile>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(workers, Thread.ofVirtual().name("import-resolver-", 0).factory())) {
+            for (String absolutePath : absolutePaths) {
+                futures.add(executor.submit(() -> reader.readImport(absolutePath, absolutePathToGivenPath.get(absolutePath))));
+            }
+            for (int i = 0; i < absolutePaths.size(); i++) {
+                putIfRead(files, absolutePaths.get(i), futures.get(i).get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CustomWebApplicationException("Interrupted while reading imports, please try again later", HttpStatus.SC_SERVICE_UNAVAILABLE);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new CustomWebApplicationException("Could not read imports, please try again later", HttpStatus.SC_INTERNAL_SERVER_ERROR);
+        }
+        return files;
+    }
+
+    private static Map<String, String> unvisited(Map<String, String> absolutePathToGivenPath, Set<String> visited) {
+        final Map<String, String> unvisited = new LinkedHashMap<>();
+        absolutePathToGivenPath.forEach((absolutePath, givenPath) -> {
+            if (visited.add(absolutePath)) {
+                unvisited.put(absolutePath, givenPath);
+            }
+        });
+        return unvisited;
+    }
+
+    private static void putIfRead(Map<String, SourceFile> files, String absolutePath, SourceFile file) {
+        if (file != null) {
+            files.put(absolutePath, file);
+        }
+    }
+
+    /**
+     * Finds the files that a file imports.
+     */
+    @FunctionalInterface
+    public interface ImportFinder {
+        /**
+         * @param filePath absolute path of the file
+         * @param content content of the file
+         * @return map of the absolute paths of the imports to their paths as given in the file
+         */
+        Map<String, String> findImports(String filePath, String content);
+    }
+
+    /**
+     * Reads an imported file. Called concurrently.
+     */
+    @FunctionalInterface
+    public interface ImportReader {
+        /**
+         * @param absolutePath absolute path of the import
+         * @param givenPath path of the import as given in the importing file
+         * @return the import, or null if it could not be read
+         */
+        SourceFile readImport(String absolutePath, String givenPath);
+    }
+}
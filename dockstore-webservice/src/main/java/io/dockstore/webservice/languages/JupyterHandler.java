@@ -18,9 +18,10 @@ package io.dockstore.webservice.languages;
 import static io.dockstore.common.DescriptorLanguage.FileType.DOCKSTORE_NOTEBOOK_DEVCONTAINER;
 import static io.dockstore.common.DescriptorLanguage.FileType.DOCKSTORE_NOTEBOOK_REES;
 
-import com.google.gson.GsonBuilder;
 import com.google.gson.JsonParseException;
-import com.google.gson.annotations.SerializedName;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import io.dockstore.common.DescriptorLanguage;
 import io.dockstore.common.VersionTypeValidation;
 import io.dockstore.webservice.core.Author;
@@ -29,6 +30,10 @@ import io.dockstore.webservice.core.Version;
 import io.dockstore.webservice.core.Workflow;
 import io.dockstore.webservice.helpers.SourceCodeRepoInterface;
 import io.dockstore.webservice.jdbi.ToolDAO;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -81,14 +86,14 @@ public class JupyterHandler implements LanguageHandlerInterface {
     }
 
     private Nbformat parseNotebook(String content) throws JsonParseException {
-        Nbformat notebook = new GsonBuilder().create().fromJson(content, Nbformat.class);
+        Nbformat notebook = Nbformat.read(content);
         if (notebook == null) {
             throw new JsonParseException("Notebook does not contain any content.");
         }
         if (notebook.getMetadata() == null) {
             throw new JsonParseException("Notebook is missing the 'metadata' field");
         }
-        if (findCells(notebook) == null) {
+        if (findCellCount(notebook) == null) {
             throw new JsonParseException("Notebook is missing the 'cells' field");
         }
         if (notebook.getFormatMajor() == null || notebook.getFormatMinor() == null) {
@@ -97,7 +102,7 @@ public class JupyterHandler implements LanguageHandlerInterface {
         return notebook;
     }
 
-    private List<Nbformat.Cell> findCells(Nbformat notebook) {
+    private Integer findCellCount(Nbformat notebook) {
         // Notebooks with major version 4 have a root-level "cells" property.
         // Older notebooks have a root-level "worksheets" property, consisting of a list of worksheets, each of which contains a "cells" field.
         // According to this link, older notebook environments had "no UI to support multiple worksheets":
@@ -105,9 +110,10 @@ public class JupyterHandler implements LanguageHandlerInterface {
         // So, if the major version < 4 and a list of worksheets exists, return the cells from the first one:
         if (notebook.getFormatMajor() != null && notebook.getFormatMajor() < FOUR
             && notebook.getWorksheets() != null && notebook.getWorksheets().size() > 0) {
-            return notebook.getWorksheets().get(0).getCells();
+            Nbformat.Worksheet worksheet = notebook.getWorksheets().get(0);
+            return worksheet == null ? null : worksheet.getCellCount();
         }
-        return notebook.getCells();
+        return notebook.getCellCount();
     }
 
     private void processAuthors(Nbformat notebook, Version version) {
@@ -279,24 +285,115 @@ public class JupyterHandler implements LanguageHandlerInterface {
     }
 
     /**
-     * Partial read-only POJO representation of a parsed notebook file.
+     * Partial read-only representation of a parsed notebook file.
+     *
+     * <p>The notebook is read with a streaming parser, and only the fields that Dockstore uses are kept. The cells are counted and
+     * skipped without being read into memory, as their outputs can hold megabytes of images.
      */
     public static class Nbformat {
 
-        @SerializedName("nbformat")
         private Integer formatMajor;
-
-        @SerializedName("nbformat_minor")
         private Integer formatMinor;
-
-        @SerializedName("metadata")
         private Metadata metadata;
+        private Integer cellCount;
+        private List<Worksheet> worksheets;
 
-        @SerializedName("cells")
-        private List<Cell> cells;
+        /**
+         * Reads a notebook as leniently as Gson would.
+         * @param content the JSON content of the notebook
+         * @return the notebook, or null if the content is empty or null
+         * @throws JsonParseException if the content is not a well-formed notebook object
+         */
+        public static Nbformat read(String content) throws JsonParseException {
+            if (content == null) {
+                return null;
+            }
+            try (JsonReader reader = new JsonReader(new StringReader(content))) {
+                reader.setLenient(true);
+                try {
+                    reader.peek();
+                } catch (EOFException ex) {
+                    return null;
+                }
+                Nbformat notebook = readNotebook(reader);
+                if (reader.peek() != JsonToken.END_DOCUMENT) {
+                    throw new JsonParseException("JSON document was not fully consumed.");
+                }
+                return notebook;
+            } catch (IOException | IllegalStateException | NumberFormatException ex) {
+                throw new JsonSyntaxException(ex);
+            }
+        }
 
-        @SerializedName("worksheets")
-        private List<Worksheet> worksheets;
+        private static Nbformat readNotebook(JsonReader reader) throws IOException {
+            if (isNull(reader)) {
+                return null;
+            }
+            Nbformat notebook = new Nbformat();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                case "nbformat" -> notebook.formatMajor = readInteger(reader);
+                case "nbformat_minor" -> notebook.formatMinor = readInteger(reader);
+                case "metadata" -> notebook.metadata = Metadata.read(reader);
+                case "cells" -> notebook.cellCount = countCells(reader);
+                case "worksheets" -> notebook.worksheets = readList(reader, Worksheet::read);
+                default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+            return notebook;
+        }
+
+        /**
+         * @return true if the next value is null, in which case it is consumed
+         */
+        private static boolean isNull(JsonReader reader) throws IOException {
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                return true;
+            }
+            return false;
+        }
+
+        private static Integer readInteger(JsonReader reader) throws IOException {
+            return isNull(reader) ? null : reader.nextInt();
+        }
+
+        private static String readString(JsonReader reader) throws IOException {
+            return isNull(reader) ? null : reader.nextString();
+        }
+
+        private static <T> List<T> readList(JsonReader reader, ElementReader<T> elementReader) throws IOException {
+            if (isNull(reader)) {
+                return null;
+            }
+            List<T> elements = new ArrayList<>();
+            reader.beginArray();
+            while (reader.hasNext()) {
+                elements.add(elementReader.read(reader));
+            }
+            reader.endArray();
+            return elements;
+        }
+
+        /**
+         * Counts the cells of a list of cells, skipping their sources and outputs.
+         * @return the number of cells, or null if the list is null
+         */
+        private static Integer countCells(JsonReader reader) throws IOException {
+            if (isNull(reader)) {
+                return null;
+            }
+            int count = 0;
+            reader.beginArray();
+            while (reader.hasNext()) {
+                reader.skipValue();
+                count++;
+            }
+            reader.endArray();
+            return count;
+        }
 
         public Integer getFormatMajor() {
             return formatMajor;
@@ -310,8 +407,11 @@ public class JupyterHandler implements LanguageHandlerInterface {
             return metadata;
         }
 
-        public List<Cell> getCells() {
-            return cells;
+        /**
+         * @return the number of cells, or null if the notebook has no "cells" field
+         */
+        public Integer getCellCount() {
+            return cellCount;
         }
 
         public List<Worksheet> getWorksheets() {
@@ -320,12 +420,26 @@ public class JupyterHandler implements LanguageHandlerInterface {
 
         public static class Metadata {
 
-            @SerializedName("authors")
             private List<Author> authors;
-
-            @SerializedName("language_info")
             private LanguageInfo languageInfo;
 
+            private static Metadata read(JsonReader reader) throws IOException {
+                if (isNull(reader)) {
+                    return null;
+                }
+                Metadata metadata = new Metadata();
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.nextName()) {
+                    case "authors" -> metadata.authors = readList(reader, Author::read);
+                    case "language_info" -> metadata.languageInfo = LanguageInfo.read(reader);
+                    default -> reader.skipValue();
+                    }
+                }
+                reader.endObject();
+                return metadata;
+            }
+
             public List<Author> getAuthors() {
                 return authors;
             }
@@ -344,9 +458,14 @@ public class JupyterHandler implements LanguageHandlerInterface {
 
             public static class Author {
 
-                @SerializedName("name")
                 private String name;
 
+                private static Author read(JsonReader reader) throws IOException {
+                    Author author = new Author();
+                    author.name = readName(reader);
+                    return author;
+                }
+
                 private String getName() {
                     return name;
                 }
@@ -358,9 +477,17 @@ public class JupyterHandler implements LanguageHandlerInterface {
 
             public static class LanguageInfo {
 
-                @SerializedName("name")
                 private String name;
 
+                private static LanguageInfo read(JsonReader reader) throws IOException {
+                    if (isNull(reader)) {
+                        return null;
+                    }
+                    LanguageInfo languageInfo = new LanguageInfo();
+                    languageInfo.name = readName(reader);
+                    return languageInfo;
+                }
+
                 private String getName() {
                     return name;
                 }
@@ -369,19 +496,60 @@ public class JupyterHandler implements LanguageHandlerInterface {
                     return Optional.ofNullable(getName());
                 }
             }
-        }
 
-        public static class Cell {
+            /**
+             * Reads the "name" field of an object, skipping its other fields.
+             * @return the name, or null if the object is null or has no name
+             */
+            private static String readName(JsonReader reader) throws IOException {
+                if (isNull(reader)) {
+                    return null;
+                }
+                String name = null;
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if ("name".equals(reader.nextName())) {
+                        name = readString(reader);
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+                return name;
+            }
         }
 
         public static class Worksheet {
 
-            @SerializedName("cells")
-            private List<Cell> cells;
+            private Integer cellCount;
+
+            private static Worksheet read(JsonReader reader) throws IOException {
+                if (isNull(reader)) {
+                    return null;
+                }
+                Worksheet worksheet = new Worksheet();
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if ("cells".equals(reader.nextName())) {
+                        worksheet.cellCount = countCells(reader);
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+                return worksheet;
+            }
 
-            public List<Cell> getCells() {
-                return cells;
+            /**
+             * @return the number of cells, or null if the worksheet has no "cells" field
+             */
+            public Integer getCellCount() {
+                return cellCount;
             }
         }
+
+        private interface ElementReader<T> {
+            T read(JsonReader reader) throws IOException;
+        }
     }
 }
@@ -19,16 +19,21 @@ import static io.dockstore.common.DescriptorLanguage.FileType;
 
 import io.dockstore.common.DescriptorLanguage;
 import io.dockstore.language.MinimalLanguageInterface;
+import io.dockstore.language.ThreadSafeLanguageInterface;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 import org.pf4j.DefaultPluginManager;
 import org.pf4j.PluginWrapper;
 
 public final class LanguageHandlerFactory {
+    private static final LanguagePluginHandler SERVICE_HANDLER = new LanguagePluginHandler(ServicePrototypePlugin.class);
     private static Map<DescriptorLanguage, MinimalLanguageInterface> pluginMap = new HashMap<>();
-    private static Map<FileType, MinimalLanguageInterface> fileTypeMap = new HashMap<>();
+    // a new plugin instance for each use, or one shared by every request for a thread-safe plugin
+    private static Map<DescriptorLanguage, Supplier<LanguagePluginHandler>> handlerMap = new HashMap<>();
+    private static Map<FileType, Supplier<LanguagePluginHandler>> fileTypeMap = new HashMap<>();
 
     private LanguageHandlerFactory() {
         // do nothing constructor
@@ -37,6 +42,7 @@ public final class LanguageHandlerFactory {
     public static void setLanguagePluginManager(DefaultPluginManager manager) {
         // should not have to do this, but starting and restarting webserver in tests does weird things when these static variables carry-over
         pluginMap = new HashMap<>();
+        handlerMap = new HashMap<>();
         fileTypeMap = new HashMap<>();
         List<PluginWrapper> plugins = manager.getStartedPlugins();
         for (PluginWrapper wrapper : plugins) {
@@ -44,11 +50,14 @@ public final class LanguageHandlerFactory {
                 .getExtensions(MinimalLanguageInterface.class, wrapper.getPluginId());
             minimalLanguageInterfaces.forEach(inter -> pluginMap.put(inter.getDescriptorLanguage(), inter));
             minimalLanguageInterfaces.forEach(inter -> {
-                fileTypeMap.put(inter.getDescriptorLanguage().getFileType(), inter);
-                fileTypeMap.put(inter.getDescriptorLanguage().getTestParamType(), inter);
+                Supplier<LanguagePluginHandler> handler = createHandlerSupplier(wrapper.getPluginId(), inter);
+                handlerMap.put(inter.getDescriptorLanguage(), handler);
+                fileTypeMap.put(inter.getDescriptorLanguage().getFileType(), handler);
+                fileTypeMap.put(inter.getDescriptorLanguage().getTestParamType(), handler);
             });
         }
         pluginMap = Collections.unmodifiableMap(pluginMap);
+        handlerMap = Collections.unmodifiableMap(handlerMap);
         fileTypeMap = Collections.unmodifiableMap(fileTypeMap);
     }
 
@@ -62,13 +71,13 @@ public final class LanguageHandlerFactory {
         case NEXTFLOW:
             return new NextflowHandler();
         case SERVICE:
-            return new LanguagePluginHandler(ServicePrototypePlugin.class);
+            return SERVICE_HANDLER;
         case JUPYTER:
             return new JupyterHandler();
         default:
             // look through plugin list
-            if (pluginMap.containsKey(type)) {
-                return new LanguagePluginHandler(pluginMap.get(type).getClass());
+            if (handlerMap.containsKey(type)) {
+                return handlerMap.get(type).get();
             }
             throw new UnsupportedOperationException("language not known");
         }
@@ -83,18 +92,26 @@ public final class LanguageHandlerFactory {
         case NEXTFLOW_CONFIG:
             return new NextflowHandler();
         case DOCKSTORE_SERVICE_YML:
-            return new LanguagePluginHandler(ServicePrototypePlugin.class);
+            return SERVICE_HANDLER;
         case DOCKSTORE_JUPYTER:
             return new JupyterHandler();
         default:
             // look through plugin list
             if (fileTypeMap.containsKey(type)) {
-                return new LanguagePluginHandler(fileTypeMap.get(type).getClass());
+                return fileTypeMap.get(type).get();
             }
             throw new UnsupportedOperationException("language not known");
         }
     }
 
+    private static Supplier<LanguagePluginHandler> createHandlerSupplier(String pluginId, MinimalLanguageInterface plugin) {
+        if (plugin instanceof ThreadSafeLanguageInterface) {
+            final LanguagePluginHandler handler = new LanguagePluginHandler(pluginId, plugin);
+            return () -> handler;
+        }
+        return () -> new LanguagePluginHandler(pluginId, plugin.getClass());
+    }
+
     /**
      * Get map of activated plugins
      * @return activated plugins by language
@@ -38,6 +38,7 @@ import io.dockstore.webservice.helpers.AbstractImageRegistry;
 import io.dockstore.webservice.helpers.CheckUrlInterface;
 import io.dockstore.webservice.helpers.DAGHelper;
 import io.dockstore.webservice.helpers.DockerRegistryAPIHelper;
+import io.dockstore.webservice.helpers.ImageMetadataCache;
 import io.dockstore.webservice.helpers.QuayImageRegistry;
 import io.dockstore.webservice.helpers.SourceCodeRepoInterface;
 import io.dockstore.webservice.jdbi.ToolDAO;
@@ -145,6 +146,21 @@ public interface LanguageHandlerInterface {
     Map<String, SourceFile> processImports(String repositoryId, String content, Version version,
         SourceCodeRepoInterface sourceCodeRepoInterface, String filepath);
 
+    /**
+     * Resolves the imports of a descriptor, and recursively the imports of those imports, reading each level of the import graph
+     * concurrently.
+     *
+     * @param filepath absolute path of the descriptor
+     * @param content  content of the descriptor
+     * @param finder   finds the imports of a descriptor, called on this thread
+     * @param reader   reads an import, called concurrently
+     * @return map of absolute paths to the imports that could be read
+     */
+    default Map<String, SourceFile> resolveImportGraph(String filepath, String content, ImportGraphResolver.ImportFinder finder,
+        ImportGraphResolver.ImportReader reader) {
+        return ImportGraphResolver.resolve(filepath, content, finder, reader);
+    }
+
     /**
      * Read and process user-specified files.
      * @param repositoryId            identifies the git repository that we wish to use, normally something like 'organization/repo_name'
@@ -592,7 +608,8 @@ public interface LanguageHandlerInterface {
         // Eliminate duplicate docker strings
         Map<String, DockerSpecifier> dockerStrings = dockerTools.stream().collect(Collectors.toMap(dockertool -> dockertool.get("docker"), dockertool -> DockerSpecifier.valueOf(dockertool.get("specifier")), (x, y) -> x));
 
-        Set<Image> dockerImages = new HashSet<>();
+        // Eliminate docker strings that refer to the same image, keeping the first docker string for logging
+        Map<ImageMetadataCache.Lookup, String> lookups = new LinkedHashMap<>();
 
         for (Map.Entry<String, DockerSpecifier> dockerString : dockerStrings.entrySet()) {
             String image = dockerString.getKey();
@@ -613,28 +630,43 @@ public interface LanguageHandlerInterface {
                     LOG.error("Could not find specifier for image {} on {}", image, registryFound.getFriendlyName());
                     continue;
                 }
-
-                Set<Image> images = new HashSet<>();
-                if (registryFound == Registry.QUAY_IO) {
-                    images = getImageResponseFromQuay(repoName, imageSpecifier, specifierName);
-                } else if (registryFound == Registry.DOCKER_HUB) {
-                    images = getImagesFromDockerHub(repoName, imageSpecifier, specifierName);
-                } else if (registryFound == Registry.GITHUB_CONTAINER_REGISTRY) {
-                    images = DockerRegistryAPIHelper.getImages(Registry.GITHUB_CONTAINER_REGISTRY, repoName, imageSpecifier, specifierName);
-                } else if (registryFound == Registry.AMAZON_ECR && AMAZON_ECR_PUBLIC_IMAGE.matcher(image).matches()) {
-                    images = DockerRegistryAPIHelper.getImages(Registry.AMAZON_ECR, repoName, imageSpecifier, specifierName);
-                }
-
-                if (images.isEmpty()) {
+                if (registryFound == Registry.AMAZON_ECR && !AMAZON_ECR_PUBLIC_IMAGE.matcher(image).matches()) {
                     LOG.error("Could not get image {} from {}", image, registryFound.getFriendlyName());
                     continue;
                 }
-                dockerImages.addAll(images);
+                lookups.putIfAbsent(new ImageMetadataCache.Lookup(registryFound, repoName, imageSpecifier, specifierName), image);
             }
         }
+
+        List<ImageMetadataCache.Lookup> lookupList = new ArrayList<>(lookups.keySet());
+        List<Set<Image>> lookupImages = ImageMetadataCache.getImages(lookupList, this::fetchImagesFromRegistry);
+
+        Set<Image> dockerImages = new HashSet<>();
+        for (int i = 0; i < lookupList.size(); i++) {
+            Set<Image> images = lookupImages.get(i);
+            if (images.isEmpty()) {
+                LOG.error("Could not get image {} from {}", lookups.get(lookupList.get(i)), lookupList.get(i).registry().getFriendlyName());
+                continue;
+            }
+            dockerImages.addAll(images);
+        }
         return dockerImages;
     }
 
+    /**
+     * Fetches the images of a lookup from its registry. Called concurrently, so it must not use the Hibernate session.
+     * @param lookup the lookup
+     * @return the images, or an empty set if they could not be fetched
+     */
+    default Set<Image> fetchImagesFromRegistry(ImageMetadataCache.Lookup lookup) {
+        return switch (lookup.registry()) {
+        case QUAY_IO -> getImageResponseFromQuay(lookup.repository(), lookup.specifier(), lookup.specifierName());
+        case DOCKER_HUB -> getImagesFromDockerHub(lookup.repository(), lookup.specifier(), lookup.specifierName());
+        case GITHUB_CONTAINER_REGISTRY, AMAZON_ECR -> DockerRegistryAPIHelper.getImages(lookup.registry(), lookup.repository(), lookup.specifier(), lookup.specifierName());
+        default -> new HashSet<>();
+        };
+    }
+
     /**
      * Gets an image's full repository name.
      * The repository name returned is the image's name without the registry docker path (if applicable, like Quay and GHCR) and the specifier.
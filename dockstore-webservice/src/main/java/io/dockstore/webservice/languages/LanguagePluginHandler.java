@@ -15,6 +15,8 @@
  */
 package io.dockstore.webservice.languages;
 
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 import com.google.gson.Gson;
 import io.dockstore.common.DescriptorLanguage;
 import io.dockstore.common.DescriptorLanguage.FileType;
@@ -42,30 +44,78 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import org.apache.http.HttpStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Adapts a language plugin to the {@link LanguageHandlerInterface}. A handler, and its plugin instance, is created each time a
+ * plugin is used, unless the plugin is a {@link io.dockstore.language.ThreadSafeLanguageInterface}, whose handler is created once
+ * and shared by every request. The time spent in each plugin call is recorded in a timer named after the plugin, so that a slow
+ * plugin can be found.
+ */
 public class LanguagePluginHandler implements LanguageHandlerInterface {
 
     public static final Logger LOG = LoggerFactory.getLogger(LanguagePluginHandler.class);
+    private static volatile MetricRegistry metrics = new MetricRegistry();
+    private final String pluginId;
     private final MinimalLanguageInterface minimalLanguageInterface;
     private final Gson gson = new Gson();
 
     LanguagePluginHandler(Class<? extends MinimalLanguageInterface> workflowLanguagePluginClass) {
+        this(workflowLanguagePluginClass.getSimpleName(), workflowLanguagePluginClass);
+    }
+
+    /**
+     * @param pluginId the ID of the plugin, used to name its metrics and cached results
+     * @param workflowLanguagePluginClass the class of the plugin, of which a new instance is created
+     */
+    LanguagePluginHandler(String pluginId, Class<? extends MinimalLanguageInterface> workflowLanguagePluginClass) {
+        this(pluginId, newPlugin(workflowLanguagePluginClass));
+    }
+
+    /**
+     * @param pluginId the ID of the plugin, used to name its metrics and cached results
+     * @param minimalLanguageInterface the plugin, which must be thread-safe if the handler is shared
+     */
+    LanguagePluginHandler(String pluginId, MinimalLanguageInterface minimalLanguageInterface) {
+        this.pluginId = pluginId;
+        this.minimalLanguageInterface = minimalLanguageInterface;
+    }
+
+    public static void registerMetrics(MetricRegistry registry) {
+        metrics = registry;
+    }
+
+    private static MinimalLanguageInterface newPlugin(Class<? extends MinimalLanguageInterface> workflowLanguagePluginClass) {
         try {
-            this.minimalLanguageInterface = workflowLanguagePluginClass.getDeclaredConstructor().newInstance();
+            return workflowLanguagePluginClass.getDeclaredConstructor().newInstance();
         } catch (InstantiationException | IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
             LOG.error("could not construct language plugin", e);
             throw new UnsupportedOperationException();
         }
     }
 
+    /**
+     * Calls the plugin, timing the call with a timer named after the plugin and the method called.
+     */
+    private <T> T timed(String method, Supplier<T> call) {
+        try (Timer.Context ignored = metrics.timer(MetricRegistry.name(LanguagePluginHandler.class, pluginId, method)).time()) {
+            return call.get();
+        }
+    }
+
+    private Map<String, FileMetadata> indexWorkflowFiles(String filepath, String content, FileReader reader) {
+        return LanguagePluginResultCache.indexWorkflowFiles(pluginId, filepath, content, reader,
+            cacheReader -> timed("indexWorkflowFiles", () -> minimalLanguageInterface.indexWorkflowFiles(filepath, content, cacheReader)));
+    }
+
     @Override
     public Version parseWorkflowContent(String filepath, String content, Set<SourceFile> sourceFiles, Version version) {
-        final MinimalLanguageInterface.WorkflowMetadata workflowMetadata =
-            minimalLanguageInterface.parseWorkflowForMetadata(filepath, content, new HashMap<>());
+        final MinimalLanguageInterface.WorkflowMetadata workflowMetadata = LanguagePluginResultCache.parseWorkflowForMetadata(pluginId, filepath, content,
+            () -> timed("parseWorkflowForMetadata", () -> minimalLanguageInterface.parseWorkflowForMetadata(filepath, content, new HashMap<>())));
         // Add authors from descriptor if there are no .dockstore.yml authors
         if (workflowMetadata.getAuthor() != null && version.getAuthors().isEmpty()) {
             Author author = new Author(workflowMetadata.getAuthor());
@@ -75,7 +125,7 @@ public class LanguagePluginHandler implements LanguageHandlerInterface {
 
         // TODO: this can probably be removed after EntryResource.updateLanguageVersions is removed since this should only happen with previously imported data
         // with old data, we need to re-parse original content since original parsing lacked file-level metadata
-        final Map<String, FileMetadata> stringFileMetadataMap = minimalLanguageInterface.indexWorkflowFiles(filepath, content, new FileReader() {
+        final Map<String, FileMetadata> stringFileMetadataMap = indexWorkflowFiles(filepath, content, new FileReader() {
             @Override
             public String readFile(String path) {
                 return sourceFiles.stream().filter(file -> file.getPath().equals(path)).findFirst().map(SourceFile::getContent).orElse(null);
@@ -115,8 +165,10 @@ public class LanguagePluginHandler implements LanguageHandlerInterface {
             }
 
             try {
-                return ((RecommendedLanguageInterface)minimalLanguageInterface)
-                    .validateWorkflowSet(primaryDescriptorFilePath, content, sourcefilesToIndexedFiles(sourcefiles));
+                final String mainDescriptorContent = content;
+                final Map<String, FileMetadata> indexedFiles = sourcefilesToIndexedFiles(sourcefiles);
+                return timed("validateWorkflowSet", () -> ((RecommendedLanguageInterface)minimalLanguageInterface)
+                    .validateWorkflowSet(primaryDescriptorFilePath, mainDescriptorContent, indexedFiles));
             } catch (Exception e) {
                 throw new CustomWebApplicationException(e.getMessage(), HttpStatus.SC_UNPROCESSABLE_ENTITY);
             }
@@ -196,8 +248,7 @@ public class LanguagePluginHandler implements LanguageHandlerInterface {
         };
 
         try {
-            final Map<String, FileMetadata> stringPairMap = minimalLanguageInterface
-                .indexWorkflowFiles(filepath, content, reader);
+            final Map<String, FileMetadata> stringPairMap = indexWorkflowFiles(filepath, content, reader);
             Map<String, SourceFile> results = new HashMap<>();
             for (Map.Entry<String, FileMetadata> entry : stringPairMap.entrySet()) {
 
@@ -238,15 +289,17 @@ public class LanguagePluginHandler implements LanguageHandlerInterface {
         ToolDAO dao) {
 
         if (type == Type.DAG && minimalLanguageInterface instanceof CompleteLanguageInterface) {
-            final Map<String, Object> maps = ((CompleteLanguageInterface) minimalLanguageInterface)
-                .loadCytoscapeElements(mainDescriptorPath, mainDescriptor, sourcefilesToIndexedFiles(secondarySourceFiles));
+            final Map<String, FileMetadata> indexedFiles = sourcefilesToIndexedFiles(secondarySourceFiles);
+            final Map<String, Object> maps = timed("loadCytoscapeElements", () -> ((CompleteLanguageInterface) minimalLanguageInterface)
+                .loadCytoscapeElements(mainDescriptorPath, mainDescriptor, indexedFiles));
             return Optional.of(gson.toJson(maps));
         } else if (type == Type.TOOLS && minimalLanguageInterface instanceof CompleteLanguageInterface) {
             // TODO: hook up tools here for Galaxy
             List<CompleteLanguageInterface.RowData> rowData = new ArrayList<>();
             try {
-                rowData = ((CompleteLanguageInterface) minimalLanguageInterface)
-                    .generateToolsTable(mainDescriptorPath, mainDescriptor, sourcefilesToIndexedFiles(secondarySourceFiles));
+                final Map<String, FileMetadata> indexedFiles = sourcefilesToIndexedFiles(secondarySourceFiles);
+                rowData = timed("generateToolsTable", () -> ((CompleteLanguageInterface) minimalLanguageInterface)
+                    .generateToolsTable(mainDescriptorPath, mainDescriptor, indexedFiles));
             } catch (RuntimeException e) {
                 LOG.error("could not parse tools from workflow", e);
                 return Optional.empty();
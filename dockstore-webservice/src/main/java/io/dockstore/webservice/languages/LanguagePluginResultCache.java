@@ -0,0 +1,201 @@
+/*
+ *    Copyright 2025 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.webservice.languages;
+
+import com.codahale.metrics.MetricRegistry;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.dockstore.language.MinimalLanguageInterface.FileMetadata;
+import io.dockstore.language.MinimalLanguageInterface.FileReader;
+import io.dockstore.language.MinimalLanguageInterface.WorkflowMetadata;
+import io.dockstore.webservice.helpers.CaffeineMetrics;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.apache.commons.codec.digest.DigestUtils;
+
+/**
+ * Optionally memoizes the results of language plugins, so that the same descriptor is not parsed again by a slow plugin every time
+ * a version is refreshed.
+ *
+ * <p>Results are keyed by the plugin, the path of the primary descriptor and the SHA-256 hash of its content. The files that a plugin
+ * reads while indexing are recorded along with the result, and the result is only reused if reading them again gives the same
+ * content, so that a change to an imported file is noticed. A result is not cached if the plugin throws. The cache is disabled
+ * unless it is configured with a positive maximum size.
+ */
+public final class LanguagePluginResultCache {
+
+    public static final long DEFAULT_MAXIMUM_SIZE = 0;
+
+    private static volatile Cache<ResultKey, Object> results = createCache(DEFAULT_MAXIMUM_SIZE);
+
+    private LanguagePluginResultCache() {
+    }
+
+    /**
+     * Replaces the cache with an empty cache.
+     * @param maximumSize the maximum number of plugin results cached, or 0 to disable the cache
+     */
+    public static void configure(long maximumSize) {
+        results = createCache(maximumSize);
+    }
+
+    public static void registerMetrics(MetricRegistry registry) {
+        CaffeineMetrics.register(registry, MetricRegistry.name(LanguagePluginResultCache.class), () -> results);
+    }
+
+    /**
+     * Gets the metadata that a plugin parses from a primary descriptor, from the cache if possible.
+     * @param parse parses the metadata
+     * @return a copy of the metadata
+     */
+    static WorkflowMetadata parseWorkflowForMetadata(String pluginId, String initialPath, String contents, Supplier<WorkflowMetadata> parse) {
+        final Cache<ResultKey, Object> cache = results;
+        if (cache == null) {
+            return parse.get();
+        }
+        final ResultKey key = new ResultKey(pluginId, Operation.PARSE_METADATA, initialPath, hash(contents));
+        if (cache.getIfPresent(key) instanceof CachedMetadata cachedMetadata) {
+            return cachedMetadata.toWorkflowMetadata();
+        }
+        final WorkflowMetadata workflowMetadata = parse.get();
+        if (workflowMetadata != null) {
+            cache.put(key, new CachedMetadata(workflowMetadata));
+        }
+        return workflowMetadata;
+    }
+
+    /**
+     * Gets the files that a plugin indexes from a primary descriptor, from the cache if possible.
+     * @param reader reads the files of the version being indexed
+     * @param index indexes the files, using the reader it is given
+     * @return a copy of the indexed files
+     */
+    static Map<String, FileMetadata> indexWorkflowFiles(String pluginId, String initialPath, String contents, FileReader reader,
+        Function<FileReader, Map<String, FileMetadata>> index) {
+        final Cache<ResultKey, Object> cache = results;
+        if (cache == null) {
+            return index.apply(reader);
+        }
+        final ResultKey key = new ResultKey(pluginId, Operation.INDEX_FILES, initialPath, hash(contents));
+        if (cache.getIfPresent(key) instanceof CachedIndex cachedIndex && cachedIndex.isCurrent(reader)) {
+            return new HashMap<>(cachedIndex.indexedFiles());
+        }
+        final RecordingFileReader recordingReader = new RecordingFileReader(reader);
+        final Map<String, FileMetadata> indexedFiles = index.apply(recordingReader);
+        if (indexedFiles != null) {
+            cache.put(key, new CachedIndex(Collections.unmodifiableMap(new HashMap<>(indexedFiles)), recordingReader.getReads()));
+        }
+        return indexedFiles;
+    }
+
+    private static Cache<ResultKey, Object> createCache(long maximumSize) {
+        return maximumSize > 0 ? Caffeine.newBuilder().maximumSize(maximumSize).recordStats().build() : null;
+    }
+
+    private static String hash(String content) {
+        return content == null ? null : DigestUtils.sha256Hex(content);
+    }
+
+    private static String hash(List<String> files) {
+        return files == null ? null : hash(String.join("\n", files));
+    }
+
+    private enum Operation {
+        PARSE_METADATA,
+        INDEX_FILES
+    }
+
+    private record ResultKey(String pluginId, Operation operation, String initialPath, String contentHash) {
+    }
+
+    private record CachedMetadata(String author, String description, String email) {
+
+        CachedMetadata(WorkflowMetadata workflowMetadata) {
+            this(workflowMetadata.getAuthor(), workflowMetadata.getDescription(), workflowMetadata.getEmail());
+        }
+
+        WorkflowMetadata toWorkflowMetadata() {
+            final WorkflowMetadata workflowMetadata = new WorkflowMetadata();
+            workflowMetadata.setAuthor(author);
+            workflowMetadata.setDescription(description);
+            workflowMetadata.setEmail(email);
+            return workflowMetadata;
+        }
+    }
+
+    /**
+     * @param indexedFiles the files the plugin indexed
+     * @param reads the reads the plugin made while indexing them, in order
+     */
+    private record CachedIndex(Map<String, FileMetadata> indexedFiles, List<Read> reads) {
+
+        /**
+         * @return true if reading the files again gives the same result as when they were indexed
+         */
+        boolean isCurrent(FileReader reader) {
+            for (Read read : reads) {
+                final String resultHash = read.listing() ? hash(reader.listFiles(read.path())) : hash(reader.readFile(read.path()));
+                if (!Objects.equals(read.resultHash(), resultHash)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * @param listing true if the path was listed as a directory, false if it was read as a file
+     * @param path the path
+     * @param resultHash the hash of the file content or directory listing, or null if there was none
+     */
+    private record Read(boolean listing, String path, String resultHash) {
+    }
+
+    private static final class RecordingFileReader implements FileReader {
+        private final FileReader reader;
+        private final List<Read> reads = Collections.synchronizedList(new ArrayList<>());
+
+        RecordingFileReader(FileReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public String readFile(String path) {
+            final String content = reader.readFile(path);
+            reads.add(new Read(false, path, hash(content)));
+            return content;
+        }
+
+        @Override
+        public List<String> listFiles(String pathToDirectory) {
+            final List<String> files = reader.listFiles(pathToDirectory);
+            reads.add(new Read(true, pathToDirectory, hash(files)));
+            return files;
+        }
+
+        List<Read> getReads() {
+            synchronized (reads) {
+                return List.copyOf(reads);
+            }
+        }
+    }
+}
@@ -41,6 +41,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -182,17 +183,18 @@ public class NextflowHandler extends AbstractLanguageHandler implements Language
 
     private void handleSetOfIndividualFiles(String repositoryId, Version version, SourceCodeRepoInterface sourceCodeRepoInterface, String filepath, Set<String> suspectedConfigImports,
         Map<String, SourceFile> imports, DescriptorLanguage.FileType fileType) {
-        for (String filename : suspectedConfigImports) {
-            String filenameAbsolutePath = unsafeConvertRelativePathToAbsolutePath(filepath, filename);
-            Optional<SourceFile> sourceFile = sourceCodeRepoInterface
-                .readFile(repositoryId, version, fileType, filenameAbsolutePath);
-            if (sourceFile.isPresent()) {
-                sourceFile.get().setPath(filename);
-                imports.put(filename, sourceFile.get());
-                imports.putAll(processOtherImports(repositoryId, sourceFile.get().getContent(), version, sourceCodeRepoInterface,
-                        sourceFile.get().getAbsolutePath()));
-            }
-        }
+        Map<String, String> absolutePathToFilename = new LinkedHashMap<>();
+        suspectedConfigImports.forEach(filename -> absolutePathToFilename.putIfAbsent(unsafeConvertRelativePathToAbsolutePath(filepath, filename), filename));
+        // the individual files are read concurrently, as they are independent of each other
+        Map<String, SourceFile> sourceFiles = ImportGraphResolver.readAll(absolutePathToFilename, (filenameAbsolutePath, filename) ->
+            sourceCodeRepoInterface.readFile(repositoryId, version, fileType, filenameAbsolutePath).orElse(null));
+        sourceFiles.forEach((filenameAbsolutePath, sourceFile) -> {
+            String filename = absolutePathToFilename.get(filenameAbsolutePath);
+            sourceFile.setPath(filename);
+            imports.put(filename, sourceFile);
+            imports.putAll(processOtherImports(repositoryId, sourceFile.getContent(), version, sourceCodeRepoInterface,
+                sourceFile.getAbsolutePath()));
+        });
     }
 
     /**
@@ -208,20 +210,18 @@ public class NextflowHandler extends AbstractLanguageHandler implements Language
      */
     private Map<String, SourceFile> processOtherImports(String repositoryId, String content, Version version,
             SourceCodeRepoInterface sourceCodeRepoInterface, String workingDirectoryForFile) {
-        Map<String, SourceFile> imports = new HashMap<>();
+        return resolveImportGraph(workingDirectoryForFile, content, this::findOtherImports,
+            (absoluteImportPath, path) -> readImport(repositoryId, version, path, sourceCodeRepoInterface, absoluteImportPath));
+    }
+
+    private Map<String, String> findOtherImports(String workingDirectoryForFile, String content) {
+        Map<String, String> imports = new LinkedHashMap<>();
         Matcher m = IMPORT_PATTERN.matcher(content);
         while (m.find()) {
             String path = getRelativeImportPathFromLine(m.group(), workingDirectoryForFile);
-            String absoluteImportPath = unsafeConvertRelativePathToAbsolutePath(workingDirectoryForFile, path);
-            handleImport(repositoryId, version, imports, path, sourceCodeRepoInterface, absoluteImportPath);
-        }
-        Map<String, SourceFile> recursiveImports = new HashMap<>();
-        for (Map.Entry<String, SourceFile> importFile : imports.entrySet()) {
-            final Map<String, SourceFile> sourceFiles = processOtherImports(repositoryId, importFile.getValue().getContent(), version, sourceCodeRepoInterface, importFile.getKey());
-            recursiveImports.putAll(sourceFiles);
+            imports.putIfAbsent(unsafeConvertRelativePathToAbsolutePath(workingDirectoryForFile, path), path);
         }
-        recursiveImports.putAll(imports);
-        return recursiveImports;
+        return imports;
     }
 
     /**
@@ -261,11 +261,11 @@ public class NextflowHandler extends AbstractLanguageHandler implements Language
         Map<String, SourceFile> imports, List<String> strings, String lib) {
         if (strings.contains(lib)) {
             List<String> libraries = sourceCodeRepoInterface.listFiles(repositoryId, lib, version.getReference());
-            for (String library : libraries) {
-                Optional<SourceFile> librarySourceFile = sourceCodeRepoInterface
-                    .readFile(repositoryId, version, DescriptorLanguage.FileType.NEXTFLOW, FilenameUtils.concat(lib, library));
-                librarySourceFile.ifPresent(sourceFile -> imports.put(lib + "/" + library, sourceFile));
-            }
+            Map<String, String> libraryPaths = new LinkedHashMap<>();
+            libraries.forEach(library -> libraryPaths.put(FilenameUtils.concat(lib, library), lib + "/" + library));
+            ImportGraphResolver.readAll(libraryPaths, (libraryPath, importPath) -> sourceCodeRepoInterface
+                    .readFile(repositoryId, version, DescriptorLanguage.FileType.NEXTFLOW, libraryPath).orElse(null))
+                .forEach((libraryPath, sourceFile) -> imports.put(libraryPaths.get(libraryPath), sourceFile));
         }
     }
 
@@ -21,6 +21,7 @@ import io.dockstore.common.yaml.DockstoreYaml12;
 import io.dockstore.common.yaml.DockstoreYamlHelper;
 import io.dockstore.common.yaml.Service12;
 import io.dockstore.language.RecommendedLanguageInterface;
+import io.dockstore.language.ThreadSafeLanguageInterface;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -30,7 +31,7 @@ import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class ServicePrototypePlugin implements RecommendedLanguageInterface {
+public class ServicePrototypePlugin implements RecommendedLanguageInterface, ThreadSafeLanguageInterface {
     private static final Logger LOG = LoggerFactory.getLogger(ServicePrototypePlugin.class);
 
     @Override
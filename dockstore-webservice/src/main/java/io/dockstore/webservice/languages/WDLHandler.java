@@ -40,13 +40,12 @@ import io.dockstore.webservice.core.Workflow;
 import io.dockstore.webservice.core.WorkflowVersion;
 import io.dockstore.webservice.helpers.CheckUrlInterface;
 import io.dockstore.webservice.helpers.CheckUrlInterface.UrlStatus;
+import io.dockstore.webservice.helpers.HttpImportCache;
 import io.dockstore.webservice.helpers.SourceCodeRepoInterface;
 import io.dockstore.webservice.helpers.SourceFileHelper;
 import io.dockstore.webservice.jdbi.ToolDAO;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.attribute.FileAttribute;
 import java.nio.file.attribute.PosixFilePermission;
@@ -64,12 +63,11 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.IOUtils;
-import org.apache.commons.io.input.BoundedInputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.SystemUtils;
 import org.apache.http.HttpStatus;
@@ -354,14 +352,16 @@ public class WDLHandler implements LanguageHandlerInterface {
     }
 
     /**
-     *
-     * @param content
-     * @param currentFileImports
-     * @throws IOException
+     * Check that the HTTP imports of a descriptor, and the HTTP imports of those, are not recursive. The imports of each file are
+     * retrieved concurrently, and through a cache that is shared with the other versions and workflows that import them.
+     * @param content the content of the descriptor
+     * @param currentFileImports the HTTP imports on the path to the descriptor
+     * @throws IOException if an import could not be retrieved
      */
     public void checkForRecursiveHTTPImports(String content, Set<String> currentFileImports) throws IOException {
         // Use matcher to get imports
         String[] lines = StringUtils.split(content, '\n');
+        Map<String, CompletableFuture<String>> httpImports = new LinkedHashMap<>();
 
         for (String line : lines) {
             Matcher m = IMPORT_PATTERN.matcher(line);
@@ -372,21 +372,20 @@ public class WDLHandler implements LanguageHandlerInterface {
                     if (currentFileImports.contains(match)) {
                         throw new CustomWebApplicationException(ERROR_PARSING_WORKFLOW_YOU_MAY_HAVE_A_RECURSIVE_IMPORT,
                                 HttpStatus.SC_UNPROCESSABLE_ENTITY);
-                    } else {
-                        URL url = new URL(match);
-                        try (InputStream is = url.openStream();
-                            BoundedInputStream boundedInputStream = new BoundedInputStream(is, FileUtils.ONE_MB)) {
-                            String fileContents = IOUtils.toString(boundedInputStream, StandardCharsets.UTF_8);
-                            // need a depth-first search to avoid triggering warning on workflows
-                            // where two files legitimately import the same file
-                            Set<String> importsForThisPath = new HashSet<>(currentFileImports);
-                            importsForThisPath.add(match);
-                            checkForRecursiveHTTPImports(fileContents, importsForThisPath);
-                        }
                     }
+                    httpImports.computeIfAbsent(match, url -> HttpImportCache.getInstance().getAsync(url));
                 }
             }
         }
+
+        for (Map.Entry<String, CompletableFuture<String>> httpImport : httpImports.entrySet()) {
+            String fileContents = HttpImportCache.join(httpImport.getValue());
+            // need a depth-first search to avoid triggering warning on workflows
+            // where two files legitimately import the same file
+            Set<String> importsForThisPath = new HashSet<>(currentFileImports);
+            importsForThisPath.add(httpImport.getKey());
+            checkForRecursiveHTTPImports(fileContents, importsForThisPath);
+        }
     }
 
     @Override
@@ -407,17 +406,29 @@ public class WDLHandler implements LanguageHandlerInterface {
     @Override
     public Map<String, SourceFile> processImports(String repositoryId, String content, Version version,
             SourceCodeRepoInterface sourceCodeRepoInterface, String filepath) {
-        return processImports(repositoryId, content, version, sourceCodeRepoInterface, new HashMap<>(), filepath);
-    }
-
-    private Map<String, SourceFile> processImports(String repositoryId, String content, Version version,
-            SourceCodeRepoInterface sourceCodeRepoInterface, Map<String, SourceFile> imports, String currentFilePath) {
-        DescriptorLanguage.FileType fileType = DescriptorLanguage.FileType.DOCKSTORE_WDL;
         ParsedInformation parsedInformation = getParsedInformation(version, DescriptorLanguage.WDL);
+        return resolveImportGraph(filepath, content, (currentFilePath, currentContent) -> findLocalImports(parsedInformation, currentFilePath, currentContent),
+            (absoluteImportPath, importPath) -> {
+                final String fileResponse = sourceCodeRepoInterface.readGitRepositoryFile(repositoryId, DescriptorLanguage.FileType.DOCKSTORE_WDL, version, absoluteImportPath);
+                if (fileResponse == null) {
+                    SourceCodeRepoInterface.LOG.error("Could not read: " + absoluteImportPath);
+                    return null;
+                }
+                return SourceFile.limitedBuilder().type(DescriptorLanguage.FileType.DOCKSTORE_WDL).content(fileResponse).path(importPath).absolutePath(absoluteImportPath).build();
+            });
+    }
 
+    /**
+     * Finds the local imports of a WDL file, and records whether it has local or HTTP imports.
+     * @param parsedInformation the parsed information of the version being processed
+     * @param currentFilePath absolute path of the file
+     * @param content content of the file
+     * @return map of the absolute paths of the local imports to their paths as given in the file
+     */
+    private Map<String, String> findLocalImports(ParsedInformation parsedInformation, String currentFilePath, String content) {
         // Use matcher to get imports
         String[] lines = StringUtils.split(content, '\n');
-        Set<String> currentFileImports = new HashSet<>();
+        Map<String, String> currentFileImports = new LinkedHashMap<>();
 
         for (String line : lines) {
             Matcher m = IMPORT_PATTERN.matcher(line);
@@ -426,27 +437,14 @@ public class WDLHandler implements LanguageHandlerInterface {
                 String match = m.group(1);
                 if (!match.startsWith("http://") && !match.startsWith("https://")) { // Don't resolve URLs
                     parsedInformation.setHasLocalImports(true);
-                    currentFileImports.add(match.replaceFirst("file://", "")); // remove file:// from path
+                    String importPath = match.replaceFirst("file://", ""); // remove file:// from path
+                    currentFileImports.putIfAbsent(unsafeConvertRelativePathToAbsolutePath(currentFilePath, importPath), importPath);
                 } else {
                     parsedInformation.setHasHTTPImports(true);
                 }
             }
         }
-
-        for (String importPath : currentFileImports) {
-            String absoluteImportPath = unsafeConvertRelativePathToAbsolutePath(currentFilePath, importPath);
-            if (!imports.containsKey(absoluteImportPath)) {
-                final String fileResponse = sourceCodeRepoInterface.readGitRepositoryFile(repositoryId, fileType, version, absoluteImportPath);
-                if (fileResponse == null) {
-                    SourceCodeRepoInterface.LOG.error("Could not read: " + absoluteImportPath);
-                    continue;
-                }
-                SourceFile importFile = SourceFile.limitedBuilder().type(DescriptorLanguage.FileType.DOCKSTORE_WDL).content(fileResponse).path(importPath).absolutePath(absoluteImportPath).build();
-                imports.put(absoluteImportPath, importFile);
-                imports.putAll(processImports(repositoryId, importFile.getContent(), version, sourceCodeRepoInterface, imports, absoluteImportPath));
-            }
-        }
-        return imports;
+        return currentFileImports;
     }
 
     /**
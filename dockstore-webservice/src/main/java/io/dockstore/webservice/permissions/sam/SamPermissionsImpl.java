@@ -1,6 +1,8 @@
 package io.dockstore.webservice.permissions.sam;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.dockstore.webservice.CustomWebApplicationException;
 import io.dockstore.webservice.DockstoreWebserviceConfiguration;
 import io.dockstore.webservice.core.Token;
@@ -23,6 +25,7 @@ import io.swagger.sam.client.model.ResourceAndAccessPolicy;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
 import java.text.MessageFormat;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -30,7 +33,10 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import org.apache.http.HttpStatus;
 import org.glassfish.jersey.client.ClientConfig;
@@ -87,6 +93,14 @@ import org.slf4j.LoggerFactory;
  *       <li>isSharing</li>
  *   </ul>
  * </p>
+ *
+ * <p>
+ *   To avoid a round trip to SAM for every check when a page lists many workflows, the results of <code>canDoAction</code>,
+ *   <code>getPermissionsForWorkflow</code> and <code>workflowsSharedWithUser</code> are cached for a short time, by the Google
+ *   email of the user. Concurrent identical lookups make one call to SAM. Errors are not cached. <code>setPermission</code>
+ *   and <code>removePermission</code> invalidate what is cached for the workflow and for the email whose permission changed,
+ *   and <code>selfDestruct</code> invalidates everything.
+ * </p>
  */
 public class SamPermissionsImpl implements PermissionsInterface {
 
@@ -112,12 +126,29 @@ public class SamPermissionsImpl implements PermissionsInterface {
     private static Map<Role, String> permissionSamMap = samPermissionMap.entrySet().stream()
             .collect(Collectors.toMap(Map.Entry::getValue, c -> c.getKey()));
 
+    private static final long CACHE_MAXIMUM_SIZE = 10_000;
+
     private DockstoreWebserviceConfiguration config;
     private final TokenDAO tokenDAO;
+    private final Cache<DecisionKey, Boolean> decisions;
+    private final Cache<WorkflowKey, List<Permission>> workflowPermissions;
+    private final Cache<String, Map<Role, List<String>>> sharedWorkflows;
+    /**
+     * Counts the invalidations, so that a value that was being loaded from SAM while permissions changed is not cached.
+     */
+    private final AtomicLong invalidations = new AtomicLong();
 
     public SamPermissionsImpl(TokenDAO tokenDAO, DockstoreWebserviceConfiguration config) {
         this.tokenDAO = tokenDAO;
         this.config = config;
+        final Duration decisionExpiry = Duration.ofSeconds(config.getSamConfiguration().getDecisionCacheExpirySeconds());
+        this.decisions = createCache(decisionExpiry);
+        this.workflowPermissions = createCache(decisionExpiry);
+        this.sharedWorkflows = createCache(Duration.ofSeconds(config.getSamConfiguration().getSharingCacheExpirySeconds()));
+    }
+
+    private static <K, V> Cache<K, V> createCache(Duration expiry) {
+        return Caffeine.newBuilder().maximumSize(CACHE_MAXIMUM_SIZE).expireAfterWrite(expiry).build();
     }
 
     /**
@@ -163,6 +194,7 @@ public class SamPermissionsImpl implements PermissionsInterface {
                     resourcesApi.removeUserFromPolicy(SamConstants.RESOURCE_TYPE, encodedPath, entry.getPolicyName(), permission.getEmail());
                 }
             }
+            invalidate(workflow, permission.getEmail());
             return getPermissionsForWorkflow(requester, workflow);
         } catch (ApiException e) {
             String errorMessage = readValue(e, ErrorReport.class).map(errorReport -> errorReport.getMessage())
@@ -223,18 +255,8 @@ public class SamPermissionsImpl implements PermissionsInterface {
         if (!hasGoogleToken(user)) {
             return Collections.emptyMap();
         }
-        ResourcesApi resourcesApi = getResourcesApi(user); // Intentionally throwing if unable to get token
         try {
-            List<ResourceAndAccessPolicy> resourceAndAccessPolicies = resourcesApi.listResourcesAndPolicies(SamConstants.RESOURCE_TYPE);
-            return weedOutDuplicateResourceIds(resourceAndAccessPolicies).stream()
-                    .collect(Collectors.groupingBy(ResourceAndAccessPolicy::getAccessPolicyName)).entrySet().stream()
-                    .collect(Collectors.toMap(e -> samPolicyNameToRole(e.getKey()), e -> e.getValue().stream().map(r -> {
-                        try {
-                            return URLDecoder.decode(r.getResourceId().substring(SamConstants.ENCODED_WORKFLOW_PREFIX.length()), "UTF-8");
-                        } catch (UnsupportedEncodingException e1) {
-                            return null;
-                        }
-                    }).collect(Collectors.toList())));
+            return cached(sharedWorkflows, userIdForSharing(user), () -> fetchWorkflowsSharedWithUser(user));
         } catch (ApiException e) {
             final String message = "Error getting shared workflows";
             if (userNotAuthorizedForSam(e)) {
@@ -247,6 +269,20 @@ public class SamPermissionsImpl implements PermissionsInterface {
         }
     }
 
+    private Map<Role, List<String>> fetchWorkflowsSharedWithUser(User user) throws ApiException {
+        ResourcesApi resourcesApi = getResourcesApi(user); // Intentionally throwing if unable to get token
+        List<ResourceAndAccessPolicy> resourceAndAccessPolicies = resourcesApi.listResourcesAndPolicies(SamConstants.RESOURCE_TYPE);
+        return weedOutDuplicateResourceIds(resourceAndAccessPolicies).stream()
+                    .collect(Collectors.groupingBy(ResourceAndAccessPolicy::getAccessPolicyName)).entrySet().stream()
+                    .collect(Collectors.toMap(e -> samPolicyNameToRole(e.getKey()), e -> e.getValue().stream().map(r -> {
+                        try {
+                            return URLDecoder.decode(r.getResourceId().substring(SamConstants.ENCODED_WORKFLOW_PREFIX.length()), "UTF-8");
+                        } catch (UnsupportedEncodingException e1) {
+                            return null;
+                        }
+                    }).collect(Collectors.toList())));
+    }
+
     private boolean userNotAuthorizedForSam(ApiException e) {
         // TLDR; 401 disabled or not accepted TOS; 403 user does not exist, i.e., not registered in SAM
         // See https://github.com/broadinstitute/sam/blob/1c3c1a3f3e973895de9ba08e6c755edbb04632db/src/main/scala/org/broadinstitute/dsde/workbench/sam/api/SamUserDirectives.scala#L31-L30
@@ -308,11 +344,14 @@ public class SamPermissionsImpl implements PermissionsInterface {
 
     private List<Permission> getSamPermissions(User user, Workflow workflow) {
         if (hasGoogleToken(user)) {
+            final String workflowPath = workflow.getWorkflowPath();
             try {
-                final ResourcesApi resourcesApi = getResourcesApi(user);
-                final String encoded = encodedWorkflowResource(workflow, resourcesApi.getApiClient());
-                return accessPolicyResponseEntryToUserPermissions(
-                        resourcesApi.listResourcePolicies(SamConstants.RESOURCE_TYPE, encoded));
+                return cached(workflowPermissions, userIdForSharing(user).map(email -> new WorkflowKey(email, workflowPath)), () -> {
+                    final ResourcesApi resourcesApi = getResourcesApi(user);
+                    final String encoded = encodedWorkflowResource(workflowPath, resourcesApi.getApiClient());
+                    return accessPolicyResponseEntryToUserPermissions(
+                            resourcesApi.listResourcePolicies(SamConstants.RESOURCE_TYPE, encoded));
+                });
             } catch (ApiException e) {
                 final String errorGettingPermissions = "Error getting permissions";
                 LOG.error(errorGettingPermissions, e);
@@ -362,6 +401,7 @@ public class SamPermissionsImpl implements PermissionsInterface {
                     }
                 }
             }
+            invalidate(workflow, email);
         } catch (ApiException e) {
             LOG.error(MessageFormat.format("Error removing {0} from workflow {1}", email, encodedPath), e);
             throw new CustomWebApplicationException("Error removing permissions", e.getCode());
@@ -434,10 +474,14 @@ public class SamPermissionsImpl implements PermissionsInterface {
             return false;
         }
         if (hasGoogleToken(user)) {
+            final String workflowPath = workflow.getWorkflowPath();
             try {
-                final ResourcesApi resourcesApi = getResourcesApi(user);
-                final String encodedPath = encodedWorkflowResource(workflow, resourcesApi.getApiClient());
-                return resourcesApi.resourceAction(SamConstants.RESOURCE_TYPE, encodedPath, SamConstants.toSamAction(action));
+                final Boolean canDo = cached(decisions, userIdForSharing(user).map(email -> new DecisionKey(email, workflowPath, action)), () -> {
+                    final ResourcesApi resourcesApi = getResourcesApi(user);
+                    final String encodedPath = encodedWorkflowResource(workflowPath, resourcesApi.getApiClient());
+                    return resourcesApi.resourceAction(SamConstants.RESOURCE_TYPE, encodedPath, SamConstants.toSamAction(action));
+                });
+                return Boolean.TRUE.equals(canDo);
             } catch (ApiException e) {
                 LOG.error("Error checking for resource action in SAM", e);
             }
@@ -460,6 +504,12 @@ public class SamPermissionsImpl implements PermissionsInterface {
                 }
             } catch (ApiException e) {
                 throw new CustomWebApplicationException("Error deleting user", e.getCode());
+            } finally {
+                // the deleted resources could have been cached for anyone, and deleting users is rare
+                invalidations.incrementAndGet();
+                decisions.invalidateAll();
+                workflowPermissions.invalidateAll();
+                sharedWorkflows.invalidateAll();
             }
         }
     }
@@ -556,8 +606,12 @@ public class SamPermissionsImpl implements PermissionsInterface {
     }
 
     private String encodedWorkflowResource(Workflow workflow, ApiClient apiClient) {
+        return encodedWorkflowResource(workflow.getWorkflowPath(), apiClient);
+    }
+
+    private String encodedWorkflowResource(String workflowPath, ApiClient apiClient) {
         final StringBuilder sb = new StringBuilder(SamConstants.WORKFLOW_PREFIX);
-        sb.append(workflow.getWorkflowPath());
+        sb.append(workflowPath);
         return apiClient.escapeString(sb.toString());
     }
 
@@ -648,6 +702,58 @@ public class SamPermissionsImpl implements PermissionsInterface {
         }
     }
 
+    /**
+     * Gets a value from a cache, calling SAM once for concurrent lookups of the same key. Exceptions are not cached, and neither
+     * are values that were loaded while the cache was invalidated, as they could predate the change.
+     * @param cache the cache
+     * @param key the key, or empty if the value should not be cached
+     * @param samCall calls SAM for the value
+     * @return the value
+     * @throws ApiException if SAM returns an error
+     */
+    private <K, V> V cached(Cache<K, V> cache, Optional<K> key, SamCall<V> samCall) throws ApiException {
+        if (key.isEmpty()) {
+            return samCall.call();
+        }
+        final AtomicReference<V> uncached = new AtomicReference<>();
+        final V value;
+        try {
+            value = cache.get(key.get(), k -> {
+                final long generation = invalidations.get();
+                final V loaded;
+                try {
+                    loaded = samCall.call();
+                } catch (ApiException e) {
+                    throw new SamCallException(e);
+                }
+                if (invalidations.get() != generation) {
+                    uncached.set(loaded);
+                    return null;
+                }
+                return loaded;
+            });
+        } catch (SamCallException e) {
+            throw e.getCause();
+        }
+        if (value != null) {
+            return value;
+        }
+        // the value was loaded during an invalidation, and only the lookup that loaded it has it
+        return uncached.get() != null ? uncached.get() : samCall.call();
+    }
+
+    /**
+     * Invalidates what is cached for a workflow, for every user, and the workflows shared with an email.
+     */
+    private void invalidate(Workflow workflow, String email) {
+        final String workflowPath = workflow.getWorkflowPath();
+        // loads in progress are not listed in the keys, so they are kept from being cached instead
+        invalidations.incrementAndGet();
+        decisions.invalidateAll(decisions.asMap().keySet().stream().filter(key -> Objects.equals(key.workflowPath(), workflowPath)).toList());
+        workflowPermissions.invalidateAll(workflowPermissions.asMap().keySet().stream().filter(key -> Objects.equals(key.workflowPath(), workflowPath)).toList());
+        sharedWorkflows.invalidate(email);
+    }
+
     private Role samPolicyNameToRole(String policyName) {
         if (SamConstants.READ_POLICY.equals(policyName)) {
             return Role.READER;
@@ -659,4 +765,25 @@ public class SamPermissionsImpl implements PermissionsInterface {
         return null;
     }
 
+    @FunctionalInterface
+    private interface SamCall<V> {
+        V call() throws ApiException;
+    }
+
+    private static final class SamCallException extends RuntimeException {
+        SamCallException(ApiException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized ApiException getCause() {
+            return (ApiException) super.getCause();
+        }
+    }
+
+    private record DecisionKey(String email, String workflowPath, Role.Action action) {
+    }
+
+    private record WorkflowKey(String email, String workflowPath) {
+    }
 }
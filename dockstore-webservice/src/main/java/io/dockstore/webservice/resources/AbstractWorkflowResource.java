@@ -31,6 +31,7 @@ import io.dockstore.webservice.core.GitHubAppNotification;
 import io.dockstore.webservice.core.LambdaEvent;
 import io.dockstore.webservice.core.Notebook;
 import io.dockstore.webservice.core.OrcidAuthor;
+import io.dockstore.webservice.core.QueuedWebhook;
 import io.dockstore.webservice.core.Service;
 import io.dockstore.webservice.core.SourceFile;
 import io.dockstore.webservice.core.Token;
@@ -48,13 +49,14 @@ import io.dockstore.webservice.helpers.CheckUrlInterface;
 import io.dockstore.webservice.helpers.EntryVersionHelper;
 import io.dockstore.webservice.helpers.ExceptionHelper;
 import io.dockstore.webservice.helpers.FileFormatHelper;
-import io.dockstore.webservice.helpers.FileTree;
 import io.dockstore.webservice.helpers.GitHelper;
 import io.dockstore.webservice.helpers.GitHubHelper;
 import io.dockstore.webservice.helpers.GitHubSourceCodeRepo;
+import io.dockstore.webservice.helpers.GitHubWebhookQueue;
 import io.dockstore.webservice.helpers.LambdaUrlChecker;
 import io.dockstore.webservice.helpers.LimitHelper;
 import io.dockstore.webservice.helpers.ORCIDHelper;
+import io.dockstore.webservice.helpers.ParsedDescriptorCache;
 import io.dockstore.webservice.helpers.PublicStateManager;
 import io.dockstore.webservice.helpers.RateLimitHelper;
 import io.dockstore.webservice.helpers.SourceCodeRepoFactory;
@@ -70,6 +72,7 @@ import io.dockstore.webservice.jdbi.FileFormatDAO;
 import io.dockstore.webservice.jdbi.GitHubAppNotificationDAO;
 import io.dockstore.webservice.jdbi.LambdaEventDAO;
 import io.dockstore.webservice.jdbi.OrcidAuthorDAO;
+import io.dockstore.webservice.jdbi.QueuedWebhookDAO;
 import io.dockstore.webservice.jdbi.TokenDAO;
 import io.dockstore.webservice.jdbi.UserDAO;
 import io.dockstore.webservice.jdbi.WorkflowDAO;
@@ -77,8 +80,11 @@ import io.dockstore.webservice.jdbi.WorkflowVersionDAO;
 import io.dockstore.webservice.languages.LanguageHandlerFactory;
 import io.dockstore.webservice.languages.LanguageHandlerInterface;
 import io.swagger.annotations.Api;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.sql.Timestamp;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
@@ -91,12 +97,15 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.hc.client5.http.classic.HttpClient;
 import org.apache.http.HttpStatus;
+import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.context.internal.ManagedSessionContext;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.kohsuke.github.GHRateLimit;
@@ -128,6 +137,7 @@ public abstract class AbstractWorkflowResource<T extends Workflow> implements So
     protected final FileFormatDAO fileFormatDAO;
     protected final OrcidAuthorDAO orcidAuthorDAO;
     protected final GitHubAppNotificationDAO gitHubAppNotificationDAO;
+    protected final QueuedWebhookDAO queuedWebhookDAO;
     protected final String gitHubPrivateKeyFile;
     protected final String gitHubAppId;
     protected final SessionFactory sessionFactory;
@@ -135,6 +145,7 @@ public abstract class AbstractWorkflowResource<T extends Workflow> implements So
     protected final String bitbucketClientSecret;
     protected final String bitbucketClientID;
     private CheckUrlInterface checkUrlInterface = null;
+    private GitHubWebhookQueue webhookQueue = null;
 
     public AbstractWorkflowResource(HttpClient client, SessionFactory sessionFactory, EntryResource entryResource,
             DockstoreWebserviceConfiguration configuration) {
@@ -152,6 +163,7 @@ public abstract class AbstractWorkflowResource<T extends Workflow> implements So
         this.fileFormatDAO = new FileFormatDAO(sessionFactory);
         this.orcidAuthorDAO = new OrcidAuthorDAO(sessionFactory);
         this.gitHubAppNotificationDAO = new GitHubAppNotificationDAO(sessionFactory);
+        this.queuedWebhookDAO = new QueuedWebhookDAO(sessionFactory);
         this.bitbucketClientID = configuration.getBitbucketClientID();
         this.bitbucketClientSecret = configuration.getBitbucketClientSecret();
         gitHubPrivateKeyFile = configuration.getGitHubAppPrivateKeyFile();
@@ -222,10 +234,13 @@ public abstract class AbstractWorkflowResource<T extends Workflow> implements So
                         workflow.getWorkflowVersions().add(workflowVersionFromDB);
                         existingVersionMap.put(workflowVersionFromDB.getName(), workflowVersionFromDB);
                     }
-                    workflowVersionFromDB.setToolTableJson(null);
-                    workflowVersionFromDB.setDagJson(null);
-
                     updateDBVersionSourceFilesWithRemoteVersionSourceFiles(workflowVersionFromDB, version, newWorkflow.getDescriptorType());
+
+                    // the tool table links to registered tools, which may have changed, but the DAG is kept if the descriptors did not change
+                    workflowVersionFromDB.setToolTableJson(null);
+                    if (!ParsedDescriptorCache.isUnchanged(workflowVersionFromDB)) {
+                        ParsedDescriptorCache.setDag(workflowVersionFromDB, null);
+                    }
                 });
     }
 
@@ -469,8 +484,9 @@ public abstract class AbstractWorkflowResource<T extends Workflow> implements So
         try {
             InferrerHelper inferrerHelper = new InferrerHelper();
             final boolean potentiallyContainsEntries = importantBranches.stream().anyMatch(branch -> {
-                FileTree fileTree = new CachingFileTree(new ZipGitHubFileTree(gitHubSourceCodeRepo, repositoryId, "refs/heads/" + branch));
-                return inferrerHelper.potentiallyContainsEntries(fileTree);
+                try (ZipGitHubFileTree zipFileTree = new ZipGitHubFileTree(gitHubSourceCodeRepo, repositoryId, "refs/heads/" + branch, inferrerHelper.getDescriptorPathFilter())) {
+                    return inferrerHelper.potentiallyContainsEntries(new CachingFileTree(zipFileTree));
+                }
             });
             if (potentiallyContainsEntries) {
                 // Create notification
@@ -1162,8 +1178,6 @@ public abstract class AbstractWorkflowResource<T extends Workflow> implements So
                     existingWorkflowVersion.setLegacyVersion(remoteWorkflowVersion.isLegacyVersion());
                     existingWorkflowVersion.setAliases(remoteWorkflowVersion.getAliases());
                     existingWorkflowVersion.setCommitID(remoteWorkflowVersion.getCommitID());
-                    existingWorkflowVersion.setDagJson(null);
-                    existingWorkflowVersion.setToolTableJson(null);
                     existingWorkflowVersion.setReferenceType(remoteWorkflowVersion.getReferenceType());
                     existingWorkflowVersion.setValid(remoteWorkflowVersion.isValid());
                     existingWorkflowVersion.setAuthors(remoteWorkflowVersion.getAuthors());
@@ -1179,6 +1193,11 @@ public abstract class AbstractWorkflowResource<T extends Workflow> implements So
 
                     updateDBVersionSourceFilesWithRemoteVersionSourceFiles(existingWorkflowVersion, remoteWorkflowVersion,
                             workflow.getDescriptorType());
+                    // the tool table links to registered tools, which may have changed, but the DAG is kept if the descriptors did not change
+                    existingWorkflowVersion.setToolTableJson(null);
+                    if (!ParsedDescriptorCache.isUnchanged(existingWorkflowVersion)) {
+                        ParsedDescriptorCache.setDag(existingWorkflowVersion, null);
+                    }
                 }
                 updatedWorkflowVersion = existingWorkflowVersion;
             } else {
@@ -1478,6 +1497,47 @@ public abstract class AbstractWorkflowResource<T extends Workflow> implements So
         }
     }
 
+    public void setWebhookQueue(GitHubWebhookQueue webhookQueue) {
+        this.webhookQueue = webhookQueue;
+    }
+
+    /**
+     * Queue a webhook to be processed in the background, if the webhook queue is enabled. The webhook is leased to this webservice
+     * and persisted in the current transaction, and queued once that commits.
+     * @return true if the webhook was queued, false if it should be processed right away
+     */
+    protected boolean queueWebhook(QueuedWebhook webhook) {
+        final GitHubWebhookQueue queue = webhookQueue;
+        if (queue == null) {
+            return false;
+        }
+        queue.lease(webhook);
+        queuedWebhookDAO.create(webhook);
+        sessionFactory.getCurrentSession().getTransaction().registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+                // nothing to do until we know whether the transaction committed
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    queue.submit(webhook);
+                }
+            }
+        });
+        LOG.info("queued {} event, repository={}, reference={}, deliveryId={}", webhook.getType(), webhook.getRepository(), webhook.getGitReference(),
+            webhook.getDeliveryId());
+        return true;
+    }
+
+    /**
+     * @return a handler that processes queued webhooks, each in a session of its own
+     */
+    public GitHubWebhookQueue.Handler createWebhookQueueHandler() {
+        return new QueuedWebhookHandler();
+    }
+
     /**
      * The GitHub usernames from a GitHub Webhook delivery payload. The payload can have several references to a GitHub usernames, and those
      * usernames may all be the same or different.
@@ -1487,4 +1547,121 @@ public abstract class AbstractWorkflowResource<T extends Workflow> implements So
     public record GitHubUsernames(String sender, Set<String> otherUsers) {}
 
     private record WorkflowAndExisted(Workflow workflow, boolean existed) {}
+
+    private final class QueuedWebhookHandler implements GitHubWebhookQueue.Handler {
+
+        @Override
+        public List<QueuedWebhook> claim(String owner, Timestamp leaseExpiry) {
+            return inTransaction(() -> queuedWebhookDAO.claim(owner, new Timestamp(System.currentTimeMillis()), leaseExpiry));
+        }
+
+        @Override
+        public void renew(String owner, Timestamp leaseExpiry) {
+            inTransaction(() -> queuedWebhookDAO.renew(owner, leaseExpiry));
+        }
+
+        @Override
+        public void release(String owner) {
+            inTransaction(() -> queuedWebhookDAO.release(owner));
+        }
+
+        @Override
+        public GitHubWebhookQueue.Outcome process(QueuedWebhook webhook, List<QueuedWebhook> superseded) {
+            // the repository lock is held by a transaction of its own, because processing commits several transactions
+            final Session lockSession = sessionFactory.openSession();
+            try {
+                final boolean locked;
+                ManagedSessionContext.bind(lockSession);
+                try {
+                    lockSession.beginTransaction();
+                    locked = queuedWebhookDAO.tryLockRepository(webhook.getRepository());
+                } finally {
+                    ManagedSessionContext.unbind(sessionFactory);
+                }
+                if (!locked) {
+                    return GitHubWebhookQueue.Outcome.BUSY;
+                }
+                return processLocked(webhook, superseded);
+            } finally {
+                // ending the transaction releases the lock
+                rollbackIfActive(lockSession);
+                lockSession.close();
+            }
+        }
+
+        private GitHubWebhookQueue.Outcome processLocked(QueuedWebhook webhook, List<QueuedWebhook> superseded) {
+            final Session session = sessionFactory.openSession();
+            ManagedSessionContext.bind(session);
+            try {
+                // log the coalesced webhooks like the pushes that are ignored because a later push has already moved the branch,
+                // in a transaction of their own, which leaves a new one open for the processing
+                new TransactionHelper(session).transaction(() -> superseded.forEach(earlier -> lambdaEventDAO.create(
+                    createIgnoredEvent(earlier.getRepository(), earlier.getGitReference(), earlier.getSender(), toLambdaEventType(earlier.getType()),
+                        earlier.getDeliveryId()))));
+                if (webhook.getType() == QueuedWebhook.Type.DELETE) {
+                    githubWebhookDelete(webhook.getRepository(), webhook.getGitReference(), webhook.getSender(), webhook.getInstallationId(),
+                        webhook.getDeliveryId());
+                } else {
+                    githubWebhookRelease(webhook.getRepository(), new GitHubUsernames(webhook.getSender(), webhook.getOtherUsers()), webhook.getGitReference(),
+                        webhook.getInstallationId(), webhook.getDeliveryId(), webhook.getAfterCommit(), true);
+                }
+                if (session.getTransaction().isActive()) {
+                    session.getTransaction().commit();
+                }
+                return GitHubWebhookQueue.Outcome.PROCESSED;
+            } catch (CustomWebApplicationException ex) {
+                rollbackIfActive(session);
+                // the failure has already been logged as a lambda event; 5xx is what tells the lambda to retry later
+                return ex.getResponse().getStatus() >= HttpStatus.SC_INTERNAL_SERVER_ERROR ? GitHubWebhookQueue.Outcome.RETRY : GitHubWebhookQueue.Outcome.FAILED;
+            } catch (RuntimeException ex) {
+                rollbackIfActive(session);
+                LOG.error("Could not process queued " + webhook.getType() + " event, repository=" + webhook.getRepository() + ", deliveryId=" + webhook.getDeliveryId(), ex);
+                return GitHubWebhookQueue.Outcome.FAILED;
+            } finally {
+                ManagedSessionContext.unbind(sessionFactory);
+                session.close();
+            }
+        }
+
+        @Override
+        public void discard(QueuedWebhook webhook, List<QueuedWebhook> superseded) {
+            final List<Long> ids = new ArrayList<>();
+            ids.add(webhook.getId());
+            superseded.forEach(earlier -> ids.add(earlier.getId()));
+            inTransaction(() -> {
+                queuedWebhookDAO.deleteByIds(ids);
+                return null;
+            });
+        }
+
+        /**
+         * Run some work on the persisted queue in a session and transaction of its own.
+         */
+        private <T> T inTransaction(Supplier<T> work) {
+            final Session session = sessionFactory.openSession();
+            ManagedSessionContext.bind(session);
+            try {
+                session.beginTransaction();
+                final T result = work.get();
+                session.getTransaction().commit();
+                return result;
+            } catch (RuntimeException ex) {
+                rollbackIfActive(session);
+                throw ex;
+            } finally {
+                ManagedSessionContext.unbind(sessionFactory);
+                session.close();
+            }
+        }
+
+        private LambdaEvent.LambdaEventType toLambdaEventType(QueuedWebhook.Type type) {
+            return type == QueuedWebhook.Type.DELETE ? LambdaEvent.LambdaEventType.DELETE : LambdaEvent.LambdaEventType.PUSH;
+        }
+
+        private void rollbackIfActive(Session session) {
+            if (session.getTransaction().isActive()) {
+                session.getTransaction().rollback();
+            }
+        }
+    }
 }
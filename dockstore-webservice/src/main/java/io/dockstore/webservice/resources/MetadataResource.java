@@ -18,8 +18,6 @@ package io.dockstore.webservice.resources;
 
 import static io.dockstore.webservice.DockstoreWebserviceApplication.getOkHttpClient;
 import static io.dockstore.webservice.helpers.GitHubSourceCodeRepo.GITHUB_MAX_CACHE_AGE_SECONDS;
-import static io.dockstore.webservice.helpers.statelisteners.RSSListener.RSS_KEY;
-import static io.dockstore.webservice.helpers.statelisteners.SitemapListener.SITEMAP_KEY;
 
 import com.codahale.metrics.annotation.Timed;
 import com.codahale.metrics.health.HealthCheck;
@@ -38,12 +36,9 @@ import io.dockstore.webservice.DockstoreWebserviceConfiguration;
 import io.dockstore.webservice.api.CLIInfo;
 import io.dockstore.webservice.api.Config;
 import io.dockstore.webservice.api.HealthCheckResult;
-import io.dockstore.webservice.core.AppTool;
-import io.dockstore.webservice.core.BioWorkflow;
 import io.dockstore.webservice.core.Collection;
 import io.dockstore.webservice.core.Entry;
 import io.dockstore.webservice.core.EntryTypeMetadata;
-import io.dockstore.webservice.core.Notebook;
 import io.dockstore.webservice.core.Organization;
 import io.dockstore.webservice.core.Tool;
 import io.dockstore.webservice.core.Workflow;
@@ -51,8 +46,10 @@ import io.dockstore.webservice.core.database.RSSAppToolPath;
 import io.dockstore.webservice.core.database.RSSNotebookPath;
 import io.dockstore.webservice.core.database.RSSToolPath;
 import io.dockstore.webservice.core.database.RSSWorkflowPath;
+import io.dockstore.webservice.helpers.FileContentCache;
 import io.dockstore.webservice.helpers.MetadataResourceHelper;
 import io.dockstore.webservice.helpers.PublicStateManager;
+import io.dockstore.webservice.helpers.SecondLevelCacheHelper;
 import io.dockstore.webservice.helpers.statelisteners.RSSListener;
 import io.dockstore.webservice.helpers.statelisteners.SitemapListener;
 import io.dockstore.webservice.jdbi.AppToolDAO;
@@ -80,15 +77,20 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.constraints.NotNull;
 import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.container.ContainerRequestContext;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
@@ -100,7 +102,6 @@ import java.time.Year;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -116,7 +117,6 @@ import java.util.stream.StreamSupport;
 import okhttp3.Cache;
 import okhttp3.OkHttpClient;
 import org.apache.commons.io.IOUtils;
-import org.apache.commons.lang3.StringUtils;
 import org.apache.http.HttpStatus;
 import org.hibernate.SessionFactory;
 import org.json.JSONArray;
@@ -150,6 +150,7 @@ public class MetadataResource {
     private final AppToolDAO appToolDAO;
     private final NotebookDAO notebookDAO;
     private final DockstoreWebserviceConfiguration config;
+    private final SessionFactory sessionFactory;
     private final SitemapListener sitemapListener;
     private final RSSListener rssListener;
 
@@ -162,6 +163,7 @@ public class MetadataResource {
         this.organizationDAO = new OrganizationDAO(sessionFactory);
         this.collectionDAO = new CollectionDAO(sessionFactory);
         this.config = config;
+        this.sessionFactory = sessionFactory;
         this.bioWorkflowDAO = new BioWorkflowDAO(sessionFactory);
         this.appToolDAO = new AppToolDAO(sessionFactory);
         this.notebookDAO = new NotebookDAO(sessionFactory);
@@ -181,8 +183,7 @@ public class MetadataResource {
     @ApiOperation(value = "List all available workflow, tool, organization, and collection paths.", notes = "List all available workflow, tool, organization, and collection paths. Available means published for tools/workflows, and approved for organizations and their respective collections.")
     public String sitemap() {
         try {
-            SortedSet<String> sitemap = sitemapListener.getCache().get(SITEMAP_KEY, (k) -> getSitemap());
-            return String.join(System.lineSeparator(), sitemap);
+            return sitemapListener.getSitemap(this::getSitemap);
         } catch (RuntimeException e) {
             throw new CustomWebApplicationException("Sitemap cache problems", HttpStatus.SC_INTERNAL_SERVER_ERROR);
         }
@@ -253,28 +254,38 @@ public class MetadataResource {
     @Produces(MediaType.TEXT_XML)
     @Operation(summary = "List all published tools and workflows in creation order", description = "List all published tools and workflows in creation order, NO authentication")
     @ApiOperation(value = "List all published tools and workflows in creation order.", notes = "NO authentication")
-    public String rssFeed() {
+    public String rssFeed(@Context Request request, @Context HttpServletResponse response) {
+        final RSSListener.Feed feed;
         try {
-            return rssListener.getCache().get(RSS_KEY, (k) -> getRSS());
+            feed = rssListener.getFeed(this::getNewestEntries, this::renderRSS);
         } catch (RuntimeException e) {
             LOG.error("runtime exception on rss call:", e);
             throw new CustomWebApplicationException("RSS cache problems", HttpStatus.SC_INTERNAL_SERVER_ERROR);
         }
+        final EntityTag entityTag = new EntityTag(feed.etag());
+        final Response.ResponseBuilder notModified = request.evaluatePreconditions(feed.lastModified(), entityTag);
+        if (notModified != null) {
+            throw new WebApplicationException(notModified.build());
+        }
+        response.addHeader(HttpHeaders.ETAG, entityTag.toString());
+        response.addDateHeader(HttpHeaders.LAST_MODIFIED, feed.lastModified().getTime());
+        return feed.xml();
     }
 
-    private String getRSS() {
-        List<Tool> tools = toolDAO.findAllPublishedPathsOrderByDbupdatedate().stream().map(RSSToolPath::getTool).toList();
-        List<BioWorkflow> workflows = bioWorkflowDAO.findAllPublishedPathsOrderByDbupdatedate().stream().map(RSSWorkflowPath::getBioWorkflow).toList();
-        List<AppTool> appTools = appToolDAO.findAllPublishedPathsOrderByDbupdatedate().stream().map(RSSAppToolPath::getAppTool).toList();
-        List<Notebook> notebooks = notebookDAO.findAllPublishedPathsOrderByDbupdatedate().stream().map(RSSNotebookPath::getNotebook).toList();
+    /**
+     * The newest published entries of each type in the RSS feed
+     * @return entries, newest first within each type
+     */
+    private List<Entry<?, ?>> getNewestEntries() {
         List<Entry<?, ?>> dbEntries =  new ArrayList<>();
-        dbEntries.addAll(tools);
-        dbEntries.addAll(workflows);
-        dbEntries.addAll(appTools);
-        dbEntries.addAll(notebooks);
-        dbEntries.sort(Comparator.comparingLong(entry -> entry.getLastUpdated().getTime()));
+        dbEntries.addAll(toolDAO.findAllPublishedPathsOrderByDbupdatedate().stream().map(RSSToolPath::getTool).toList());
+        dbEntries.addAll(bioWorkflowDAO.findAllPublishedPathsOrderByDbupdatedate().stream().map(RSSWorkflowPath::getBioWorkflow).toList());
+        dbEntries.addAll(appToolDAO.findAllPublishedPathsOrderByDbupdatedate().stream().map(RSSAppToolPath::getAppTool).toList());
+        dbEntries.addAll(notebookDAO.findAllPublishedPathsOrderByDbupdatedate().stream().map(RSSNotebookPath::getNotebook).toList());
+        return dbEntries;
+    }
 
-        // TODO: after seeing if this works, make this more efficient than just returning everything
+    private String renderRSS(List<RSSListener.FeedItem> feedItems) {
         RSSFeed feed = new RSSFeed();
 
         RSSHeader header = new RSSHeader();
@@ -288,26 +299,14 @@ public class MetadataResource {
         feed.setHeader(header);
 
         List<RSSEntry> entries = new ArrayList<>();
-        for (Entry<?, ?> dbEntry : dbEntries) {
+        for (RSSListener.FeedItem feedItem : feedItems) {
             RSSEntry entry = new RSSEntry();
-            // AppTools, BioWorkflows, Services, and Notebooks are all subclasses of Workflows
-            if (dbEntry instanceof Workflow workflow) {
-                entry.setTitle(workflow.getWorkflowPath());
-                String workflowURL = createWorkflowURL(workflow);
-                entry.setGuid(workflowURL);
-                entry.setLink(workflowURL);
-            } else if (dbEntry instanceof Tool tool) {
-                entry.setTitle(tool.getPath());
-                String toolURL = createToolURL(tool);
-                entry.setGuid(toolURL);
-                entry.setLink(toolURL);
-            } else {
-                throw new CustomWebApplicationException("Unknown data type unsupported for RSS feed.", HttpStatus.SC_INTERNAL_SERVER_ERROR);
-            }
-            final int arbitraryDescriptionLimit = 200;
-            entry.setDescription(StringUtils.truncate(dbEntry.getDescription(), arbitraryDescriptionLimit));
+            entry.setTitle(feedItem.title());
+            entry.setGuid(feedItem.url());
+            entry.setLink(feedItem.url());
+            entry.setDescription(feedItem.description());
             Calendar instance = Calendar.getInstance();
-            instance.setTime(dbEntry.getLastUpdated());
+            instance.setTime(feedItem.lastUpdated());
             entry.setPubDate(RSSFeed.formatDate(instance));
             entries.add(entry);
         }
@@ -449,6 +448,28 @@ public class MetadataResource {
         return results;
     }
 
+    @GET
+    @Timed
+    @Path("/fileCachePerformance")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(summary = "Get measures of file cache performance", description = "Get measures of file cache performance, NO authentication")
+    @ApiResponse(description = "File cache performance information", content = @Content(mediaType = "application/json"))
+    @ApiOperation(value = "Get measures of file cache performance.", notes = "NO authentication", response = Map.class)
+    public Map<String, String> getFileCachePerformance() {
+        return FileContentCache.getInstance().getStatistics();
+    }
+
+    @GET
+    @Timed
+    @Path("/entityCachePerformance")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(summary = "Get measures of entity cache performance", description = "Get measures of entity cache performance, NO authentication")
+    @ApiResponse(description = "Entity cache performance information", content = @Content(mediaType = "application/json"))
+    @ApiOperation(value = "Get measures of entity cache performance.", notes = "NO authentication", response = Map.class)
+    public Map<String, String> getEntityCachePerformance() {
+        return SecondLevelCacheHelper.getStatistics(sessionFactory);
+    }
+
     @GET
     @Timed
     @UnitOfWork
@@ -53,6 +53,7 @@ import io.dockstore.webservice.core.Image;
 import io.dockstore.webservice.core.LambdaEvent;
 import io.dockstore.webservice.core.OrcidAuthor;
 import io.dockstore.webservice.core.OrcidAuthorInformation;
+import io.dockstore.webservice.core.QueuedWebhook;
 import io.dockstore.webservice.core.Service;
 import io.dockstore.webservice.core.SourceControlConverter;
 import io.dockstore.webservice.core.SourceFile;
@@ -79,7 +80,9 @@ import io.dockstore.webservice.helpers.FileFormatHelper;
 import io.dockstore.webservice.helpers.FileTree;
 import io.dockstore.webservice.helpers.GitHubSourceCodeRepo;
 import io.dockstore.webservice.helpers.LimitHelper;
+import io.dockstore.webservice.helpers.ORCIDAuthorResolver;
 import io.dockstore.webservice.helpers.ORCIDHelper;
+import io.dockstore.webservice.helpers.ParsedDescriptorCache;
 import io.dockstore.webservice.helpers.PublicStateManager;
 import io.dockstore.webservice.helpers.SourceCodeRepoFactory;
 import io.dockstore.webservice.helpers.SourceCodeRepoInterface;
@@ -1440,9 +1443,10 @@ public class WorkflowResource extends AbstractWorkflowResource<Workflow>
                     if (existingTag.getDagJson() == null) {
                         SourceFile mainDescriptor = getMainDescriptorFile(existingTag);
                         if (mainDescriptor != null) {
-                            String dagJson = lInterface.getCleanDAG(existingTag.getWorkflowPath(), mainDescriptor.getContent(),
-                                    extractDescriptorAndSecondaryFiles(existingTag), LanguageHandlerInterface.Type.DAG, toolDAO);
-                            existingTag.setDagJson(dagJson);
+                            String dagJson = ParsedDescriptorCache.getDag(workflowVersionDAO, w.getId(), existingTag,
+                                () -> lInterface.getCleanDAG(existingTag.getWorkflowPath(), mainDescriptor.getContent(), extractDescriptorAndSecondaryFiles(existingTag),
+                                    LanguageHandlerInterface.Type.DAG, toolDAO));
+                            ParsedDescriptorCache.setDag(existingTag, dagJson);
                         }
                     }
                 }
@@ -1499,10 +1503,10 @@ public class WorkflowResource extends AbstractWorkflowResource<Workflow>
             Set<SourceFile> secondaryDescContent = extractDescriptorAndSecondaryFiles(workflowVersion);
 
             LanguageHandlerInterface lInterface = LanguageHandlerFactory.getInterface(workflow.getFileType());
-            final String dagJson = lInterface.getCleanDAG(workflowVersion.getWorkflowPath(), mainDescriptor.getContent(), secondaryDescContent,
-                LanguageHandlerInterface.Type.DAG, toolDAO);
+            final String dagJson = ParsedDescriptorCache.getDag(workflowVersionDAO, workflow.getId(), workflowVersion,
+                () -> lInterface.getCleanDAG(workflowVersion.getWorkflowPath(), mainDescriptor.getContent(), secondaryDescContent, LanguageHandlerInterface.Type.DAG, toolDAO));
             if (!workflowVersion.isFrozen()) {
-                workflowVersion.setDagJson(dagJson);
+                ParsedDescriptorCache.setDag(workflowVersion, dagJson);
             }
             return dagJson;
         }
@@ -2196,14 +2200,16 @@ public class WorkflowResource extends AbstractWorkflowResource<Workflow>
 
         // Create FileTree.
         String ownerAndRepo = organization + "/" + repository;
-        FileTree fileTree = new CachingFileTree(new ZipGitHubFileTree(gitHubSourceCodeRepo, ownerAndRepo, ref));
-
-        // Infer entries.
         InferrerHelper inferrerHelper = new InferrerHelper();
-        List<Inferrer.Entry> entries = inferrerHelper.infer(fileTree);
+        try (ZipGitHubFileTree zipFileTree = new ZipGitHubFileTree(gitHubSourceCodeRepo, ownerAndRepo, ref, inferrerHelper.getDescriptorPathFilter())) {
+            FileTree fileTree = new CachingFileTree(zipFileTree);
+
+            // Infer entries.
+            List<Inferrer.Entry> entries = inferrerHelper.infer(fileTree);
 
-        // Create and return .dockstore.yml
-        return new InferredDockstoreYml(ref, inferrerHelper.toDockstoreYaml(entries));
+            // Create and return .dockstore.yml
+            return new InferredDockstoreYml(ref, inferrerHelper.toDockstoreYaml(entries));
+        }
     }
 
     /**
@@ -2238,7 +2244,11 @@ public class WorkflowResource extends AbstractWorkflowResource<Workflow>
         if (LOG.isInfoEnabled()) {
             LOG.info(String.format("Branch/tag %s pushed to %s(%s)", Utilities.cleanForLogging(gitReference), Utilities.cleanForLogging(repository), Utilities.cleanForLogging(username)));
         }
-        githubWebhookRelease(repository, gitHubUsernamesFromPushPayload(payload), gitReference, installationId, deliveryId, afterCommit, true);
+        final GitHubUsernames gitHubUsernames = gitHubUsernamesFromPushPayload(payload);
+        if (!queueWebhook(new QueuedWebhook(QueuedWebhook.Type.PUSH, repository, gitReference, installationId, deliveryId, afterCommit, gitHubUsernames.sender(),
+            gitHubUsernames.otherUsers()))) {
+            githubWebhookRelease(repository, gitHubUsernames, gitReference, installationId, deliveryId, afterCommit, true);
+        }
     }
 
     @POST
@@ -2314,7 +2324,9 @@ public class WorkflowResource extends AbstractWorkflowResource<Workflow>
                             LOG.info(String.format("Retrospectively processing branch/tag %s in %s(%s)", Utilities.cleanForLogging(gitReference), Utilities.cleanForLogging(repository),
                                 Utilities.cleanForLogging(username)));
                         }
-                        githubWebhookRelease(repository, new GitHubUsernames(username, Set.of()), gitReference, installationId, deliveryId, null, false);
+                        if (!queueWebhook(new QueuedWebhook(QueuedWebhook.Type.PUSH, repository, gitReference, installationId, deliveryId, null, username, Set.of()))) {
+                            githubWebhookRelease(repository, new GitHubUsernames(username, Set.of()), gitReference, installationId, deliveryId, null, false);
+                        }
                     }
                 }
             }
@@ -2343,7 +2355,9 @@ public class WorkflowResource extends AbstractWorkflowResource<Workflow>
         if (LOG.isInfoEnabled()) {
             LOG.info(String.format("Branch/tag %s deleted from %s", Utilities.cleanForLogging(gitReference), Utilities.cleanForLogging(repository)));
         }
-        githubWebhookDelete(repository, gitReference, username, installationId, deliveryId);
+        if (!queueWebhook(new QueuedWebhook(QueuedWebhook.Type.DELETE, repository, gitReference, installationId, deliveryId, null, username, Set.of()))) {
+            githubWebhookDelete(repository, gitReference, username, installationId, deliveryId);
+        }
         return Response.status(HttpStatus.SC_NO_CONTENT).build();
     }
 
@@ -2481,12 +2495,9 @@ public class WorkflowResource extends AbstractWorkflowResource<Workflow>
         Set<OrcidAuthorInformation> orcidAuthorInfo = new HashSet<>();
         Optional<String> token = ORCIDHelper.getOrcidAccessToken();
         if (token.isPresent()) {
-            orcidAuthorInfo = workflowVersion.getOrcidAuthors().stream()
+            orcidAuthorInfo = ORCIDAuthorResolver.getOrcidAuthorInformation(workflowVersion.getOrcidAuthors().stream()
                 .map(OrcidAuthor::getOrcid)
-                .map(orcidId -> ORCIDHelper.getOrcidAuthorInformation(orcidId, token.get()))
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .collect(Collectors.toSet());
+                .toList());
         }
 
         return orcidAuthorInfo;
@@ -21,7 +21,6 @@ import static io.openapi.api.impl.ToolsApiServiceImpl.BAD_DECODE_REGISTRY_RESPON
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.common.io.Resources;
 import io.dockstore.common.Partner;
 import io.dockstore.common.S3ClientHelper;
 import io.dockstore.common.metrics.Execution;
@@ -47,12 +46,14 @@ import io.dockstore.webservice.core.metrics.ExecutionsResponseBody;
 import io.dockstore.webservice.core.metrics.Metrics;
 import io.dockstore.webservice.helpers.ElasticSearchHelper;
 import io.dockstore.webservice.helpers.EntryVersionHelper;
+import io.dockstore.webservice.helpers.MetricsDataS3ClientManager;
 import io.dockstore.webservice.helpers.PublicStateManager;
 import io.dockstore.webservice.helpers.StateManagerMode;
+import io.dockstore.webservice.helpers.statelisteners.ElasticIndexRebuilder;
 import io.dockstore.webservice.helpers.statelisteners.ElasticListener;
 import io.dockstore.webservice.jdbi.AppToolDAO;
 import io.dockstore.webservice.jdbi.BioWorkflowDAO;
-import io.dockstore.webservice.jdbi.EntryDAO;
+import io.dockstore.webservice.jdbi.ExecutionFileDAO;
 import io.dockstore.webservice.jdbi.NotebookDAO;
 import io.dockstore.webservice.jdbi.ServiceDAO;
 import io.dockstore.webservice.jdbi.ToolDAO;
@@ -66,8 +67,6 @@ import jakarta.ws.rs.core.SecurityContext;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URISyntaxException;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.ArrayList;
@@ -78,20 +77,20 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.Semaphore;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.HttpStatus;
-import org.elasticsearch.action.admin.indices.delete.DeleteIndexRequest;
 import org.elasticsearch.client.Request;
-import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.client.ResponseException;
 import org.elasticsearch.client.RestClient;
-import org.elasticsearch.client.RestHighLevelClient;
-import org.elasticsearch.client.indices.CreateIndexRequest;
-import org.elasticsearch.common.xcontent.XContentType;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -107,7 +106,6 @@ import software.amazon.awssdk.core.exception.SdkClientException;
  */
 public class ToolsApiExtendedServiceImpl extends ToolsExtendedApiService {
 
-    public static final int ES_BATCH_INSERT_SIZE = 500;
     public static final String INVALID_PLATFORM = "Invalid platform. Please select an individual platform.";
     public static final String FORBIDDEN_PLATFORM = "You do not have the credentials to access executions for this platform";
     public static final String TOOL_NOT_FOUND_ERROR = "Tool not found";
@@ -119,9 +117,6 @@ public class ToolsApiExtendedServiceImpl extends ToolsExtendedApiService {
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
     private static final ToolsApiServiceImpl TOOLS_API_SERVICE_IMPL = new ToolsApiServiceImpl();
 
-    private static final String TOOLS_INDEX = ElasticListener.TOOLS_INDEX;
-    private static final String WORKFLOWS_INDEX = ElasticListener.WORKFLOWS_INDEX;
-    private static final String NOTEBOOKS_INDEX = ElasticListener.NOTEBOOKS_INDEX;
     private static final String COMMA_SEPARATED_INDEXES = String.join(",", ElasticListener.INDEXES);
     private static final int SEARCH_TERM_LIMIT = 256;
     private static final int TOO_MANY_REQUESTS_429 = 429;
@@ -129,6 +124,7 @@ public class ToolsApiExtendedServiceImpl extends ToolsExtendedApiService {
     public static final String COULD_NOT_SUBMIT_METRICS_DATA = "Could not submit metrics data";
     public static final String COULD_NOT_UPDATE_EXECUTION = "Could not update execution";
     public static final String EXECUTION_NOT_FOUND_ERROR = "Execution not found";
+    public static final int MAX_METRICS_BATCH_SIZE = 100;
 
     private static ToolDAO toolDAO = null;
     private static WorkflowDAO workflowDAO = null;
@@ -137,14 +133,11 @@ public class ToolsApiExtendedServiceImpl extends ToolsExtendedApiService {
     private static BioWorkflowDAO bioWorkflowDAO = null;
     private static ServiceDAO serviceDAO = null;
     private static WorkflowVersionDAO workflowVersionDAO = null;
+    private static ExecutionFileDAO executionFileDAO = null;
     private static DockstoreWebserviceConfiguration config = null;
-    private static DockstoreWebserviceConfiguration.MetricsConfig metricsConfig = null;
-    private static PublicStateManager publicStateManager = null;
+    private static MetricsDataS3ClientManager metricsDataS3ClientManager = null;
     private static Semaphore elasticSearchConcurrencyLimit = null;
-
-    public static void setStateManager(PublicStateManager manager) {
-        ToolsApiExtendedServiceImpl.publicStateManager = manager;
-    }
+    private static ElasticIndexRebuilder elasticIndexRebuilder = null;
 
     public static void setToolDAO(ToolDAO toolDAO) {
         ToolsApiExtendedServiceImpl.toolDAO = toolDAO;
@@ -174,9 +167,20 @@ public class ToolsApiExtendedServiceImpl extends ToolsExtendedApiService {
         ToolsApiExtendedServiceImpl.workflowVersionDAO = workflowVersionDAO;
     }
 
+    public static void setExecutionFileDAO(ExecutionFileDAO executionFileDAO) {
+        ToolsApiExtendedServiceImpl.executionFileDAO = executionFileDAO;
+    }
+
+    public static void setMetricsDataS3ClientManager(MetricsDataS3ClientManager metricsDataS3ClientManager) {
+        ToolsApiExtendedServiceImpl.metricsDataS3ClientManager = metricsDataS3ClientManager;
+    }
+
+    public static void setElasticIndexRebuilder(ElasticIndexRebuilder elasticIndexRebuilder) {
+        ToolsApiExtendedServiceImpl.elasticIndexRebuilder = elasticIndexRebuilder;
+    }
+
     public static void setConfig(DockstoreWebserviceConfiguration config) {
         ToolsApiExtendedServiceImpl.config = config;
-        ToolsApiExtendedServiceImpl.metricsConfig = config.getMetricsConfig();
 
         if (config.getEsConfiguration().getMaxConcurrentSessions() == null) {
             ToolsApiExtendedServiceImpl.elasticSearchConcurrencyLimit = new Semaphore(ELASTICSEARCH_DEFAULT_LIMIT);
@@ -234,67 +238,18 @@ public class ToolsApiExtendedServiceImpl extends ToolsExtendedApiService {
 
     @Override
     public Response toolsIndexGet(SecurityContext securityContext) {
-        int totalProcessed = 0;
+        long totalProcessed = 0;
         if (!config.getEsConfiguration().getHostname().isEmpty()) {
-            clearElasticSearch();
             LOG.info("Starting GA4GH batch processing");
-            totalProcessed += indexDAO(toolDAO);
-            LOG.info("Processed {} tools", totalProcessed);
-            totalProcessed += indexDAO(workflowDAO);
-            LOG.info("Processed {} tools and workflows", totalProcessed);
-            totalProcessed += indexDAO(appToolDAO);
-            LOG.info("Processed {} tools, workflows, and apptools", totalProcessed);
-            totalProcessed += indexDAO(notebookDAO);
+            totalProcessed = elasticIndexRebuilder.rebuild();
             LOG.info("Processed {} tools, workflows, apptools, and notebooks", totalProcessed);
         }
         return Response.ok().entity(totalProcessed).build();
     }
 
-    private int indexDAO(EntryDAO entryDAO) {
-        int processed = 0;
-        List<? extends Entry> published;
-        do {
-            published = entryDAO.findAllPublished(processed, ES_BATCH_INSERT_SIZE, null, "id", "asc");
-            processed += published.size();
-            indexBatch(published);
-            published.forEach(entryDAO::evict);
-        } while (published.size() == ES_BATCH_INSERT_SIZE);
-        return processed;
-    }
-
-    private void clearElasticSearch() {
-        try {
-            // FYI. it is real tempting to use a try ... catch with resources to close this client, but it actually permanently messes up the client!
-            RestHighLevelClient client = ElasticSearchHelper.restHighLevelClient();
-            // Delete previous indexes
-            deleteIndex(TOOLS_INDEX, client);
-            deleteIndex(WORKFLOWS_INDEX, client);
-            deleteIndex(NOTEBOOKS_INDEX, client);
-            // Create new indexes
-            createIndex("queries/mapping_tool.json", TOOLS_INDEX, client);
-            createIndex("queries/mapping_workflow.json", WORKFLOWS_INDEX, client);
-            createIndex("queries/mapping_notebook.json", NOTEBOOKS_INDEX, client);
-        } catch (IOException | RuntimeException e) {
-            LOG.error("Could not clear elastic search index", e);
-            throw new CustomWebApplicationException("Search indexing failed", HttpStatus.SC_INTERNAL_SERVER_ERROR);
-        }
-    }
-
-    private void createIndex(String resourceName, String nameOfIndex, RestHighLevelClient client) throws IOException {
-        // Get mapping for index
-        URL urlStuff = Resources.getResource(resourceName);
-        String textTools = Resources.toString(urlStuff, StandardCharsets.UTF_8);
-        // Create indices
-        CreateIndexRequest toolsRequest = new CreateIndexRequest(nameOfIndex);
-        toolsRequest.source(textTools, XContentType.JSON);
-        client.indices().create(toolsRequest, RequestOptions.DEFAULT);
-    }
-
-    private void indexBatch(List<? extends Entry> published) {
-        // Populate index
-        if (!published.isEmpty()) {
-            publicStateManager.bulkUpsert((List<Entry>) published);
-        }
+    @Override
+    public Response toolsIndexStatusGet(SecurityContext securityContext) {
+        return Response.ok(elasticIndexRebuilder.getStatus()).build();
     }
 
     @Override
@@ -517,12 +472,7 @@ public class ToolsApiExtendedServiceImpl extends ToolsExtendedApiService {
             throw new CustomWebApplicationException(VERSION_NOT_FOUND_ERROR, HttpStatus.SC_NOT_FOUND);
         }
 
-        MetricsDataS3Client metricsDataS3Client;
-        try {
-            metricsDataS3Client = new MetricsDataS3Client(metricsConfig.getS3BucketName(), metricsConfig.getS3EndpointOverride());
-        } catch (URISyntaxException e) {
-            throw new CustomWebApplicationException("Error creating S3 client, could not submit executions", HttpStatus.SC_INTERNAL_SERVER_ERROR);
-        }
+        final MetricsDataS3Client metricsDataS3Client = getMetricsDataS3Client("Error creating S3 client, could not submit executions");
 
         try {
             String metricsData = OBJECT_MAPPER.writeValueAsString(executions);
@@ -530,7 +480,9 @@ public class ToolsApiExtendedServiceImpl extends ToolsExtendedApiService {
                 throw new CustomWebApplicationException("Execution metrics data must be provided", HttpStatus.SC_BAD_REQUEST);
             }
 
-            metricsDataS3Client.createS3Object(id, versionId, platform.name(), S3ClientHelper.createFileName(), owner.getId(), description, metricsData);
+            final String fileName = S3ClientHelper.createFileName();
+            metricsDataS3Client.createS3Object(id, versionId, platform.name(), fileName, owner.getId(), description, metricsData);
+            executionFileDAO.index(id, versionId, platform, fileName, executions.getExecutionIds());
             version.get().getVersionMetadata().setLatestMetricsSubmissionDate(Timestamp.from(Instant.now()));
             return Response.noContent().build();
         } catch (JsonProcessingException | AwsServiceException | SdkClientException e) {
@@ -539,6 +491,101 @@ public class ToolsApiExtendedServiceImpl extends ToolsExtendedApiService {
         }
     }
 
+    @Override
+    public Response submitMetricsDataBatch(String id, String versionId, Partner platform, User owner, String description, List<ExecutionsRequestBody> executionsBatch) {
+        checkActualPlatform(platform);
+        checkPlatformForRole(owner, platform);
+        if (executionsBatch.size() > MAX_METRICS_BATCH_SIZE) {
+            throw new CustomWebApplicationException("A batch can contain at most " + MAX_METRICS_BATCH_SIZE + " submissions", HttpStatus.SC_BAD_REQUEST);
+        }
+
+        // Check that the entry and version exists
+        Entry<?, ?> entry;
+        try {
+            entry = getEntry(id, Optional.of(owner));
+        } catch (UnsupportedEncodingException | IllegalArgumentException e) {
+            return BAD_DECODE_REGISTRY_RESPONSE;
+        }
+        checkEntryNotNull(entry);
+
+        Optional<? extends Version<?>> version = getVersion(entry, versionId);
+        if (version.isEmpty()) {
+            throw new CustomWebApplicationException(VERSION_NOT_FOUND_ERROR, HttpStatus.SC_NOT_FOUND);
+        }
+
+        final MetricsDataS3Client metricsDataS3Client = getMetricsDataS3Client("Error creating S3 client, could not submit executions");
+        final long ownerId = owner.getId();
+        ExecutionsResponseBody executionsResponseBody = submitBatch(executionsBatch, metricsDataS3ClientManager.getExecutor(),
+            (fileName, metricsData) -> metricsDataS3Client.createS3Object(id, versionId, platform.name(), fileName, ownerId, description, metricsData),
+            (fileName, executionIds) -> executionFileDAO.index(id, versionId, platform, fileName, executionIds));
+
+        if (executionsResponseBody.getExecutionResponses().stream().anyMatch(executionResponse -> executionResponse.getStatus() == HttpStatus.SC_OK)) {
+            version.get().getVersionMetadata().setLatestMetricsSubmissionDate(Timestamp.from(Instant.now()));
+        }
+        return Response.status(HttpStatus.SC_MULTI_STATUS).entity(executionsResponseBody).build();
+    }
+
+    /**
+     * Writes each submission of a batch to its own file concurrently, then indexes the executions of the files that were written.
+     * @param executionsBatch the submissions
+     * @param executor runs the writes
+     * @param writer writes the metrics data to the file with the specified name
+     * @param indexer indexes the executions of the file with the specified name, on the calling thread
+     * @return the response for each execution
+     */
+    static ExecutionsResponseBody submitBatch(List<ExecutionsRequestBody> executionsBatch, ExecutorService executor, BiConsumer<String, String> writer,
+        BiConsumer<String, List<String>> indexer) {
+        // the files are named after the time of the batch, so that they sort in submission order, and a random ID, so that the
+        // files of concurrent batches cannot collide
+        final String batchPrefix = Instant.now().toEpochMilli() + "-" + UUID.randomUUID();
+        // every submission is serialized before any is written, so that a submission that cannot be serialized does not leave the
+        // files of the others behind
+        List<String> metricsData = new ArrayList<>();
+        for (ExecutionsRequestBody executions : executionsBatch) {
+            try {
+                metricsData.add(OBJECT_MAPPER.writeValueAsString(executions));
+            } catch (JsonProcessingException e) {
+                LOG.error(COULD_NOT_SUBMIT_METRICS_DATA, e);
+                throw new CustomWebApplicationException(COULD_NOT_SUBMIT_METRICS_DATA, HttpStatus.SC_BAD_REQUEST);
+            }
+        }
+        List<String> fileNames = new ArrayList<>();
+        List<Future<?>> writes = new ArrayList<>();
+        for (int i = 0; i < executionsBatch.size(); i++) {
+            final String fileName = S3ClientHelper.appendJsonFileTypeToFileName("%s-%03d".formatted(batchPrefix, i));
+            final String data = metricsData.get(i);
+            fileNames.add(fileName);
+            writes.add(executor.submit(() -> writer.accept(fileName, data)));
+        }
+
+        // Executions are indexed on this thread, because the Hibernate session cannot be shared with the writers
+        ExecutionsResponseBody executionsResponseBody = new ExecutionsResponseBody();
+        for (int i = 0; i < executionsBatch.size(); i++) {
+            final List<String> executionIds = executionsBatch.get(i).getExecutionIds();
+            try {
+                writes.get(i).get();
+                indexer.accept(fileNames.get(i), executionIds);
+                executionIds.forEach(executionId -> executionsResponseBody.getExecutionResponses().add(new ExecutionResponse(executionId, HttpStatus.SC_OK)));
+            } catch (ExecutionException e) {
+                LOG.error(COULD_NOT_SUBMIT_METRICS_DATA, e.getCause());
+                executionIds.forEach(executionId -> executionsResponseBody.getExecutionResponses().add(new ExecutionResponse(executionId, HttpStatus.SC_BAD_REQUEST,
+                        COULD_NOT_SUBMIT_METRICS_DATA + ": " + e.getCause().getMessage())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CustomWebApplicationException(COULD_NOT_SUBMIT_METRICS_DATA, HttpStatus.SC_INTERNAL_SERVER_ERROR);
+            }
+        }
+        return executionsResponseBody;
+    }
+
+    private static MetricsDataS3Client getMetricsDataS3Client(String errorMessage) {
+        try {
+            return metricsDataS3ClientManager.getClient();
+        } catch (URISyntaxException e) {
+            throw new CustomWebApplicationException(errorMessage, HttpStatus.SC_INTERNAL_SERVER_ERROR);
+        }
+    }
+
     @Override
     public Response getEntryVersionsToAggregate() {
         List<EntryLiteAndVersionName> entryAndVersionNames = new ArrayList<>();
@@ -638,14 +685,9 @@ public class ToolsApiExtendedServiceImpl extends ToolsExtendedApiService {
             throw new CustomWebApplicationException(VERSION_NOT_FOUND_ERROR, HttpStatus.SC_NOT_FOUND);
         }
 
-        MetricsDataS3Client metricsDataS3Client;
-        try {
-            metricsDataS3Client = new MetricsDataS3Client(metricsConfig.getS3BucketName(), metricsConfig.getS3EndpointOverride());
-        } catch (URISyntaxException e) {
-            throw new CustomWebApplicationException("Error creating S3 client, could not get execution", HttpStatus.SC_INTERNAL_SERVER_ERROR);
-        }
+        final MetricsDataS3Client metricsDataS3Client = getMetricsDataS3Client("Error creating S3 client, could not get execution");
 
-        ExecutionsRequestBodyS3Handler executionsRequestBodyS3Handler = new ExecutionsRequestBodyS3Handler(id, versionId, platform, metricsDataS3Client);
+        ExecutionsRequestBodyS3Handler executionsRequestBodyS3Handler = new ExecutionsRequestBodyS3Handler(id, versionId, platform, metricsDataS3Client, executionFileDAO);
         Optional<ExecutionsFromS3> executionsFromS3 = executionsRequestBodyS3Handler.searchS3ForExecutionId(executionId, true);
         if (executionsFromS3.isPresent()) {
             return Response.ok(executionsFromS3.get().executionsRequestBody()).build();
@@ -673,18 +715,14 @@ public class ToolsApiExtendedServiceImpl extends ToolsExtendedApiService {
             throw new CustomWebApplicationException(VERSION_NOT_FOUND_ERROR, HttpStatus.SC_NOT_FOUND);
         }
 
-        MetricsDataS3Client metricsDataS3Client;
-        try {
-            metricsDataS3Client = new MetricsDataS3Client(metricsConfig.getS3BucketName(), metricsConfig.getS3EndpointOverride());
-        } catch (URISyntaxException e) {
-            throw new CustomWebApplicationException("Error creating S3 client", HttpStatus.SC_INTERNAL_SERVER_ERROR);
-        }
+        final MetricsDataS3Client metricsDataS3Client = getMetricsDataS3Client("Error creating S3 client");
 
-        ExecutionsRequestBodyS3Handler executionsRequestBodyS3Handler = new ExecutionsRequestBodyS3Handler(id, versionId, platform, metricsDataS3Client);
+        ExecutionsRequestBodyS3Handler executionsRequestBodyS3Handler = new ExecutionsRequestBodyS3Handler(id, versionId, platform, metricsDataS3Client, executionFileDAO);
         ExecutionsResponseBody executionsResponseBody = new ExecutionsResponseBody();
         List<? extends Execution> executionsToUpdate = Stream.of(executions.getRunExecutions(), executions.getTaskExecutions(), executions.getValidationExecutions())
                 .flatMap(List::stream)
                 .toList();
+        executionsRequestBodyS3Handler.loadIndexedFileNames(executionsToUpdate.stream().map(Execution::getExecutionId).toList());
         for (Execution executionToUpdate: executionsToUpdate) {
             final String executionId = executionToUpdate.getExecutionId();
             Optional<ExecutionsFromS3> executionsFromS3 = executionsRequestBodyS3Handler.searchS3ForExecutionId(executionId, false);
@@ -798,15 +836,6 @@ public class ToolsApiExtendedServiceImpl extends ToolsExtendedApiService {
         return versionOptional;
     }
 
-    private void deleteIndex(String index, RestHighLevelClient restClient) {
-        try {
-            DeleteIndexRequest deleteIndexRequest = new DeleteIndexRequest(index);
-            restClient.indices().delete(deleteIndexRequest, RequestOptions.DEFAULT);
-        } catch (Exception e) {
-            LOG.warn("Could not delete previous elastic search " + index + " index, not an issue if this is cold start", e);
-        }
-    }
-
     /**
      * Checks if the platform is an actual platform and not Partner.ALL
      * @param platform
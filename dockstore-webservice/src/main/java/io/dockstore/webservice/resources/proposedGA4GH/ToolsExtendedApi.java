@@ -21,6 +21,7 @@ import static io.dockstore.webservice.resources.ResourceConstants.JWT_SECURITY_D
 import io.dockstore.common.Partner;
 import io.dockstore.common.metrics.ExecutionsRequestBody;
 import io.dockstore.webservice.DockstoreWebserviceApplication;
+import io.dockstore.webservice.api.IndexRebuildStatus;
 import io.dockstore.webservice.api.UpdateAITopicRequest;
 import io.dockstore.webservice.core.Entry.EntryLiteAndVersionName;
 import io.dockstore.webservice.core.User;
@@ -69,6 +70,7 @@ import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.SecurityContext;
 import jakarta.ws.rs.core.UriInfo;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import org.apache.http.HttpStatus;
@@ -135,6 +137,18 @@ public class ToolsExtendedApi {
         return delegate.toolsIndexGet(securityContext);
     }
 
+    @GET
+    @Path("/tools/index/status")
+    @RolesAllowed({"curator", "admin"})
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(operationId = "toolsIndexStatusGet", summary = ToolsIndexStatusGet.SUMMARY, description = ToolsIndexStatusGet.DESCRIPTION, security = @SecurityRequirement(name = ResourceConstants.JWT_SECURITY_DEFINITION_NAME), responses = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = HttpStatus.SC_OK
+            + "", description = ToolsIndexStatusGet.OK_RESPONSE, content = @Content(mediaType = MediaType.APPLICATION_JSON, schema = @Schema(implementation = IndexRebuildStatus.class)))
+    })
+    public Response toolsIndexStatusGet(@Parameter(hidden = true) @Auth User user, @Context SecurityContext securityContext) {
+        return delegate.toolsIndexStatusGet(securityContext);
+    }
+
     @GET
     @Path("/workflows/{organization}")
     @UnitOfWork(readOnly = true)
@@ -263,6 +277,31 @@ public class ToolsExtendedApi {
         return delegate.submitMetricsData(id, versionId, platform, user, description, executions);
     }
 
+    @POST
+    @UnitOfWork
+    @RolesAllowed({"curator", "admin", "platformPartner", "metricsRobot"})
+    @Path("/{id}/versions/{version_id}/executions/batch")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON})
+    @Operation(operationId = "executionMetricsBatchPost", summary = ExecutionMetricsBatchPost.SUMMARY, description = ExecutionMetricsBatchPost.DESCRIPTION, security = @SecurityRequirement(name = ResourceConstants.JWT_SECURITY_DEFINITION_NAME), responses = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = HttpStatus.SC_MULTI_STATUS
+                + "", description = ExecutionMetricsBatchPost.MULTI_STATUS_RESPONSE, content = @Content(mediaType = MediaType.APPLICATION_JSON, schema = @Schema(implementation = ExecutionsResponseBody.class))),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = HttpStatus.SC_UNAUTHORIZED
+                + "", description = ExecutionMetricsBatchPost.UNAUTHORIZED_RESPONSE, content = @Content(mediaType = MediaType.APPLICATION_JSON, schema = @Schema(implementation = Error.class))),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = HttpStatus.SC_NOT_FOUND
+                + "", description = ExecutionMetricsBatchPost.NOT_FOUND_RESPONSE, content = @Content(mediaType = MediaType.APPLICATION_JSON, schema = @Schema(implementation = Error.class)))
+    })
+    @SuppressWarnings("checkstyle:ParameterNumber")
+    public Response executionMetricsBatchPost(@Parameter(hidden = true) @Auth User user,
+        @Parameter(description = ExecutionMetricsBatchPost.ID_DESCRIPTION, in = ParameterIn.PATH) @PathParam("id") String id,
+        @Parameter(description = ExecutionMetricsBatchPost.VERSION_ID_DESCRIPTION, in = ParameterIn.PATH) @PathParam("version_id") String versionId,
+        @Parameter(description = ExecutionMetricsBatchPost.PLATFORM_DESCRIPTION, in = ParameterIn.QUERY, required = true) @QueryParam("platform") Partner platform,
+        @Parameter(description = ExecutionMetricsBatchPost.DESCRIPTION_DESCRIPTION, in = ParameterIn.QUERY) @QueryParam("description") String description,
+        @RequestBody(description = ExecutionMetricsBatchPost.EXECUTIONS_DESCRIPTION, required = true, content = @Content(array = @ArraySchema(schema = @Schema(implementation = ExecutionsRequestBody.class)))) @NotEmpty List<@Valid ExecutionsRequestBody> executionsBatch,
+        @Context SecurityContext securityContext, @Context ContainerRequestContext containerContext) {
+        return delegate.submitMetricsDataBatch(id, versionId, platform, user, description, executionsBatch);
+    }
+
     @PUT
     @UnitOfWork
     @RolesAllowed({"curator", "admin"})
@@ -347,7 +386,8 @@ public class ToolsExtendedApi {
     }
 
     @GET
-    @UnitOfWork(readOnly = true)
+    // not read-only, because executions submitted before they were indexed are added to the index when found
+    @UnitOfWork
     @RolesAllowed({"curator", "admin", "platformPartner", "metricsRobot"})
     @Path("/{id}/versions/{version_id}/execution")
     @Produces({MediaType.APPLICATION_JSON})
@@ -521,6 +561,20 @@ public class ToolsExtendedApi {
         public static final String UNAUTHORIZED_RESPONSE = "Credentials not provided or incorrect.";
     }
 
+    private static final class ExecutionMetricsBatchPost {
+        public static final String SUMMARY = "Submit a batch of individual execution metrics for a tool that was executed on a platform.";
+        public static final String DESCRIPTION = "This endpoint submits a batch of individual execution metrics for a tool that was executed on a platform. "
+                + "Each item in the batch is stored as a separate submission, and the items are stored concurrently.";
+        public static final String ID_DESCRIPTION = "A unique identifier of the tool, scoped to this registry, for example `123456`";
+        public static final String VERSION_ID_DESCRIPTION = "An identifier of the tool version for this particular tool registry, for example `v1`";
+        public static final String PLATFORM_DESCRIPTION = "Platform that the tool was executed on";
+        public static final String DESCRIPTION_DESCRIPTION = "Optional description about the execution metrics";
+        public static final String EXECUTIONS_DESCRIPTION = "Batch of individual execution metrics to submit, at most " + ToolsApiExtendedServiceImpl.MAX_METRICS_BATCH_SIZE + ".";
+        public static final String MULTI_STATUS_RESPONSE = "Execution metrics batch processed. Please view the individual responses.";
+        public static final String NOT_FOUND_RESPONSE = "The tool cannot be found to submit execution metrics.";
+        public static final String UNAUTHORIZED_RESPONSE = "Credentials not provided or incorrect.";
+    }
+
     private static final class GetEntryVersionsToAggregate {
         public static final String SUMMARY = "Get entry versions that have new execution metrics to aggregate.";
         public static final String DESCRIPTION = "This endpoint gets entry versions that have new execution metrics to aggregate.";
@@ -544,6 +598,13 @@ public class ToolsExtendedApi {
         public static final String OK_RESPONSE = "Workflows and tools indices populated with entries.";
     }
 
+    private static final class ToolsIndexStatusGet {
+
+        public static final String SUMMARY = "Get the progress of the rebuild of the workflows and tools indices";
+        public static final String DESCRIPTION = "This endpoint returns the progress of the rebuild of the indices that is in progress, or else of the last one.";
+        public static final String OK_RESPONSE = "The progress of the rebuild.";
+    }
+
     private static final class EntriesOrgsGet {
 
         public static final String OPERATION_ID = "entriesOrgsGet";
@@ -24,6 +24,7 @@ import io.swagger.api.NotFoundException;
 import jakarta.ws.rs.core.MultivaluedMap;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.SecurityContext;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -40,12 +41,16 @@ public abstract class ToolsExtendedApiService {
 
     public abstract Response toolsIndexGet(SecurityContext securityContext) throws NotFoundException;
 
+    public abstract Response toolsIndexStatusGet(SecurityContext securityContext);
+
     public abstract Response toolsIndexSearch(String query, MultivaluedMap<String, String> queryParameters, SecurityContext securityContext);
     @SuppressWarnings("checkstyle:ParameterNumber")
     public abstract Response setSourceFileMetadata(String type, String id, String versionId, String relativePath, String platform, String platformVersion, Boolean verified, String metadata);
 
     public abstract Response submitMetricsData(String id, String versionId, Partner platform, User owner, String description, ExecutionsRequestBody executions);
 
+    public abstract Response submitMetricsDataBatch(String id, String versionId, Partner platform, User owner, String description, List<ExecutionsRequestBody> executionsBatch);
+
     public abstract Response getEntryVersionsToAggregate();
 
     public abstract Response setAggregatedMetrics(String id, String versionId, Map<Partner, Metrics> aggregatedMetrics);
@@ -29,6 +29,8 @@ import static io.swagger.api.impl.ToolsImplCommon.WORKFLOW_PREFIX;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Splitter;
 import io.dockstore.common.DescriptorLanguage;
@@ -88,7 +90,9 @@ import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
@@ -99,6 +103,7 @@ import java.util.stream.Collectors;
 import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.HttpStatus;
+import org.hibernate.Hibernate;
 import org.hibernate.SessionFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -115,7 +120,21 @@ public class ToolsApiServiceImpl extends ToolsApiService implements Authenticate
     private static final int SEGMENTS_IN_ID = 3;
     //TODO this is also a maximum page size, may want to rename/split out the two concepts
     private static final int DEFAULT_PAGE_SIZE = 100;
+    /**
+     * An offset that starts cursor-based pagination. The next_page links of cursor-based pages carry an offset that starts with this prefix.
+     */
+    public static final String CURSOR_OFFSET = "cursor";
     private static final Logger LOG = LoggerFactory.getLogger(ToolsApiServiceImpl.class);
+    private static final Duration COUNT_CACHE_EXPIRY = Duration.ofMinutes(5);
+    private static final long COUNT_CACHE_SIZE = 10_000;
+    /**
+     * Counts of published entries, by DAO and filter, so that paging through the tools does not recount them for every page.
+     */
+    private static final Cache<CountKey, Long> PUBLISHED_COUNTS = Caffeine.newBuilder().maximumSize(COUNT_CACHE_SIZE).expireAfterWrite(COUNT_CACHE_EXPIRY).build();
+    /**
+     * The entry classes returned by the DAOs, in the order that they are paged through.
+     */
+    private static final List<Class<?>> PAGED_ENTRY_CLASSES = List.of(Tool.class, BioWorkflow.class, AppTool.class, Service.class, Notebook.class);
 
     private static ToolDAO toolDAO = null;
     private static WorkflowDAO workflowDAO = null;
@@ -365,8 +384,15 @@ public class ToolsApiServiceImpl extends ToolsApiService implements Authenticate
         final int actualLimit = Math.min(ObjectUtils.firstNonNull(limit, DEFAULT_PAGE_SIZE), DEFAULT_PAGE_SIZE);
         final String relativePath = value.getUriInfo().getRequestUri().getPath();
 
+        TrsCursor cursor = null;
         int offsetInteger = 0;
-        if (offset != null) {
+        if (offset != null && offset.startsWith(CURSOR_OFFSET)) {
+            try {
+                cursor = TrsCursor.decode(offset);
+            } catch (IllegalArgumentException e) {
+                return Response.status(getExtendedStatus(Status.BAD_REQUEST, "Bad offset")).build();
+            }
+        } else if (offset != null) {
             try {
                 offsetInteger = Integer.parseInt(offset);
             } catch (NumberFormatException e) {
@@ -381,7 +407,7 @@ public class ToolsApiServiceImpl extends ToolsApiService implements Authenticate
         NumberOfEntityTypes numEntries;
         try {
             numEntries = getEntries(all, id, alias, toolClass, descriptorType == null ? null : descriptorType.toString(), registry, organization, name, toolname, description, author, checker, user, actualLimit,
-                startIndex);
+                startIndex, cursor);
         } catch (UnsupportedEncodingException | IllegalArgumentException e) {
             return BAD_DECODE_REGISTRY_RESPONSE;
         }
@@ -408,11 +434,21 @@ public class ToolsApiServiceImpl extends ToolsApiService implements Authenticate
         responseBuilder.header("current_offset", offset);
         responseBuilder.header("current_limit", actualLimit);
         responseBuilder.header("self_link", createUrlString(scheme, hostname, port, path, encodedQuery));
-        if (startIndex + actualLimit < numEntries.sum()) {
+        if (cursor != null) {
+            // a full page may be followed by more entries, the next page continues after the last entry of this one
+            if (all.size() >= actualLimit) {
+                final Entry<?, ?> lastEntry = all.get(all.size() - 1);
+                final TrsCursor nextCursor = new TrsCursor(PAGED_ENTRY_CLASSES.indexOf(Hibernate.getClass(lastEntry)), lastEntry.getId());
+                responseBuilder.header("next_page", createUrlString(scheme, hostname, port, path, positionQuery(encodedQuery, actualLimit, nextCursor.encode())));
+            }
+        } else if (startIndex + actualLimit < numEntries.sum()) {
             responseBuilder.header("next_page", createUrlString(scheme, hostname, port, path, positionQuery(encodedQuery, actualLimit, offsetInteger + 1L)));
         }
-        final long numPages = numEntries.sum() / actualLimit;
-        responseBuilder.header("last_page", createUrlString(scheme, hostname, port, path, positionQuery(encodedQuery, actualLimit, numPages)));
+        // the last page of a cursor-based listing cannot be addressed without reading the pages before it
+        if (cursor == null) {
+            final long numPages = numEntries.sum() / actualLimit;
+            responseBuilder.header("last_page", createUrlString(scheme, hostname, port, path, positionQuery(encodedQuery, actualLimit, numPages)));
+        }
 
         return responseBuilder.build();
     }
@@ -434,6 +470,10 @@ public class ToolsApiServiceImpl extends ToolsApiService implements Authenticate
     }
 
     private String positionQuery(String encodedQuery, long limit, long offset) {
+        return positionQuery(encodedQuery, limit, String.valueOf(offset));
+    }
+
+    private String positionQuery(String encodedQuery, long limit, String offset) {
         // For more sophisticated query string processing, the
         // https://hc.apache.org/httpcomponents-client-5.1.x/
         // library may be of use.
@@ -472,12 +512,13 @@ public class ToolsApiServiceImpl extends ToolsApiService implements Authenticate
      * @param user
      * @param actualLimit page size
      * @param offset index to start at
+     * @param cursor position to continue after, if not null, the offset is ignored
      * @return number of tools, number of workflows we're working with
      * @throws UnsupportedEncodingException
      */
     @SuppressWarnings("checkstyle:ParameterNumber")
     private NumberOfEntityTypes getEntries(List<Entry<?, ?>> all, String id, String alias, String toolClass, String descriptorType, String registry, String organization, String name, String toolname,
-        String description, String author, Boolean checker, Optional<User> user, int actualLimit, int offset) throws UnsupportedEncodingException {
+        String description, String author, Boolean checker, Optional<User> user, int actualLimit, int offset, TrsCursor cursor) throws UnsupportedEncodingException {
 
         long numTools = 0;
         long numWorkflows = 0;
@@ -517,11 +558,11 @@ public class ToolsApiServiceImpl extends ToolsApiService implements Authenticate
 
             // calculate whether we want a page of tools, a page of workflows, or a page that includes both
             boolean allClasses = (toolClass == null);
-            numTools = COMMAND_LINE_TOOL.equalsIgnoreCase(toolClass) || allClasses ? toolDAO.countAllPublished(descriptorLanguage, registry, organization, name, toolname, description, author, checker) : 0;
-            numWorkflows = WORKFLOW.equalsIgnoreCase(toolClass) || allClasses ? bioWorkflowDAO.countAllPublished(descriptorLanguage, registry, organization, name, toolname, description, author, checker) : 0;
-            numAppTools = COMMAND_LINE_TOOL.equalsIgnoreCase(toolClass) || allClasses ? appToolDAO.countAllPublished(descriptorLanguage, registry, organization, name, toolname, description, author, checker) : 0;
-            numServices = SERVICE.equalsIgnoreCase(toolClass) || allClasses ? serviceDAO.countAllPublished(descriptorLanguage, registry, organization, name, toolname, description, author, checker) : 0;
-            numNotebooks = NOTEBOOK.equalsIgnoreCase(toolClass) || allClasses ? notebookDAO.countAllPublished(descriptorLanguage, registry, organization, name, toolname, description, author, checker) : 0;
+            numTools = COMMAND_LINE_TOOL.equalsIgnoreCase(toolClass) || allClasses ? countAllPublished(toolDAO, descriptorLanguage, registry, organization, name, toolname, description, author, checker) : 0;
+            numWorkflows = WORKFLOW.equalsIgnoreCase(toolClass) || allClasses ? countAllPublished(bioWorkflowDAO, descriptorLanguage, registry, organization, name, toolname, description, author, checker) : 0;
+            numAppTools = COMMAND_LINE_TOOL.equalsIgnoreCase(toolClass) || allClasses ? countAllPublished(appToolDAO, descriptorLanguage, registry, organization, name, toolname, description, author, checker) : 0;
+            numServices = SERVICE.equalsIgnoreCase(toolClass) || allClasses ? countAllPublished(serviceDAO, descriptorLanguage, registry, organization, name, toolname, description, author, checker) : 0;
+            numNotebooks = NOTEBOOK.equalsIgnoreCase(toolClass) || allClasses ? countAllPublished(notebookDAO, descriptorLanguage, registry, organization, name, toolname, description, author, checker) : 0;
 
             long startIndex = offset;
             long pageRemaining = actualLimit;
@@ -530,6 +571,19 @@ public class ToolsApiServiceImpl extends ToolsApiService implements Authenticate
             EntryTypeDAOAndStats[] typeDAOs = new EntryTypeDAOAndStats[]{new EntryTypeDAOAndStats(COMMAND_LINE_TOOL, toolDAO, numTools),
                 new EntryTypeDAOAndStats(WORKFLOW, bioWorkflowDAO, numWorkflows), new EntryTypeDAOAndStats(COMMAND_LINE_TOOL, appToolDAO, numAppTools), new EntryTypeDAOAndStats(SERVICE, serviceDAO, numServices), new EntryTypeDAOAndStats(NOTEBOOK, notebookDAO, numNotebooks)};
 
+            if (cursor != null) {
+                // seek past the last entry of the previous page, then overflow into the start of the following types
+                for (int i = cursor.typeIndex(); i < typeDAOs.length && all.size() < actualLimit; i++) {
+                    final EntryTypeDAOAndStats typeDAO = typeDAOs[i];
+                    if (isCorrectToolClass(toolClass, typeDAO.trsClassName())) {
+                        final long afterId = i == cursor.typeIndex() ? cursor.afterId() : 0;
+                        all.addAll(typeDAO.dao()
+                            .filterTrsToolsGetAfter(descriptorLanguage, registry, organization, name, toolname, description, author, checker, afterId, actualLimit - all.size()));
+                    }
+                }
+                return new NumberOfEntityTypes(numTools, numWorkflows, numAppTools, numServices, numNotebooks);
+            }
+
             for (EntryTypeDAOAndStats typeDAO : typeDAOs) {
                 if (!all.isEmpty()) {
                     // if we got any tools, overflow into the very start of the next type of stuff
@@ -553,6 +607,13 @@ public class ToolsApiServiceImpl extends ToolsApiService implements Authenticate
         return new NumberOfEntityTypes(numTools, numWorkflows, numAppTools, numServices, numNotebooks);
     }
 
+    @SuppressWarnings("checkstyle:ParameterNumber")
+    private static long countAllPublished(EntryDAO<?> dao, DescriptorLanguage descriptorLanguage, String registry, String organization, String name, String toolname,
+        String description, String author, Boolean checker) {
+        final CountKey key = new CountKey(dao.getClass(), descriptorLanguage, registry, organization, name, toolname, description, author, checker);
+        return PUBLISHED_COUNTS.get(key, k -> dao.countAllPublished(descriptorLanguage, registry, organization, name, toolname, description, author, checker));
+    }
+
     private boolean isCorrectToolClass(String toolClass, String daoToolClass) {
         return toolClass == null || daoToolClass.equalsIgnoreCase(toolClass);
     }
@@ -1153,4 +1214,51 @@ public class ToolsApiServiceImpl extends ToolsApiService implements Authenticate
     private record EntryTypeDAOAndStats(String trsClassName, EntryDAO<? extends Entry<?, ?>> dao, Long numEntries) {
 
     }
+
+    @SuppressWarnings("checkstyle:ParameterNumber")
+    private record CountKey(Class<?> daoClass, DescriptorLanguage descriptorLanguage, String registry, String organization, String name, String toolname,
+                            String description, String author, Boolean checker) {
+    }
+
+    /**
+     * A position in the list of tools, used for cursor-based pagination.
+     * Entries are paged through by type, in the order of #PAGED_ENTRY_CLASSES, and then by id.
+     * @param typeIndex index of the entry type of the last entry returned
+     * @param afterId id of the last entry returned
+     */
+    record TrsCursor(int typeIndex, long afterId) {
+
+        private static final String SEPARATOR = "-";
+
+        TrsCursor {
+            if (typeIndex < 0 || typeIndex >= PAGED_ENTRY_CLASSES.size() || afterId < 0) {
+                throw new IllegalArgumentException("Invalid cursor position");
+            }
+        }
+
+        /**
+         * Decodes an offset that starts with #CURSOR_OFFSET. The offset without a position starts at the first entry.
+         * @throws IllegalArgumentException if the offset is not a valid cursor
+         */
+        static TrsCursor decode(String offset) {
+            if (CURSOR_OFFSET.equals(offset)) {
+                return new TrsCursor(0, 0);
+            }
+            if (!offset.startsWith(CURSOR_OFFSET + SEPARATOR)) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            final String position = new String(Base64.getUrlDecoder().decode(offset.substring(CURSOR_OFFSET.length() + SEPARATOR.length())), StandardCharsets.UTF_8);
+            final List<String> parts = Splitter.on(':').splitToList(position);
+            if (parts.size() != 2) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            // NumberFormatException is an IllegalArgumentException
+            return new TrsCursor(Integer.parseInt(parts.get(0)), Long.parseLong(parts.get(1)));
+        }
+
+        String encode() {
+            final String position = typeIndex + ":" + afterId;
+            return CURSOR_OFFSET + SEPARATOR + Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+        }
+    }
 }
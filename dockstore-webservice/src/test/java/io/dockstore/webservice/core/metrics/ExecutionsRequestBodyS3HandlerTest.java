@@ -0,0 +1,108 @@
+/*
+ * Copyright 2025 OICR and UCSC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.dockstore.webservice.core.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.gson.Gson;
+import io.dockstore.common.Partner;
+import io.dockstore.common.metrics.ExecutionStatus;
+import io.dockstore.common.metrics.ExecutionsRequestBody;
+import io.dockstore.common.metrics.MetricsData;
+import io.dockstore.common.metrics.MetricsDataS3Client;
+import io.dockstore.common.metrics.RunExecution;
+import io.dockstore.webservice.core.metrics.ExecutionsRequestBodyS3Handler.ExecutionsFromS3;
+import io.dockstore.webservice.jdbi.ExecutionFileDAO;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ExecutionsRequestBodyS3HandlerTest {
+
+    private static final String TRS_ID = "#workflow/github.com/foo/bar";
+    private static final String VERSION_ID = "main";
+    private static final Partner PLATFORM = Partner.TERRA;
+
+    private MetricsDataS3Client metricsDataS3Client;
+    private ExecutionFileDAO executionFileDAO;
+    private ExecutionsRequestBodyS3Handler handler;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        metricsDataS3Client = mock(MetricsDataS3Client.class);
+        executionFileDAO = mock(ExecutionFileDAO.class);
+        handler = new ExecutionsRequestBodyS3Handler(TRS_ID, VERSION_ID, PLATFORM, metricsDataS3Client, executionFileDAO);
+        when(metricsDataS3Client.getMetricsDataFileContent(TRS_ID, VERSION_ID, PLATFORM.name(), "indexed.json")).thenReturn(createFileContent("indexed"));
+        when(metricsDataS3Client.getMetricsDataFileContent(TRS_ID, VERSION_ID, PLATFORM.name(), "unindexed.json")).thenReturn(createFileContent("unindexed"));
+    }
+
+    @Test
+    void testIndexedExecution() throws IOException {
+        when(executionFileDAO.findFileNames(eq(TRS_ID), eq(VERSION_ID), eq(PLATFORM), anyCollection())).thenReturn(Map.of("indexed", "indexed.json"));
+
+        Optional<ExecutionsFromS3> executionsFromS3 = handler.searchS3ForExecutionId("indexed", true);
+        assertTrue(executionsFromS3.isPresent());
+        assertEquals("indexed.json", executionsFromS3.get().fileName());
+        // the file is retrieved without listing the metrics directory
+        verify(metricsDataS3Client, never()).getMetricsData(any(), any(), any());
+        verify(metricsDataS3Client, times(1)).getMetricsDataFileContent(any(), any(), any(), any());
+    }
+
+    @Test
+    void testUnindexedExecution() throws IOException {
+        when(executionFileDAO.findFileNames(eq(TRS_ID), eq(VERSION_ID), eq(PLATFORM), anyCollection())).thenReturn(Map.of());
+        when(executionFileDAO.findIndexedFileNames(TRS_ID, VERSION_ID, PLATFORM)).thenReturn(Set.of("indexed.json"));
+        when(metricsDataS3Client.getMetricsData(TRS_ID, VERSION_ID, PLATFORM)).thenReturn(List.of(createMetricsData("indexed.json"), createMetricsData("unindexed.json")));
+
+        Optional<ExecutionsFromS3> executionsFromS3 = handler.searchS3ForExecutionId("unindexed", false);
+        assertTrue(executionsFromS3.isPresent());
+        assertEquals("unindexed.json", executionsFromS3.get().fileName());
+        // only the file that is not indexed is searched, and its executions are added to the index
+        verify(metricsDataS3Client, never()).getMetricsDataFileContent(TRS_ID, VERSION_ID, PLATFORM.name(), "indexed.json");
+        verify(executionFileDAO).index(TRS_ID, VERSION_ID, PLATFORM, "unindexed.json", List.of("unindexed"));
+
+        // the files are not searched again for an execution that does not exist
+        assertTrue(handler.searchS3ForExecutionId("missing", false).isEmpty());
+        verify(metricsDataS3Client, times(1)).getMetricsData(TRS_ID, VERSION_ID, PLATFORM);
+    }
+
+    private static String createFileContent(String executionId) {
+        RunExecution execution = new RunExecution(ExecutionStatus.SUCCESSFUL);
+        execution.setExecutionId(executionId);
+        ExecutionsRequestBody executionsRequestBody = new ExecutionsRequestBody();
+        executionsRequestBody.setRunExecutions(List.of(execution));
+        return new Gson().toJson(executionsRequestBody);
+    }
+
+    private static MetricsData createMetricsData(String fileName) {
+        return new MetricsData(TRS_ID, VERSION_ID, PLATFORM.name(), fileName, fileName);
+    }
+}
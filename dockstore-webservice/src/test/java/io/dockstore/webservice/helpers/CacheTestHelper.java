@@ -0,0 +1,97 @@
+/*
+ * Copyright 2025 OICR and UCSC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *           http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.dockstore.webservice.helpers;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Helpers for the tests of the caches in front of remote services, which check how many times the remote service is called.
+ */
+public final class CacheTestHelper {
+
+    private static final int THREADS = 4;
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private CacheTestHelper() {
+    }
+
+    /**
+     * @return a loader that counts its calls
+     */
+    public static <K, V> Function<K, V> counted(AtomicInteger calls, Function<K, V> load) {
+        return key -> {
+            calls.incrementAndGet();
+            return load.apply(key);
+        };
+    }
+
+    /**
+     * Holds up a load until the cache has been called from several threads at once, for the tests that check that concurrent misses
+     * for the same key are loaded once.
+     */
+    public static final class BlockedLoad {
+        private final CountDownLatch loading = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        /**
+         * Called by the loader, to wait until it is released.
+         */
+        public void await() {
+            loading.countDown();
+            try {
+                release.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Call the cache from several threads at once, release the load once it has started, and wait for every call.
+         * @return what each call returned
+         */
+        public <T> List<T> callConcurrently(Callable<T> call) throws Exception {
+            final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            try {
+                final List<Future<T>> futures = new ArrayList<>();
+                for (int i = 0; i < THREADS; i++) {
+                    futures.add(executor.submit(call));
+                }
+                assertTrue(loading.await(TIMEOUT_SECONDS, TimeUnit.SECONDS), "the load should have started");
+                release.countDown();
+                final List<T> results = new ArrayList<>();
+                for (Future<T> future : futures) {
+                    results.add(future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+                }
+                return results;
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+}
@@ -23,6 +23,7 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.UUID;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -48,6 +49,26 @@ public class CachingFileTreeTest {
         }
     }
 
+    @Test
+    void testSharedCache() {
+        SyntheticFileTree syntheticFileTree = new SyntheticFileTree();
+        syntheticFileTree.addFile(path("/a/1.txt"), "one");
+        syntheticFileTree.addFile(path("/b/1.txt"), new StringBuilder("one").toString());
+        // the underlying file tree may only be read once, by any of the caching file trees
+        FileTree immutableFileTree = new RepeatedCallDetectorFileTree(syntheticFileTree, "dockstore/test@" + UUID.randomUUID());
+        for (int i = 0; i < 3; i++) {
+            FileTree cachedFileTree = new CachingFileTree(immutableFileTree);
+            for (Path filePath: paths("/a/1.txt", "/b/1.txt", "/missing.txt")) {
+                Assertions.assertEquals(syntheticFileTree.readFile(filePath), cachedFileTree.readFile(filePath));
+            }
+            for (Path dirPath: paths("/", "/a")) {
+                Assertions.assertEquals(syntheticFileTree.listFiles(dirPath), cachedFileTree.listFiles(dirPath));
+            }
+            // identical content is deduplicated
+            Assertions.assertSame(cachedFileTree.readFile(path("/a/1.txt")), cachedFileTree.readFile(path("/b/1.txt")));
+        }
+    }
+
     private Path path(String stringPath) {
         return Paths.get(stringPath);
     }
@@ -60,10 +81,20 @@ public class CachingFileTreeTest {
         private final FileTree fileTree;
         private final Set<Path> readFileArgs = new HashSet<>();
         private final Set<Path> listFilesArgs = new HashSet<>();
+        private final String contentId;
         private boolean listedPaths = false;
 
         RepeatedCallDetectorFileTree(FileTree fileTree) {
+            this(fileTree, null);
+        }
+
+        RepeatedCallDetectorFileTree(FileTree fileTree, String contentId) {
             this.fileTree = fileTree;
+            this.contentId = contentId;
+        }
+
+        public String getContentId() {
+            return contentId;
         }
 
         public String readFile(Path filePath) {
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2025 OICR and UCSC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.dockstore.webservice.helpers;
+
+import static io.dockstore.webservice.helpers.CacheTestHelper.counted;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DockerRegistryAPIHelperTest {
+
+    private static final DockerRegistryAPIHelper.TokenKey GHCR_KEY = new DockerRegistryAPIHelper.TokenKey("ghcr.io", "org/tool", "pull");
+    private static final DockerRegistryAPIHelper.TokenKey ECR_KEY = new DockerRegistryAPIHelper.TokenKey("public.ecr.aws", "org/tool", "pull");
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    @BeforeEach
+    public void setup() {
+        DockerRegistryAPIHelper.configure(DockerRegistryAPIHelper.DEFAULT_TOKEN_CACHE_MAXIMUM_SIZE);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        setup();
+    }
+
+    @Test
+    void testTokensAreCachedPerRepository() {
+        final Function<DockerRegistryAPIHelper.TokenKey, Optional<DockerRegistryAPIHelper.DockerToken>> requester = token(Duration.ofMinutes(5));
+        assertEquals("ghcr.io/org/tool", DockerRegistryAPIHelper.getDockerToken(GHCR_KEY, requester).orElseThrow());
+        assertEquals("ghcr.io/org/tool", DockerRegistryAPIHelper.getDockerToken(GHCR_KEY, requester).orElseThrow());
+        assertEquals("public.ecr.aws/org/tool", DockerRegistryAPIHelper.getDockerToken(ECR_KEY, requester).orElseThrow());
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    void testFailedRequestsAreNotCached() {
+        final Function<DockerRegistryAPIHelper.TokenKey, Optional<DockerRegistryAPIHelper.DockerToken>> requester = counted(requests, key -> Optional.empty());
+        assertTrue(DockerRegistryAPIHelper.getDockerToken(GHCR_KEY, requester).isEmpty());
+        assertTrue(DockerRegistryAPIHelper.getDockerToken(GHCR_KEY, requester).isEmpty());
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    void testExpiredTokensAreRequestedAgain() {
+        final Function<DockerRegistryAPIHelper.TokenKey, Optional<DockerRegistryAPIHelper.DockerToken>> requester = token(Duration.ZERO);
+        assertTrue(DockerRegistryAPIHelper.getDockerToken(GHCR_KEY, requester).isPresent());
+        assertTrue(DockerRegistryAPIHelper.getDockerToken(GHCR_KEY, requester).isPresent());
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    void testConcurrentRequestsAreMadeOnce() throws Exception {
+        final CacheTestHelper.BlockedLoad load = new CacheTestHelper.BlockedLoad();
+        final Function<DockerRegistryAPIHelper.TokenKey, Optional<DockerRegistryAPIHelper.DockerToken>> requester = key -> {
+            load.await();
+            return token(Duration.ofMinutes(5)).apply(key);
+        };
+        for (Optional<String> result : load.callConcurrently(() -> DockerRegistryAPIHelper.getDockerToken(GHCR_KEY, requester))) {
+            assertEquals("ghcr.io/org/tool", result.orElseThrow());
+        }
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void testScope() {
+        assertEquals("repository:org/tool:pull", GHCR_KEY.scope());
+    }
+
+    private Function<DockerRegistryAPIHelper.TokenKey, Optional<DockerRegistryAPIHelper.DockerToken>> token(Duration expiresIn) {
+        return counted(requests, key -> Optional.of(new DockerRegistryAPIHelper.DockerToken(key.registryDockerPath() + "/" + key.repo(), expiresIn)));
+    }
+}
@@ -0,0 +1,312 @@
+/*
+ * Copyright 2025 OICR and UCSC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.dockstore.webservice.helpers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.codahale.metrics.MetricRegistry;
+import io.dockstore.webservice.core.QueuedWebhook;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class GitHubWebhookQueueTest {
+
+    private static final String MAIN = "refs/heads/main";
+    private static final String DEVELOP = "refs/heads/develop";
+
+    private final FakeHandler handler = new FakeHandler();
+    private final MetricRegistry registry = new MetricRegistry();
+    private GitHubWebhookQueue queue;
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        if (queue != null) {
+            queue.stop();
+        }
+    }
+
+    @Test
+    void testCoalescing() throws Exception {
+        startQueue(0);
+        final CountDownLatch blocker = handler.block(1);
+        queue.submit(webhook(1, QueuedWebhook.Type.PUSH, "org/repo", MAIN, "alice"));
+        handler.awaitStarted(1);
+        queue.submit(webhook(2, QueuedWebhook.Type.PUSH, "org/repo", MAIN, "bob"));
+        queue.submit(webhook(3, QueuedWebhook.Type.PUSH, "org/repo", DEVELOP, "alice"));
+        queue.submit(webhook(4, QueuedWebhook.Type.PUSH, "org/repo", MAIN, "carol"));
+        assertEquals(2, queue.getQueueDepth());
+        blocker.countDown();
+
+        handler.awaitDiscarded(4);
+        assertEquals(List.of(1L, 4L, 3L), handler.processed);
+        assertEquals(List.of(2L), handler.superseded.get(4L));
+        assertEquals(Set.of("bob"), handler.otherUsers.get(4L));
+        assertEquals(1, counter("coalesced"));
+        assertEquals(0, queue.getQueueDepth());
+    }
+
+    @Test
+    void testDeleteIsNotCoalescedAcross() throws Exception {
+        startQueue(0);
+        final CountDownLatch blocker = handler.block(1);
+        queue.submit(webhook(1, QueuedWebhook.Type.PUSH, "org/repo", MAIN, "alice"));
+        handler.awaitStarted(1);
+        queue.submit(webhook(2, QueuedWebhook.Type.PUSH, "org/repo", MAIN, "alice"));
+        queue.submit(webhook(3, QueuedWebhook.Type.DELETE, "org/repo", MAIN, "alice"));
+        queue.submit(webhook(4, QueuedWebhook.Type.PUSH, "org/repo", MAIN, "alice"));
+        blocker.countDown();
+
+        handler.awaitDiscarded(4);
+        assertEquals(List.of(1L, 2L, 3L, 4L), handler.processed);
+        assertEquals(0, counter("coalesced"));
+    }
+
+    @Test
+    void testRepositoriesAreProcessedInParallel() throws Exception {
+        startQueue(0);
+        final CountDownLatch blocker = handler.block(1);
+        queue.submit(webhook(1, QueuedWebhook.Type.PUSH, "org/slow", MAIN, "alice"));
+        handler.awaitStarted(1);
+        queue.submit(webhook(2, QueuedWebhook.Type.PUSH, "org/fast", MAIN, "alice"));
+        handler.awaitDiscarded(1);
+        assertEquals(List.of(1L, 2L), handler.processed);
+        blocker.countDown();
+        handler.awaitDiscarded(1);
+        assertEquals(1, handler.maxConcurrentPerRepository.get());
+    }
+
+    @Test
+    void testRetry() throws Exception {
+        startQueue(1);
+        handler.outcomes.put(1L, new ArrayList<>(List.of(GitHubWebhookQueue.Outcome.RETRY, GitHubWebhookQueue.Outcome.PROCESSED)));
+        handler.outcomes.put(2L, new ArrayList<>(List.of(GitHubWebhookQueue.Outcome.RETRY, GitHubWebhookQueue.Outcome.RETRY)));
+        queue.submit(webhook(1, QueuedWebhook.Type.PUSH, "org/repo", MAIN, "alice"));
+        queue.submit(webhook(2, QueuedWebhook.Type.PUSH, "org/other", MAIN, "alice"));
+
+        handler.awaitDiscarded(2);
+        assertEquals(2, Collections.frequency(handler.processed, 1L));
+        assertEquals(2, Collections.frequency(handler.processed, 2L));
+        assertEquals(2, counter("retried"));
+        // the second webhook ran out of retries
+        assertEquals(1, counter("failed"));
+    }
+
+    @Test
+    void testRetryHoldsUpTheRepository() throws Exception {
+        startQueue(1);
+        handler.outcomes.put(1L, new ArrayList<>(List.of(GitHubWebhookQueue.Outcome.RETRY, GitHubWebhookQueue.Outcome.PROCESSED)));
+        final CountDownLatch blocker = handler.block(1);
+        queue.submit(webhook(1, QueuedWebhook.Type.DELETE, "org/repo", MAIN, "alice"));
+        handler.awaitStarted(1);
+        queue.submit(webhook(2, QueuedWebhook.Type.PUSH, "org/repo", MAIN, "alice"));
+        blocker.countDown();
+
+        // the later push is not processed until the retried delete is, or the delete would undo it
+        handler.awaitDiscarded(2);
+        assertEquals(List.of(1L, 1L, 2L), handler.processed);
+        assertEquals(1, counter("retried"));
+        assertEquals(0, queue.getQueueDepth());
+    }
+
+    @Test
+    void testBusyRepositoryWaitsWithoutUsingRetries() throws Exception {
+        startQueue(0);
+        handler.outcomes.put(1L, new ArrayList<>(List.of(GitHubWebhookQueue.Outcome.BUSY, GitHubWebhookQueue.Outcome.BUSY, GitHubWebhookQueue.Outcome.PROCESSED)));
+        final CountDownLatch blocker = handler.block(1);
+        queue.submit(webhook(1, QueuedWebhook.Type.DELETE, "org/repo", MAIN, "alice"));
+        handler.awaitStarted(1);
+        queue.submit(webhook(2, QueuedWebhook.Type.PUSH, "org/repo", MAIN, "alice"));
+        blocker.countDown();
+
+        // the webhook waits for the other webservice at the head of the queue, and is processed once the repository is free
+        handler.awaitDiscarded(2);
+        assertEquals(List.of(1L, 1L, 1L, 2L), handler.processed);
+        assertEquals(0, counter("retried"));
+        assertEquals(0, counter("failed"));
+    }
+
+    @Test
+    void testOlderWebhooksAreQueuedInTheOrderTheyWereReceived() throws Exception {
+        startQueue(0);
+        final CountDownLatch blocker = handler.block(1);
+        queue.submit(webhook(1, QueuedWebhook.Type.PUSH, "org/repo", DEVELOP, "alice"));
+        handler.awaitStarted(1);
+        queue.submit(webhook(5, QueuedWebhook.Type.PUSH, "org/repo", MAIN, "alice"));
+        queue.submit(webhook(4, QueuedWebhook.Type.DELETE, "org/repo", MAIN, "alice"));
+        // claimed from a webservice that stopped, after the later webhooks were queued
+        queue.submit(webhook(3, QueuedWebhook.Type.PUSH, "org/repo", MAIN, "bob"));
+        queue.submit(webhook(2, QueuedWebhook.Type.PUSH, "org/repo", MAIN, "carol"));
+        blocker.countDown();
+
+        // the earlier pushes are coalesced with each other, but not across the delete
+        handler.awaitDiscarded(4);
+        assertEquals(List.of(1L, 3L, 4L, 5L), handler.processed);
+        assertEquals(List.of(2L), handler.superseded.get(3L));
+        assertEquals(1, counter("coalesced"));
+    }
+
+    @Test
+    void testPersistedWebhooksAreClaimedOnStart() throws Exception {
+        handler.persisted.add(webhook(1, QueuedWebhook.Type.PUSH, "org/repo", MAIN, "alice"));
+        handler.persisted.add(webhook(2, QueuedWebhook.Type.DELETE, "org/repo", DEVELOP, "alice"));
+        startQueue(0);
+        handler.awaitDiscarded(2);
+        assertEquals(List.of(1L, 2L), handler.processed);
+        assertEquals(List.of(queue.getOwner()), handler.claimOwners.subList(0, 1));
+    }
+
+    @Test
+    void testLeases() throws Exception {
+        startQueue(0);
+        final QueuedWebhook leased = webhook(1, QueuedWebhook.Type.PUSH, "org/repo", MAIN, "alice");
+        queue.lease(leased);
+        assertEquals(queue.getOwner(), leased.getLeaseOwner());
+        assertTrue(leased.getLeaseExpiry().after(new Timestamp(System.currentTimeMillis())));
+
+        // the leases are renewed, and webhooks whose lease has expired are claimed, while the queue runs
+        assertTrue(handler.renewed.tryAcquire(10, TimeUnit.SECONDS));
+        handler.persisted.add(webhook(2, QueuedWebhook.Type.PUSH, "org/abandoned", MAIN, "alice"));
+        handler.awaitDiscarded(1);
+        assertEquals(List.of(2L), handler.processed);
+
+        queue.stop();
+        assertEquals(List.of(queue.getOwner()), handler.released);
+        queue = null;
+    }
+
+    @Test
+    void testCoalesceKeepsTheLaterWebhook() {
+        final QueuedWebhook earlier = webhook(1, QueuedWebhook.Type.PUSH, "org/repo", MAIN, "alice");
+        earlier.setOtherUsers(Set.of("dave"));
+        final QueuedWebhook later = webhook(2, QueuedWebhook.Type.PUSH, "org/repo", MAIN, "bob");
+        final GitHubWebhookQueue.Item item = GitHubWebhookQueue.coalesce(new GitHubWebhookQueue.Item(later, List.of(), 0, 2),
+            new GitHubWebhookQueue.Item(earlier, List.of(), 0, 1));
+        assertEquals(2, item.webhook().getId());
+        assertEquals(List.of(earlier), item.superseded());
+        assertEquals("bob", item.webhook().getSender());
+        assertEquals(Set.of("alice", "dave"), item.webhook().getOtherUsers());
+        assertEquals(1, item.queuedNanos());
+    }
+
+    private void startQueue(int maxRetries) throws Exception {
+        queue = new GitHubWebhookQueue(handler, 2, maxRetries, Duration.ofMillis(10), Duration.ofMillis(10), Duration.ofMillis(300));
+        queue.registerMetrics(registry);
+        queue.start();
+    }
+
+    private long counter(String name) {
+        return registry.counter(MetricRegistry.name(GitHubWebhookQueue.class, name)).getCount();
+    }
+
+    private static QueuedWebhook webhook(long id, QueuedWebhook.Type type, String repository, String gitReference, String sender) {
+        final QueuedWebhook webhook = new QueuedWebhook(type, repository, gitReference, 1L, "delivery-" + id, null, sender, Set.of());
+        webhook.setId(id);
+        return webhook;
+    }
+
+    private static final class FakeHandler implements GitHubWebhookQueue.Handler {
+        private final List<QueuedWebhook> persisted = Collections.synchronizedList(new ArrayList<>());
+        private final List<String> claimOwners = Collections.synchronizedList(new ArrayList<>());
+        private final List<String> released = Collections.synchronizedList(new ArrayList<>());
+        private final Semaphore renewed = new Semaphore(0);
+        private final List<Long> processed = Collections.synchronizedList(new ArrayList<>());
+        private final Map<Long, List<Long>> superseded = new ConcurrentHashMap<>();
+        private final Map<Long, Set<String>> otherUsers = new ConcurrentHashMap<>();
+        private final Map<Long, List<GitHubWebhookQueue.Outcome>> outcomes = new ConcurrentHashMap<>();
+        private final Map<Long, CountDownLatch> blockers = new ConcurrentHashMap<>();
+        private final Map<String, AtomicInteger> running = new ConcurrentHashMap<>();
+        private final AtomicInteger maxConcurrentPerRepository = new AtomicInteger();
+        private final Semaphore started = new Semaphore(0);
+        private final Semaphore discarded = new Semaphore(0);
+
+        CountDownLatch block(long id) {
+            final CountDownLatch blocker = new CountDownLatch(1);
+            blockers.put(id, blocker);
+            return blocker;
+        }
+
+        void awaitStarted(int count) throws InterruptedException {
+            assertTrue(started.tryAcquire(count, 10, TimeUnit.SECONDS));
+        }
+
+        void awaitDiscarded(int count) throws InterruptedException {
+            assertTrue(discarded.tryAcquire(count, 10, TimeUnit.SECONDS));
+        }
+
+        @Override
+        public List<QueuedWebhook> claim(String owner, Timestamp leaseExpiry) {
+            claimOwners.add(owner);
+            synchronized (persisted) {
+                final List<QueuedWebhook> claimed = new ArrayList<>(persisted);
+                persisted.clear();
+                return claimed;
+            }
+        }
+
+        @Override
+        public void renew(String owner, Timestamp leaseExpiry) {
+            renewed.release();
+        }
+
+        @Override
+        public void release(String owner) {
+            released.add(owner);
+        }
+
+        @Override
+        public GitHubWebhookQueue.Outcome process(QueuedWebhook webhook, List<QueuedWebhook> supersededWebhooks) {
+            final AtomicInteger concurrent = running.computeIfAbsent(webhook.getRepository(), repository -> new AtomicInteger());
+            maxConcurrentPerRepository.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            try {
+                processed.add(webhook.getId());
+                superseded.put(webhook.getId(), supersededWebhooks.stream().map(QueuedWebhook::getId).toList());
+                otherUsers.put(webhook.getId(), webhook.getOtherUsers());
+                started.release();
+                final CountDownLatch blocker = blockers.get(webhook.getId());
+                if (blocker != null) {
+                    blocker.await(10, TimeUnit.SECONDS);
+                }
+                final List<GitHubWebhookQueue.Outcome> remaining = outcomes.get(webhook.getId());
+                return remaining == null || remaining.isEmpty() ? GitHubWebhookQueue.Outcome.PROCESSED : remaining.remove(0);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return GitHubWebhookQueue.Outcome.FAILED;
+            } finally {
+                concurrent.decrementAndGet();
+            }
+        }
+
+        @Override
+        public void discard(QueuedWebhook webhook, List<QueuedWebhook> supersededWebhooks) {
+            discarded.release();
+        }
+    }
+}
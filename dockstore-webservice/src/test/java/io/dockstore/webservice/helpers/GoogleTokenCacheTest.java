@@ -0,0 +1,94 @@
+/*
+ * Copyright 2025 OICR and UCSC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.dockstore.webservice.helpers;
+
+import static io.dockstore.webservice.helpers.CacheTestHelper.counted;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.api.services.oauth2.model.Userinfoplus;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class GoogleTokenCacheTest {
+
+    private static final String EMAIL = "jdoe@example.com";
+
+    private final AtomicInteger verifications = new AtomicInteger();
+
+    @BeforeEach
+    public void setup() {
+        GoogleTokenCache.configure(GoogleTokenCache.DEFAULT_MAXIMUM_SIZE, GoogleTokenCache.DEFAULT_MAXIMUM_EXPIRY, GoogleTokenCache.DEFAULT_NEGATIVE_EXPIRY);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        setup();
+    }
+
+    @Test
+    void testValidTokenIsCached() {
+        final Function<String, Optional<GoogleHelper.VerifiedToken>> verifier = valid(Duration.ofHours(1));
+        assertEquals(EMAIL, GoogleTokenCache.userinfoplusFromToken("valid", verifier).orElseThrow().getEmail());
+        assertEquals(EMAIL, GoogleTokenCache.userinfoplusFromToken("valid", verifier).orElseThrow().getEmail());
+        assertEquals(1, verifications.get());
+    }
+
+    @Test
+    void testInvalidTokenIsCached() {
+        final Function<String, Optional<GoogleHelper.VerifiedToken>> verifier = counted(verifications, token -> Optional.empty());
+        assertTrue(GoogleTokenCache.userinfoplusFromToken("invalid", verifier).isEmpty());
+        assertTrue(GoogleTokenCache.userinfoplusFromToken("invalid", verifier).isEmpty());
+        assertEquals(1, verifications.get());
+
+        GoogleTokenCache.configure(GoogleTokenCache.DEFAULT_MAXIMUM_SIZE, GoogleTokenCache.DEFAULT_MAXIMUM_EXPIRY, Duration.ZERO);
+        assertTrue(GoogleTokenCache.userinfoplusFromToken("invalid", verifier).isEmpty());
+        assertTrue(GoogleTokenCache.userinfoplusFromToken("invalid", verifier).isEmpty());
+        assertEquals(3, verifications.get());
+    }
+
+    @Test
+    void testExpiredTokenIsNotCached() {
+        final Function<String, Optional<GoogleHelper.VerifiedToken>> verifier = valid(Duration.ZERO);
+        assertTrue(GoogleTokenCache.userinfoplusFromToken("expiring", verifier).isPresent());
+        assertTrue(GoogleTokenCache.userinfoplusFromToken("expiring", verifier).isPresent());
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    void testConcurrentVerificationsAreMadeOnce() throws Exception {
+        final CacheTestHelper.BlockedLoad load = new CacheTestHelper.BlockedLoad();
+        final Function<String, Optional<GoogleHelper.VerifiedToken>> verifier = token -> {
+            load.await();
+            return valid(Duration.ofHours(1)).apply(token);
+        };
+        for (Optional<Userinfoplus> result : load.callConcurrently(() -> GoogleTokenCache.userinfoplusFromToken("concurrent", verifier))) {
+            assertEquals(EMAIL, result.orElseThrow().getEmail());
+        }
+        assertEquals(1, verifications.get());
+    }
+
+    private Function<String, Optional<GoogleHelper.VerifiedToken>> valid(Duration expiresIn) {
+        return counted(verifications, token -> Optional.of(new GoogleHelper.VerifiedToken(new Userinfoplus().setEmail(EMAIL), expiresIn)));
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2025 OICR and UCSC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.dockstore.webservice.helpers;
+
+import static io.dockstore.webservice.languages.WDLHandler.ERROR_PARSING_WORKFLOW_YOU_MAY_HAVE_A_RECURSIVE_IMPORT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.sun.net.httpserver.HttpServer;
+import io.dockstore.webservice.CustomWebApplicationException;
+import io.dockstore.webservice.languages.WDLHandler;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.http.HttpStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class HttpImportCacheTest {
+
+    private static final String TASK = "version 1.0\ntask hello {\n  command {\n    echo hello\n  }\n}\n";
+
+    private final Map<String, String> files = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+    private HttpServer server;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            final String path = exchange.getRequestURI().getPath();
+            requests.computeIfAbsent(path, p -> new AtomicInteger()).incrementAndGet();
+            final String content = files.get(path);
+            if (content == null) {
+                exchange.sendResponseHeaders(HttpStatus.SC_NOT_FOUND, -1);
+            } else {
+                final byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(HttpStatus.SC_OK, bytes.length);
+                try (OutputStream body = exchange.getResponseBody()) {
+                    body.write(bytes);
+                }
+            }
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+        HttpImportCache.configure(HttpImportCache.DEFAULT_MAXIMUM_WEIGHT, HttpImportCache.DEFAULT_EXPIRY, null);
+    }
+
+    @Test
+    void testCaching() throws IOException {
+        files.put("/task.wdl", TASK);
+        final HttpImportCache cache = new HttpImportCache(HttpImportCache.DEFAULT_MAXIMUM_WEIGHT, HttpImportCache.DEFAULT_EXPIRY, null);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(TASK, cache.get(url("/task.wdl")));
+        }
+        assertEquals(1, requests.get("/task.wdl").get());
+    }
+
+    @Test
+    void testFailuresAreNotCached() {
+        final HttpImportCache cache = new HttpImportCache(HttpImportCache.DEFAULT_MAXIMUM_WEIGHT, HttpImportCache.DEFAULT_EXPIRY, null);
+        assertThrows(FileNotFoundException.class, () -> cache.get(url("/missing.wdl")));
+        assertThrows(FileNotFoundException.class, () -> cache.get(url("/missing.wdl")));
+        assertEquals(2, requests.get("/missing.wdl").get());
+    }
+
+    @Test
+    void testDiskCache(@TempDir Path directory) throws IOException {
+        files.put("/task.wdl", TASK);
+        assertEquals(TASK, new HttpImportCache(HttpImportCache.DEFAULT_MAXIMUM_WEIGHT, HttpImportCache.DEFAULT_EXPIRY, directory).get(url("/task.wdl")));
+        // a new cache, as after a restart, reads the content from the directory
+        assertEquals(TASK, new HttpImportCache(HttpImportCache.DEFAULT_MAXIMUM_WEIGHT, HttpImportCache.DEFAULT_EXPIRY, directory).get(url("/task.wdl")));
+        assertEquals(1, requests.get("/task.wdl").get());
+    }
+
+    @Test
+    void testWdlImports() throws IOException {
+        HttpImportCache.configure(HttpImportCache.DEFAULT_MAXIMUM_WEIGHT, HttpImportCache.DEFAULT_EXPIRY, null);
+        files.put("/main.wdl", "version 1.0\nimport \"" + url("/left.wdl") + "\"\nimport \"" + url("/right.wdl") + "\"\n");
+        files.put("/left.wdl", "version 1.0\nimport \"" + url("/task.wdl") + "\"\n");
+        files.put("/right.wdl", "version 1.0\nimport \"" + url("/task.wdl") + "\"\n");
+        files.put("/task.wdl", TASK);
+        final WDLHandler wdlHandler = new WDLHandler();
+        wdlHandler.checkForRecursiveHTTPImports(files.get("/main.wdl"), new HashSet<>());
+        wdlHandler.checkForRecursiveHTTPImports(files.get("/main.wdl"), new HashSet<>());
+        // every import is downloaded once, even though the task is imported twice and the workflow is checked twice
+        files.keySet().stream().filter(path -> !"/main.wdl".equals(path)).forEach(path -> assertEquals(1, requests.get(path).get()));
+
+        files.put("/ping.wdl", "version 1.0\nimport \"" + url("/pong.wdl") + "\"\n");
+        files.put("/pong.wdl", "version 1.0\nimport \"" + url("/ping.wdl") + "\"\n");
+        CustomWebApplicationException exception = assertThrows(CustomWebApplicationException.class,
+            () -> wdlHandler.checkForRecursiveHTTPImports(files.get("/ping.wdl"), new HashSet<>()));
+        assertEquals(ERROR_PARSING_WORKFLOW_YOU_MAY_HAVE_A_RECURSIVE_IMPORT, exception.getMessage());
+    }
+
+    private String url(String path) {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + path;
+    }
+}
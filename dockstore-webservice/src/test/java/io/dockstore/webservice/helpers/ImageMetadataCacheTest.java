@@ -0,0 +1,154 @@
+/*
+ * Copyright 2025 OICR and UCSC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.dockstore.webservice.helpers;
+
+import static io.dockstore.webservice.helpers.CacheTestHelper.counted;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.dockstore.common.Registry;
+import io.dockstore.webservice.core.Checksum;
+import io.dockstore.webservice.core.Image;
+import io.dockstore.webservice.languages.LanguageHandlerInterface.DockerSpecifier;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ImageMetadataCacheTest {
+
+    private static final String DIGEST = "sha256:0123456789abcdef";
+
+    private final AtomicInteger fetches = new AtomicInteger();
+
+    @BeforeEach
+    public void setup() {
+        ImageMetadataCache.configure(ImageMetadataCache.DEFAULT_PARALLELISM_PER_REGISTRY, ImageMetadataCache.DEFAULT_MAXIMUM_SIZE,
+            ImageMetadataCache.DEFAULT_TAG_EXPIRY);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        setup();
+    }
+
+    @Test
+    void testLookupsAreCached() {
+        final ImageMetadataCache.Lookup digest = lookup(Registry.QUAY_IO, "org/tool", DockerSpecifier.DIGEST, DIGEST);
+        final ImageMetadataCache.Lookup tag = lookup(Registry.QUAY_IO, "org/tool", DockerSpecifier.TAG, "1.0");
+        ImageMetadataCache.getImages(digest, this::fetch);
+        ImageMetadataCache.getImages(tag, this::fetch);
+        ImageMetadataCache.getImages(digest, this::fetch);
+        ImageMetadataCache.getImages(tag, this::fetch);
+        assertEquals(2, fetches.get());
+    }
+
+    @Test
+    void testTagLookupsExpire() {
+        ImageMetadataCache.configure(ImageMetadataCache.DEFAULT_PARALLELISM_PER_REGISTRY, ImageMetadataCache.DEFAULT_MAXIMUM_SIZE, Duration.ZERO);
+        final ImageMetadataCache.Lookup digest = lookup(Registry.DOCKER_HUB, "library/python", DockerSpecifier.DIGEST, DIGEST);
+        final ImageMetadataCache.Lookup tag = lookup(Registry.DOCKER_HUB, "library/python", DockerSpecifier.LATEST, "latest");
+        ImageMetadataCache.getImages(digest, this::fetch);
+        ImageMetadataCache.getImages(digest, this::fetch);
+        assertEquals(1, fetches.get());
+        ImageMetadataCache.getImages(tag, this::fetch);
+        ImageMetadataCache.getImages(tag, this::fetch);
+        assertEquals(3, fetches.get());
+    }
+
+    @Test
+    void testEmptyResultsAreNotCached() {
+        final Function<ImageMetadataCache.Lookup, Set<Image>> failing = counted(fetches, lookup -> new HashSet<>());
+        final ImageMetadataCache.Lookup digest = lookup(Registry.QUAY_IO, "org/tool", DockerSpecifier.DIGEST, DIGEST);
+        assertTrue(ImageMetadataCache.getImages(digest, failing).isEmpty());
+        assertTrue(ImageMetadataCache.getImages(digest, failing).isEmpty());
+        assertEquals(2, fetches.get());
+    }
+
+    @Test
+    void testCachedImagesAreCopies() {
+        final ImageMetadataCache.Lookup digest = lookup(Registry.QUAY_IO, "org/tool", DockerSpecifier.DIGEST, DIGEST);
+        final Image first = ImageMetadataCache.getImages(digest, this::fetch).iterator().next();
+        first.setTag("changed");
+        first.getChecksums().get(0).setChecksum("changed");
+        final Image second = ImageMetadataCache.getImages(digest, this::fetch).iterator().next();
+        assertNotSame(first, second);
+        assertEquals(DIGEST, second.getTag());
+        assertEquals(DIGEST, second.getChecksums().get(0).getChecksum());
+        assertEquals("linux", second.getOs());
+        assertEquals(DockerSpecifier.DIGEST, second.getSpecifier());
+    }
+
+    @Test
+    void testConcurrencyIsCappedPerRegistry() {
+        ImageMetadataCache.configure(2, ImageMetadataCache.DEFAULT_MAXIMUM_SIZE, ImageMetadataCache.DEFAULT_TAG_EXPIRY);
+        final Map<Registry, AtomicInteger> running = new ConcurrentHashMap<>();
+        final Map<Registry, AtomicInteger> maxRunning = new ConcurrentHashMap<>();
+        final CountDownLatch overlap = new CountDownLatch(4);
+        final Function<ImageMetadataCache.Lookup, Set<Image>> slow = lookup -> {
+            final AtomicInteger concurrent = running.computeIfAbsent(lookup.registry(), registry -> new AtomicInteger());
+            maxRunning.computeIfAbsent(lookup.registry(), registry -> new AtomicInteger()).accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            try {
+                overlap.countDown();
+                overlap.await(1, TimeUnit.SECONDS);
+                return fetch(lookup);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return new HashSet<>();
+            } finally {
+                concurrent.decrementAndGet();
+            }
+        };
+        final List<ImageMetadataCache.Lookup> lookups = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            lookups.add(lookup(Registry.QUAY_IO, "org/tool" + i, DockerSpecifier.TAG, "1.0"));
+            lookups.add(lookup(Registry.DOCKER_HUB, "org/tool" + i, DockerSpecifier.TAG, "1.0"));
+        }
+        final List<Set<Image>> results = ImageMetadataCache.getImages(lookups, slow);
+        assertEquals(lookups.size(), results.size());
+        for (int i = 0; i < lookups.size(); i++) {
+            assertEquals(lookups.get(i).repository(), results.get(i).iterator().next().getRepository());
+        }
+        assertEquals(2, maxRunning.get(Registry.QUAY_IO).get());
+        assertEquals(2, maxRunning.get(Registry.DOCKER_HUB).get());
+    }
+
+    private Set<Image> fetch(ImageMetadataCache.Lookup lookup) {
+        fetches.incrementAndGet();
+        final Image image = new Image(List.of(new Checksum("sha256", DIGEST)), lookup.repository(), lookup.specifierName(), "id", lookup.registry(),
+            1L, null);
+        image.setOs("linux");
+        image.setSpecifier(lookup.specifier());
+        return new HashSet<>(Set.of(image));
+    }
+
+    private static ImageMetadataCache.Lookup lookup(Registry registry, String repository, DockerSpecifier specifier, String specifierName) {
+        return new ImageMetadataCache.Lookup(registry, repository, specifier, specifierName);
+    }
+}
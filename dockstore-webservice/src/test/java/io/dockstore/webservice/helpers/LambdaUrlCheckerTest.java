@@ -19,9 +19,29 @@ package io.dockstore.webservice.helpers;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
 import io.dockstore.common.MuteForSuccessfulTests;
 import io.dockstore.webservice.helpers.CheckUrlInterface.UrlStatus;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.http.HttpStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import uk.org.webcompere.systemstubs.jupiter.SystemStubsExtension;
@@ -31,6 +51,54 @@ import uk.org.webcompere.systemstubs.jupiter.SystemStubsExtension;
 class LambdaUrlCheckerTest {
 
     private static final LambdaUrlChecker LAMBDA_URL_CHECKER = new LambdaUrlChecker("https://this.url.is.unused.in.these.tests");
+    private static final String OPEN_URL = "https://example.com/open.txt";
+    private static final String CLOSED_URL = "https://example.com/closed.txt";
+    private static final String BROKEN_URL = "https://example.com/broken.txt";
+    private static final Gson GSON = new Gson();
+
+    private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+    private boolean acceptsBatches;
+    private HttpServer server;
+
+    /**
+     * Starts a stand-in for the check url lambda, which reports the urls starting with https://example.com/open as open, fails for
+     * BROKEN_URL, and only accepts batches if acceptsBatches is set.
+     */
+    @BeforeEach
+    public void setup() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            final String method = exchange.getRequestMethod();
+            requests.computeIfAbsent(method, m -> new AtomicInteger()).incrementAndGet();
+            if ("POST".equals(method)) {
+                if (!acceptsBatches) {
+                    exchange.sendResponseHeaders(HttpStatus.SC_METHOD_NOT_ALLOWED, -1);
+                    exchange.close();
+                    return;
+                }
+                final Map<String, List<String>> batch = GSON.fromJson(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8),
+                    new TypeToken<Map<String, List<String>>>() { }.getType());
+                final Map<String, Boolean> results = new HashMap<>();
+                batch.get("urls").stream().filter(url -> !BROKEN_URL.equals(url)).forEach(url -> results.put(url, isOpen(url)));
+                respond(exchange, GSON.toJson(Map.of("message", results)));
+            } else {
+                final String url = URLDecoder.decode(exchange.getRequestURI().getRawQuery().substring("url=".length()), StandardCharsets.UTF_8);
+                if (BROKEN_URL.equals(url)) {
+                    exchange.sendResponseHeaders(HttpStatus.SC_INTERNAL_SERVER_ERROR, -1);
+                    exchange.close();
+                    return;
+                }
+                respond(exchange, GSON.toJson(Map.of("message", isOpen(url))));
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+        LambdaUrlChecker.configure(LambdaUrlChecker.DEFAULT_PARALLELISM, 0, LambdaUrlChecker.DEFAULT_CACHE_MAXIMUM_SIZE, LambdaUrlChecker.DEFAULT_CACHE_EXPIRY);
+    }
 
     /**
      * Tests the LambdaUrlChecker for cases where it does not actually invoke the lambda, due to
@@ -75,4 +143,67 @@ class LambdaUrlCheckerTest {
         assertEquals(url, new LambdaUrlChecker(url + "/").getCheckUrlLambdaUrl());
         assertEquals(url, new LambdaUrlChecker(url).getCheckUrlLambdaUrl());
     }
+
+    @Test
+    void testCaching() {
+        final LambdaUrlChecker checker = new LambdaUrlChecker(lambdaUrl());
+        assertEquals(UrlStatus.ALL_OPEN, checker.checkUrls(Set.of(OPEN_URL)));
+        assertEquals(UrlStatus.NOT_ALL_OPEN, checker.checkUrls(Set.of(OPEN_URL, CLOSED_URL)));
+        assertEquals(2, requests.get("GET").get());
+
+        // results are shared between instances, and failures are not cached
+        final LambdaUrlChecker otherChecker = new LambdaUrlChecker(lambdaUrl());
+        assertEquals(UrlStatus.NOT_ALL_OPEN, otherChecker.checkUrls(Set.of(CLOSED_URL)));
+        assertEquals(UrlStatus.UNKNOWN, otherChecker.checkUrls(Set.of(OPEN_URL, BROKEN_URL)));
+        assertEquals(UrlStatus.UNKNOWN, otherChecker.checkUrls(Set.of(OPEN_URL, BROKEN_URL)));
+        assertEquals(4, requests.get("GET").get());
+
+        // results expire
+        LambdaUrlChecker.configure(LambdaUrlChecker.DEFAULT_PARALLELISM, 0, LambdaUrlChecker.DEFAULT_CACHE_MAXIMUM_SIZE, Duration.ZERO);
+        assertEquals(UrlStatus.ALL_OPEN, checker.checkUrls(Set.of(OPEN_URL)));
+        assertEquals(UrlStatus.ALL_OPEN, checker.checkUrls(Set.of(OPEN_URL)));
+        assertEquals(6, requests.get("GET").get());
+    }
+
+    @Test
+    void testBatches() {
+        acceptsBatches = true;
+        LambdaUrlChecker.configure(LambdaUrlChecker.DEFAULT_PARALLELISM, 2, LambdaUrlChecker.DEFAULT_CACHE_MAXIMUM_SIZE, LambdaUrlChecker.DEFAULT_CACHE_EXPIRY);
+        final LambdaUrlChecker checker = new LambdaUrlChecker(lambdaUrl());
+        final String otherOpenUrl = "https://example.com/open/other.txt";
+        assertEquals(UrlStatus.NOT_ALL_OPEN, checker.checkUrls(Set.of(OPEN_URL, CLOSED_URL, "https://example.com/open/1.txt", "https://example.com/open/2.txt")));
+        assertEquals(2, requests.get("POST").get());
+        assertNull(requests.get("GET"));
+        // a url that is missing from the results of a batch is unknown
+        assertEquals(UrlStatus.UNKNOWN, checker.checkUrls(Set.of(OPEN_URL, otherOpenUrl, BROKEN_URL)));
+        assertEquals(UrlStatus.ALL_OPEN, checker.checkUrls(Set.of(OPEN_URL, otherOpenUrl)));
+        assertEquals(3, requests.get("POST").get());
+    }
+
+    @Test
+    void testBatchesNotAccepted() {
+        LambdaUrlChecker.configure(1, 2, LambdaUrlChecker.DEFAULT_CACHE_MAXIMUM_SIZE, LambdaUrlChecker.DEFAULT_CACHE_EXPIRY);
+        final LambdaUrlChecker checker = new LambdaUrlChecker(lambdaUrl());
+        // the urls of a failed batch are checked one at a time
+        assertEquals(UrlStatus.NOT_ALL_OPEN, checker.checkUrls(Set.of(OPEN_URL, CLOSED_URL)));
+        assertEquals(1, requests.get("POST").get());
+        assertEquals(2, requests.get("GET").get());
+    }
+
+    private String lambdaUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/";
+    }
+
+    private static boolean isOpen(String url) {
+        return url.startsWith("https://example.com/open");
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(HttpStatus.SC_OK, bytes.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(bytes);
+        }
+        exchange.close();
+    }
 }
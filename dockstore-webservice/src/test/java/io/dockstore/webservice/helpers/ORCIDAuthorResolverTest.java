@@ -0,0 +1,78 @@
+/*
+ * Copyright 2025 OICR and UCSC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.dockstore.webservice.helpers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.dockstore.webservice.core.OrcidAuthorInformation;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ORCIDAuthorResolverTest {
+
+    private static final String FOUND_ID = "0000-0000-0000-0001";
+    private static final String NOT_FOUND_ID = "0000-0000-0000-0002";
+
+    private final Map<String, AtomicInteger> loads = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    public void setup() {
+        ORCIDAuthorResolver.setLoader(orcidId -> {
+            loads.computeIfAbsent(orcidId, id -> new AtomicInteger()).incrementAndGet();
+            if (NOT_FOUND_ID.equals(orcidId)) {
+                return Optional.empty();
+            }
+            OrcidAuthorInformation information = new OrcidAuthorInformation(orcidId);
+            information.setName("Author " + orcidId);
+            return Optional.of(information);
+        });
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ORCIDAuthorResolver.setLoader(orcidId -> Optional.empty());
+    }
+
+    @Test
+    void testCaching() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals("Author " + FOUND_ID, ORCIDAuthorResolver.getOrcidAuthorInformation(FOUND_ID).orElseThrow().getName());
+            assertTrue(ORCIDAuthorResolver.getOrcidAuthorInformation(NOT_FOUND_ID).isEmpty());
+        }
+        assertEquals(1, loads.get(FOUND_ID).get());
+        assertEquals(1, loads.get(NOT_FOUND_ID).get());
+    }
+
+    @Test
+    void testBulk() {
+        ORCIDAuthorResolver.prefetch(List.of(FOUND_ID, NOT_FOUND_ID));
+        Set<OrcidAuthorInformation> information = ORCIDAuthorResolver.getOrcidAuthorInformation(List.of(FOUND_ID, NOT_FOUND_ID));
+        assertEquals(Set.of(new OrcidAuthorInformation(FOUND_ID)), information);
+        // the lookups share the prefetched results
+        assertEquals(1, loads.get(FOUND_ID).get());
+        assertEquals(1, loads.get(NOT_FOUND_ID).get());
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2025 OICR and UCSC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.dockstore.webservice.helpers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.dockstore.common.DescriptorLanguage;
+import io.dockstore.webservice.core.SourceFile;
+import io.dockstore.webservice.core.WorkflowVersion;
+import io.dockstore.webservice.jdbi.WorkflowVersionDAO;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class ParsedDescriptorCacheTest {
+
+    private static final long WORKFLOW_ID = 1;
+    private static final long OTHER_WORKFLOW_ID = 2;
+
+    @Test
+    void testHashDescriptors() {
+        String hash = ParsedDescriptorCache.hashDescriptors(createVersion("/main.wdl", "workflow main {}", "task foo {}"));
+        assertEquals(hash, ParsedDescriptorCache.hashDescriptors(createVersion("/main.wdl", "workflow main {}", "task foo {}")));
+        assertNotEquals(hash, ParsedDescriptorCache.hashDescriptors(createVersion("/main.wdl", "workflow main {}", "task bar {}")));
+        assertNotEquals(hash, ParsedDescriptorCache.hashDescriptors(createVersion("/other.wdl", "workflow main {}", "task foo {}")));
+    }
+
+    @Test
+    void testIsUnchanged() {
+        WorkflowVersion version = createVersion("/main.wdl", "workflow main {}", "task foo {}");
+        assertFalse(ParsedDescriptorCache.isUnchanged(version), "a version without a DAG has nothing to keep");
+        ParsedDescriptorCache.setDag(version, "{}");
+        assertTrue(ParsedDescriptorCache.isUnchanged(version));
+        version.getSourceFiles().forEach(file -> file.setContent(file.getContent() + " "));
+        assertFalse(ParsedDescriptorCache.isUnchanged(version));
+        ParsedDescriptorCache.setDag(version, null);
+        assertNull(version.getDagDescriptorHash());
+    }
+
+    @Test
+    void testGetDag() {
+        WorkflowVersion version = createVersion("/main.wdl", "workflow test_get {}", "task foo {}");
+        String hash = ParsedDescriptorCache.hashDescriptors(version);
+        // another version of the same workflow has a DAG produced from the same descriptors
+        WorkflowVersionDAO workflowVersionDAO = mock(WorkflowVersionDAO.class);
+        when(workflowVersionDAO.findDagJsonByDescriptorHash(anyLong(), anyString())).thenReturn(null);
+        when(workflowVersionDAO.findDagJsonByDescriptorHash(WORKFLOW_ID, hash)).thenReturn("{\"stored\": true}");
+        AtomicInteger parses = new AtomicInteger();
+
+        assertEquals("{\"stored\": true}", ParsedDescriptorCache.getDag(workflowVersionDAO, WORKFLOW_ID, version, () -> {
+            parses.incrementAndGet();
+            return "{}";
+        }));
+        assertEquals(0, parses.get());
+
+        // the DAGs of other workflows are not reused
+        assertEquals("{}", ParsedDescriptorCache.getDag(workflowVersionDAO, OTHER_WORKFLOW_ID, version, () -> {
+            parses.incrementAndGet();
+            return "{}";
+        }));
+        assertEquals(1, parses.get());
+    }
+
+    private static WorkflowVersion createVersion(String workflowPath, String primaryContent, String secondaryContent) {
+        WorkflowVersion version = new WorkflowVersion();
+        version.setWorkflowPath(workflowPath);
+        version.addSourceFile(createSourceFile(workflowPath, primaryContent));
+        version.addSourceFile(createSourceFile("/tasks.wdl", secondaryContent));
+        return version;
+    }
+
+    private static SourceFile createSourceFile(String path, String content) {
+        SourceFile file = new SourceFile();
+        file.setType(DescriptorLanguage.FileType.DOCKSTORE_WDL);
+        file.setPath(path);
+        file.setAbsolutePath(path);
+        file.setContent(content);
+        return file;
+    }
+}
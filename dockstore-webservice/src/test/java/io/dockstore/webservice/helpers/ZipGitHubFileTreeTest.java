@@ -0,0 +1,186 @@
+/*
+ * Copyright 2025 OICR and UCSC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.dockstore.webservice.helpers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kohsuke.github.function.InputStreamFunction;
+import org.mockito.Mockito;
+
+class ZipGitHubFileTreeTest {
+
+    private static final String REPOSITORY = "dockstore/test";
+    private static final String REF = "refs/heads/main";
+
+    private final AtomicInteger downloads = new AtomicInteger();
+    private String sha;
+    private GitHubSourceCodeRepo gitHubSourceCodeRepo;
+
+    @BeforeEach
+    public void setup() {
+        FileContentCache.setMaximumWeight(FileContentCache.DEFAULT_MAXIMUM_WEIGHT);
+        // a new commit for each test, so that nothing is cached
+        sha = UUID.randomUUID().toString();
+        gitHubSourceCodeRepo = mockRepo(sha, Map.of("/Dockstore.cwl", "cwlVersion: v1.0", "/README.md", "readme"));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        FileContentCache.setMaximumWeight(FileContentCache.DEFAULT_MAXIMUM_WEIGHT);
+        ZipGitHubFileTree.setMemoryThreshold(ZipGitHubFileTree.DEFAULT_MEMORY_THRESHOLD);
+    }
+
+    @Test
+    void testCachedCommitIsNotDownloadedAgain() {
+        for (int i = 0; i < 3; i++) {
+            try (ZipGitHubFileTree zipFileTree = new ZipGitHubFileTree(gitHubSourceCodeRepo, REPOSITORY, REF)) {
+                FileTree fileTree = new CachingFileTree(zipFileTree);
+                assertEquals("cwlVersion: v1.0", fileTree.readFile(Path.of("/Dockstore.cwl")));
+            }
+        }
+        assertEquals(1, downloads.get());
+        // the paths of a tree are not cached, listing them downloads the Zipball
+        try (ZipGitHubFileTree zipFileTree = new ZipGitHubFileTree(gitHubSourceCodeRepo, REPOSITORY, REF)) {
+            assertEquals(2, new CachingFileTree(zipFileTree).listPaths().size());
+        }
+        assertEquals(2, downloads.get());
+    }
+
+    @Test
+    void testZipIsOnlyDownloadedWhenNeeded() {
+        try (ZipGitHubFileTree zipFileTree = new ZipGitHubFileTree(gitHubSourceCodeRepo, REPOSITORY, REF)) {
+            assertEquals(0, downloads.get());
+            zipFileTree.readFile(Path.of("/README.md"));
+            zipFileTree.readFile(Path.of("/Dockstore.cwl"));
+            zipFileTree.listPaths();
+            assertEquals(1, downloads.get());
+        }
+    }
+
+    @Test
+    void testLargeZipIsStreamedToATemporaryFile() throws IOException {
+        ZipGitHubFileTree.setMemoryThreshold(16);
+        Set<Path> before = temporaryZips();
+        try (ZipGitHubFileTree zipFileTree = new ZipGitHubFileTree(gitHubSourceCodeRepo, REPOSITORY, REF)) {
+            assertEquals("cwlVersion: v1.0", zipFileTree.readFile(Path.of("/Dockstore.cwl")));
+            Set<Path> created = new HashSet<>(temporaryZips());
+            created.removeAll(before);
+            assertEquals(1, created.size(), "the Zipball should be stored in a temporary file");
+            Path tempFile = created.iterator().next();
+            assertTrue(Files.size(tempFile) > 16);
+            zipFileTree.close();
+            assertFalse(Files.exists(tempFile), "the temporary file should be deleted when the tree is closed");
+        }
+    }
+
+    @Test
+    void testSmallZipIsHeldInMemory() throws IOException {
+        Set<Path> before = temporaryZips();
+        try (ZipGitHubFileTree zipFileTree = new ZipGitHubFileTree(gitHubSourceCodeRepo, REPOSITORY, REF)) {
+            assertEquals("readme", zipFileTree.readFile(Path.of("/README.md")));
+            assertEquals(before, temporaryZips());
+        }
+    }
+
+    @Test
+    void testPathFilter() {
+        try (ZipGitHubFileTree zipFileTree = new ZipGitHubFileTree(gitHubSourceCodeRepo, REPOSITORY, REF, path -> path.toString().endsWith(".cwl"))) {
+            // filtered paths are not listed
+            assertEquals(List.of(Path.of("/Dockstore.cwl")), zipFileTree.listPaths());
+            // but they can still be read, without falling back to the GitHub API
+            assertEquals("readme", zipFileTree.readFile(Path.of("/README.md")));
+            assertEquals(1, downloads.get());
+            verify(gitHubSourceCodeRepo, never()).readFile(any(), any(), any());
+        }
+    }
+
+    @Test
+    void testFindEntryIgnoresDirectoriesAndRelativePaths() {
+        try (ZipGitHubFileTree zipFileTree = new ZipGitHubFileTree(gitHubSourceCodeRepo, REPOSITORY, REF, path -> false)) {
+            assertTrue(zipFileTree.listPaths().isEmpty());
+            assertNull(zipFileTree.readFile(Path.of("/")));
+            assertNull(zipFileTree.readFile(Path.of("README.md")));
+            assertNull(zipFileTree.readFile(Path.of("/missing.txt")));
+            // paths that are not in the Zipball are looked up with the GitHub API, at the resolved commit
+            verify(gitHubSourceCodeRepo).readFile(REPOSITORY, "/missing.txt", sha);
+        }
+    }
+
+    private static Set<Path> temporaryZips() throws IOException {
+        try (Stream<Path> files = Files.list(Path.of(System.getProperty("java.io.tmpdir")))) {
+            return files.filter(path -> path.getFileName().toString().startsWith("github-zip-")).collect(Collectors.toSet());
+        }
+    }
+
+    private GitHubSourceCodeRepo mockRepo(String commitSha, Map<String, String> files) {
+        final byte[] zip = zip(files);
+        GitHubSourceCodeRepo repo = Mockito.mock(GitHubSourceCodeRepo.class);
+        when(repo.getCommitID(REPOSITORY, REF)).thenReturn(commitSha);
+        when(repo.readZipAtCommit(eq(REPOSITORY), eq(commitSha), any())).thenAnswer(invocation -> {
+            downloads.incrementAndGet();
+            InputStreamFunction<?> streamFunction = invocation.getArgument(2);
+            return streamFunction.apply(new ByteArrayInputStream(zip));
+        });
+        return repo;
+    }
+
+    /**
+     * Creates a Zipball like GitHub's, in which every entry is prefixed with a directory named after the repository and commit.
+     */
+    private static byte[] zip(Map<String, String> files) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(bytes)) {
+            out.putNextEntry(new ZipEntry("dockstore-test-0123456/"));
+            for (Map.Entry<String, String> file : files.entrySet()) {
+                out.putNextEntry(new ZipEntry("dockstore-test-0123456" + file.getKey()));
+                out.write(file.getValue().getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
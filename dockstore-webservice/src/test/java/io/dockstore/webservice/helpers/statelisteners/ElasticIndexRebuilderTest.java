@@ -0,0 +1,104 @@
+/*
+ * Copyright 2025 OICR and UCSC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.dockstore.webservice.helpers.statelisteners;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.dockstore.common.DescriptorLanguage;
+import io.dockstore.common.SourceControl;
+import io.dockstore.webservice.CustomWebApplicationException;
+import io.dockstore.webservice.DockstoreWebserviceConfiguration;
+import io.dockstore.webservice.api.IndexRebuildStatus;
+import io.dockstore.webservice.core.BioWorkflow;
+import io.dockstore.webservice.core.Category;
+import io.dockstore.webservice.core.Entry;
+import io.dockstore.webservice.helpers.PublicStateManager;
+import io.dockstore.webservice.jdbi.EntryDAO;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import org.apache.http.HttpStatus;
+import org.elasticsearch.action.index.IndexRequest;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ElasticIndexRebuilderTest {
+
+    private EntryDAO<?> entryDAO;
+    private ElasticIndexRebuilder rebuilder;
+
+    @BeforeEach
+    public void setup() {
+        entryDAO = mock(EntryDAO.class);
+        rebuilder = new ElasticIndexRebuilder(PublicStateManager.getInstance(), new PopulateEntryListener(entryDAO), mock(SessionFactory.class),
+            new DockstoreWebserviceConfiguration.ElasticSearchConfig(), List.of());
+    }
+
+    @Test
+    void testStatusBeforeRebuild() {
+        IndexRebuildStatus status = rebuilder.getStatus();
+        assertEquals(IndexRebuildStatus.State.NOT_STARTED, status.getState());
+        assertNull(status.getStartTime());
+        assertEquals(List.of(), status.getIndices());
+    }
+
+    @Test
+    void testFailedRebuild() {
+        // Elasticsearch is not available, so the new indices cannot be created
+        CustomWebApplicationException exception = assertThrows(CustomWebApplicationException.class, rebuilder::rebuild);
+        assertEquals(HttpStatus.SC_INTERNAL_SERVER_ERROR, exception.getResponse().getStatus());
+        IndexRebuildStatus status = rebuilder.getStatus();
+        assertEquals(IndexRebuildStatus.State.FAILED, status.getState());
+        assertNotNull(status.getEndTime());
+        assertEquals(ElasticListener.INDEXES.size(), status.getIndices().size());
+
+        // a failed rebuild does not prevent the next one
+        exception = assertThrows(CustomWebApplicationException.class, rebuilder::rebuild);
+        assertEquals(HttpStatus.SC_INTERNAL_SERVER_ERROR, exception.getResponse().getStatus());
+    }
+
+    @Test
+    void testRebuiltDocumentsKeepTheirCategories() throws IOException {
+        BioWorkflow workflow = new BioWorkflow();
+        workflow.setId(1);
+        workflow.setIsPublished(true);
+        workflow.setDescriptorType(DescriptorLanguage.WDL);
+        workflow.setSourceControl(SourceControl.GITHUB);
+        workflow.setOrganization("potato");
+        workflow.setRepository("foobar");
+        Category category = new Category();
+        category.setId(2);
+        category.setName("genomics");
+        // categories are not mapped by Hibernate, so they are only set by the PopulateEntryListener
+        when(entryDAO.findCategoriesByEntryIds(List.of(1L))).thenReturn(Map.<Entry, List<Category>>of(workflow, List.of(category)));
+
+        List<IndexRequest> requests = rebuilder.createIndexRequests(List.of(workflow), alias -> alias + "_20250101000000");
+        assertEquals(1, requests.size());
+        assertEquals(ElasticListener.WORKFLOWS_INDEX + "_20250101000000", requests.get(0).index());
+        assertEquals("1", requests.get(0).id());
+        List<?> categories = (List<?>) requests.get(0).sourceAsMap().get("categories");
+        assertEquals(1, categories.size());
+        assertEquals("genomics", ((Map<?, ?>) categories.get(0)).get("name"));
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2025 OICR and UCSC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.dockstore.webservice.helpers.statelisteners;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.dockstore.webservice.DockstoreWebserviceConfiguration;
+import io.dockstore.webservice.core.BioWorkflow;
+import io.dockstore.webservice.helpers.StateManagerMode;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkProcessor;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.context.internal.ManagedSessionContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ElasticIndexingQueueTest {
+
+    private static final int MAX_RETRIES = 1;
+
+    private ElasticListener elasticListener;
+    private SessionFactory sessionFactory;
+    private Session session;
+    private Transaction transaction;
+    private ElasticIndexingQueue queue;
+
+    @BeforeEach
+    public void setup() {
+        DockstoreWebserviceConfiguration.ElasticSearchConfig config = new DockstoreWebserviceConfiguration.ElasticSearchConfig();
+        config.setIndexingQueueCapacity(2);
+        config.setIndexingMaxRetries(MAX_RETRIES);
+        elasticListener = mock(ElasticListener.class);
+        sessionFactory = mock(SessionFactory.class);
+        session = mock(Session.class);
+        transaction = mock(Transaction.class);
+        when(sessionFactory.openSession()).thenReturn(session);
+        when(sessionFactory.getCurrentSession()).thenReturn(session);
+        when(session.getSessionFactory()).thenReturn(sessionFactory);
+        when(session.getTransaction()).thenReturn(transaction);
+        queue = new ElasticIndexingQueue(elasticListener, sessionFactory, config);
+    }
+
+    @Test
+    void testCoalescing() {
+        assertTrue(queue.offer(createWorkflow(1), ElasticListener.WORKFLOWS_INDEX, StateManagerMode.PUBLISH));
+        assertTrue(queue.offer(createWorkflow(1), ElasticListener.WORKFLOWS_INDEX, StateManagerMode.UPDATE));
+        assertTrue(queue.offer(createWorkflow(1), ElasticListener.WORKFLOWS_INDEX, StateManagerMode.DELETE));
+        assertEquals(1, queue.getQueueDepth());
+    }
+
+    @Test
+    void testCapacity() {
+        assertTrue(queue.offer(createWorkflow(1), ElasticListener.WORKFLOWS_INDEX, StateManagerMode.UPDATE));
+        assertTrue(queue.offer(createWorkflow(2), ElasticListener.WORKFLOWS_INDEX, StateManagerMode.UPDATE));
+        // a full queue rejects new entries, but still accepts updates to queued entries
+        assertFalse(queue.offer(createWorkflow(3), ElasticListener.WORKFLOWS_INDEX, StateManagerMode.UPDATE));
+        assertTrue(queue.offer(createWorkflow(2), ElasticListener.WORKFLOWS_INDEX, StateManagerMode.DELETE));
+        assertEquals(2, queue.getQueueDepth());
+    }
+
+    @Test
+    void testTransactionsReserveCapacity() {
+        final List<Synchronization> synchronizations = new ArrayList<>();
+        when(transaction.isActive()).thenReturn(true);
+        doAnswer(invocation -> synchronizations.add(invocation.getArgument(0))).when(transaction).registerSynchronization(any());
+        ManagedSessionContext.bind(session);
+        try {
+            assertTrue(queue.offer(createWorkflow(1), ElasticListener.WORKFLOWS_INDEX, StateManagerMode.UPDATE));
+            assertTrue(queue.offer(createWorkflow(2), ElasticListener.WORKFLOWS_INDEX, StateManagerMode.UPDATE));
+            // the uncommitted updates hold both slots
+            assertFalse(queue.offer(createWorkflow(3), ElasticListener.WORKFLOWS_INDEX, StateManagerMode.UPDATE));
+        } finally {
+            ManagedSessionContext.unbind(sessionFactory);
+        }
+        assertEquals(0, queue.getQueueDepth());
+        assertEquals(2, queue.getReserved());
+
+        synchronizations.get(0).afterCompletion(Status.STATUS_COMMITTED);
+        synchronizations.get(1).afterCompletion(Status.STATUS_ROLLEDBACK);
+        assertEquals(1, queue.getQueueDepth());
+        assertEquals(0, queue.getReserved());
+    }
+
+    @Test
+    void testFailedRequestsAreRetriedThenDeadLettered() {
+        when(elasticListener.newBulkProcessor(any())).thenReturn(mock(BulkProcessor.class));
+        when(session.get(eq(BioWorkflow.class), any())).thenThrow(new IllegalStateException("could not load"));
+        assertTrue(queue.offer(createWorkflow(1), ElasticListener.WORKFLOWS_INDEX, StateManagerMode.UPDATE));
+
+        queue.flush();
+        assertEquals(1, queue.getQueueDepth(), "the failed update should be queued again");
+        assertTrue(queue.getDeadLetters().isEmpty());
+
+        queue.flush();
+        assertEquals(0, queue.getQueueDepth());
+        assertEquals(1, queue.getDeadLetters().size(), "the update should be dead-lettered after " + MAX_RETRIES + " retries");
+        ElasticIndexingQueue.DeadLetter deadLetter = queue.getDeadLetters().get(0);
+        assertEquals(1, deadLetter.entryId());
+        assertEquals(StateManagerMode.UPDATE, deadLetter.command());
+        assertEquals("could not load", deadLetter.reason());
+    }
+
+    @Test
+    void testFailedBulkRequestsAreRetriedThenDeadLettered() throws InterruptedException {
+        // a bulk processor that fails every request it is given
+        final AtomicReference<BulkProcessor.Listener> listener = new AtomicReference<>();
+        final AtomicReference<BulkRequest> bulkRequest = new AtomicReference<>();
+        final BulkProcessor bulkProcessor = mock(BulkProcessor.class);
+        when(elasticListener.newBulkProcessor(any())).thenAnswer(invocation -> {
+            listener.set(invocation.getArgument(0));
+            bulkRequest.set(new BulkRequest());
+            return bulkProcessor;
+        });
+        doAnswer(invocation -> {
+            bulkRequest.get().add((DocWriteRequest<?>)invocation.getArgument(0));
+            return bulkProcessor;
+        }).when(bulkProcessor).add(any(DocWriteRequest.class));
+        doAnswer(invocation -> {
+            listener.get().afterBulk(1, bulkRequest.get(), new IllegalStateException("cluster unavailable"));
+            return true;
+        }).when(bulkProcessor).awaitClose(anyLong(), any(TimeUnit.class));
+        assertTrue(queue.offer(createWorkflow(1), ElasticListener.WORKFLOWS_INDEX, StateManagerMode.DELETE));
+
+        queue.flush();
+        assertEquals(1, queue.getQueueDepth(), "the failed delete should be queued again");
+
+        queue.flush();
+        assertEquals(0, queue.getQueueDepth());
+        assertEquals(1, queue.getDeadLetters().size());
+        assertEquals(StateManagerMode.DELETE, queue.getDeadLetters().get(0).command());
+    }
+
+    @Test
+    void testRetriesDoNotExceedCapacity() {
+        when(elasticListener.newBulkProcessor(any())).thenReturn(mock(BulkProcessor.class));
+        assertTrue(queue.offer(createWorkflow(1), ElasticListener.WORKFLOWS_INDEX, StateManagerMode.UPDATE));
+        // fill the queue while the first update is being indexed
+        when(session.get(eq(BioWorkflow.class), eq(1L))).thenAnswer(invocation -> {
+            queue.offer(createWorkflow(2), ElasticListener.WORKFLOWS_INDEX, StateManagerMode.UPDATE);
+            queue.offer(createWorkflow(3), ElasticListener.WORKFLOWS_INDEX, StateManagerMode.UPDATE);
+            throw new IllegalStateException("could not load");
+        });
+
+        queue.flush();
+        assertEquals(2, queue.getQueueDepth());
+        assertEquals(1, queue.getDeadLetters().size(), "a failed update that does not fit in the queue should be dead-lettered");
+        assertEquals(1, queue.getDeadLetters().get(0).entryId());
+    }
+
+    private static BioWorkflow createWorkflow(long id) {
+        BioWorkflow workflow = new BioWorkflow();
+        workflow.setId(id);
+        return workflow;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2025 OICR and UCSC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.dockstore.webservice.helpers.statelisteners;
+
+import static io.dockstore.webservice.resources.MetadataResource.RSS_ENTRY_LIMIT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.dockstore.common.SourceControl;
+import io.dockstore.webservice.core.BioWorkflow;
+import io.dockstore.webservice.core.Entry;
+import io.dockstore.webservice.helpers.StateManagerMode;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class RSSListenerTest {
+
+    @Test
+    void testIncrementalUpdates() {
+        RSSListener listener = new RSSListener();
+        AtomicInteger reloads = new AtomicInteger();
+        AtomicInteger renders = new AtomicInteger();
+        Supplier<List<Entry<?, ?>>> newestEntries = () -> {
+            reloads.incrementAndGet();
+            List<Entry<?, ?>> entries = new ArrayList<>();
+            // newest first, like the database queries
+            for (int i = RSS_ENTRY_LIMIT; i > 0; i--) {
+                entries.add(createWorkflow("repo" + i));
+            }
+            return entries;
+        };
+        Function<List<RSSListener.FeedItem>, String> renderer = items -> {
+            renders.incrementAndGet();
+            return items.stream().map(RSSListener.FeedItem::title).collect(Collectors.joining(","));
+        };
+
+        RSSListener.Feed feed = listener.getFeed(newestEntries, renderer);
+        assertTrue(titles(feed).contains("github.com/dockstore/repo1"));
+        assertSame(feed, listener.getFeed(newestEntries, renderer), "An unchanged feed should not be rendered again");
+        assertEquals(1, renders.get());
+
+        // publishing an entry evicts the oldest entry of the same type
+        listener.handleIndexUpdate(createWorkflow("new"), StateManagerMode.PUBLISH);
+        RSSListener.Feed updatedFeed = listener.getFeed(newestEntries, renderer);
+        assertNotEquals(feed.etag(), updatedFeed.etag());
+        assertTrue(titles(updatedFeed).contains("github.com/dockstore/new"));
+        assertFalse(titles(updatedFeed).contains("github.com/dockstore/repo1"));
+        assertEquals(RSS_ENTRY_LIMIT, titles(updatedFeed).size());
+        assertEquals(1, reloads.get());
+
+        // unpublishing an entry in the feed reloads it, so another entry can take its place
+        BioWorkflow unpublished = createWorkflow("new");
+        unpublished.setIsPublished(false);
+        listener.handleIndexUpdate(unpublished, StateManagerMode.DELETE);
+        listener.getFeed(newestEntries, renderer);
+        assertEquals(2, reloads.get());
+    }
+
+    @Test
+    void testUpdatesOnlyRepositionWhenTheDateChanges() {
+        RSSListener listener = new RSSListener();
+        List<BioWorkflow> workflows = new ArrayList<>();
+        for (int i = RSS_ENTRY_LIMIT; i > 0; i--) {
+            workflows.add(createWorkflow("repo" + i, new Date(i * 1000L)));
+        }
+        Supplier<List<Entry<?, ?>>> newestEntries = () -> new ArrayList<>(workflows);
+        Function<List<RSSListener.FeedItem>, String> renderer = items -> items.stream().map(RSSListener.FeedItem::title).collect(Collectors.joining(","));
+        listener.getFeed(newestEntries, renderer);
+
+        // an update that leaves the date alone keeps the entry in place, so it is still the first to be evicted
+        BioWorkflow oldest = createWorkflow("repo1", new Date(1000L));
+        oldest.setDescription("a new description");
+        listener.handleIndexUpdate(oldest, StateManagerMode.UPDATE);
+        RSSListener.Feed feed = listener.getFeed(newestEntries, renderer);
+        assertEquals("github.com/dockstore/repo1", titles(feed).get(0));
+
+        // an update that changes the date moves the entry to the top
+        listener.handleIndexUpdate(createWorkflow("repo2", new Date()), StateManagerMode.UPDATE);
+        feed = listener.getFeed(newestEntries, renderer);
+        assertEquals("github.com/dockstore/repo2", titles(feed).get(RSS_ENTRY_LIMIT - 1));
+
+        listener.handleIndexUpdate(createWorkflow("new", new Date()), StateManagerMode.PUBLISH);
+        feed = listener.getFeed(newestEntries, renderer);
+        assertFalse(titles(feed).contains("github.com/dockstore/repo1"));
+        assertTrue(titles(feed).contains("github.com/dockstore/repo2"));
+
+        // an entry that is not in the feed and was not updated more recently than any entry in it stays out
+        listener.handleIndexUpdate(createWorkflow("repo1", new Date(1000L)), StateManagerMode.UPDATE);
+        assertFalse(titles(listener.getFeed(newestEntries, renderer)).contains("github.com/dockstore/repo1"));
+    }
+
+    private static List<String> titles(RSSListener.Feed feed) {
+        return List.of(feed.xml().split(","));
+    }
+
+    private static BioWorkflow createWorkflow(String repository) {
+        return createWorkflow(repository, new Date());
+    }
+
+    private static BioWorkflow createWorkflow(String repository, Date lastUpdated) {
+        BioWorkflow workflow = new BioWorkflow();
+        workflow.setSourceControl(SourceControl.GITHUB);
+        workflow.setOrganization("dockstore");
+        workflow.setRepository(repository);
+        workflow.setIsPublished(true);
+        workflow.setLastUpdated(lastUpdated);
+        return workflow;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2025 OICR and UCSC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.dockstore.webservice.helpers.statelisteners;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.dockstore.common.SourceControl;
+import io.dockstore.webservice.core.BioWorkflow;
+import io.dockstore.webservice.helpers.StateManagerMode;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+
+class SitemapListenerTest {
+
+    @Test
+    void testIncrementalUpdates() {
+        SitemapListener listener = new SitemapListener();
+        AtomicInteger fullBuilds = new AtomicInteger();
+        Supplier<SortedSet<String>> fullSitemap = () -> {
+            fullBuilds.incrementAndGet();
+            return new TreeSet<>(List.of("https://dockstore.org/organizations/foo"));
+        };
+
+        assertEquals("https://dockstore.org/organizations/foo", listener.getSitemap(fullSitemap));
+
+        BioWorkflow workflow = createWorkflow("bar");
+        listener.handleIndexUpdate(workflow, StateManagerMode.PUBLISH);
+        String sitemap = listener.getSitemap(fullSitemap);
+        assertTrue(sitemap.contains("/workflows/github.com/dockstore/bar"));
+        assertTrue(sitemap.contains("/organizations/foo"));
+
+        workflow.setIsPublished(false);
+        listener.handleIndexUpdate(workflow, StateManagerMode.DELETE);
+        assertFalse(listener.getSitemap(fullSitemap).contains("/workflows/github.com/dockstore/bar"));
+        assertEquals(1, fullBuilds.get(), "Incremental updates should not rebuild the sitemap");
+
+        listener.invalidateCache();
+        listener.getSitemap(fullSitemap);
+        assertEquals(2, fullBuilds.get());
+    }
+
+    private static BioWorkflow createWorkflow(String repository) {
+        BioWorkflow workflow = new BioWorkflow();
+        workflow.setSourceControl(SourceControl.GITHUB);
+        workflow.setOrganization("dockstore");
+        workflow.setRepository(repository);
+        workflow.setIsPublished(true);
+        return workflow;
+    }
+}
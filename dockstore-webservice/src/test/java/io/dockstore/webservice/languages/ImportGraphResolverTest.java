@@ -0,0 +1,123 @@
+/*
+ * Copyright 2025 OICR and UCSC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.dockstore.webservice.languages;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.dockstore.common.DescriptorLanguage;
+import io.dockstore.webservice.CustomWebApplicationException;
+import io.dockstore.webservice.core.SourceFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.HttpStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ImportGraphResolverTest {
+
+    /**
+     * Each file lists the files that it imports, one per line.
+     */
+    private static final ImportGraphResolver.ImportFinder FINDER = (filePath, content) -> {
+        Map<String, String> imports = new LinkedHashMap<>();
+        Arrays.stream(StringUtils.split(content, '\n')).forEach(path -> imports.put(path, path));
+        return imports;
+    };
+
+    private final Map<String, String> files = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> reads = new ConcurrentHashMap<>();
+
+    @AfterEach
+    public void tearDown() {
+        ImportGraphResolver.setParallelism(ImportGraphResolver.DEFAULT_PARALLELISM);
+    }
+
+    @Test
+    void testResolve() {
+        files.put("/left.wdl", "/task.wdl\n/missing.wdl");
+        files.put("/right.wdl", "/task.wdl\n/main.wdl");
+        files.put("/task.wdl", "/right.wdl");
+        files.put("/main.wdl", "/left.wdl\n/right.wdl");
+        Map<String, SourceFile> imports = ImportGraphResolver.resolve("/main.wdl", files.get("/main.wdl"), FINDER, this::read);
+
+        // each level is returned in the order it was discovered, and the cycles between the files end
+        assertEquals(List.of("/left.wdl", "/right.wdl", "/task.wdl", "/main.wdl"), new ArrayList<>(imports.keySet()));
+        assertEquals("/task.wdl", imports.get("/task.wdl").getPath());
+        // every file is read once, even if it is imported several times or could not be read
+        reads.forEach((path, count) -> assertEquals(1, count.get(), path));
+        assertEquals(files.size() + 1, reads.size());
+    }
+
+    @Test
+    void testConcurrentReads() {
+        files.put("/main.wdl", "/left.wdl\n/right.wdl");
+        files.put("/left.wdl", "");
+        files.put("/right.wdl", "");
+        // neither read of the second level completes until both have started
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        Map<String, SourceFile> imports = ImportGraphResolver.resolve("/main.wdl", files.get("/main.wdl"), FINDER, (absolutePath, givenPath) -> {
+            try {
+                barrier.await(1, TimeUnit.MINUTES);
+            } catch (InterruptedException | BrokenBarrierException | TimeoutException e) {
+                throw new RuntimeException(e);
+            }
+            return read(absolutePath, givenPath);
+        });
+        assertEquals(List.of("/left.wdl", "/right.wdl"), new ArrayList<>(imports.keySet()));
+    }
+
+    @Test
+    void testSequentialReads() {
+        ImportGraphResolver.setParallelism(1);
+        files.put("/main.wdl", "/left.wdl\n/right.wdl");
+        files.put("/left.wdl", "/right.wdl");
+        files.put("/right.wdl", "");
+        Map<String, SourceFile> imports = ImportGraphResolver.resolve("/main.wdl", files.get("/main.wdl"), FINDER, this::read);
+        assertEquals(List.of("/left.wdl", "/right.wdl"), new ArrayList<>(imports.keySet()));
+    }
+
+    @Test
+    void testReadFailure() {
+        files.put("/main.wdl", "/left.wdl\n/right.wdl");
+        CustomWebApplicationException exception = assertThrows(CustomWebApplicationException.class,
+            () -> ImportGraphResolver.resolve("/main.wdl", files.get("/main.wdl"), FINDER, (absolutePath, givenPath) -> {
+                throw new CustomWebApplicationException("Could not get repository", HttpStatus.SC_BAD_REQUEST);
+            }));
+        assertEquals(HttpStatus.SC_BAD_REQUEST, exception.getResponse().getStatus());
+    }
+
+    private SourceFile read(String absolutePath, String givenPath) {
+        reads.computeIfAbsent(absolutePath, path -> new AtomicInteger()).incrementAndGet();
+        String content = files.get(absolutePath);
+        if (content == null) {
+            return null;
+        }
+        return SourceFile.limitedBuilder().type(DescriptorLanguage.FileType.DOCKSTORE_WDL).content(content).path(givenPath).absolutePath(absolutePath).build();
+    }
+}
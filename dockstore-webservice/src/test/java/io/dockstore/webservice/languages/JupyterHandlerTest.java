@@ -225,6 +225,27 @@ class JupyterHandlerTest {
         // Different programming language.
         file = mockJupyter(PATH, CONTENT.replace("\"python\"", "\"julia\""));
         assertFalse(handler.validateWorkflowSet(Set.of(file), PATH, notebook).isValid());
+
+        // Trailing content after the notebook.
+        file = mockJupyter(PATH, CONTENT + "}");
+        assertFalse(handler.validateWorkflowSet(Set.of(file), PATH, notebook).isValid());
+    }
+
+    @Test
+    void testValidateWorkflowSetWorksheets() {
+        notebook.setDescriptorType(DescriptorLanguage.JUPYTER);
+        notebook.setDescriptorTypeSubclass(DescriptorLanguageSubclass.PYTHON);
+
+        // Version 3 notebook, with its cells in a worksheet.
+        String worksheets = "{\"nbformat\": 3, \"nbformat_minor\": 0, \"metadata\": {\"authors\": [{\"name\": \"Author One\"}, null]}, "
+            + "\"worksheets\": [{\"cells\": [{\"cell_type\": \"code\", \"source\": [\"print(1)\"], \"outputs\": [{\"data\": {\"image/png\": \"iVBORw0KGgo=\"}}]}]}]}";
+        assertTrue(handler.validateWorkflowSet(Set.of(mockJupyter(PATH, worksheets)), PATH, notebook).isValid());
+        handler.parseWorkflowContent(PATH, worksheets, Set.of(), version);
+        assertEquals(Set.of("Author One"), mapToSet(version.getAuthors(), Author::getName));
+
+        // Version 3 notebook, with no cells in its worksheet.
+        String noCells = worksheets.replace("\"cells\"", "\"foo\"");
+        assertFalse(handler.validateWorkflowSet(Set.of(mockJupyter(PATH, noCells)), PATH, notebook).isValid());
     }
 
     @Test
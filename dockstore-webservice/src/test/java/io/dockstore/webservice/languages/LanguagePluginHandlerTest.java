@@ -1,6 +1,7 @@
 package io.dockstore.webservice.languages;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -10,7 +11,9 @@ import com.google.common.io.Files;
 import io.dockstore.common.DescriptorLanguage;
 import io.dockstore.common.DescriptorLanguage.FileType;
 import io.dockstore.common.VersionTypeValidation;
+import io.dockstore.language.MinimalLanguageInterface;
 import io.dockstore.language.RecommendedLanguageInterface;
+import io.dockstore.language.ThreadSafeLanguageInterface;
 import io.dockstore.webservice.CustomWebApplicationException;
 import io.dockstore.webservice.core.Entry;
 import io.dockstore.webservice.core.SourceFile;
@@ -35,6 +38,8 @@ import org.apache.commons.io.FileUtils;
 import org.apache.http.HttpStatus;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.pf4j.DefaultPluginManager;
+import org.pf4j.PluginWrapper;
 
 // TODO add coverage for CompleteLanguageInterface
 class LanguagePluginHandlerTest {
@@ -167,6 +172,28 @@ class LanguagePluginHandlerTest {
 
     }
 
+    @Test
+    void pluginsAreSharedOnlyIfThreadSafeTest() {
+        try {
+            LanguageHandlerFactory.setLanguagePluginManager(pluginManager(new SillyLanguage()));
+            assertNotSame(LanguageHandlerFactory.getInterface(DescriptorLanguage.SWL), LanguageHandlerFactory.getInterface(DescriptorLanguage.SWL));
+
+            LanguageHandlerFactory.setLanguagePluginManager(pluginManager(new ThreadSafeSillyLanguage()));
+            assertSame(LanguageHandlerFactory.getInterface(DescriptorLanguage.SWL), LanguageHandlerFactory.getInterface(FileType.DOCKSTORE_SWL));
+        } finally {
+            LanguageHandlerFactory.setLanguagePluginManager(pluginManager());
+        }
+    }
+
+    private static DefaultPluginManager pluginManager(MinimalLanguageInterface... plugins) {
+        final PluginWrapper wrapper = Mockito.mock(PluginWrapper.class);
+        when(wrapper.getPluginId()).thenReturn("silly");
+        final DefaultPluginManager manager = Mockito.mock(DefaultPluginManager.class);
+        when(manager.getStartedPlugins()).thenReturn(List.of(wrapper));
+        when(manager.getExtensions(MinimalLanguageInterface.class, "silly")).thenReturn(List.of(plugins));
+        return manager;
+    }
+
     public SourceFile createSourceFile(String filePath, String fileResourcePath, FileType fileType) throws IOException {
         File resourceFile = new File(ResourceHelpers.resourceFilePath(fileResourcePath));
         String sourceFileContents = Files.asCharSource(resourceFile, StandardCharsets.UTF_8).read();
@@ -178,6 +205,16 @@ class LanguagePluginHandlerTest {
         return sourceFile;
     }
 
+    public static class SillyLanguage extends TestLanguage {
+        @Override
+        public DescriptorLanguage getDescriptorLanguage() {
+            return DescriptorLanguage.SWL;
+        }
+    }
+
+    public static class ThreadSafeSillyLanguage extends SillyLanguage implements ThreadSafeLanguageInterface {
+    }
+
     public static class TestLanguage implements RecommendedLanguageInterface {
 
         // MinimalLanguageInterface
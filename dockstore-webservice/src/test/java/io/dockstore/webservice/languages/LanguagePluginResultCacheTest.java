@@ -0,0 +1,134 @@
+/*
+ *    Copyright 2025 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.webservice.languages;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.dockstore.language.MinimalLanguageInterface.FileMetadata;
+import io.dockstore.language.MinimalLanguageInterface.FileReader;
+import io.dockstore.language.MinimalLanguageInterface.GenericFileType;
+import io.dockstore.language.MinimalLanguageInterface.WorkflowMetadata;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LanguagePluginResultCacheTest {
+
+    private static final String PLUGIN = "test-plugin";
+    private static final String MAIN = "/main.ga";
+    private static final String IMPORTED = "/imported.ga";
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private final Map<String, String> files = new HashMap<>();
+    private final FileReader reader = new FileReader() {
+        @Override
+        public String readFile(String path) {
+            return files.get(path);
+        }
+
+        @Override
+        public List<String> listFiles(String pathToDirectory) {
+            return files.keySet().stream().sorted().toList();
+        }
+    };
+
+    @BeforeEach
+    public void setup() {
+        LanguagePluginResultCache.configure(100);
+        files.put(IMPORTED, "imported v1");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        LanguagePluginResultCache.configure(LanguagePluginResultCache.DEFAULT_MAXIMUM_SIZE);
+    }
+
+    @Test
+    void testDisabledByDefault() {
+        LanguagePluginResultCache.configure(LanguagePluginResultCache.DEFAULT_MAXIMUM_SIZE);
+        LanguagePluginResultCache.parseWorkflowForMetadata(PLUGIN, MAIN, "content", metadata());
+        LanguagePluginResultCache.parseWorkflowForMetadata(PLUGIN, MAIN, "content", metadata());
+        LanguagePluginResultCache.indexWorkflowFiles(PLUGIN, MAIN, "content", reader, index());
+        LanguagePluginResultCache.indexWorkflowFiles(PLUGIN, MAIN, "content", reader, index());
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    void testMetadataIsCachedByContent() {
+        final WorkflowMetadata first = LanguagePluginResultCache.parseWorkflowForMetadata(PLUGIN, MAIN, "content", metadata());
+        final WorkflowMetadata second = LanguagePluginResultCache.parseWorkflowForMetadata(PLUGIN, MAIN, "content", metadata());
+        assertEquals(1, calls.get());
+        assertNotSame(first, second);
+        assertEquals("Shakespeare", second.getAuthor());
+
+        LanguagePluginResultCache.parseWorkflowForMetadata(PLUGIN, MAIN, "changed content", metadata());
+        LanguagePluginResultCache.parseWorkflowForMetadata("other-plugin", MAIN, "content", metadata());
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void testIndexIsCachedUntilAReadFileChanges() {
+        assertEquals("imported v1", LanguagePluginResultCache.indexWorkflowFiles(PLUGIN, MAIN, "content", reader, index()).get(IMPORTED).content());
+        assertEquals("imported v1", LanguagePluginResultCache.indexWorkflowFiles(PLUGIN, MAIN, "content", reader, index()).get(IMPORTED).content());
+        assertEquals(1, calls.get());
+
+        files.put(IMPORTED, "imported v2");
+        assertEquals("imported v2", LanguagePluginResultCache.indexWorkflowFiles(PLUGIN, MAIN, "content", reader, index()).get(IMPORTED).content());
+        assertEquals(2, calls.get());
+
+        files.put("/new.ga", "new");
+        LanguagePluginResultCache.indexWorkflowFiles(PLUGIN, MAIN, "content", reader, index());
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void testFailuresAreNotCached() {
+        final Supplier<WorkflowMetadata> failing = () -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("badly-behaved plugin");
+        };
+        assertThrows(IllegalStateException.class, () -> LanguagePluginResultCache.parseWorkflowForMetadata(PLUGIN, MAIN, "content", failing));
+        assertThrows(IllegalStateException.class, () -> LanguagePluginResultCache.parseWorkflowForMetadata(PLUGIN, MAIN, "content", failing));
+        assertEquals(2, calls.get());
+    }
+
+    private Supplier<WorkflowMetadata> metadata() {
+        return () -> {
+            calls.incrementAndGet();
+            final WorkflowMetadata workflowMetadata = new WorkflowMetadata();
+            workflowMetadata.setAuthor("Shakespeare");
+            return workflowMetadata;
+        };
+    }
+
+    private Function<FileReader, Map<String, FileMetadata>> index() {
+        return fileReader -> {
+            calls.incrementAndGet();
+            final Map<String, FileMetadata> indexedFiles = new HashMap<>();
+            fileReader.listFiles("/");
+            indexedFiles.put(IMPORTED, new FileMetadata(fileReader.readFile(IMPORTED), GenericFileType.IMPORTED_DESCRIPTOR, null));
+            return indexedFiles;
+        };
+    }
+}
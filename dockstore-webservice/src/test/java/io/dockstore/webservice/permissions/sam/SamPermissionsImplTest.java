@@ -23,6 +23,7 @@ import io.dockstore.webservice.core.TokenType;
 import io.dockstore.webservice.core.User;
 import io.dockstore.webservice.core.User.Profile;
 import io.dockstore.webservice.core.Workflow;
+import io.dockstore.webservice.helpers.CacheTestHelper;
 import io.dockstore.webservice.jdbi.TokenDAO;
 import io.dockstore.webservice.permissions.Permission;
 import io.dockstore.webservice.permissions.Role;
@@ -46,6 +47,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import org.apache.http.HttpStatus;
 import org.hamcrest.CoreMatchers;
 import org.hamcrest.MatcherAssert;
@@ -638,6 +644,99 @@ class SamPermissionsImplTest {
         }
     }
 
+    @Test
+    void testDecisionsAreCached() throws ApiException {
+        final String resourceId = SamConstants.WORKFLOW_PREFIX + FOO_WORKFLOW_NAME;
+        when(resourcesApiMock.resourceAction(SamConstants.RESOURCE_TYPE, resourceId, SamConstants.toSamAction(Action.READ)))
+                .thenReturn(Boolean.TRUE);
+        assertTrue(samPermissionsImpl.canDoAction(janeDoeUserMock, workflowInstance, Action.READ));
+        assertTrue(samPermissionsImpl.canDoAction(janeDoeUserMock, workflowInstance, Action.READ));
+        verify(resourcesApiMock, times(1)).resourceAction(SamConstants.RESOURCE_TYPE, resourceId, SamConstants.toSamAction(Action.READ));
+
+        // Cached per user
+        assertTrue(samPermissionsImpl.canDoAction(johnSmithUserMock, workflowInstance, Action.READ));
+        verify(resourcesApiMock, times(2)).resourceAction(SamConstants.RESOURCE_TYPE, resourceId, SamConstants.toSamAction(Action.READ));
+    }
+
+    @Test
+    void testErrorsAreNotCached() throws ApiException {
+        final String resourceId = SamConstants.WORKFLOW_PREFIX + FOO_WORKFLOW_NAME;
+        when(resourcesApiMock.resourceAction(SamConstants.RESOURCE_TYPE, resourceId, SamConstants.toSamAction(Action.READ)))
+                .thenThrow(new ApiException(HttpStatus.SC_INTERNAL_SERVER_ERROR, "Server error"))
+                .thenReturn(Boolean.TRUE);
+        assertFalse(samPermissionsImpl.canDoAction(janeDoeUserMock, workflowInstance, Action.READ));
+        assertTrue(samPermissionsImpl.canDoAction(janeDoeUserMock, workflowInstance, Action.READ));
+    }
+
+    @Test
+    void testSharedWorkflowsAreCached() throws ApiException {
+        when(resourcesApiMock.listResourcesAndPolicies(SamConstants.RESOURCE_TYPE))
+                .thenReturn(List.of(resourceAndAccessPolicyHelper(SamConstants.READ_POLICY)));
+        assertEquals(1, samPermissionsImpl.workflowsSharedWithUser(johnSmithUserMock).size());
+        assertEquals(1, samPermissionsImpl.workflowsSharedWithUser(johnSmithUserMock).size());
+        verify(resourcesApiMock, times(1)).listResourcesAndPolicies(SamConstants.RESOURCE_TYPE);
+    }
+
+    @Test
+    void testSetPermissionInvalidatesCache() throws ApiException {
+        final String resourceId = SamConstants.WORKFLOW_PREFIX + FOO_WORKFLOW_NAME;
+        when(resourcesApiMock.resourceAction(SamConstants.RESOURCE_TYPE, resourceId, SamConstants.toSamAction(Action.READ)))
+                .thenReturn(Boolean.FALSE, Boolean.TRUE);
+        when(resourcesApiMock.listResourcesAndPolicies(SamConstants.RESOURCE_TYPE))
+                .thenReturn(List.of(), List.of(resourceAndAccessPolicyHelper(SamConstants.READ_POLICY)));
+        when(resourcesApiMock.listResourcePolicies(SamConstants.RESOURCE_TYPE, resourceId))
+                .thenReturn(Collections.singletonList(readerAccessPolicyResponseEntry));
+        assertFalse(samPermissionsImpl.canDoAction(johnSmithUserMock, workflowInstance, Action.READ));
+        assertEquals(0, samPermissionsImpl.workflowsSharedWithUser(johnSmithUserMock).size());
+
+        samPermissionsImpl.setPermission(janeDoeUserMock, workflowInstance, readerPermission);
+        assertTrue(samPermissionsImpl.canDoAction(johnSmithUserMock, workflowInstance, Action.READ));
+        assertEquals(1, samPermissionsImpl.workflowsSharedWithUser(johnSmithUserMock).size());
+    }
+
+    @Test
+    void testDecisionLoadedDuringInvalidationIsNotCached() throws Exception {
+        final String resourceId = SamConstants.WORKFLOW_PREFIX + FOO_WORKFLOW_NAME;
+        final CountDownLatch loading = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        when(resourcesApiMock.resourceAction(SamConstants.RESOURCE_TYPE, resourceId, SamConstants.toSamAction(Action.READ)))
+                .thenAnswer(invocation -> {
+                    loading.countDown();
+                    release.await(10, TimeUnit.SECONDS);
+                    return Boolean.FALSE;
+                })
+                .thenReturn(Boolean.TRUE);
+        when(resourcesApiMock.listResourcePolicies(SamConstants.RESOURCE_TYPE, resourceId))
+                .thenReturn(Collections.singletonList(readerAccessPolicyResponseEntry));
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<Boolean> decision = executor.submit(() -> samPermissionsImpl.canDoAction(johnSmithUserMock, workflowInstance, Action.READ));
+            assertTrue(loading.await(10, TimeUnit.SECONDS));
+            samPermissionsImpl.setPermission(janeDoeUserMock, workflowInstance, readerPermission);
+            release.countDown();
+            assertFalse(decision.get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        // the decision from before the permission was set was not cached
+        assertTrue(samPermissionsImpl.canDoAction(johnSmithUserMock, workflowInstance, Action.READ));
+    }
+
+    @Test
+    void testConcurrentDecisionsAreCoalesced() throws Exception {
+        final String resourceId = SamConstants.WORKFLOW_PREFIX + FOO_WORKFLOW_NAME;
+        final CacheTestHelper.BlockedLoad load = new CacheTestHelper.BlockedLoad();
+        when(resourcesApiMock.resourceAction(SamConstants.RESOURCE_TYPE, resourceId, SamConstants.toSamAction(Action.READ)))
+                .thenAnswer(invocation -> {
+                    load.await();
+                    return Boolean.TRUE;
+                });
+        for (Boolean result : load.callConcurrently(() -> samPermissionsImpl.canDoAction(janeDoeUserMock, workflowInstance, Action.READ))) {
+            assertTrue(result);
+        }
+        verify(resourcesApiMock, times(1)).resourceAction(SamConstants.RESOURCE_TYPE, resourceId, SamConstants.toSamAction(Action.READ));
+    }
+
     private void setupInitializePermissionsMocks(String encodedPath) {
         try {
             doNothing().when(resourcesApiMock).createResourceWithDefaults(anyString(), anyString());
@@ -1,22 +1,54 @@
 package io.dockstore.webservice.resources.proposedGA4GH;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import com.google.api.client.util.Charsets;
 import com.google.common.io.Files;
+import io.dockstore.common.metrics.ExecutionStatus;
+import io.dockstore.common.metrics.ExecutionsRequestBody;
+import io.dockstore.common.metrics.RunExecution;
 import io.dockstore.webservice.CustomWebApplicationException;
+import io.dockstore.webservice.core.metrics.ExecutionResponse;
+import io.dockstore.webservice.core.metrics.ExecutionsResponseBody;
 import io.dropwizard.testing.ResourceHelpers;
 import java.io.File;
 import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
 import org.apache.commons.lang3.StringUtils;
 import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
 
 class ToolsApiExtendedServiceImplTest {
 
     private final String placeholderStr = "PLACEHOLDER";
+    private final Map<String, String> writtenFiles = new ConcurrentHashMap<>();
+    private final Map<String, List<String>> indexedFiles = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setup() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
 
     /**
      * Tests that ES requests with long search terms fail.
@@ -110,4 +142,80 @@ class ToolsApiExtendedServiceImplTest {
         JSONObject emptyJson = new JSONObject("{}");
         assertEquals("", ToolsApiExtendedServiceImpl.getSearchQueryJsonIncludeKey(emptyJson));
     }
+
+    @Test
+    void testSubmitBatch() {
+        List<ExecutionsRequestBody> batch = List.of(executions("a1", "a2"), executions("b1"), executions("c1"));
+        ExecutionsResponseBody response = ToolsApiExtendedServiceImpl.submitBatch(batch, executor, writtenFiles::put, indexedFiles::put);
+
+        assertEquals(List.of("a1", "a2", "b1", "c1"), response.getExecutionResponses().stream().map(ExecutionResponse::getExecutionId).toList());
+        assertTrue(response.getExecutionResponses().stream().allMatch(executionResponse -> executionResponse.getStatus() == 200));
+        // each submission is written to its own file, and its executions are indexed to that file
+        assertEquals(3, writtenFiles.size());
+        assertEquals(writtenFiles.keySet(), indexedFiles.keySet());
+        assertEquals(Set.of(List.of("a1", "a2"), List.of("b1"), List.of("c1")), Set.copyOf(indexedFiles.values()));
+        assertTrue(writtenFiles.keySet().stream().allMatch(fileName -> fileName.endsWith(".json")));
+    }
+
+    @Test
+    void testSubmitBatchPartialFailure() {
+        List<ExecutionsRequestBody> batch = List.of(executions("a1"), executions("b1", "b2"), executions("c1"));
+        ExecutionsResponseBody response = ToolsApiExtendedServiceImpl.submitBatch(batch, executor, (fileName, metricsData) -> {
+            if (metricsData.contains("b1")) {
+                throw new IllegalStateException("S3 is unavailable");
+            }
+            writtenFiles.put(fileName, metricsData);
+        }, indexedFiles::put);
+
+        Map<String, ExecutionResponse> responses = response.getExecutionResponses().stream()
+            .collect(Collectors.toMap(ExecutionResponse::getExecutionId, executionResponse -> executionResponse));
+        assertEquals(Set.of("a1", "b1", "b2", "c1"), responses.keySet());
+        assertEquals(200, responses.get("a1").getStatus());
+        assertEquals(200, responses.get("c1").getStatus());
+        for (String failed : List.of("b1", "b2")) {
+            assertEquals(400, responses.get(failed).getStatus());
+            assertTrue(responses.get(failed).getError().contains("S3 is unavailable"));
+        }
+        // only the executions of the files that were written are indexed
+        assertEquals(Set.of(List.of("a1"), List.of("c1")), Set.copyOf(indexedFiles.values()));
+    }
+
+    @Test
+    void testSubmitBatchSerializesBeforeWriting() {
+        // the second submission cannot be serialized
+        ExecutionsRequestBody unserializable = Mockito.spy(executions("b1"));
+        Mockito.doThrow(new IllegalStateException("cannot serialize")).when(unserializable).getRunExecutions();
+        List<ExecutionsRequestBody> batch = List.of(executions("a1"), unserializable, executions("c1"));
+
+        assertThrows(CustomWebApplicationException.class, () -> ToolsApiExtendedServiceImpl.submitBatch(batch, executor, writtenFiles::put, indexedFiles::put));
+        // nothing is written, so no file is left without an index
+        assertTrue(writtenFiles.isEmpty());
+        assertTrue(indexedFiles.isEmpty());
+    }
+
+    @Test
+    void testSubmitBatchFileNamesDoNotCollide() {
+        List<String> fileNames = new ArrayList<>();
+        // batches submitted in the same millisecond must not overwrite each other's files
+        for (int i = 0; i < 10; i++) {
+            ToolsApiExtendedServiceImpl.submitBatch(List.of(executions("a" + i), executions("b" + i)), executor, (fileName, metricsData) -> fileNames.add(fileName),
+                indexedFiles::put);
+        }
+        assertEquals(20, fileNames.size());
+        assertEquals(20, Set.copyOf(fileNames).size());
+        assertFalse(fileNames.stream().anyMatch(fileName -> fileName.contains("/")));
+    }
+
+    private static ExecutionsRequestBody executions(String... executionIds) {
+        List<RunExecution> runExecutions = new ArrayList<>();
+        for (String executionId : executionIds) {
+            RunExecution runExecution = new RunExecution(ExecutionStatus.SUCCESSFUL);
+            runExecution.setExecutionId(executionId);
+            runExecution.setDateExecuted(Instant.now().toString());
+            runExecutions.add(runExecution);
+        }
+        ExecutionsRequestBody executionsRequestBody = new ExecutionsRequestBody();
+        executionsRequestBody.setRunExecutions(runExecutions);
+        return executionsRequestBody;
+    }
 }
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2025 OICR and UCSC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.openapi.api.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.openapi.api.impl.ToolsApiServiceImpl.TrsCursor;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import org.junit.jupiter.api.Test;
+
+class TrsCursorTest {
+
+    @Test
+    void testEncodeAndDecode() {
+        assertEquals(new TrsCursor(0, 0), TrsCursor.decode(ToolsApiServiceImpl.CURSOR_OFFSET));
+        TrsCursor cursor = new TrsCursor(3, 12345L);
+        String offset = cursor.encode();
+        assertTrue(offset.startsWith(ToolsApiServiceImpl.CURSOR_OFFSET));
+        assertEquals(cursor, TrsCursor.decode(offset));
+    }
+
+    @Test
+    void testInvalidCursors() {
+        assertThrows(IllegalArgumentException.class, () -> TrsCursor.decode("cursorfoo"));
+        assertThrows(IllegalArgumentException.class, () -> TrsCursor.decode("cursor-!!!"));
+        assertThrows(IllegalArgumentException.class, () -> TrsCursor.decode("cursor-" + encode("9:1")));
+        assertThrows(IllegalArgumentException.class, () -> TrsCursor.decode("cursor-" + encode("1:x")));
+    }
+
+    private static String encode(String position) {
+        return Base64.getUrlEncoder().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+}